@@ -4,6 +4,7 @@ import bio.terra.common.exception.*;
 import bio.terra.pearl.api.admin.model.ErrorReport;
 import bio.terra.pearl.core.service.exception.PermissionDeniedException;
 import com.auth0.jwt.exceptions.JWTDecodeException;
+import java.util.concurrent.RejectedExecutionException;
 import javax.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -64,6 +65,12 @@ public class GlobalExceptionHandler {
     return buildErrorReport(ex, HttpStatus.NOT_FOUND, request);
   }
 
+  /** e.g. when the bulk operation queue is full -- the request can be retried later */
+  @ExceptionHandler({RejectedExecutionException.class})
+  public ResponseEntity<ErrorReport> serviceUnavailableExceptionHandler(Exception ex) {
+    return buildErrorReport(ex, HttpStatus.SERVICE_UNAVAILABLE, request);
+  }
+
   // catchall - internal server error
   @ExceptionHandler({InternalServerErrorException.class, Exception.class})
   public ResponseEntity<ErrorReport> internalErrorExceptionHandler(Exception ex) {
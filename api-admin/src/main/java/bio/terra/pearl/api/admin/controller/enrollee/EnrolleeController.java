@@ -3,7 +3,6 @@ package bio.terra.pearl.api.admin.controller.enrollee;
 import bio.terra.pearl.api.admin.api.EnrolleeApi;
 import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.api.admin.service.enrollee.EnrolleeExtService;
-import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -59,17 +58,5 @@ public class EnrolleeController implements EnrolleeApi {
     }
   }
 
-  @Override
-  public ResponseEntity<Object> enrolleesWithKits(
-      String portalShortcode, String studyShortcode, String envName) {
-    AdminUser adminUser = authUtilService.requireAdminUser(request);
-    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
-
-    var enrollees =
-        enrolleeExtService.findForKitManagement(
-            adminUser, portalShortcode, studyShortcode, environmentName);
-    return ResponseEntity.ok(enrollees);
-  }
-
   public record WithdrawnResponse(UUID withdrawnEnrolleeId) {}
 }
@@ -6,6 +6,7 @@ import bio.terra.pearl.api.admin.service.forms.SurveyExtService;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
+import bio.terra.pearl.core.service.BulkOperationExecutor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
@@ -62,6 +63,57 @@ public class ConfiguredSurveyController implements ConfiguredSurveyApi {
     return ResponseEntity.ok(savedSes);
   }
 
+  /**
+   * queues assigning the survey to existing enrollees, returning the assignment's status. The body
+   * is optional, and can specify a notification config to send to each enrollee the survey is
+   * assigned to.
+   */
+  @Override
+  public ResponseEntity<Object> assignToEnrollees(
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      UUID configuredSurveyId,
+      Object body) {
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    SurveyAssignment assignment =
+        body == null
+            ? new SurveyAssignment(null)
+            : objectMapper.convertValue(body, SurveyAssignment.class);
+
+    BulkOperationExecutor.BulkOperationStatus status =
+        surveyExtService.assignToExistingEnrollees(
+            portalShortcode,
+            studyShortcode,
+            environmentName,
+            configuredSurveyId,
+            assignment.notificationConfigId(),
+            adminUser);
+    return ResponseEntity.accepted().body(status);
+  }
+
+  @Override
+  public ResponseEntity<Object> getAssignmentStatus(
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      UUID configuredSurveyId,
+      UUID operationId) {
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+
+    BulkOperationExecutor.BulkOperationStatus status =
+        surveyExtService.getAssignmentStatus(
+            portalShortcode,
+            studyShortcode,
+            environmentName,
+            configuredSurveyId,
+            operationId,
+            adminUser);
+    return ResponseEntity.ok(status);
+  }
+
   @Override
   public ResponseEntity<Void> remove(
       String portalShortcode, String studyShortcode, String envName, UUID configuredSurveyId) {
@@ -72,4 +124,7 @@ public class ConfiguredSurveyController implements ConfiguredSurveyApi {
         portalShortcode, studyShortcode, environmentName, configuredSurveyId, adminUser);
     return ResponseEntity.noContent().build();
   }
+
+  /** options for assigning a survey to existing enrollees. notificationConfigId is optional. */
+  public record SurveyAssignment(UUID notificationConfigId) {}
 }
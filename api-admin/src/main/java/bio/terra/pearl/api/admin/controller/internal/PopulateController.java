@@ -93,11 +93,20 @@ public class PopulateController implements PopulateApi {
 
   @Override
   public ResponseEntity<Void> bulkPopulateEnrollees(
-      String portalShortcode, String envName, String studyShortcode, Integer numEnrollees) {
+      String portalShortcode,
+      String envName,
+      String studyShortcode,
+      Integer numEnrollees,
+      Boolean batched) {
     EnvironmentName environmentName = EnvironmentName.valueOf(envName);
     AdminUser user = authUtilService.requireAdminUser(request);
     populateExtService.bulkPopulateEnrollees(
-        portalShortcode, environmentName, studyShortcode, numEnrollees, user);
+        portalShortcode,
+        environmentName,
+        studyShortcode,
+        numEnrollees,
+        Boolean.TRUE.equals(batched),
+        user);
     return ResponseEntity.noContent().build();
   }
 }
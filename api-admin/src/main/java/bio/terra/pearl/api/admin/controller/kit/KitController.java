@@ -47,6 +47,37 @@ public class KitController implements KitApi {
     return ResponseEntity.ok(kits);
   }
 
+  @Override
+  public ResponseEntity<Object> enrolleeKitSummaries(
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      Boolean consented,
+      Boolean requiredSurveysComplete,
+      Boolean kitRequested,
+      String sortProperty,
+      String sortDir,
+      Integer pageIndex,
+      Integer pageSize) {
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+
+    var summaries =
+        kitExtService.getEnrolleeKitSummaries(
+            adminUser,
+            portalShortcode,
+            studyShortcode,
+            environmentName,
+            consented,
+            requiredSurveysComplete,
+            kitRequested,
+            sortProperty,
+            "desc".equalsIgnoreCase(sortDir),
+            pageIndex,
+            pageSize);
+    return ResponseEntity.ok(summaries);
+  }
+
   @ExceptionHandler(PepperApiException.class)
   public ResponseEntity<ErrorReport> handlePepperApiException(PepperApiException e) {
     return GlobalExceptionHandler.badRequestHandler(e, request);
@@ -6,6 +6,13 @@ import bio.terra.pearl.api.admin.service.MetricsExtService;
 import bio.terra.pearl.core.dao.metrics.MetricName;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.metrics.TimeBucket;
+import bio.terra.pearl.core.model.metrics.TimeRange;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -36,4 +43,66 @@ public class MetricsController implements MetricsApi {
             adminUser, portalShortcode, studyShortcode, environmentName, metric);
     return ResponseEntity.ok(result);
   }
+
+  @Override
+  public ResponseEntity<Object> bucketedMetricByName(
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      String metricName,
+      String bucket,
+      String start,
+      String end) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    MetricName metric = MetricName.valueOf(metricName.toUpperCase());
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+    var result =
+        metricsExtService.loadBucketedMetrics(
+            adminUser,
+            portalShortcode,
+            studyShortcode,
+            environmentName,
+            metric,
+            parseBucket(bucket),
+            parseRange(start, end));
+    return ResponseEntity.ok(result);
+  }
+
+  @Override
+  public ResponseEntity<Object> metricsDashboard(
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      String metricNames,
+      String bucket,
+      String start,
+      String end) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    Set<MetricName> metrics =
+        Arrays.stream(metricNames.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .map(name -> MetricName.valueOf(name.toUpperCase()))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+    var result =
+        metricsExtService.loadMetricsDashboard(
+            adminUser,
+            portalShortcode,
+            studyShortcode,
+            environmentName,
+            metrics,
+            parseBucket(bucket),
+            parseRange(start, end));
+    return ResponseEntity.ok(result);
+  }
+
+  private TimeBucket parseBucket(String bucket) {
+    return bucket == null ? TimeBucket.DAY : TimeBucket.valueOf(bucket.toUpperCase());
+  }
+
+  private TimeRange parseRange(String start, String end) {
+    return new TimeRange(
+        start == null ? null : Instant.parse(start), end == null ? null : Instant.parse(end));
+  }
 }
@@ -3,12 +3,16 @@ package bio.terra.pearl.api.admin.service;
 import bio.terra.common.exception.UnauthorizedException;
 import bio.terra.common.iam.BearerTokenFactory;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.admin.AdminUserWithPermissions;
+import bio.terra.pearl.core.model.admin.PortalAdminUser;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.study.PortalStudy;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.service.admin.AdminAuthCache;
 import bio.terra.pearl.core.service.admin.AdminUserService;
+import bio.terra.pearl.core.service.admin.PortalAdminUserService;
 import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.exception.PermissionDeniedException;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
@@ -16,9 +20,12 @@ import bio.terra.pearl.core.service.portal.PortalService;
 import bio.terra.pearl.core.service.study.PortalStudyService;
 import bio.terra.pearl.core.service.survey.SurveyService;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +38,8 @@ public class AuthUtilService {
   private PortalStudyService portalStudyService;
   private EnrolleeService enrolleeService;
   private SurveyService surveyService;
+  private PortalAdminUserService portalAdminUserService;
+  private AdminAuthCache adminAuthCache;
 
   public AuthUtilService(
       AdminUserService adminUserService,
@@ -38,25 +47,77 @@ public class AuthUtilService {
       PortalService portalService,
       PortalStudyService portalStudyService,
       EnrolleeService enrolleeService,
-      SurveyService surveyService) {
+      SurveyService surveyService,
+      PortalAdminUserService portalAdminUserService,
+      AdminAuthCache adminAuthCache) {
     this.adminUserService = adminUserService;
     this.bearerTokenFactory = bearerTokenFactory;
     this.portalService = portalService;
     this.portalStudyService = portalStudyService;
     this.enrolleeService = enrolleeService;
     this.surveyService = surveyService;
+    this.portalAdminUserService = portalAdminUserService;
+    this.adminAuthCache = adminAuthCache;
   }
 
-  /** gets the user from the request, throwing an exception if not present */
+  /**
+   * gets the user from the request, throwing an exception if not present. Resolved users are
+   * cached, so repeat calls from the same session don't hit the database.
+   */
   public AdminUser requireAdminUser(HttpServletRequest request) {
     String token = bearerTokenFactory.from(request).getToken();
-    var decodedJWT = JWT.decode(token);
-    var email = decodedJWT.getClaim("email").asString();
-    Optional<AdminUser> userOpt = adminUserService.findByUsername(email);
+    return findAdminAuth(token)
+        .orElseThrow(() -> new UnauthorizedException("User not found for token"))
+        .user();
+  }
+
+  /**
+   * resolves the token to a user, along with their portal memberships and permissions, from the
+   * cache if possible. Otherwise the user is loaded and cached until the token expires (or the
+   * cache's max ttl, whichever is sooner)
+   */
+  public Optional<AdminAuthCache.CachedAdminAuth> findAdminAuth(String token) {
+    Optional<AdminAuthCache.CachedAdminAuth> cached = adminAuthCache.get(token);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    // taken before loading, so an invalidation during the load keeps its result out of the cache
+    long loadGeneration = adminAuthCache.beginLoad();
+    DecodedJWT decodedJWT = JWT.decode(token);
+    String email = decodedJWT.getClaim("email").asString();
+    Optional<AdminUserWithPermissions> userOpt =
+        adminUserService.findByUsernameWithPermissions(email);
     if (userOpt.isEmpty()) {
-      throw new UnauthorizedException("User not found: " + email);
+      return Optional.empty();
+    }
+    AdminUser user = userOpt.get().user();
+    Set<UUID> portalIds =
+        portalAdminUserService.findByUserId(user.getId()).stream()
+            .map(PortalAdminUser::getPortalId)
+            .collect(Collectors.toSet());
+    return Optional.of(
+        adminAuthCache.put(
+            token,
+            user,
+            portalIds,
+            userOpt.get().portalPermissions(),
+            decodedJWT.getExpiresAtAsInstant(),
+            loadGeneration));
+  }
+
+  /**
+   * checks portal membership against the cached principal if we have one, falling back to the
+   * database otherwise
+   */
+  protected boolean isUserInPortal(AdminUser user, UUID portalId) {
+    if (user.isSuperuser()) {
+      return true;
+    }
+    Optional<Set<UUID>> cachedPortalIds = adminAuthCache.findPortalIds(user.getId());
+    if (cachedPortalIds.isPresent()) {
+      return cachedPortalIds.get().contains(portalId);
     }
-    return userOpt.get();
+    return portalService.checkAdminIsInPortal(user, portalId);
   }
 
   /**
@@ -67,7 +128,7 @@ public class AuthUtilService {
     Optional<Portal> portalOpt = portalService.findOneByShortcode(portalShortcode);
     if (portalOpt.isPresent()) {
       Portal portal = portalOpt.get();
-      if (portalService.checkAdminIsInPortal(user, portal.getId())) {
+      if (isUserInPortal(user, portal.getId())) {
         return portal;
       }
     }
@@ -102,7 +163,7 @@ public class AuthUtilService {
     // least one
     List<PortalStudy> portalStudies = portalStudyService.findByEnrollee(enrolleeShortcode);
     List<UUID> portalIds = portalStudies.stream().map(PortalStudy::getPortalId).toList();
-    if (!portalService.checkAdminInAtLeastOnePortal(user, portalIds)) {
+    if (portalIds.stream().noneMatch(portalId -> isUserInPortal(user, portalId))) {
       throw new PermissionDeniedException(
           "User %s does not have permissions on enrollee %s or enrollee does not exist"
               .formatted(user.getUsername(), enrolleeShortcode));
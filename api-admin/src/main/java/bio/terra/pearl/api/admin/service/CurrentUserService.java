@@ -1,8 +1,8 @@
 package bio.terra.pearl.api.admin.service;
 
 import bio.terra.pearl.core.model.admin.AdminUserWithPermissions;
+import bio.terra.pearl.core.service.admin.AdminAuthCache;
 import bio.terra.pearl.core.service.admin.AdminUserService;
-import com.auth0.jwt.JWT;
 import java.time.Instant;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -10,9 +10,11 @@ import org.springframework.stereotype.Service;
 @Service
 public class CurrentUserService {
   private AdminUserService adminUserService;
+  private AuthUtilService authUtilService;
 
-  public CurrentUserService(AdminUserService adminUserService) {
+  public CurrentUserService(AdminUserService adminUserService, AuthUtilService authUtilService) {
     this.adminUserService = adminUserService;
+    this.authUtilService = authUtilService;
   }
 
   public Optional<AdminUserWithPermissions> tokenLogin(String token) {
@@ -29,10 +31,11 @@ public class CurrentUserService {
     return loadByToken(token);
   }
 
+  /** served from the same cache as request authorization, so refreshes don't hit the database */
   protected Optional<AdminUserWithPermissions> loadByToken(String token) {
-    var decodedJWT = JWT.decode(token);
-    var email = decodedJWT.getClaim("email").asString();
-    return adminUserService.findByUsernameWithPermissions(email);
+    return authUtilService
+        .findAdminAuth(token)
+        .map(AdminAuthCache.CachedAdminAuth::toUserWithPermissions);
   }
 
   public void logout(String token) {
@@ -5,10 +5,14 @@ import bio.terra.pearl.core.dao.metrics.MetricsDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.model.metrics.BasicMetricDatum;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.TimeBucket;
 import bio.terra.pearl.core.model.metrics.TimeRange;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -46,4 +50,37 @@ public class MetricsExtService {
     }
     throw new IllegalArgumentException("Unrecognized metric name '" + metricName + "'");
   }
+
+  /** counts of the metric per time bucket and subcategory, e.g. for charting */
+  public List<BucketedMetricDatum> loadBucketedMetrics(
+      AdminUser user,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      MetricName metricName,
+      TimeBucket bucket,
+      TimeRange range) {
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    StudyEnvironment studyEnv =
+        studyEnvironmentService.findByStudy(studyShortcode, environmentName).get();
+    return metricsDao.bucketedCounts(studyEnv.getId(), metricName, bucket, range);
+  }
+
+  /**
+   * bucketed counts for several metrics, for rendering a whole dashboard from one request. The user
+   * is authorized and the environment looked up once, and the metrics are counted in one query.
+   */
+  public Map<MetricName, List<BucketedMetricDatum>> loadMetricsDashboard(
+      AdminUser user,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      Collection<MetricName> metricNames,
+      TimeBucket bucket,
+      TimeRange range) {
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    StudyEnvironment studyEnv =
+        studyEnvironmentService.findByStudy(studyShortcode, environmentName).get();
+    return metricsDao.bucketedCounts(studyEnv.getId(), metricNames, bucket, range);
+  }
 }
@@ -122,8 +122,18 @@ public class PopulateExtService {
       EnvironmentName envName,
       String studyShortcode,
       Integer numEnrollees,
+      boolean batched,
       AdminUser user) {
     authorizeUser(user);
+    if (batched) {
+      try {
+        enrolleePopulator.bulkPopulateSynthetic(
+            portalShortcode, envName, studyShortcode, numEnrollees, null);
+      } catch (IOException e) {
+        throw new IllegalArgumentException("populate failed", e);
+      }
+      return;
+    }
 
     List<String> usernamesToLink =
         portalParticipantUserPopulator.bulkPopulateParticipants(
@@ -16,15 +16,19 @@ public class ScheduledDataRepoExportService {
   private static final Logger logger = LoggerFactory.getLogger(DataRepoExportService.class);
   private DataRepoExportService dataRepoExportService;
   private Environment env;
+  private ScheduledJobRunner scheduledJobRunner;
 
   /* NOTE: Scheduled dataset creation and ingest was removed in https://github.com/broadinstitute/pearl/pull/367
     If you'd like to restore that functionality, reference that PR so you don't have to re-write the code.
   */
 
   public ScheduledDataRepoExportService(
-      Environment env, DataRepoExportService dataRepoExportService) {
+      Environment env,
+      DataRepoExportService dataRepoExportService,
+      ScheduledJobRunner scheduledJobRunner) {
     this.env = env;
     this.dataRepoExportService = dataRepoExportService;
+    this.scheduledJobRunner = scheduledJobRunner;
   }
 
   @Scheduled(timeUnit = TimeUnit.MINUTES, fixedDelay = 10, initialDelay = 0)
@@ -45,7 +49,8 @@ public class ScheduledDataRepoExportService {
   public void pollRunningJobs() {
     if (isTdrConfigured()) {
       logger.info("Polling running TDR jobs...");
-      dataRepoExportService.pollRunningJobs();
+      scheduledJobRunner.run(
+          "DataRepoExportService.pollRunningJobs", () -> dataRepoExportService.pollRunningJobs());
     } else {
       logger.error(
           "Error: Skipping TDR job polling, as TDR has not been configured for this environment.");
@@ -0,0 +1,34 @@
+package bio.terra.pearl.api.admin.service;
+
+import bio.terra.pearl.core.config.DbWorkload;
+import bio.terra.pearl.core.dao.stats.QueryStatsReporter;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the body of a scheduled job: on the batch connection pool, timed, and with its sql statements
+ * counted and reported under the job's name.
+ */
+@Component
+public class ScheduledJobRunner {
+  private final QueryStatsReporter queryStatsReporter;
+  private final Instrumentation instrumentation;
+
+  public ScheduledJobRunner(
+      QueryStatsReporter queryStatsReporter, Instrumentation instrumentation) {
+    this.queryStatsReporter = queryStatsReporter;
+    this.instrumentation = instrumentation;
+  }
+
+  public void run(String jobName, Runnable job) {
+    queryStatsReporter.run(
+        QueryStatsReporter.JOB_SCOPE,
+        jobName,
+        () ->
+            instrumentation.run(
+                Instrumentation.SCHEDULED_JOB_TIMER,
+                () -> DbWorkload.BATCH.run(job),
+                "job",
+                jobName));
+  }
+}
@@ -1,5 +1,6 @@
 package bio.terra.pearl.api.admin.service;
 
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService;
 import bio.terra.pearl.core.service.kit.KitRequestService;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
@@ -11,9 +12,16 @@ import org.springframework.stereotype.Service;
 public class ScheduledKitStatusService {
   private static final Logger logger = LoggerFactory.getLogger(ScheduledKitStatusService.class);
   private final KitRequestService kitRequestService;
+  private final EnrolleeKitSummaryService enrolleeKitSummaryService;
+  private final ScheduledJobRunner scheduledJobRunner;
 
-  public ScheduledKitStatusService(KitRequestService kitRequestService) {
+  public ScheduledKitStatusService(
+      KitRequestService kitRequestService,
+      EnrolleeKitSummaryService enrolleeKitSummaryService,
+      ScheduledJobRunner scheduledJobRunner) {
     this.kitRequestService = kitRequestService;
+    this.enrolleeKitSummaryService = enrolleeKitSummaryService;
+    this.scheduledJobRunner = scheduledJobRunner;
   }
   /**
    * Update kit statuses from Pepper at 12:30am every day. We're _very_ generous with lockAtMostFor
@@ -26,7 +34,24 @@ public class ScheduledKitStatusService {
       lockAtMostFor = "360m")
   public void fetchUpdatedKitStatuses() {
     logger.info("Updating kit status from Pepper...");
-    kitRequestService.syncAllKitStatusesFromPepper();
+    scheduledJobRunner.run(
+        "KitRequestService.updateAllKitStatuses",
+        () -> kitRequestService.syncAllKitStatusesFromPepper());
     logger.info("Finished updating kit status.");
   }
+
+  /**
+   * Recompute the kit management summaries at 7am UTC (night in the US). They're refreshed as
+   * enrollees, tasks and kits are written, so this only catches summaries left stale by concurrent
+   * writes to the same enrollee.
+   */
+  @Scheduled(cron = "0 0 7 * * *", zone = "UTC")
+  @SchedulerLock(
+      name = "EnrolleeKitSummaryService.rebuild",
+      lockAtLeastFor = "1m",
+      lockAtMostFor = "30m")
+  public void rebuildKitSummaries() {
+    scheduledJobRunner.run(
+        "EnrolleeKitSummaryService.rebuild", () -> enrolleeKitSummaryService.rebuild());
+  }
 }
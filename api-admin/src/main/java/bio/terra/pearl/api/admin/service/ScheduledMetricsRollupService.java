@@ -0,0 +1,41 @@
+package bio.terra.pearl.api.admin.service;
+
+import bio.terra.pearl.core.service.metrics.MetricsRollupService;
+import java.util.concurrent.TimeUnit;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the daily metric rollups current. The frequent refresh only touches days with changed data, and the nightly
+ * rebuild picks up anything a refresh can't see, like deleted enrollees.
+ */
+@Service
+public class ScheduledMetricsRollupService {
+  private MetricsRollupService metricsRollupService;
+  private ScheduledJobRunner scheduledJobRunner;
+
+  public ScheduledMetricsRollupService(
+      MetricsRollupService metricsRollupService, ScheduledJobRunner scheduledJobRunner) {
+    this.metricsRollupService = metricsRollupService;
+    this.scheduledJobRunner = scheduledJobRunner;
+  }
+
+  @Scheduled(timeUnit = TimeUnit.MINUTES, fixedDelay = 10, initialDelay = 1)
+  @SchedulerLock(
+      name = "MetricsRollupService.refresh",
+      lockAtLeastFor = "1m",
+      lockAtMostFor = "9m")
+  public void refreshRollups() {
+    scheduledJobRunner.run("MetricsRollupService.refresh", () -> metricsRollupService.refresh());
+  }
+
+  @Scheduled(cron = "0 0 7 * * *", zone = "UTC") // 7am UTC is night in the US
+  @SchedulerLock(
+      name = "MetricsRollupService.rebuild",
+      lockAtLeastFor = "1m",
+      lockAtMostFor = "30m")
+  public void rebuildRollups() {
+    scheduledJobRunner.run("MetricsRollupService.rebuild", () -> metricsRollupService.rebuild());
+  }
+}
@@ -0,0 +1,34 @@
+package bio.terra.pearl.api.admin.service;
+
+import bio.terra.pearl.core.service.participant.EnrolleeSearchIndexService;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recomputes the keyword search index nightly. It's refreshed as enrollees and profiles are
+ * written, so this only catches rows left stale by concurrent writes, or a change to the indexed
+ * profile fields.
+ */
+@Service
+public class ScheduledSearchIndexService {
+  private final EnrolleeSearchIndexService enrolleeSearchIndexService;
+  private final ScheduledJobRunner scheduledJobRunner;
+
+  public ScheduledSearchIndexService(
+      EnrolleeSearchIndexService enrolleeSearchIndexService,
+      ScheduledJobRunner scheduledJobRunner) {
+    this.enrolleeSearchIndexService = enrolleeSearchIndexService;
+    this.scheduledJobRunner = scheduledJobRunner;
+  }
+
+  @Scheduled(cron = "0 15 7 * * *", zone = "UTC") // just after the other 7am UTC rebuilds
+  @SchedulerLock(
+      name = "EnrolleeSearchIndexService.rebuild",
+      lockAtLeastFor = "1m",
+      lockAtMostFor = "30m")
+  public void rebuildSearchIndex() {
+    scheduledJobRunner.run(
+        "EnrolleeSearchIndexService.rebuild", () -> enrolleeSearchIndexService.rebuild());
+  }
+}
@@ -56,15 +56,6 @@ public class EnrolleeExtService {
     return enrolleeSearchService.search(studyShortcode, environmentName, facets);
   }
 
-  public List<Enrollee> findForKitManagement(
-      AdminUser user,
-      String portalShortcode,
-      String studyShortcode,
-      EnvironmentName environmentName) {
-    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
-    return enrolleeService.findForKitManagement(studyShortcode, environmentName);
-  }
-
   public Enrollee findWithAdminLoad(AdminUser user, String enrolleeShortcode) {
     Enrollee enrollee = authUtilService.authAdminUserToEnrollee(user, enrolleeShortcode);
     return enrolleeService.loadForAdminView(enrollee);
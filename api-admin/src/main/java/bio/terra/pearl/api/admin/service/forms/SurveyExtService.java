@@ -4,14 +4,20 @@ import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.core.model.BaseEntity;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.notification.NotificationConfig;
 import bio.terra.pearl.core.model.portal.Portal;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
 import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.service.BulkOperationExecutor;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.exception.NotFoundException;
+import bio.terra.pearl.core.service.notification.NotificationConfigService;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
+import bio.terra.pearl.core.service.survey.SurveyAssignmentService;
 import bio.terra.pearl.core.service.survey.SurveyService;
 import java.util.*;
 import org.springframework.beans.BeanUtils;
@@ -24,16 +30,25 @@ public class SurveyExtService {
   private SurveyService surveyService;
   private StudyEnvironmentSurveyService studyEnvironmentSurveyService;
   private StudyEnvironmentService studyEnvironmentService;
+  private SurveyAssignmentService surveyAssignmentService;
+  private PortalEnvironmentService portalEnvironmentService;
+  private NotificationConfigService notificationConfigService;
 
   public SurveyExtService(
       AuthUtilService authUtilService,
       SurveyService surveyService,
       StudyEnvironmentSurveyService studyEnvironmentSurveyService,
-      StudyEnvironmentService studyEnvironmentService) {
+      StudyEnvironmentService studyEnvironmentService,
+      SurveyAssignmentService surveyAssignmentService,
+      PortalEnvironmentService portalEnvironmentService,
+      NotificationConfigService notificationConfigService) {
     this.authUtilService = authUtilService;
     this.surveyService = surveyService;
     this.studyEnvironmentSurveyService = studyEnvironmentSurveyService;
     this.studyEnvironmentService = studyEnvironmentService;
+    this.surveyAssignmentService = surveyAssignmentService;
+    this.portalEnvironmentService = portalEnvironmentService;
+    this.notificationConfigService = notificationConfigService;
   }
 
   public Survey get(String portalShortcode, String stableId, int version, AdminUser adminUser) {
@@ -152,6 +167,67 @@ public class SurveyExtService {
     return studyEnvironmentSurveyService.update(existing);
   }
 
+  /**
+   * starts assigning the configured survey to the enrollees already in the study environment.
+   * Unlike configuration changes, this can be done in any environment, since it's how a survey
+   * added to a live study reaches its existing participants. The cohort can be large, so the
+   * assignment runs in the background -- the returned status' id can be passed to
+   * getAssignmentStatus.
+   */
+  public BulkOperationExecutor.BulkOperationStatus assignToExistingEnrollees(
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName envName,
+      UUID configuredSurveyId,
+      UUID notificationConfigId,
+      AdminUser user) {
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    StudyEnvironment studyEnv = studyEnvironmentService.findByStudy(studyShortcode, envName).get();
+    StudyEnvironmentSurvey configuredSurvey = findConfiguredSurvey(studyEnv, configuredSurveyId);
+    PortalEnvironment portalEnv = portalEnvironmentService.findOne(portalShortcode, envName).get();
+    NotificationConfig notificationConfig = null;
+    if (notificationConfigId != null) {
+      notificationConfig =
+          notificationConfigService
+              .find(notificationConfigId)
+              .orElseThrow(() -> new NotFoundException("Notification config not found"));
+      if (!studyEnv.getId().equals(notificationConfig.getStudyEnvironmentId())) {
+        throw new IllegalArgumentException("Notification config does not belong to this study");
+      }
+    }
+    return surveyAssignmentService.startAssignmentToExistingEnrollees(
+        configuredSurvey, portalEnv.getId(), notificationConfig);
+  }
+
+  /** the progress, and once it's done the result, of an assignment started above */
+  public BulkOperationExecutor.BulkOperationStatus getAssignmentStatus(
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName envName,
+      UUID configuredSurveyId,
+      UUID operationId,
+      AdminUser user) {
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    StudyEnvironment studyEnv = studyEnvironmentService.findByStudy(studyShortcode, envName).get();
+    findConfiguredSurvey(studyEnv, configuredSurveyId);
+    return surveyAssignmentService
+        .findAssignmentStatus(configuredSurveyId, operationId)
+        .orElseThrow(() -> new NotFoundException("Survey assignment not found"));
+  }
+
+  /** the configured survey, confirming it belongs to the study environment */
+  protected StudyEnvironmentSurvey findConfiguredSurvey(
+      StudyEnvironment studyEnv, UUID configuredSurveyId) {
+    StudyEnvironmentSurvey configuredSurvey =
+        studyEnvironmentSurveyService
+            .find(configuredSurveyId)
+            .orElseThrow(() -> new NotFoundException("Configured survey not found"));
+    if (!studyEnv.getId().equals(configuredSurvey.getStudyEnvironmentId())) {
+      throw new IllegalArgumentException("Configured survey does not belong to this study");
+    }
+    return configuredSurvey;
+  }
+
   /**
    * confirms the user has access to the study and that the configured survey belongs to that study,
    * and that it's in the sandbox environment. Returns the study environment for which the change is
@@ -6,14 +6,22 @@ import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.model.kit.KitRequest;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.exception.NotFoundException;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService.EnrolleeKitSummaryPage;
 import bio.terra.pearl.core.service.kit.KitRequestService;
 import bio.terra.pearl.core.service.kit.pepper.PepperApiException;
 import bio.terra.pearl.core.service.kit.pepper.PepperParseException;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
 import bio.terra.pearl.core.service.study.StudyService;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -22,18 +30,29 @@ public class KitExtService {
   private final KitRequestService kitRequestService;
   private final StudyEnvironmentService studyEnvironmentService;
   private final StudyService studyService;
+  private final EnrolleeService enrolleeService;
+  private final EnrolleeKitSummaryService enrolleeKitSummaryService;
 
   public KitExtService(
       AuthUtilService authUtilService,
       KitRequestService kitRequestService,
       StudyEnvironmentService studyEnvironmentService,
-      StudyService studyService) {
+      StudyService studyService,
+      EnrolleeService enrolleeService,
+      EnrolleeKitSummaryService enrolleeKitSummaryService) {
     this.authUtilService = authUtilService;
     this.kitRequestService = kitRequestService;
     this.studyEnvironmentService = studyEnvironmentService;
     this.studyService = studyService;
+    this.enrolleeService = enrolleeService;
+    this.enrolleeKitSummaryService = enrolleeKitSummaryService;
   }
 
+  /**
+   * requests kits for a batch of enrollees. The user is authorized to the study once, and the
+   * enrollees are loaded in one query -- any that aren't in the study environment are reported as
+   * failures, as are any whose kit request fails.
+   */
   public KitRequestListResponse requestKits(
       AdminUser adminUser,
       String portalShortcode,
@@ -42,16 +61,35 @@ public class KitExtService {
       List<String> enrolleeShortcodes,
       String kitType) {
     authUtilService.authUserToStudy(adminUser, portalShortcode, studyShortcode);
+    StudyEnvironment studyEnvironment =
+        studyEnvironmentService.findByStudy(studyShortcode, environmentName).get();
+    Map<String, Enrollee> enrolleesByShortcode =
+        enrolleeService.findAllByShortcodes(enrolleeShortcodes).stream()
+            .filter(enrollee -> enrollee.getStudyEnvironmentId().equals(studyEnvironment.getId()))
+            .collect(Collectors.toMap(Enrollee::getShortcode, Function.identity()));
+
     KitRequestListResponse response = new KitRequestListResponse();
-    for (String enrolleeShortcode : enrolleeShortcodes) {
-      try {
-        KitRequest kitRequest = requestKit(adminUser, studyShortcode, enrolleeShortcode, kitType);
-        response.kitRequests.add(kitRequest);
-      } catch (Exception e) {
+    List<Enrollee> enrollees = new ArrayList<>();
+    for (String enrolleeShortcode : new LinkedHashSet<>(enrolleeShortcodes)) {
+      Enrollee enrollee = enrolleesByShortcode.get(enrolleeShortcode);
+      if (enrollee == null) {
+        response.exceptions.add(
+            new NotFoundException(enrolleeShortcode + ": enrollee not found in study environment"));
+      } else {
+        enrollees.add(enrollee);
+      }
+    }
+
+    for (KitRequestService.KitRequestResult result :
+        kitRequestService.requestKits(adminUser, studyShortcode, enrollees, kitType)) {
+      if (result.kitRequest() != null) {
+        response.kitRequests.add(result.kitRequest());
+      } else {
         // add the enrollee shortcode to the message for disambiguation.  Once we refine the UX for
-        // this,
-        // a structured response might be useful here
-        response.exceptions.add(new Exception(enrolleeShortcode + ": " + e.getMessage(), e));
+        // this, a structured response might be useful here
+        response.exceptions.add(
+            new Exception(
+                result.enrolleeShortcode() + ": " + result.error().getMessage(), result.error()));
       }
     }
     return response;
@@ -75,6 +113,36 @@ public class KitExtService {
     return kitRequestService.getSampleKitsByStudyEnvironment(studyEnvironment);
   }
 
+  /**
+   * a page of the kit management summaries for the environment. The filters are optional, so null
+   * means don't filter on that property.
+   */
+  public EnrolleeKitSummaryPage getEnrolleeKitSummaries(
+      AdminUser adminUser,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      Boolean consented,
+      Boolean requiredSurveysComplete,
+      Boolean kitRequested,
+      String sortProperty,
+      boolean descending,
+      int pageIndex,
+      int pageSize) {
+    authUtilService.authUserToStudy(adminUser, portalShortcode, studyShortcode);
+    StudyEnvironment studyEnvironment =
+        studyEnvironmentService.findByStudy(studyShortcode, environmentName).get();
+    return enrolleeKitSummaryService.findPage(
+        studyEnvironment.getId(),
+        consented,
+        requiredSurveysComplete,
+        kitRequested,
+        sortProperty,
+        descending,
+        pageIndex,
+        pageSize);
+  }
+
   public KitRequest requestKit(
       AdminUser adminUser, String studyShortcode, String enrolleeShortcode, String kitTypeName) {
     Enrollee enrollee = authUtilService.authAdminUserToEnrollee(adminUser, enrolleeShortcode);
@@ -1,5 +1,6 @@
 package bio.terra.pearl.api.admin.service.notifications;
 
+import bio.terra.pearl.api.admin.service.ScheduledJobRunner;
 import bio.terra.pearl.core.service.notification.EnrolleeReminderService;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
@@ -11,9 +12,12 @@ import org.springframework.stereotype.Service;
 public class ScheduledEnrolleeReminderService {
   private static final Logger logger = LoggerFactory.getLogger(EnrolleeReminderService.class);
   private EnrolleeReminderService enrolleeReminderService;
+  private ScheduledJobRunner scheduledJobRunner;
 
-  public ScheduledEnrolleeReminderService(EnrolleeReminderService enrolleeReminderService) {
+  public ScheduledEnrolleeReminderService(
+      EnrolleeReminderService enrolleeReminderService, ScheduledJobRunner scheduledJobRunner) {
     this.enrolleeReminderService = enrolleeReminderService;
+    this.scheduledJobRunner = scheduledJobRunner;
   }
 
   @Scheduled(
@@ -25,7 +29,9 @@ public class ScheduledEnrolleeReminderService {
       lockAtLeastFor = "10s")
   public void sendReminderEmails() {
     logger.info("Beginning enrollee reminder processing");
-    enrolleeReminderService.sendTaskReminders();
+    scheduledJobRunner.run(
+        "EnrolleeReminderService.sendTaskReminders",
+        () -> enrolleeReminderService.sendTaskReminders());
     logger.info("Enrollee reminder processing complete");
   }
 }
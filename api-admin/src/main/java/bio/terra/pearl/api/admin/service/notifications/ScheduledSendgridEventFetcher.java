@@ -1,5 +1,6 @@
 package bio.terra.pearl.api.admin.service.notifications;
 
+import bio.terra.pearl.api.admin.service.ScheduledJobRunner;
 import java.util.concurrent.TimeUnit;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -9,15 +10,18 @@ import org.springframework.stereotype.Service;
  * This class is responsible for fetching Sendgrid events from the Sendgrid API and storing them. Sendgrid
  * only stores 30 days of email activity history, and we don't want to lose any of that information. This is
  * important both for auditability and for debugging purposes. This fetcher is scheduled to run every 30 minutes,
- * and it will fetch all events since the last recorded event.
+ * and it will fetch all events since the end of the last completed import, resuming any interrupted import first.
  */
 
 @Service
 public class ScheduledSendgridEventFetcher {
   SendgridEventService sendgridEventService;
+  ScheduledJobRunner scheduledJobRunner;
 
-  public ScheduledSendgridEventFetcher(SendgridEventService sendgridEventService) {
+  public ScheduledSendgridEventFetcher(
+      SendgridEventService sendgridEventService, ScheduledJobRunner scheduledJobRunner) {
     this.sendgridEventService = sendgridEventService;
+    this.scheduledJobRunner = scheduledJobRunner;
   }
 
   @Scheduled(timeUnit = TimeUnit.MINUTES, fixedDelay = 30, initialDelay = 1)
@@ -26,6 +30,8 @@ public class ScheduledSendgridEventFetcher {
       lockAtLeastFor = "1m",
       lockAtMostFor = "15m")
   public void saveSendgridActivity() {
-    sendgridEventService.saveSendgridActivity();
+    scheduledJobRunner.run(
+        "SendgridEventService.saveSendgridActivity",
+        () -> sendgridEventService.saveSendgridActivity());
   }
 }
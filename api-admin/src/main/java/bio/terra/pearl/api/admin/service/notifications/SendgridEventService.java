@@ -1,75 +1,148 @@
 package bio.terra.pearl.api.admin.service.notifications;
 
+import bio.terra.pearl.core.dao.notification.SendgridEventCheckpointDao;
 import bio.terra.pearl.core.dao.notification.SendgridEventDao;
 import bio.terra.pearl.core.model.notification.SendgridEvent;
+import bio.terra.pearl.core.model.notification.SendgridEventCheckpoint;
+import bio.terra.pearl.core.service.TransactionHandler;
 import bio.terra.pearl.core.service.notification.email.SendgridClient;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Imports SendGrid email activity. SendGrid's activity API returns at most PAGE_SIZE messages per
+ * query, newest first, so a range is read by repeatedly querying up to the oldest event of the
+ * previous page. Each page is saved in its own transaction along with a checkpoint of how far the
+ * import has gotten, so memory use is bounded by the page size and an interrupted import (e.g. a
+ * 30-day backfill) picks up where it left off on the next run. If more than PAGE_SIZE events
+ * share one timestamp, there's no way to page through them, so the run fails with its checkpoint
+ * unchanged rather than skipping past them.
+ */
 @Service
 @Slf4j
 public class SendgridEventService {
+  public static final int PAGE_SIZE = 1000; // This is the maximum page size allowed by SendGrid
   private SendgridClient sendgridClient;
   private SendgridEventDao sendgridEventDao;
+  private SendgridEventCheckpointDao sendgridEventCheckpointDao;
+  private TransactionHandler transactionHandler;
 
-  public SendgridEventService(SendgridClient sendgridClient, SendgridEventDao sendgridEventDao) {
+  public SendgridEventService(
+      SendgridClient sendgridClient,
+      SendgridEventDao sendgridEventDao,
+      SendgridEventCheckpointDao sendgridEventCheckpointDao,
+      TransactionHandler transactionHandler) {
     this.sendgridEventDao = sendgridEventDao;
     this.sendgridClient = sendgridClient;
+    this.sendgridEventCheckpointDao = sendgridEventCheckpointDao;
+    this.transactionHandler = transactionHandler;
   }
 
   public void saveSendgridActivity() {
-    // Find the most recently recorded event, and get all events since then
-    Optional<SendgridEvent> mostRecentEvent = sendgridEventDao.findMostRecentEvent();
-
-    // If we've never recorded an event, default to 30 days ago. Sendgrid only keeps
-    // 30 days of activity history, so this will backfill as much history as possible.
-    Instant mostRecentEventDate =
-        mostRecentEvent
-            .map(SendgridEvent::getLastEventTime)
-            .orElse(Instant.now().minus(30, ChronoUnit.DAYS));
+    SendgridEventCheckpoint checkpoint = sendgridEventCheckpointDao.findLatest().orElse(null);
+    if (checkpoint != null && checkpoint.getPageEnd() != null) {
+      log.info(
+          "Resuming interrupted Sendgrid activity import of {} to {} from {}",
+          checkpoint.getRangeStart(),
+          checkpoint.getRangeEnd(),
+          checkpoint.getPageEnd());
+      importRange(checkpoint);
+    }
 
-    List<SendgridEvent> events = getAllRecentSendgridEvents(mostRecentEventDate, Instant.now());
-    // Over the course of gathering the results from Sendgrid's paginated API, it's possible that
-    // we've accumulated duplicate events at the fringes of the pages. The database will handle
-    // this fine, but this could result in the following log message indicating that we've inserted
-    // more events than we actually have.
-    log.info("Sendgrid activity query returned {} events", events.size());
+    // Sendgrid only keeps 30 days of activity history, so never look further back than that. If
+    // we've never imported anything, this will backfill as much history as possible.
+    Instant earliestAvailable = Instant.now().minus(30, ChronoUnit.DAYS);
+    Instant rangeStart =
+        checkpoint != null
+            ? checkpoint.getRangeEnd()
+            : sendgridEventDao
+                .findMostRecentEvent()
+                .map(SendgridEvent::getLastEventTime)
+                .orElse(earliestAvailable);
+    if (rangeStart.isBefore(earliestAvailable)) {
+      rangeStart = earliestAvailable;
+    }
+    Instant rangeEnd = Instant.now();
 
-    bulkUpsert(events);
+    if (checkpoint == null) {
+      checkpoint = SendgridEventCheckpoint.builder().build();
+    }
+    checkpoint.setRangeStart(rangeStart);
+    checkpoint.setRangeEnd(rangeEnd);
+    checkpoint.setPageEnd(rangeEnd);
+    checkpoint =
+        checkpoint.getId() == null
+            ? sendgridEventCheckpointDao.create(checkpoint)
+            : sendgridEventCheckpointDao.update(checkpoint);
+    importRange(checkpoint);
   }
 
-  @Transactional
-  public void bulkUpsert(List<SendgridEvent> events) {
-    sendgridEventDao.bulkUpsert(events);
-  }
+  /**
+   * saves each page of events between the checkpoint's rangeStart and pageEnd, moving pageEnd back
+   * as it goes. Returns the number of events saved.
+   */
+  public int importRange(SendgridEventCheckpoint checkpoint) {
+    int totalSaved = 0;
+    // ids of the previous page's events at the page boundary, which the next query returns again
+    Set<String> boundaryMsgIds = Set.of();
+    while (checkpoint.getPageEnd() != null) {
+      Instant pageEnd = checkpoint.getPageEnd();
+      List<SendgridEvent> page = fetchPage(checkpoint.getRangeStart(), pageEnd);
 
-  public List<SendgridEvent> getAllRecentSendgridEvents(Instant startDate, Instant endDate) {
-    final int PAGE_SIZE = 1000; // This is the maximum page size allowed by SendGrid
+      Set<String> seenMsgIds = new HashSet<>(boundaryMsgIds);
+      List<SendgridEvent> newEvents =
+          page.stream().filter(event -> seenMsgIds.add(event.getMsgId())).toList();
 
-    log.info("Querying for SendGrid activity between {} and {}", startDate, endDate);
+      Instant nextPageEnd = null;
+      if (page.size() >= PAGE_SIZE) {
+        nextPageEnd =
+            page.stream()
+                .map(SendgridEvent::getLastEventTime)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        if (!nextPageEnd.isBefore(pageEnd)) {
+          // a full page of events all at the boundary time -- time alone can't page past them, and
+          // skipping the rest of that second would silently lose events. Save what we got, but
+          // leave the checkpoint where it is so the gap stays visible until someone looks at it.
+          sendgridEventDao.bulkUpsert(newEvents);
+          throw new IllegalStateException(
+              "Sendgrid returned a full page of %d events at %s, so the import can't page past it"
+                  .formatted(page.size(), pageEnd));
+        }
+      }
+      Instant boundary = nextPageEnd;
+      boundaryMsgIds =
+          page.stream()
+              .filter(event -> event.getLastEventTime().equals(boundary))
+              .map(SendgridEvent::getMsgId)
+              .collect(Collectors.toSet());
+
+      checkpoint.setPageEnd(nextPageEnd);
+      transactionHandler.runInTransaction(
+          () -> {
+            sendgridEventDao.bulkUpsert(newEvents);
+            return sendgridEventCheckpointDao.update(checkpoint);
+          });
+      totalSaved += newEvents.size();
+      log.info(
+          "Saved {} Sendgrid events up to {} ({} so far)", newEvents.size(), pageEnd, totalSaved);
+    }
+    return totalSaved;
+  }
 
-    List<SendgridEvent> events;
+  protected List<SendgridEvent> fetchPage(Instant startDate, Instant endDate) {
+    log.info("Querying for SendGrid activity between {} and {}", startDate, endDate);
     try {
-      events = sendgridClient.getEvents(startDate, endDate, PAGE_SIZE);
+      return sendgridClient.getEvents(startDate, endDate, PAGE_SIZE);
     } catch (Exception e) {
       throw new RuntimeException("Unable to query SendGrid for activity: " + e.getMessage());
     }
-
-    if (events.size() == PAGE_SIZE) {
-      endDate = events.get(events.size() - 1).getLastEventTime();
-      log.info(
-          "Sendgrid activity query returned the limit of {} events. Querying for additional events between {} and {}",
-          PAGE_SIZE,
-          startDate,
-          endDate);
-      events.addAll(getAllRecentSendgridEvents(startDate, endDate));
-    }
-
-    return events;
   }
 }
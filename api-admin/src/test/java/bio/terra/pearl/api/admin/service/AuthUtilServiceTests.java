@@ -2,20 +2,35 @@ package bio.terra.pearl.api.admin.service;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.notNullValue;
 
 import bio.terra.pearl.api.admin.BaseSpringBootTest;
 import bio.terra.pearl.core.factory.admin.AdminUserFactory;
+import bio.terra.pearl.core.factory.admin.PermissionFactory;
+import bio.terra.pearl.core.factory.admin.RoleFactory;
 import bio.terra.pearl.core.factory.portal.PortalFactory;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.admin.Permission;
 import bio.terra.pearl.core.model.admin.PortalAdminUser;
+import bio.terra.pearl.core.model.admin.Role;
+import bio.terra.pearl.core.model.admin.RolePermission;
 import bio.terra.pearl.core.model.portal.Portal;
+import bio.terra.pearl.core.service.admin.AdminAuthCache;
+import bio.terra.pearl.core.service.admin.PortalAdminUserRoleService;
 import bio.terra.pearl.core.service.admin.PortalAdminUserService;
+import bio.terra.pearl.core.service.admin.RolePermissionService;
 import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.portal.PortalService;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.transaction.annotation.Transactional;
 
 public class AuthUtilServiceTests extends BaseSpringBootTest {
@@ -24,6 +39,10 @@ public class AuthUtilServiceTests extends BaseSpringBootTest {
   @Autowired private PortalAdminUserService portalAdminUserService;
   @Autowired private AdminUserFactory adminUserFactory;
   @Autowired private PortalFactory portalFactory;
+  @Autowired private PortalAdminUserRoleService portalAdminUserRoleService;
+  @Autowired private RolePermissionService rolePermissionService;
+  @Autowired private RoleFactory roleFactory;
+  @Autowired private PermissionFactory permissionFactory;
 
   @Test
   @Transactional
@@ -74,4 +93,88 @@ public class AuthUtilServiceTests extends BaseSpringBootTest {
     Portal portal = portalFactory.buildPersisted("authAdminToPortalAllowsSuperUser");
     assertThat(authUtilService.authUserToPortal(user, portal.getShortcode()), notNullValue());
   }
+
+  @Test
+  @Transactional
+  public void requireAdminUserReflectsPortalMembershipChanges() {
+    AdminUser user = adminUserFactory.buildPersisted("requireAdminUserReflectsPortalChanges");
+    Portal portal = portalFactory.buildPersisted("requireAdminUserReflectsPortalChanges");
+    portalAdminUserService.create(
+        PortalAdminUser.builder().adminUserId(user.getId()).portalId(portal.getId()).build());
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    String token =
+        JWT.create().withClaim("email", user.getUsername()).sign(Algorithm.HMAC256("testSecret"));
+    request.addHeader("Authorization", "Bearer " + token);
+
+    AdminUser authedUser = authUtilService.requireAdminUser(request);
+    assertThat(authedUser.getId(), equalTo(user.getId()));
+    // the second call should come from the cache
+    assertThat(authUtilService.requireAdminUser(request).getId(), equalTo(user.getId()));
+    assertThat(
+        authUtilService.authUserToPortal(authedUser, portal.getShortcode()).getId(),
+        equalTo(portal.getId()));
+
+    // removing the user from the portal should be reflected immediately, despite the cache
+    portalAdminUserService.removeUserFromPortal(user.getId(), portal);
+    AdminUser reloadedUser = authUtilService.requireAdminUser(request);
+    Assertions.assertThrows(
+        NotFoundException.class,
+        () -> {
+          authUtilService.authUserToPortal(reloadedUser, portal.getShortcode());
+        });
+  }
+
+  @Test
+  @Transactional
+  public void findAdminAuthReflectsRoleAndPermissionChanges() {
+    AdminUser user = adminUserFactory.buildPersisted("findAdminAuthReflectsRoleChanges");
+    Portal portal = portalFactory.buildPersisted("findAdminAuthReflectsRoleChanges");
+    PortalAdminUser portalAdminUser =
+        portalAdminUserService.create(
+            PortalAdminUser.builder().adminUserId(user.getId()).portalId(portal.getId()).build());
+    Permission permission1 = permissionFactory.buildPersisted("findAdminAuthPerm1");
+    Permission permission2 = permissionFactory.buildPersisted("findAdminAuthPerm2");
+    Role role = roleFactory.buildPersisted("findAdminAuthRole", List.of(permission1.getName()));
+    String token =
+        JWT.create().withClaim("email", user.getUsername()).sign(Algorithm.HMAC256("testSecret"));
+
+    AdminAuthCache.CachedAdminAuth auth = authUtilService.findAdminAuth(token).get();
+    assertThat(auth.getPermissions(portal.getId()), equalTo(Set.of()));
+
+    // granting a role drops the cached entry for that user
+    portalAdminUserRoleService.setRoles(portalAdminUser.getId(), List.of(role.getName()));
+    auth = authUtilService.findAdminAuth(token).get();
+    assertThat(auth.getPermissions(portal.getId()), equalTo(Set.of(permission1.getName())));
+
+    // changing what the role grants drops everyone's cached entries
+    rolePermissionService.create(
+        RolePermission.builder().roleId(role.getId()).permissionId(permission2.getId()).build());
+    auth = authUtilService.findAdminAuth(token).get();
+    assertThat(
+        auth.getPermissions(portal.getId()),
+        equalTo(Set.of(permission1.getName(), permission2.getName())));
+
+    // and removing the role drops it again
+    portalAdminUserRoleService.deleteByPortalAdminUserId(portalAdminUser.getId());
+    auth = authUtilService.findAdminAuth(token).get();
+    assertThat(auth.getPermissions(portal.getId()), equalTo(Set.of()));
+  }
+
+  @Test
+  @Transactional
+  public void requireAdminUserReturnsCopies() {
+    AdminUser user = adminUserFactory.buildPersisted("requireAdminUserReturnsCopies");
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    String token =
+        JWT.create().withClaim("email", user.getUsername()).sign(Algorithm.HMAC256("testSecret"));
+    request.addHeader("Authorization", "Bearer " + token);
+
+    AdminUser authedUser = authUtilService.requireAdminUser(request);
+    authedUser.setLastLogin(Instant.now());
+    authedUser.setSuperuser(true);
+    // changes to one request's user must not show up in the next
+    AdminUser nextUser = authUtilService.requireAdminUser(request);
+    assertThat(nextUser.getLastLogin(), nullValue());
+    assertThat(nextUser.isSuperuser(), equalTo(false));
+  }
 }
@@ -55,6 +55,6 @@ public class PopulateExtServiceTests {
     AdminUser user = new AdminUser();
     Assertions.assertThrows(
         PermissionDeniedException.class,
-        () -> emptyService.bulkPopulateEnrollees("ffo", EnvironmentName.live, "dfa", 100, user));
+        () -> emptyService.bulkPopulateEnrollees("ffo", EnvironmentName.live, "dfa", 100, false, user));
   }
 }
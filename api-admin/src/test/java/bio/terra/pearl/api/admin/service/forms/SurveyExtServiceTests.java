@@ -13,8 +13,11 @@ import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.exception.PermissionDeniedException;
+import bio.terra.pearl.core.service.notification.NotificationConfigService;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
+import bio.terra.pearl.core.service.survey.SurveyAssignmentService;
 import bio.terra.pearl.core.service.survey.SurveyService;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +40,38 @@ public class SurveyExtServiceTests {
   @MockBean private SurveyService mockSurveyService;
   @MockBean private StudyEnvironmentSurveyService mockStudyEnvironmentSurveyService;
   @MockBean private StudyEnvironmentService mockStudyEnvironmentService;
+  @MockBean private SurveyAssignmentService mockSurveyAssignmentService;
+  @MockBean private PortalEnvironmentService mockPortalEnvironmentService;
+  @MockBean private NotificationConfigService mockNotificationConfigService;
+
+  @Test
+  public void assignToEnrolleesRequiresStudyAuth() {
+    AdminUser user = AdminUser.builder().superuser(false).build();
+    when(mockAuthUtilService.authUserToStudy(user, "foo", "bar"))
+        .thenThrow(new PermissionDeniedException("test1"));
+    Assertions.assertThrows(
+        PermissionDeniedException.class,
+        () ->
+            surveyExtService.assignToExistingEnrollees(
+                "foo", "bar", EnvironmentName.live, UUID.randomUUID(), null, user));
+  }
+
+  @Test
+  public void assignToEnrolleesChecksStudyEnv() {
+    AdminUser user = AdminUser.builder().superuser(false).build();
+    UUID configuredSurveyId = UUID.randomUUID();
+    when(mockStudyEnvironmentService.findByStudy("bar", EnvironmentName.live))
+        .thenReturn(Optional.of(StudyEnvironment.builder().id(UUID.randomUUID()).build()));
+    when(mockStudyEnvironmentSurveyService.find(configuredSurveyId))
+        .thenReturn(
+            Optional.of(
+                StudyEnvironmentSurvey.builder().studyEnvironmentId(UUID.randomUUID()).build()));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            surveyExtService.assignToExistingEnrollees(
+                "foo", "bar", EnvironmentName.live, configuredSurveyId, null, user));
+  }
 
   @Test
   public void createConfiguredRequiresPortalAuth() {
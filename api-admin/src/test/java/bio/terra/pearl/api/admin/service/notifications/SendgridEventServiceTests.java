@@ -1,58 +1,128 @@
 package bio.terra.pearl.api.admin.service.notifications;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.*;
 
 import bio.terra.pearl.api.admin.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.notification.SendgridEventCheckpointDao;
 import bio.terra.pearl.core.model.notification.SendgridEvent;
+import bio.terra.pearl.core.model.notification.SendgridEventCheckpoint;
 import bio.terra.pearl.core.service.notification.email.SendgridClient;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.annotation.Transactional;
 
 public class SendgridEventServiceTests extends BaseSpringBootTest {
 
   @Autowired private SendgridEventService sendgridActivityService;
+  @Autowired private SendgridEventCheckpointDao sendgridEventCheckpointDao;
 
   @MockBean private SendgridClient sendgridClient;
 
   @Test
+  @Transactional
   public void testPagination() throws Exception {
+    Instant end = Instant.now().truncatedTo(ChronoUnit.SECONDS);
     when(sendgridClient.getEvents(any(Instant.class), any(Instant.class), anyInt()))
-        .thenReturn(mockEventPage(1000))
-        .thenReturn(mockEventPage(527));
+        .thenReturn(mockEventPage(1000, end))
+        .thenReturn(mockEventPage(527, end.minusSeconds(1000)));
 
-    List<SendgridEvent> events =
-        sendgridActivityService.getAllRecentSendgridEvents(
-            Instant.now().minus(30, ChronoUnit.DAYS), Instant.now());
+    SendgridEventCheckpoint checkpoint = createCheckpoint(end);
+    int saved = sendgridActivityService.importRange(checkpoint);
 
     verify(sendgridClient, times(2)).getEvents(any(Instant.class), any(Instant.class), anyInt());
-    assertThat(events, hasSize(1527));
+    assertThat(saved, equalTo(1527));
+    assertThat(sendgridEventCheckpointDao.find(checkpoint.getId()).get().getPageEnd(), nullValue());
   }
 
-  private List<SendgridEvent> mockEventPage(int numEvents) {
+  @Test
+  @Transactional
+  public void testPageBoundaryEventsNotSavedTwice() throws Exception {
+    Instant end = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    List<SendgridEvent> firstPage = mockEventPage(1000, end);
+    // the next query runs up to and including the oldest time on the first page, so it returns that
+    // page's last event again
+    SendgridEvent boundaryEvent = firstPage.get(firstPage.size() - 1);
+    List<SendgridEvent> secondPage = new ArrayList<>(List.of(copyOf(boundaryEvent)));
+    secondPage.addAll(mockEventPage(10, boundaryEvent.getLastEventTime().minusSeconds(1)));
+    when(sendgridClient.getEvents(any(Instant.class), any(Instant.class), anyInt()))
+        .thenReturn(firstPage)
+        .thenReturn(secondPage);
+
+    int saved = sendgridActivityService.importRange(createCheckpoint(end));
+
+    verify(sendgridClient)
+        .getEvents(any(Instant.class), eq(boundaryEvent.getLastEventTime()), anyInt());
+    assertThat(saved, equalTo(1010));
+  }
+
+  @Test
+  @Transactional
+  public void testFullPageInOneSecondKeepsCheckpoint() throws Exception {
+    Instant end = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    List<SendgridEvent> firstPage = mockEventPage(1000, end);
+    Instant boundary = firstPage.get(firstPage.size() - 1).getLastEventTime();
+    // more events in the boundary second than fit on a page
+    List<SendgridEvent> stuckPage = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      stuckPage.add(mockSendgridEvent(boundary));
+    }
+    when(sendgridClient.getEvents(any(Instant.class), any(Instant.class), anyInt()))
+        .thenReturn(firstPage)
+        .thenReturn(stuckPage);
+
+    SendgridEventCheckpoint checkpoint = createCheckpoint(end);
+    Assertions.assertThrows(
+        IllegalStateException.class, () -> sendgridActivityService.importRange(checkpoint));
+
+    // the next run should retry the same second, rather than skip past it
+    assertThat(
+        sendgridEventCheckpointDao.find(checkpoint.getId()).get().getPageEnd(), equalTo(boundary));
+  }
+
+  private SendgridEventCheckpoint createCheckpoint(Instant end) {
+    return sendgridEventCheckpointDao.create(
+        SendgridEventCheckpoint.builder()
+            .rangeStart(end.minus(30, ChronoUnit.DAYS))
+            .rangeEnd(end)
+            .pageEnd(end)
+            .build());
+  }
+
+  /** a page of events, newest first, one second apart starting at the given time */
+  private List<SendgridEvent> mockEventPage(int numEvents, Instant newest) {
     List<SendgridEvent> events = new ArrayList<>();
     for (int i = 0; i < numEvents; i++) {
-      events.add(mockSendgridEvent());
+      events.add(mockSendgridEvent(newest.minusSeconds(i)));
     }
     return events;
   }
 
-  private SendgridEvent mockSendgridEvent() {
+  private SendgridEvent mockSendgridEvent(Instant lastEventTime) {
     return SendgridEvent.builder()
-        .msgId("msgId")
+        .msgId(UUID.randomUUID().toString())
         .subject("subject")
         .toEmail("toEmail")
         .fromEmail("fromEmail")
         .status("status")
         .opensCount(1)
         .clicksCount(1)
-        .lastEventTime(Instant.now())
+        .lastEventTime(lastEventTime)
         .build();
   }
+
+  private SendgridEvent copyOf(SendgridEvent event) {
+    SendgridEvent copy = mockSendgridEvent(event.getLastEventTime());
+    copy.setMsgId(event.getMsgId());
+    return copy;
+  }
 }
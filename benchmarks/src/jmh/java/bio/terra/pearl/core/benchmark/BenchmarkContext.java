@@ -0,0 +1,36 @@
+package bio.terra.pearl.core.benchmark;
+
+import bio.terra.pearl.core.CoreCliApp;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The core Spring context, started once per benchmark fork, so benchmarks get their services and daos wired exactly
+ * as the app does rather than constructing them by hand.  Starting the context connects to the database with the
+ * app's DATABASE_* env variables (the local dev Postgres by default), though most benchmarks never query it.
+ */
+public class BenchmarkContext {
+    private static ConfigurableApplicationContext context;
+
+    /**
+     * returns the bean of the given type.  If it's proxied (e.g. for @Transactional), the proxy's target is returned
+     * instead, so the benchmark measures the method itself rather than the proxy around it.
+     */
+    public static <T> T getBean(Class<T> type) {
+        T bean = getContext().getBean(type);
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        return target != null ? type.cast(target) : bean;
+    }
+
+    private static synchronized ConfigurableApplicationContext getContext() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(CoreCliApp.class)
+                    .web(WebApplicationType.NONE)
+                    .logStartupInfo(false)
+                    .run();
+        }
+        return context;
+    }
+}
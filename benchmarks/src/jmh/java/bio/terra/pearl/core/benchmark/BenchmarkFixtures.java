@@ -0,0 +1,132 @@
+package bio.terra.pearl.core.benchmark;
+
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Prebuilt in-memory datasets for the benchmarks.  Everything, ids and timestamps included, is generated from a fixed
+ * seed, so every run sees the same data and runs are comparable with each other and with the baseline.
+ */
+public class BenchmarkFixtures {
+    /** surveys from the ourheart seed data, which are on the jmh classpath */
+    public static final List<String> SURVEY_FILES = List.of("basic.json", "medicalHistory.json", "familyHistory.json");
+    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+    private static final long SEED = 42L;
+    private static final Instant FIXED_TIME = Instant.parse("2023-01-01T00:00:00Z");
+
+    /** loads a seed survey file, converting the jsonContent to the content string as the populator does */
+    public static Survey loadSurvey(String fileName) {
+        try (InputStream stream = BenchmarkFixtures.class.getResourceAsStream("/" + fileName)) {
+            if (stream == null) {
+                throw new IllegalStateException("Benchmark survey not found on classpath: " + fileName);
+            }
+            JsonNode surveyNode = OBJECT_MAPPER.readTree(stream);
+            return Survey.builder()
+                    .id(UUID.nameUUIDFromBytes(fileName.getBytes(StandardCharsets.UTF_8)))
+                    .stableId(surveyNode.get("stableId").asText())
+                    .version(surveyNode.get("version").asInt())
+                    .name(surveyNode.get("name").asText())
+                    .content(OBJECT_MAPPER.writeValueAsString(surveyNode.get("jsonContent")))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read benchmark survey " + fileName, e);
+        }
+    }
+
+    /** builds numEnrollees enrollees, each with a complete response to every one of the given surveys */
+    public static List<EnrolleeExportData> buildExportData(int numEnrollees, List<Survey> surveys,
+                                                           List<SurveyQuestionDefinition> questionDefs) {
+        Random random = new Random(SEED);
+        List<EnrolleeExportData> exportData = new ArrayList<>(numEnrollees);
+        for (int i = 0; i < numEnrollees; i++) {
+            Enrollee enrollee = Enrollee.builder()
+                    .id(randomUuid(random))
+                    .shortcode("BENCH" + i)
+                    .participantUserId(randomUuid(random))
+                    .studyEnvironmentId(randomUuid(random))
+                    .consented(true)
+                    .build();
+            Profile profile = Profile.builder()
+                    .givenName("given" + i)
+                    .familyName("family" + i)
+                    .contactEmail("bench" + i + "@test.com")
+                    .birthDate(LocalDate.of(1940 + random.nextInt(60), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                    .sexAtBirth(random.nextBoolean() ? "male" : "female")
+                    .mailingAddress(MailingAddress.builder()
+                            .street1(i + " Main St")
+                            .city("Cambridge")
+                            .state("MA")
+                            .postalCode("02142")
+                            .country("US").build())
+                    .build();
+            List<SurveyResponse> responses = new ArrayList<>();
+            List<Answer> answers = new ArrayList<>();
+            for (Survey survey : surveys) {
+                SurveyResponse response = SurveyResponse.builder()
+                        .id(randomUuid(random))
+                        .surveyId(survey.getId())
+                        .enrolleeId(enrollee.getId())
+                        .complete(true)
+                        .createdAt(FIXED_TIME)
+                        .lastUpdatedAt(FIXED_TIME)
+                        .build();
+                responses.add(response);
+                for (SurveyQuestionDefinition questionDef : questionDefs) {
+                    if (!questionDef.getSurveyStableId().equals(survey.getStableId())) {
+                        continue;
+                    }
+                    answers.add(Answer.builder()
+                            .surveyResponseId(response.getId())
+                            .enrolleeId(enrollee.getId())
+                            .surveyStableId(survey.getStableId())
+                            .surveyVersion(survey.getVersion())
+                            .questionStableId(questionDef.getQuestionStableId())
+                            .answerType(AnswerType.STRING)
+                            .stringValue(answerValue(questionDef, random))
+                            .build());
+                }
+            }
+            exportData.add(new EnrolleeExportData(enrollee, profile, answers, List.of(), responses));
+        }
+        return exportData;
+    }
+
+    /** a random one of the question's choices, or free text if it doesn't have any */
+    private static String answerValue(SurveyQuestionDefinition questionDef, Random random) {
+        if (questionDef.getChoices() == null) {
+            return "free text answer " + random.nextInt(1000);
+        }
+        try {
+            JsonNode choices = OBJECT_MAPPER.readTree(questionDef.getChoices());
+            if (choices.isEmpty()) {
+                return "free text answer " + random.nextInt(1000);
+            }
+            return choices.get(random.nextInt(choices.size())).get("stableId").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed choices for " + questionDef.getQuestionStableId(), e);
+        }
+    }
+
+    /** like UUID.randomUUID, but from the seeded random */
+    private static UUID randomUuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+}
@@ -0,0 +1,61 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.benchmark.BenchmarkContext;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * mapping result rows to beans with the dao's registered row mapper (EntityRowMapper), compared to Jdbi's reflective
+ * BeanMapper.  This queries the database the BenchmarkContext connects to, but doesn't need any data in it -- the rows
+ * are generated by the query itself, so the result is the same size on every machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BaseJdbiDaoBenchmark {
+    private static final String ENROLLEE_ROWS_SQL = """
+            select gen_random_uuid() as id, now() as created_at, now() as last_updated_at,
+              gen_random_uuid() as participant_user_id, gen_random_uuid() as profile_id,
+              gen_random_uuid() as study_environment_id, null::uuid as pre_enrollment_response_id,
+              'BENCH' || n as shortcode, n % 2 = 0 as consented
+            from generate_series(1, :numRows) as n
+            """;
+    @Param({"100", "5000"})
+    public int numRows;
+
+    private Jdbi jdbi;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // the app's Jdbi, with the row mappers its daos register
+        jdbi = BenchmarkContext.getBean(Jdbi.class);
+    }
+
+    @Benchmark
+    public List<Enrollee> mapEnrollees() {
+        return jdbi.withHandle(handle -> handle.createQuery(ENROLLEE_ROWS_SQL)
+                .bind("numRows", numRows)
+                .mapTo(Enrollee.class)
+                .list());
+    }
+
+    @Benchmark
+    public List<Enrollee> mapEnrolleesWithBeanMapper() {
+        return jdbi.withHandle(handle -> handle.createQuery(ENROLLEE_ROWS_SQL)
+                .bind("numRows", numRows)
+                .map(BeanMapper.of(Enrollee.class))
+                .list());
+    }
+}
@@ -0,0 +1,60 @@
+package bio.terra.pearl.core.dao.participant;
+
+import bio.terra.pearl.core.benchmark.BenchmarkContext;
+import bio.terra.pearl.core.service.participant.search.facets.CombinedStableIdFacetValue;
+import bio.terra.pearl.core.service.participant.search.facets.IntRangeFacetValue;
+import bio.terra.pearl.core.service.participant.search.facets.StableIdStringFacetValue;
+import bio.terra.pearl.core.service.participant.search.facets.StringFacetValue;
+import bio.terra.pearl.core.service.participant.search.facets.sql.KeywordFacetSqlGenerator;
+import bio.terra.pearl.core.service.participant.search.facets.sql.ParticipantTaskFacetSqlGenerator;
+import bio.terra.pearl.core.service.participant.search.facets.sql.ProfileAgeFacetSqlGenerator;
+import bio.terra.pearl.core.service.participant.search.facets.sql.ProfileFacetSqlGenerator;
+import bio.terra.pearl.core.service.participant.search.facets.sql.SqlSearchableFacet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * generating the participant search sql for a typical combination of facets.  This doesn't query the database, it
+ * just builds the sql string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnrolleeSearchDaoBenchmark {
+  private EnrolleeSearchDao enrolleeSearchDao;
+  private List<SqlSearchableFacet> noFacets;
+  private List<SqlSearchableFacet> allFacets;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    enrolleeSearchDao = BenchmarkContext.getBean(EnrolleeSearchDao.class);
+    noFacets = List.of();
+    allFacets = List.of(
+        new SqlSearchableFacet(new StringFacetValue("sexAtBirth", List.of("male", "female")),
+            new ProfileFacetSqlGenerator()),
+        new SqlSearchableFacet(new IntRangeFacetValue("age", 18, 65), new ProfileAgeFacetSqlGenerator()),
+        new SqlSearchableFacet(new StringFacetValue("keyword", List.of("smith")), new KeywordFacetSqlGenerator()),
+        new SqlSearchableFacet(new CombinedStableIdFacetValue("status", List.of(
+            new StableIdStringFacetValue("status", "oh_oh_basicInfo", List.of("COMPLETE")),
+            new StableIdStringFacetValue("status", "oh_oh_medHx", List.of("IN_PROGRESS", "NEW")))),
+            new ParticipantTaskFacetSqlGenerator()));
+  }
+
+  @Benchmark
+  public String generateSearchQueryStringNoFacets() {
+    return enrolleeSearchDao.generateSearchQueryString(noFacets);
+  }
+
+  @Benchmark
+  public String generateSearchQueryStringAllFacets() {
+    return enrolleeSearchDao.generateSearchQueryString(allFacets);
+  }
+}
@@ -0,0 +1,26 @@
+package bio.terra.pearl.core.service.export;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** writing already-generated rows in each of the export formats.  Output is discarded so only the writer is measured */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BaseExporterBenchmark {
+    @Param({"TSV", "JSON", "EXCEL"})
+    public ExportFileFormat fileFormat;
+
+    @Benchmark
+    public void export(ExportBenchmarkState state) throws Exception {
+        BaseExporter exporter = state.exportService.getExporter(fileFormat, state.moduleExportInfos, state.enrolleeMaps);
+        exporter.export(OutputStream.nullOutputStream());
+    }
+}
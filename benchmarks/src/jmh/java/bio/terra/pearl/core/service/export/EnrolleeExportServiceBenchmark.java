@@ -0,0 +1,23 @@
+package bio.terra.pearl.core.service.export;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** row generation for an export, i.e. turning loaded enrollee data into column => value maps */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EnrolleeExportServiceBenchmark {
+
+    @Benchmark
+    public void generateExportMaps(ExportBenchmarkState state, Blackhole blackhole) throws Exception {
+        for (EnrolleeExportData enrolleeData : state.exportData) {
+            Map<String, String> row = state.exportService.generateExportMap(enrolleeData, state.moduleExportInfos);
+            blackhole.consume(row);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.benchmark.BenchmarkContext;
+import bio.terra.pearl.core.benchmark.BenchmarkFixtures;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
+import bio.terra.pearl.core.service.export.formatters.EnrolleeFormatter;
+import bio.terra.pearl.core.service.export.formatters.ProfileFormatter;
+import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
+import bio.terra.pearl.core.service.export.instance.ExportOptions;
+import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import bio.terra.pearl.core.service.survey.SurveyService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The module infos and enrollee data for an export of the seed surveys, built the same way
+ * EnrolleeExportService.generateModuleInfos does, but from in-memory data rather than the database.
+ */
+@State(Scope.Benchmark)
+public class ExportBenchmarkState {
+    @Param({"100", "1000"})
+    public int numEnrollees;
+    @Param({"false", "true"})
+    public boolean splitOptionsIntoColumns;
+
+    public EnrolleeExportService exportService;
+    public List<ModuleExportInfo> moduleExportInfos;
+    public List<EnrolleeExportData> exportData;
+    /** the rows generateExportMap produces, for benchmarking the writers on their own */
+    public List<Map<String, String>> enrolleeMaps;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        exportService = BenchmarkContext.getBean(EnrolleeExportService.class);
+        ExportOptions exportOptions = ExportOptions.builder()
+                .splitOptionsIntoColumns(splitOptionsIntoColumns)
+                .onlyIncludeMostRecent(true)
+                .build();
+        SurveyService surveyParser = BenchmarkContext.getBean(SurveyService.class);
+        SurveyFormatter surveyFormatter = new SurveyFormatter(BenchmarkFixtures.OBJECT_MAPPER);
+
+        moduleExportInfos = new ArrayList<>();
+        moduleExportInfos.add(new EnrolleeFormatter().getModuleExportInfo(exportOptions));
+        moduleExportInfos.add(new ProfileFormatter().getModuleExportInfo(exportOptions));
+        List<Survey> surveys = new ArrayList<>();
+        List<SurveyQuestionDefinition> allQuestionDefs = new ArrayList<>();
+        for (String surveyFile : BenchmarkFixtures.SURVEY_FILES) {
+            Survey survey = BenchmarkFixtures.loadSurvey(surveyFile);
+            List<SurveyQuestionDefinition> questionDefs = surveyParser.getSurveyQuestionDefinitions(survey);
+            moduleExportInfos.add(surveyFormatter.getModuleExportInfo(exportOptions, survey.getStableId(),
+                    List.of(survey), questionDefs));
+            surveys.add(survey);
+            allQuestionDefs.addAll(questionDefs);
+        }
+        exportData = BenchmarkFixtures.buildExportData(numEnrollees, surveys, allQuestionDefs);
+
+        enrolleeMaps = new ArrayList<>(exportData.size());
+        for (EnrolleeExportData enrolleeData : exportData) {
+            enrolleeMaps.add(exportService.generateExportMap(enrolleeData, moduleExportInfos));
+        }
+    }
+}
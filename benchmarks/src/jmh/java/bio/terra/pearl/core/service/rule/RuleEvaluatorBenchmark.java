@@ -0,0 +1,38 @@
+package bio.terra.pearl.core.service.rule;
+
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.Profile;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Rule evaluation runs for every enrollee on every event that checks eligibility or task assignment.  The evaluator
+ * is still a stub, so for now this mostly guards against it becoming unexpectedly expensive once it's implemented.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RuleEvaluatorBenchmark {
+    private static final String RULE = "{profile.sexAtBirth} = 'female' and {enrollee.consented} = true";
+    private EnrolleeRuleData ruleData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ruleData = new EnrolleeRuleData(
+                Enrollee.builder().shortcode("BENCH1").consented(true).build(),
+                Profile.builder().sexAtBirth("female").birthDate(LocalDate.of(1970, 1, 1)).build());
+    }
+
+    @Benchmark
+    public boolean evaluateEnrolleeRule() {
+        return RuleEvaluator.evaluateEnrolleeRule(RULE, ruleData);
+    }
+}
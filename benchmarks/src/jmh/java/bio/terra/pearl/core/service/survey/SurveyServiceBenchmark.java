@@ -0,0 +1,40 @@
+package bio.terra.pearl.core.service.survey;
+
+import bio.terra.pearl.core.benchmark.BenchmarkContext;
+import bio.terra.pearl.core.benchmark.BenchmarkFixtures;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** parsing the question definitions out of survey json, as is done on every survey create/publish */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SurveyServiceBenchmark {
+    @Param({"basic.json", "medicalHistory.json", "familyHistory.json"})
+    public String surveyFile;
+
+    private SurveyService surveyService;
+    private Survey survey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        surveyService = BenchmarkContext.getBean(SurveyService.class);
+        survey = BenchmarkFixtures.loadSurvey(surveyFile);
+    }
+
+    @Benchmark
+    public List<SurveyQuestionDefinition> getSurveyQuestionDefinitions() {
+        return surveyService.getSurveyQuestionDefinitions(survey);
+    }
+}
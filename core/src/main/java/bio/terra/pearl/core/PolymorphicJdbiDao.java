@@ -1,9 +1,11 @@
 package bio.terra.pearl.core;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
+import bio.terra.pearl.core.dao.EntityRowMapper;
 import bio.terra.pearl.core.model.BaseEntity;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -13,7 +15,6 @@ import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.Mappers;
 import org.jdbi.v3.core.mapper.NoSuchMapperException;
 import org.jdbi.v3.core.mapper.RowMapper;
-import org.jdbi.v3.core.mapper.reflect.BeanMapper;
 import org.jdbi.v3.core.statement.StatementContext;
 
 /**
@@ -43,6 +44,14 @@ public abstract class PolymorphicJdbiDao<T extends BaseEntity> extends BaseMutab
         return parentClassFields.stream().toList();
     }
 
+    /** queries list their columns explicitly, so the discriminator has to be one of them */
+    @Override
+    protected List<String> generateGetColumns(List<String> getFields) {
+        List<String> columns = new ArrayList<>(super.generateGetColumns(getFields));
+        columns.add(DISCRIMINATOR_COLUMN);
+        return columns;
+    }
+
     public class PolymorphicRowMapper implements RowMapper<T> {
         @Override
         public T map(ResultSet rs, StatementContext ctx) throws SQLException {
@@ -71,9 +80,9 @@ public abstract class PolymorphicJdbiDao<T extends BaseEntity> extends BaseMutab
     }
 
     protected void initializeRowMapper(Jdbi jdbi) {
-        // register a basic bean mapper for each subclass
+        // register a basic entity mapper for each subclass
         getSubclasses().stream().forEach(clazz ->
-                jdbi.registerRowMapper(clazz, BeanMapper.of(clazz)));
+                jdbi.registerRowMapper(clazz, EntityRowMapper.of(clazz)));
         // then register the polymorphic mapper for the base class
         jdbi.registerRowMapper(getClazz(), new PolymorphicRowMapper());
     }
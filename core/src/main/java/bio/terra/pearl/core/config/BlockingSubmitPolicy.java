@@ -0,0 +1,30 @@
+package bio.terra.pearl.core.config;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * For executors with bounded queues whose submitters should wait for room rather than drop or reorder work: when the
+ * queue is full, the submitting thread blocks until it can queue the task.  The task is rejected -- so the submitter
+ * can run it some other way -- only if the executor is shut down, or the submitter is interrupted while waiting.
+ */
+public class BlockingSubmitPolicy implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the queue", e);
+        }
+        // if the executor shut down while this waited, its threads may already have drained the queue and exited, and
+        // then nothing would run the task.  Taking it back out fails if a thread got to it first, so it runs once
+        if (executor.isShutdown() && executor.remove(task)) {
+            throw new RejectedExecutionException("Executor shut down while waiting for room in the queue");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bio.terra.pearl.core.config;
+
+import bio.terra.pearl.core.service.BulkOperationExecutor;
+import bio.terra.pearl.core.service.notification.BulkNotificationExecutor;
+import bio.terra.pearl.core.service.workflow.EnrolleeEventExecutor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Creates a connection pool for each DbWorkload, behind a WorkloadRoutingDataSource.  Every pool starts from the
+ * spring.datasource.hikari settings; the interactive pool uses them as is, and the batch and export pools get their
+ * own sizes and don't hold idle connections, so an app that never does that work (e.g. api-participant) doesn't keep
+ * connections open for it.  If env.db.replicaHost is set, the export pool connects to that read replica instead of
+ * the primary.
+ *
+ * The pools aren't beans themselves, so Spring Boot doesn't publish their metrics; each gets a Micrometer tracker
+ * here instead, reporting as hikaricp.* tagged with the pool's name.
+ */
+@Configuration
+public class DataSourceConfiguration {
+    /** if blank, the batch pool is sized for the threads that do batch work -- see batchPoolSize */
+    public static final String BATCH_POOL_SIZE_VAR = "env.db.batchPoolSize";
+    public static final String EXPORT_POOL_SIZE_VAR = "env.db.exportPoolSize";
+    /** optional; host, or host:port, of a read replica for the export pool */
+    public static final String REPLICA_HOST_VAR = "env.db.replicaHost";
+    /** batch connections beyond the event, bulk notification and bulk operation threads: the scheduler, an import */
+    private static final int BATCH_JOB_CONNECTIONS = 2;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment env,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        MicrometerMetricsTrackerFactory metricsTrackerFactory =
+                new MicrometerMetricsTrackerFactory(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        Map<DbWorkload, HikariDataSource> pools = new EnumMap<>(DbWorkload.class);
+        for (DbWorkload workload : DbWorkload.values()) {
+            HikariDataSource pool = createPool(workload, properties, env);
+            pool.setMetricsTrackerFactory(metricsTrackerFactory);
+            pools.put(workload, pool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    /**
+     * unless set, the batch pool has a connection for each thread that does batch work, so event lanes and bulk
+     * sends never wait on a scheduled job for a connection, or the other way round
+     */
+    protected static int batchPoolSize(Environment env) {
+        String poolSize = env.getProperty(BATCH_POOL_SIZE_VAR, "");
+        if (!poolSize.isBlank()) {
+            return Integer.parseInt(poolSize);
+        }
+        return env.getProperty(EnrolleeEventExecutor.WORKER_THREADS_VAR, Integer.class, 4)
+                + env.getProperty(BulkNotificationExecutor.WORKER_THREADS_VAR, Integer.class, 2)
+                + env.getProperty(BulkOperationExecutor.WORKER_THREADS_VAR, Integer.class, 1)
+                + BATCH_JOB_CONNECTIONS;
+    }
+
+    /** the primary's url, with its host and port replaced by the replica's, so the database and params carry over */
+    protected static String replicaUrl(String primaryUrl, String replicaHost) {
+        int hostStart = primaryUrl.indexOf("//") + 2;
+        int hostEnd = primaryUrl.indexOf('/', hostStart);
+        if (hostStart < 2 || hostEnd < 0) {
+            throw new IllegalStateException("Can't find the host in the datasource url, so can't use a replica");
+        }
+        return primaryUrl.substring(0, hostStart) + replicaHost + primaryUrl.substring(hostEnd);
+    }
+
+    protected HikariDataSource createPool(DbWorkload workload, DataSourceProperties properties, Environment env) {
+        // created without a config so that the pool isn't started until its first connection is requested
+        HikariDataSource pool = new HikariDataSource();
+        pool.setDriverClassName(properties.determineDriverClassName());
+        pool.setJdbcUrl(properties.determineUrl());
+        pool.setUsername(properties.determineUsername());
+        pool.setPassword(properties.determinePassword());
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("pearl-" + workload.name().toLowerCase());
+        if (workload == DbWorkload.BATCH) {
+            pool.setMaximumPoolSize(batchPoolSize(env));
+            pool.setMinimumIdle(0);
+        } else if (workload == DbWorkload.EXPORT) {
+            pool.setMaximumPoolSize(env.getProperty(EXPORT_POOL_SIZE_VAR, Integer.class, 2));
+            pool.setMinimumIdle(0);
+            pool.setReadOnly(true);
+            String replicaHost = env.getProperty(REPLICA_HOST_VAR, "");
+            if (!replicaHost.isBlank()) {
+                pool.setJdbcUrl(replicaUrl(properties.determineUrl(), replicaHost));
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,58 @@
+package bio.terra.pearl.core.config;
+
+/**
+ * The kinds of database work that get their own connection pool, so that a long export or scheduled job can't take
+ * every connection away from participants and admins using the site.  Code doing background work marks itself with
+ * run or call, e.g. DbWorkload.BATCH.run(() -> service.doBigJob()), and every connection it acquires comes from that
+ * workload's pool -- see WorkloadRoutingDataSource.
+ *
+ * The workload is chosen when a connection is acquired, which for a transaction is when it begins.  So work has to be
+ * marked before its transaction starts: anything run inside an existing transaction keeps using that transaction's
+ * connection, whatever it's marked as.
+ */
+public enum DbWorkload {
+    /** requests from the participant and admin UIs.  The default */
+    INTERACTIVE,
+    /** scheduled jobs, imports and other background work */
+    BATCH,
+    /**
+     * long-running reads, like exports.  Connections are read-only, and come from the read replica if one is
+     * configured, so work marked with this must not write
+     */
+    EXPORT;
+
+    private static final ThreadLocal<DbWorkload> CURRENT = new ThreadLocal<>();
+
+    /** the workload of the current thread */
+    public static DbWorkload current() {
+        DbWorkload workload = CURRENT.get();
+        return workload == null ? INTERACTIVE : workload;
+    }
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    /** runs the work as this workload, then restores the thread's previous workload */
+    public <T, E extends Exception> T call(Work<T, E> work) throws E {
+        DbWorkload previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package bio.terra.pearl.core.config;
+
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
+import bio.terra.pearl.core.service.instrumentation.TimedApplicationEventMulticaster;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.AbstractApplicationContext;
+
+@Configuration
+public class EventConfiguration {
+    /** replaces Spring's default multicaster, which the context looks up by this bean name */
+    @Bean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public ApplicationEventMulticaster applicationEventMulticaster(ObjectProvider<Instrumentation> instrumentation) {
+        return new TimedApplicationEventMulticaster(instrumentation);
+    }
+}
@@ -1,8 +1,10 @@
 package bio.terra.pearl.core.config;
 
+import bio.terra.pearl.core.dao.stats.QueryStatsRecorder;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.spi.JdbiPlugin;
 import org.jdbi.v3.core.statement.Slf4JSqlLogger;
+import org.jdbi.v3.core.statement.SqlStatements;
 import org.jdbi.v3.postgres.PostgresPlugin;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,7 +21,10 @@ public class JdbiConfiguration {
     public Jdbi jdbi(DataSource ds, List<JdbiPlugin> jdbiPlugins) {
         TransactionAwareDataSourceProxy proxy = new TransactionAwareDataSourceProxy(ds);
         Jdbi jdbi = Jdbi.create(proxy);
-        jdbi.setSqlLogger(new Slf4JSqlLogger());
+        // counts statements for QueryStats, as well as logging them
+        QueryStatsRecorder queryStatsRecorder = new QueryStatsRecorder(new Slf4JSqlLogger());
+        jdbi.setSqlLogger(queryStatsRecorder);
+        jdbi.getConfig(SqlStatements.class).addCustomizer(queryStatsRecorder);
         jdbiPlugins.forEach(plugin -> jdbi.installPlugin(plugin));
         return jdbi;
 
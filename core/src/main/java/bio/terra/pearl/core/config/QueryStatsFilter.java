@@ -0,0 +1,64 @@
+package bio.terra.pearl.core.config;
+
+import bio.terra.pearl.core.dao.stats.QueryStats;
+import bio.terra.pearl.core.dao.stats.QueryStatsReporter;
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Counts the sql statements run by each request, reported under the request's method and route pattern (so all
+ * enrollees' pages are one metric, not one per shortcode).  When env.db.queryStatsHeaders is set, the counts are
+ * also returned as response headers, which is handy for spotting N+1 queries from the browser -- the response body
+ * is buffered so the headers can be added after the controller has run, so this should be off in production.
+ *
+ * Shared by the admin and participant APIs; apps that don't serve requests (e.g. populate) don't create it.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class QueryStatsFilter extends OncePerRequestFilter {
+    /** buffers every response body, so should be false in production */
+    public static final String QUERY_STATS_HEADERS_VAR = "env.db.queryStatsHeaders";
+    public static final String STATEMENT_COUNT_HEADER = "X-Db-Statement-Count";
+    public static final String DB_TIME_HEADER = "X-Db-Time-Ms";
+    private final QueryStatsReporter queryStatsReporter;
+    private final boolean addHeaders;
+
+    public QueryStatsFilter(QueryStatsReporter queryStatsReporter, Environment env) {
+        this.queryStatsReporter = queryStatsReporter;
+        this.addHeaders = env.getProperty(QUERY_STATS_HEADERS_VAR, Boolean.class, false);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = addHeaders ? new ContentCachingResponseWrapper(response) : null;
+        // the route pattern isn't known until the request has been dispatched, so it's used as the reported name
+        // afterward
+        QueryStats stats = QueryStats.start(request.getRequestURI());
+        try {
+            filterChain.doFilter(request, addHeaders ? cachingResponse : response);
+        } finally {
+            stats.stop();
+            queryStatsReporter.report(QueryStatsReporter.REQUEST_SCOPE, stats, routeName(request));
+            if (addHeaders) {
+                cachingResponse.setHeader(STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+                cachingResponse.setHeader(DB_TIME_HEADER, String.valueOf(stats.getTotalTime().toMillis()));
+                cachingResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private String routeName(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "unmatched");
+    }
+}
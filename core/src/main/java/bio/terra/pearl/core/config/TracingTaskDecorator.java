@@ -0,0 +1,25 @@
+package bio.terra.pearl.core.config;
+
+import io.opencensus.common.Scope;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.Tracing;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the submitting thread's trace span into background work (e.g. notification sends and event lanes), so that
+ * work shows up in the trace of the request that triggered it.  Spring Boot applies a single TaskDecorator bean to
+ * the executor it creates for @Async, and our own executors pick it up the same way.
+ */
+@Component
+public class TracingTaskDecorator implements TaskDecorator {
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Span span = Tracing.getTracer().getCurrentSpan();
+        return () -> {
+            try (Scope scope = Tracing.getTracer().withSpan(span)) {
+                runnable.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package bio.terra.pearl.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the pool for the current thread's DbWorkload.  This is the application's only DataSource
+ * bean, so Jdbi, the transaction manager and everything else share it, and a transaction's statements always run on
+ * the one connection it started with.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private final Map<DbWorkload, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<DbWorkload, HikariDataSource> pools) {
+        this.pools = pools;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(DbWorkload.INTERACTIVE));
+        // a workload without a pool would silently fall back to the interactive one
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public HikariDataSource getPool(DbWorkload workload) {
+        return pools.get(workload);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DbWorkload.current();
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -4,21 +4,26 @@ import bio.terra.pearl.core.model.BaseEntity;
 import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.RowMapper;
-import org.jdbi.v3.core.mapper.reflect.BeanMapper;
 import org.jdbi.v3.core.result.RowView;
 import org.jdbi.v3.core.statement.PreparedBatch;
-import org.springframework.beans.PropertyAccessor;
-import org.springframework.beans.PropertyAccessorFactory;
+import org.jdbi.v3.core.statement.Query;
+import org.jdbi.v3.core.statement.Update;
 
 public abstract class BaseJdbiDao<T extends BaseEntity> {
     protected Jdbi jdbi;
@@ -30,6 +35,24 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     protected List<String> getQueryFieldSymbols;
     protected List<String> getQueryColumns;
     protected String createQuerySql;
+    /** "select <mapped columns> from <table>" -- queries list the mapped columns rather than select * */
+    protected String selectSql;
+    /** the mapped columns, for returning from inserts and updates */
+    protected String[] returningColumns;
+    /**
+     * sql for the generic property queries, keyed by operation and columns.  Since the text of a given query is then
+     * always identical, pgjdbc's statement cache can reuse the server-side prepared statement once the query has run
+     * prepareThreshold times on a connection, so the hot lookups skip parsing and planning.  The apps' datasources set
+     * a low prepareThreshold, and a preparedStatementCacheQueries large enough for all the DAOs' generated queries.
+     */
+    private final Map<String, String> sqlCache = new ConcurrentHashMap<>();
+    /** lists at least this long are written with COPY (see BulkCopyWriter) rather than as a batch of inserts */
+    protected static final int BULK_COPY_THRESHOLD = 500;
+    /** createAll writes at most this many rows per statement, to stay well under postgres' bind parameter limit */
+    protected static final int CREATE_ALL_MAX_ROWS = 500;
+    /** created on first use, for the insert fields without and with id */
+    private BulkCopyWriter<T> bulkCopyWriter;
+    private BulkCopyWriter<T> bulkCopyWriterWithId;
     @Getter
     protected String tableName;
     protected Class<T> clazz;
@@ -37,10 +60,10 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     protected abstract Class<T> getClazz();
 
     protected RowMapper<T> getRowMapper() {
-        return BeanMapper.of(getClazz());
+        return EntityRowMapper.of(getClazz());
     }
     protected RowMapper<T> getRowMapper(String prefix) {
-        return BeanMapper.of(getClazz(), prefix);
+        return EntityRowMapper.of(getClazz(), prefix);
     }
 
     protected List<String> getInsertExcludedFields() {
@@ -103,6 +126,8 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         getQueryColumns = generateGetColumns(getQueryFields);
         tableName = generateTableName();
         createQuerySql = getCreateQuerySql();
+        selectSql = "select " + String.join(", ", getQueryColumns) + " from " + tableName;
+        returningColumns = getQueryColumns.toArray(new String[0]);
         initializeRowMapper(jdbi);
     }
 
@@ -121,7 +146,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         return jdbi.withHandle(handle ->
                 handle.createUpdate(createQuerySql)
                         .bindBean(modelObj)
-                        .executeAndReturnGeneratedKeys()
+                        .executeAndReturnGeneratedKeys(returningColumns)
                         .mapTo(clazz)
                         .one()
         );
@@ -135,7 +160,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         return jdbi.withHandle(handle ->
                 handle.createUpdate(getCreateQueryWithIdSpecifiedSql())
                         .bindBean(modelObj)
-                        .executeAndReturnGeneratedKeys()
+                        .executeAndReturnGeneratedKeys(returningColumns)
                         .mapTo(clazz)
                         .one()
         );
@@ -143,18 +168,94 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
 
     /**
      * creates all the objects with a single call to the database -- this has the downside that it does not
-     * return the created objects --it returns an int[] with the number of rows modified -- it should be all ones
+     * return the created objects --it returns an int[] with the number of rows modified -- it should be all ones.
+     * Lists of BULK_COPY_THRESHOLD or more are written with COPY, which is much faster for large imports.
      * */
     public void bulkCreate(List<T> modelObjs) {
+        for (T obj : modelObjs) {
+            if (obj.getId() != null) {
+                throw new IllegalArgumentException("object passed to bulk create already has id: " + obj.getId());
+            }
+        }
+        executeBulkCreate(createQuerySql, false, modelObjs);
+    }
+
+    /**
+     * bulk equivalent of createWithIdSpecified.  Useful when generating large object graphs, since the ids can be
+     * assigned client-side and children linked up before anything is written.
+     */
+    public void bulkCreateWithIdSpecified(List<T> modelObjs) {
+        for (T obj : modelObjs) {
+            if (obj.getId() == null) {
+                throw new IllegalArgumentException("object passed to bulk create with id specified has no id");
+            }
+        }
+        executeBulkCreate(getCreateQueryWithIdSpecifiedSql(), true, modelObjs);
+    }
+
+    /**
+     * creates all the objects with one multi-row insert, and returns the created objects (with their new ids)
+     * in the same order.  Unlike bulkCreate, the caller gets the created objects back, so this suits the handful of
+     * rows created together in a request -- e.g. an enrollee's tasks -- where one round trip beats one per row.
+     * The ids are assigned here rather than by the database, so the returned rows can be matched back to the inputs
+     * by id -- postgres doesn't promise that RETURNING lists the rows in the order of the VALUES.
+     */
+    public List<T> createAll(List<T> modelObjs) {
+        for (T obj : modelObjs) {
+            if (obj.getId() != null) {
+                throw new IllegalArgumentException("object passed to create all already has id: " + obj.getId());
+            }
+        }
+        List<T> created = new ArrayList<>(modelObjs.size());
+        for (int start = 0; start < modelObjs.size(); start += CREATE_ALL_MAX_ROWS) {
+            List<T> chunk = modelObjs.subList(start, Math.min(modelObjs.size(), start + CREATE_ALL_MAX_ROWS));
+            List<UUID> ids = chunk.stream().map(obj -> UUID.randomUUID()).toList();
+            Map<UUID, T> createdById = jdbi.withHandle(handle -> {
+                Update update = handle.createUpdate(getCreateAllQuerySql(chunk.size()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    update.bindBean("row" + i, chunk.get(i));
+                    update.bind("row" + i + "Id", ids.get(i));
+                }
+                return update.executeAndReturnGeneratedKeys(returningColumns).mapTo(clazz).stream()
+                        .collect(Collectors.toMap(BaseEntity::getId, obj -> obj));
+            });
+            for (UUID id : ids) {
+                T obj = createdById.get(id);
+                if (obj == null) {
+                    throw new IllegalStateException("create all did not return the row with id: " + id);
+                }
+                created.add(obj);
+            }
+        }
+        return created;
+    }
+
+    protected String getCreateAllQuerySql(int rowCount) {
+        return cachedSql("createAll:" + rowCount, () -> {
+            String values = IntStream.range(0, rowCount)
+                    .mapToObj(i -> Stream.concat(Stream.of(":row" + i + "Id"),
+                                    insertFields.stream().map(field -> ":row" + i + "." + field))
+                            .collect(Collectors.joining(", ", "(", ")")))
+                    .collect(Collectors.joining(", "));
+            return "insert into " + tableName + " (id, " + String.join(", ", insertColumns) + ") values " + values;
+        });
+    }
+
+    private void executeBulkCreate(String sql, boolean withId, List<T> modelObjs) {
         if (modelObjs.isEmpty()) {
             return;
         }
+        if (modelObjs.size() >= BULK_COPY_THRESHOLD) {
+            long rowsCopied = jdbi.withHandle(handle -> bulkCopy(handle, tableName, withId, modelObjs));
+            if (rowsCopied != modelObjs.size()) {
+                throw new IllegalStateException("bulk create copied %d of %d rows"
+                        .formatted(rowsCopied, modelObjs.size()));
+            }
+            return;
+        }
         int[] result = jdbi.withHandle(handle -> {
-            PreparedBatch batch = handle.prepareBatch(createQuerySql);
+            PreparedBatch batch = handle.prepareBatch(sql);
             for (T obj : modelObjs) {
-                if (obj.getId() != null) {
-                    throw new IllegalArgumentException("object passed to bulk create already has id: " + obj.getId());
-                }
                 batch.bindBean(obj).add();
             }
             return batch.execute();
@@ -166,6 +267,43 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         }
     }
 
+    /**
+     * copies the objects' insert fields (and ids, if withId) into the target table, which is normally this dao's table,
+     * but can be a staging table with the same columns.  Returns the number of rows written.  This is a single
+     * statement, so it either writes every row or none.
+     */
+    protected long bulkCopy(Handle handle, String targetTable, boolean withId, List<T> modelObjs) {
+        try {
+            return getBulkCopyWriter(withId).copy(handle.getConnection(), targetTable, modelObjs);
+        } catch (SQLException e) {
+            throw new IllegalStateException("bulk copy into " + targetTable + " failed", e);
+        }
+    }
+
+    private BulkCopyWriter<T> getBulkCopyWriter(boolean withId) {
+        if (withId) {
+            if (bulkCopyWriterWithId == null) {
+                List<String> fields = new ArrayList<>(insertFields);
+                fields.add(0, "id");
+                bulkCopyWriterWithId = new BulkCopyWriter<>(clazz, fields);
+            }
+            return bulkCopyWriterWithId;
+        }
+        if (bulkCopyWriter == null) {
+            bulkCopyWriter = new BulkCopyWriter<>(clazz, insertFields);
+        }
+        return bulkCopyWriter;
+    }
+
+    /**
+     * returns the sql cached under the key, building it the first time.  The key should identify everything the sql
+     * depends on, e.g. the operation and column names.  Only use this for sql built from code-defined column names,
+     * not from user input, since the cache isn't bounded.
+     */
+    protected String cachedSql(String key, Supplier<String> sqlBuilder) {
+        return sqlCache.computeIfAbsent(key, k -> sqlBuilder.get());
+    }
+
     protected String getCreateQuerySql() {
         return "insert into " + tableName + " (" + StringUtils.join(insertColumns, ", ") +") " +
                 "values (" + StringUtils.join(insertFieldSymbols, ", ") + ");";
@@ -183,7 +321,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     /** basic get-by-id */
     public Optional<T> find(UUID id) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where id = :id;")
+                handle.createQuery(cachedSql("find", () -> selectSql + " where id = :id;"))
                         .bind("id", id)
                         .mapTo(clazz)
                         .findOne()
@@ -192,7 +330,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
 
     public List<T> findAll() {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName)
+                handle.createQuery(selectSql)
                         .mapTo(clazz)
                         .list()
         );
@@ -213,6 +351,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
                 .collect(Collectors.toList());
         List<String> childCols = ((List<String>) childDao.getQueryColumns).stream().map(col -> "b." + col + " b_" + col)
                 .collect(Collectors.toList());
+        BiConsumer<Object, Object> childSetter = BeanAccessors.forClass(clazz).setter(childPropertyName);
         return jdbi.withHandle(handle ->
                 handle.createQuery("select " + String.join(", ", parentCols) + ", "
                         + String.join(", ", childCols)
@@ -227,8 +366,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
                                     rowView.getColumn("a_id", UUID.class),
                                     rowId -> rowView.getRow(clazz));
                             if (rowView.getColumn("b_id", UUID.class) != null) {
-                                PropertyAccessor accessor = PropertyAccessorFactory.forBeanPropertyAccess(parent);
-                                accessor.setPropertyValue(childPropertyName, rowView.getRow(childDao.getClazz()));
+                                childSetter.accept(parent, rowView.getRow(childDao.getClazz()));
                             }
                         })
                         .findFirst()
@@ -237,7 +375,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
 
     protected Optional<T> findByProperty(String columnName, Object columnValue) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + columnName + " = :columnValue;")
+                handle.createQuery(getPropertyQuerySql(columnName))
                         .bind("columnValue", columnValue)
                         .mapTo(clazz)
                         .findOne()
@@ -247,8 +385,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     protected Optional<T> findByTwoProperties(String column1Name, Object column1Value,
                                               String column2Name, Object column2Value) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + column1Name + " = :column1Value"
-                        + " and " + column2Name + " = :column2Value;")
+                handle.createQuery(getTwoPropertyQuerySql(column1Name, column2Name))
                         .bind("column1Value", column1Value)
                         .bind("column2Value", column2Value)
                         .mapTo(clazz)
@@ -259,8 +396,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     protected List<T> findAllByTwoProperties(String column1Name, Object column1Value,
                                               String column2Name, Object column2Value) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + column1Name + " = :column1Value"
-                                + " and " + column2Name + " = :column2Value;")
+                handle.createQuery(getTwoPropertyQuerySql(column1Name, column2Name))
                         .bind("column1Value", column1Value)
                         .bind("column2Value", column2Value)
                         .mapTo(clazz)
@@ -270,7 +406,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
 
     protected List<T> findAllByProperty(String columnName, Object columnValue) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + columnName + " = :columnValue;")
+                handle.createQuery(getPropertyQuerySql(columnName))
                         .bind("columnValue", columnValue)
                         .mapTo(clazz)
                         .list()
@@ -279,7 +415,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
 
     protected Stream<T> streamAllByProperty(String columnName, Object columnValue) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + columnName + " = :columnValue;")
+                handle.createQuery(getPropertyQuerySql(columnName))
                         .bind("columnValue", columnValue)
                         .mapTo(clazz)
                         .stream()
@@ -292,8 +428,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
             return new ArrayList<>();
         }
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + columnName + " IN (<columnValues>);")
-                        .bindList("columnValues", columnValues)
+                createPropertyCollectionQuery(handle, columnName, columnValues)
                         .mapTo(clazz)
                         .list()
         );
@@ -305,17 +440,33 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
             return Stream.empty();
         }
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + columnName + " IN (<columnValues>);")
-                        .bindList("columnValues", columnValues)
+                createPropertyCollectionQuery(handle, columnName, columnValues)
                         .mapTo(clazz)
                         .stream()
         );
     }
 
+    /**
+     * uuids and strings are bound as a single array parameter, so the sql is the same whatever the number of values
+     * and can be prepared once.  Other types fall back to an IN list.
+     */
+    private Query createPropertyCollectionQuery(Handle handle, String columnName, Collection<?> columnValues) {
+        Object firstValue = columnValues.iterator().next();
+        if (firstValue instanceof UUID || firstValue instanceof String) {
+            return handle.createQuery(cachedSql("findAllByPropertyCollection:" + columnName,
+                            () -> selectSql + " where " + columnName + " = any(:columnValues);"))
+                    .bindArray("columnValues", firstValue.getClass(), columnValues);
+        }
+        return handle.createQuery(selectSql + " where " + columnName + " IN (<columnValues>);")
+                .bindList("columnValues", columnValues);
+    }
+
     protected List<T> findAllByPropertySorted(String columnName, Object columnValue, String sortProperty, String sortDir) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("select * from " + tableName + " where " + columnName + " = :columnValue"
-                        + " order by " + sortProperty + " " + sortDir)
+                handle.createQuery(cachedSql("findAllByPropertySorted:%s:%s:%s"
+                                        .formatted(columnName, sortProperty, sortDir),
+                                () -> selectSql + " where " + columnName + " = :columnValue"
+                                        + " order by " + sortProperty + " " + sortDir))
                         .bind("columnValue", columnValue)
                         .mapTo(clazz)
                         .list()
@@ -326,12 +477,13 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
                                                    String column2Name, Object column2Value,
                                                    String sortProperty, String sortDir) {
         return jdbi.withHandle(handle ->
-                handle.createQuery("""
-                                select * from %s 
+                handle.createQuery(cachedSql("findAllByTwoPropertiesSorted:%s:%s:%s:%s"
+                                .formatted(column1Name, column2Name, sortProperty, sortDir), () -> """
+                                %s
                                 where %s = :column1Value
                                 and %s = :column2Value
                                 order by %s %s
-                                """.formatted(tableName, column1Name, column2Name, sortProperty, sortDir))
+                                """.formatted(selectSql, column1Name, column2Name, sortProperty, sortDir)))
                         .bind("column1Value", column1Value)
                         .bind("column2Value", column2Value)
                         .mapTo(clazz)
@@ -349,29 +501,41 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
 
     public void delete(UUID id) {
         jdbi.withHandle(handle ->
-                handle.createUpdate("delete from " + tableName + " where id = :id;")
+                handle.createUpdate(cachedSql("delete", () -> "delete from " + tableName + " where id = :id;"))
                         .bind("id", id)
                         .execute()
         );
     }
 
     public void deleteAll(List<UUID> ids) {
-        if (ids.isEmpty()) { return; } // bindList does not allow empty lists
-        jdbi.withHandle(handle ->
-                handle.createUpdate("delete from " + tableName + " where id IN (<ids>);")
-                        .bindList("ids", ids)
-                        .execute()
-        );
+        deleteAllByUuidProperty("id", ids);
     }
 
     protected void deleteByProperty(String columnName, Object columnValue) {
         jdbi.withHandle(handle ->
-                handle.createUpdate("delete from " + tableName + " where " + columnName + " = :propertyValue;")
+                handle.createUpdate(cachedSql("deleteByProperty:" + columnName,
+                                () -> "delete from " + tableName + " where " + columnName + " = :propertyValue;"))
                         .bind("propertyValue", columnValue)
                         .execute()
         );
     }
 
+    /**
+     * deletes all rows whose column matches any of the given uuids.  The uuids are bound as a single array parameter,
+     * so the statement text is the same regardless of how many are passed.  Returns the number of rows deleted.
+     */
+    protected int deleteAllByUuidProperty(String columnName, Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return 0;
+        }
+        return jdbi.withHandle(handle ->
+                handle.createUpdate(cachedSql("deleteAllByUuidProperty:" + columnName,
+                                () -> "delete from " + tableName + " where " + columnName + " = any(:uuids);"))
+                        .bindArray("uuids", UUID.class, uuids)
+                        .execute()
+        );
+    }
+
     protected void deleteByParentUuid(String parentColumnName, UUID parentUUID, BaseJdbiDao parentDao) {
         jdbi.withHandle(handle ->
                 handle.createUpdate("delete from " + tableName + " using  " + parentDao.tableName
@@ -399,6 +563,17 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         );
     }
 
+    protected String getPropertyQuerySql(String columnName) {
+        return cachedSql("findAllByProperty:" + columnName,
+                () -> selectSql + " where " + columnName + " = :columnValue;");
+    }
+
+    protected String getTwoPropertyQuerySql(String column1Name, String column2Name) {
+        return cachedSql("findAllByTwoProperties:%s:%s".formatted(column1Name, column2Name),
+                () -> selectSql + " where " + column1Name + " = :column1Value"
+                        + " and " + column2Name + " = :column2Value;");
+    }
+
     protected String prefixedGetQueryColumns(String prefix) {
         List<String> prefixedCols = getQueryColumns.stream().map(col -> prefix + "." + col)
                 .collect(Collectors.toList());
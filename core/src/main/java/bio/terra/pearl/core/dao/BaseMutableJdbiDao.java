@@ -47,27 +47,47 @@ public abstract class BaseMutableJdbiDao<T extends BaseEntity> extends BaseJdbiD
         String insertColumnsString = String.join(", ", insertColumns);
         String insertFieldSymbolsString = String.join(", ", insertFieldSymbols);
 
+        return "insert into " + tableName + " (" + insertColumnsString + ") "
+                + "values (" + insertFieldSymbolsString + ") "
+                + getOnConflictUpdateSql(onConflictField);
+    }
+
+    /**
+     * upsert from a staging table with the same columns as this one, for bulkUpsert of large lists.  If the staging
+     * table has several rows for the same conflict key, the last one copied wins, as it would in a batch of upserts
+     */
+    protected String getStagedUpsertQuerySql(String stagingTableName, String onConflictField) {
+        String insertColumnsString = String.join(", ", insertColumns);
+        return "insert into " + tableName + " (" + insertColumnsString + ") "
+                + "select distinct on (" + onConflictField + ") " + insertColumnsString + " from " + stagingTableName
+                + " order by " + onConflictField + ", ctid desc "
+                + getOnConflictUpdateSql(onConflictField);
+    }
+
+    protected String getOnConflictUpdateSql(String onConflictField) {
         // For the updates, we need to exclude the createdAt field to preserve the original value
         List<String> updateColumns = insertColumns.stream().filter(col -> !"created_at".equals(col)).toList();
         List<String> excludedColumns = updateColumns.stream().map(column -> column + " = excluded." + column).toList();
-        String excludedColumnsString = String.join(", ", excludedColumns);
-
-        return "insert into " + tableName + " (" + insertColumnsString + ") "
-                + "values (" + insertFieldSymbolsString + ") "
-                + "on conflict (" + onConflictField + ") do update set "
-                + excludedColumnsString;
+        return "on conflict (" + onConflictField + ") do update set " + String.join(", ", excludedColumns);
     }
 
     public void bulkUpsert(List<T> modelObjs, String onConflictField) {
         if (modelObjs.isEmpty()) {
             return;
         }
+        for (T obj : modelObjs) {
+            if (obj.getId() != null) {
+                throw new IllegalArgumentException("object passed to bulk upsert already has id: " + obj.getId());
+            }
+        }
+        if (modelObjs.size() >= BULK_COPY_THRESHOLD) {
+            bulkUpsertFromStaging(modelObjs, onConflictField);
+            return;
+        }
         int[] result = jdbi.withHandle(handle -> {
-            PreparedBatch batch = handle.prepareBatch(getUpsertQuerySql(onConflictField));
+            PreparedBatch batch = handle.prepareBatch(cachedSql("upsert:" + onConflictField,
+                    () -> getUpsertQuerySql(onConflictField)));
             for (T obj : modelObjs) {
-                if (obj.getId() != null) {
-                    throw new IllegalArgumentException("object passed to bulk upsert already has id: " + obj.getId());
-                }
                 batch.bindBean(obj).add();
             }
             return batch.execute();
@@ -77,6 +97,28 @@ public abstract class BaseMutableJdbiDao<T extends BaseEntity> extends BaseJdbiD
         }
     }
 
+    /**
+     * copies the objects into a temp table shaped like this one, then upserts them all with a single statement.  The
+     * temp table only lives for the transaction, and is dropped explicitly in case that's an outer one that does
+     * several of these.
+     */
+    protected void bulkUpsertFromStaging(List<T> modelObjs, String onConflictField) {
+        String stagingTableName = tableName + "_staging";
+        jdbi.useTransaction(handle -> {
+            handle.execute("drop table if exists " + stagingTableName);
+            handle.execute("create temp table " + stagingTableName
+                    + " (like " + tableName + " including defaults) on commit drop");
+            long rowsCopied = bulkCopy(handle, stagingTableName, false, modelObjs);
+            if (rowsCopied != modelObjs.size()) {
+                throw new IllegalStateException("bulk upsert staged %d of %d rows"
+                        .formatted(rowsCopied, modelObjs.size()));
+            }
+            handle.execute(cachedSql("stagedUpsert:" + onConflictField,
+                    () -> getStagedUpsertQuerySql(stagingTableName, onConflictField)));
+            handle.execute("drop table " + stagingTableName);
+        });
+    }
+
     /**
      * updates the database to reflect the matchObj.  Throws error if matchObj does not have an id
      * This handles updating the lastUpdatedAt field to the current time
@@ -87,10 +129,10 @@ public abstract class BaseMutableJdbiDao<T extends BaseEntity> extends BaseJdbiD
         }
         matchObj.setLastUpdatedAt(Instant.now());
         return jdbi.withHandle(handle ->
-                handle.createUpdate("update " + tableName + " set " + updateFieldString +
-                                " where id = :id;")
+                handle.createUpdate(cachedSql("update",
+                                () -> "update " + tableName + " set " + updateFieldString + " where id = :id;"))
                         .bindBean(matchObj)
-                        .executeAndReturnGeneratedKeys()
+                        .executeAndReturnGeneratedKeys(returningColumns)
                         .mapTo(clazz)
                         .one()
         );
@@ -22,6 +22,28 @@ public abstract class BaseVersionedJdbiDao<T extends BaseEntity & Versioned> ext
         return findAllByProperty("stable_id", stableId);
     }
 
+    /**
+     * loads just the columns that identify each version (see getNoContentColumns), not the content, which for surveys
+     * and consent forms can be very large.  For cases like publishing, which only compare which versions are in use.
+     */
+    public List<T> findAllNoContent(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbi.withHandle(handle ->
+                handle.createQuery(cachedSql("findAllNoContent", () ->
+                                "select " + String.join(", ", getNoContentColumns()) + " from " + tableName
+                                        + " where id = any(:ids)"))
+                        .bindArray("ids", UUID.class, ids)
+                        .mapTo(clazz)
+                        .list()
+        );
+    }
+
+    protected List<String> getNoContentColumns() {
+        return List.of("id", "created_at", "last_updated_at", "stable_id", "version", "published_version", "portal_id");
+    }
+
     /** gets 1 plus the previous highest version, or 1 if no version already exists */
     public int getNextVersion(String stableId) {
         return jdbi.withHandle(handle ->
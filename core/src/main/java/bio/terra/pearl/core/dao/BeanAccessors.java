@@ -0,0 +1,166 @@
+package bio.terra.pearl.core.dao;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The constructor and property getters and setters of a bean class, resolved once and compiled to lambdas with
+ * LambdaMetafactory, so creating, populating and reading an instance costs the same as calling the constructor and
+ * accessors directly.  This is what EntityRowMapper and BulkCopyWriter use instead of reflection.  Instances are
+ * cached per class, so get them with forClass.
+ */
+public final class BeanAccessors<T> {
+    private static final Map<Class<?>, BeanAccessors<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<T> clazz;
+    private final Supplier<Object> constructor;
+    /** keyed by property name, in introspection order */
+    private final Map<String, Property> properties;
+
+    /**
+     * a bean property, with its declared (possibly generic) type.  getter is null for write-only properties, and setter
+     * for read-only ones
+     */
+    public record Property(String name, Type type, Class<?> rawType,
+                           Function<Object, Object> getter, BiConsumer<Object, Object> setter) {}
+
+    @SuppressWarnings("unchecked")
+    public static <T> BeanAccessors<T> forClass(Class<T> clazz) {
+        return (BeanAccessors<T>) CACHE.computeIfAbsent(clazz, BeanAccessors::new);
+    }
+
+    private BeanAccessors(Class<T> clazz) {
+        this.clazz = clazz;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            constructor = compileConstructor(lookup, clazz);
+            BeanInfo info = Introspector.getBeanInfo(clazz);
+            Map<String, Property> props = new LinkedHashMap<>();
+            for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
+                Method readMethod = descriptor.getReadMethod();
+                Method writeMethod = descriptor.getWriteMethod();
+                if (writeMethod != null) {
+                    props.put(descriptor.getName(), new Property(descriptor.getName(),
+                            writeMethod.getGenericParameterTypes()[0], writeMethod.getParameterTypes()[0],
+                            readMethod == null ? null : compileGetter(lookup, readMethod),
+                            compileSetter(lookup, writeMethod)));
+                } else if (readMethod != null && !descriptor.getName().equals("class")) {
+                    props.put(descriptor.getName(), new Property(descriptor.getName(),
+                            readMethod.getGenericReturnType(), readMethod.getReturnType(),
+                            compileGetter(lookup, readMethod), null));
+                }
+            }
+            properties = Collections.unmodifiableMap(props);
+        } catch (ReflectiveOperationException | IntrospectionException e) {
+            throw new IllegalStateException("Unable to introspect " + clazz.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        return (T) constructor.get();
+    }
+
+    public Map<String, Property> getProperties() {
+        return properties;
+    }
+
+    /** the setter for the given property, which takes the bean and the value */
+    public BiConsumer<Object, Object> setter(String propertyName) {
+        Property property = properties.get(propertyName);
+        if (property == null || property.setter() == null) {
+            throw new IllegalArgumentException("No writable property %s on %s".formatted(propertyName, clazz.getName()));
+        }
+        return property.setter();
+    }
+
+    /** the getter for the given property, which takes the bean and returns the (boxed) value */
+    public Function<Object, Object> getter(String propertyName) {
+        Property property = properties.get(propertyName);
+        if (property == null || property.getter() == null) {
+            throw new IllegalArgumentException("No readable property %s on %s".formatted(propertyName, clazz.getName()));
+        }
+        return property.getter();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> compileConstructor(MethodHandles.Lookup lookup, Class<?> clazz)
+            throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, MethodType.methodType(clazz));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // e.g. the class isn't accessible for lambda generation -- the method handle is still much faster than
+            // reflection
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Unable to instantiate " + clazz.getName(), t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(MethodHandles.Lookup lookup, Method readMethod)
+            throws ReflectiveOperationException {
+        MethodHandle handle = lookup.unreflect(readMethod);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), handle,
+                    MethodType.methodType(readMethod.getReturnType(), readMethod.getDeclaringClass()).wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return generic.invokeExact(bean);
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Unable to call " + readMethod, t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> compileSetter(MethodHandles.Lookup lookup, Method writeMethod)
+            throws ReflectiveOperationException {
+        MethodHandle handle = lookup.unreflect(writeMethod);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, writeMethod.getDeclaringClass(),
+                            MethodType.methodType(writeMethod.getParameterTypes()[0]).wrap().returnType()));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    generic.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Unable to call " + writeMethod, t);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package bio.terra.pearl.core.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Writes entities to a table with Postgres COPY FROM STDIN, which is far faster than a batch of inserts for large
+ * lists since the server parses and plans nothing per row.  The getters and value encoders for the columns are
+ * resolved once, when the writer is created, so the per-row work is just calling them and appending to a buffer.
+ *
+ * This uses COPY's text format rather than binary: binary needs the exact wire type of every column (int4 vs. int8,
+ * timestamp vs. timestamptz, jsonb's version byte...), which the model classes don't record, whereas in text format
+ * the server converts each value by its column type just as it does for a bound insert parameter.
+ */
+class BulkCopyWriter<T> {
+    /** rows are sent to the server in chunks of about this many characters */
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final String NULL = "\\N";
+
+    private final String columnList;
+    private final Function<Object, Object>[] getters;
+    private final ValueEncoder[] encoders;
+
+    @FunctionalInterface
+    private interface ValueEncoder {
+        void append(StringBuilder row, Object value);
+    }
+
+    @SuppressWarnings("unchecked")
+    BulkCopyWriter(Class<T> clazz, List<String> fields) {
+        BeanAccessors<T> accessors = BeanAccessors.forClass(clazz);
+        getters = (Function<Object, Object>[]) new Function[fields.size()];
+        encoders = new ValueEncoder[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            getters[i] = accessors.getter(fields.get(i));
+            encoders[i] = encoderFor(accessors.getProperties().get(fields.get(i)).rawType());
+        }
+        columnList = String.join(", ", fields.stream().map(BaseJdbiDao::toSnakeCase).toList());
+    }
+
+    /** copies the objects into the table, returning the number of rows written */
+    long copy(Connection connection, String tableName, List<T> modelObjs) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("copy " + tableName + " (" + columnList + ") from stdin");
+        try {
+            StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 1024);
+            for (T obj : modelObjs) {
+                appendRow(chunk, obj);
+                if (chunk.length() >= CHUNK_SIZE) {
+                    writeChunk(copyIn, chunk);
+                }
+            }
+            writeChunk(copyIn, chunk);
+            return copyIn.endCopy();
+        } finally {
+            // if anything failed part way, make sure the server discards what was sent
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void appendRow(StringBuilder row, T obj) {
+        for (int i = 0; i < getters.length; i++) {
+            if (i > 0) {
+                row.append('\t');
+            }
+            Object value = getters[i].apply(obj);
+            if (value == null) {
+                row.append(NULL);
+            } else {
+                encoders[i].append(row, value);
+            }
+        }
+        row.append('\n');
+    }
+
+    private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    /** the encoders cover the types of BaseJdbiDao.isSimpleFieldType, which are the only ones in insert columns */
+    private static ValueEncoder encoderFor(Class<?> type) {
+        if (type == String.class) {
+            return (row, value) -> appendEscaped(row, (String) value);
+        }
+        if (Enum.class.isAssignableFrom(type)) {
+            // like Jdbi, enums are stored by name
+            return (row, value) -> appendEscaped(row, ((Enum<?>) value).name());
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return (row, value) -> row.append((Boolean) value ? 't' : 'f');
+        }
+        if (type == Instant.class) {
+            // the same local time and offset pgjdbc sends when Jdbi binds an Instant as a Timestamp, so timestamp and
+            // timestamptz columns get the same values as they would from an insert
+            return (row, value) -> row.append(OffsetDateTime.ofInstant((Instant) value, ZoneId.systemDefault()));
+        }
+        if (type == byte[].class) {
+            return (row, value) -> row.append("\\\\x").append(HexFormat.of().formatHex((byte[]) value));
+        }
+        if (type == UUID.class || type == LocalDate.class || Number.class.isAssignableFrom(type)
+                || type == int.class) {
+            return StringBuilder::append;
+        }
+        throw new IllegalArgumentException("Cannot copy values of type " + type.getName());
+    }
+
+    /** escapes the characters that are special in COPY text format */
+    private static void appendEscaped(StringBuilder row, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.service.CascadeTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes a whole object graph with a handful of set-based statements, rather than walking it one row at a time.
+ * The graph is described by a CascadeDeleteNode tree, and pruned by a CascadeTree.  Each table in the graph gets
+ * a single "delete ... using" statement, joined up through its ancestors to the root id, and the statements are run
+ * children-first so foreign keys are never violated.
+ *
+ * Callers should be @Transactional, so the statements for a plan either all apply or none do.
+ */
+@Component
+public class CascadeDeleteDao {
+    private final Jdbi jdbi;
+
+    public CascadeDeleteDao(Jdbi jdbi) {
+        this.jdbi = jdbi;
+    }
+
+    /**
+     * deletes the rows of the root node whose parentColumn matches rootId, along with everything under them that the
+     * cascades allow.  Returns the total number of rows deleted or cleared.
+     */
+    public int delete(CascadeDeleteNode root, UUID rootId, CascadeTree cascades) {
+        List<String> statements = plan(root, cascades);
+        return jdbi.withHandle(handle -> {
+            int count = 0;
+            for (String statement : statements) {
+                count += handle.createUpdate(statement).bind("rootId", rootId).execute();
+            }
+            return count;
+        });
+    }
+
+    /** the ordered list of statements to delete the given graph.  Each statement has a single :rootId parameter */
+    public static List<String> plan(CascadeDeleteNode root, CascadeTree cascades) {
+        List<String> statements = new ArrayList<>();
+        addStatements(List.of(root), cascades, statements);
+        return statements;
+    }
+
+    /** path is the chain of nodes from the root down to (and including) the node being deleted */
+    private static void addStatements(List<CascadeDeleteNode> path, CascadeTree cascades, List<String> statements) {
+        CascadeDeleteNode node = path.get(path.size() - 1);
+        if (!node.getClearedColumns().isEmpty()) {
+            statements.add(clearSql(path));
+        }
+        for (CascadeDeleteNode child : node.getChildren()) {
+            CascadeTree childCascades = cascades;
+            if (child.getRequiredCascade() != null) {
+                if (!cascades.hasProperty(child.getRequiredCascade())) {
+                    continue;
+                }
+                childCascades = cascades.getChild(child.getRequiredCascade());
+            }
+            List<CascadeDeleteNode> childPath = new ArrayList<>(path);
+            childPath.add(child);
+            addStatements(childPath, childCascades, statements);
+        }
+        statements.add(deleteSql(path));
+    }
+
+    protected static String clearSql(List<CascadeDeleteNode> path) {
+        int depth = path.size() - 1;
+        CascadeDeleteNode node = path.get(depth);
+        String setClause = node.getClearedColumns().stream()
+                .map(column -> column + " = null")
+                .collect(Collectors.joining(", "));
+        String fromClause = depth > 0 ? " from " + ancestorTables(path) : "";
+        return "update " + node.getTableName() + " " + alias(depth) + " set " + setClause + fromClause
+                + " where " + joinConditions(path);
+    }
+
+    /**
+     * rows the node owns are deleted in the same statement, via data-modifying CTEs, since they can only be
+     * found (and are only free to delete) once the owning rows are being removed.
+     */
+    protected static String deleteSql(List<CascadeDeleteNode> path) {
+        int depth = path.size() - 1;
+        CascadeDeleteNode node = path.get(depth);
+        String usingClause = depth > 0 ? " using " + ancestorTables(path) : "";
+        List<String> deletes = new ArrayList<>();
+        deletes.add("delete from " + node.getTableName() + " " + alias(depth) + usingClause
+                + " where " + joinConditions(path) + returningClause(node, alias(depth) + "."));
+        addOwnedDeletes(node, "deleted_0", deletes);
+        if (deletes.size() == 1) {
+            return deletes.get(0);
+        }
+        List<String> ctes = new ArrayList<>();
+        for (int i = 0; i < deletes.size() - 1; i++) {
+            ctes.add("deleted_" + i + " as (" + deletes.get(i) + ")");
+        }
+        return "with " + String.join(", ", ctes) + " " + deletes.get(deletes.size() - 1);
+    }
+
+    private static void addOwnedDeletes(CascadeDeleteNode node, String sourceName, List<String> deletes) {
+        for (CascadeDeleteNode.OwnedReference ref : node.getOwnedReferences()) {
+            CascadeDeleteNode owned = ref.node();
+            String name = "deleted_" + deletes.size();
+            deletes.add("delete from " + owned.getTableName() + " where " + owned.getParentColumn()
+                    + " in (select " + ref.column() + " from " + sourceName + ")" + returningClause(owned, ""));
+            addOwnedDeletes(owned, name, deletes);
+        }
+    }
+
+    private static String returningClause(CascadeDeleteNode node, String prefix) {
+        if (node.getOwnedReferences().isEmpty()) {
+            return "";
+        }
+        return " returning " + node.getOwnedReferences().stream()
+                .map(ref -> prefix + ref.column())
+                .collect(Collectors.joining(", "));
+    }
+
+    /** e.g. "html_page t2, localized_site_content t1, site_content t0" for a node at depth 3 */
+    private static String ancestorTables(List<CascadeDeleteNode> path) {
+        List<String> tables = new ArrayList<>();
+        for (int i = path.size() - 2; i >= 0; i--) {
+            tables.add(path.get(i).getTableName() + " " + alias(i));
+        }
+        return String.join(", ", tables);
+    }
+
+    /** links each node in the path to its parent, and the top node to the root id */
+    private static String joinConditions(List<CascadeDeleteNode> path) {
+        List<String> conditions = new ArrayList<>();
+        for (int i = path.size() - 1; i > 0; i--) {
+            conditions.add(alias(i) + "." + path.get(i).getParentColumn() + " = " + alias(i - 1) + ".id");
+        }
+        conditions.add(alias(0) + "." + path.get(0).getParentColumn() + " = :rootId");
+        return String.join(" and ", conditions);
+    }
+
+    private static String alias(int depth) {
+        return "t" + depth;
+    }
+}
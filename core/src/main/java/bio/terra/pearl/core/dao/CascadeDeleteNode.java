@@ -0,0 +1,72 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.service.CascadeProperty;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Describes one table in a delete cascade, for use with CascadeDeleteDao.  A node knows which of its columns links
+ * its rows to the parent node, which child tables have to be cleared before its rows can go, and which rows it
+ * references that it owns (e.g. a config object), which are deleted along with it.
+ *
+ * Children are deleted in the order given, so list them in foreign-key dependency order -- e.g. participant_task
+ * before survey_response, since tasks reference responses.
+ */
+@Getter
+public class CascadeDeleteNode {
+    private final String tableName;
+    /** the column on this table matching the parent row's id (or the root id, for the top node of a plan) */
+    private final String parentColumn;
+    private final List<CascadeDeleteNode> children;
+    /** if set, this table and everything under it is only deleted if the CascadeTree includes the property */
+    private CascadeProperty requiredCascade;
+    /** columns on this table pointing to rows of its own descendants, which are nulled out before those are deleted */
+    private List<String> clearedColumns = new ArrayList<>();
+    private List<OwnedReference> ownedReferences = new ArrayList<>();
+
+    private CascadeDeleteNode(String tableName, String parentColumn, List<CascadeDeleteNode> children) {
+        this.tableName = tableName;
+        this.parentColumn = parentColumn;
+        this.children = children;
+    }
+
+    public static CascadeDeleteNode of(String tableName, String parentColumn, CascadeDeleteNode... children) {
+        return new CascadeDeleteNode(tableName, parentColumn, Arrays.asList(children));
+    }
+
+    /** only delete this node (and its children) if the cascade tree has the given property */
+    public CascadeDeleteNode onlyWith(CascadeProperty cascadeProperty) {
+        this.requiredCascade = cascadeProperty;
+        return this;
+    }
+
+    public CascadeDeleteNode clearing(String... columns) {
+        clearedColumns.addAll(Arrays.asList(columns));
+        return this;
+    }
+
+    /**
+     * rows of the owned node whose id is in the given column of this table are deleted in the same statement as the
+     * rows of this table.  Owned nodes can own further nodes, but can't have children.
+     */
+    public CascadeDeleteNode owning(String column, CascadeDeleteNode owned) {
+        if (!owned.getChildren().isEmpty() || !owned.getClearedColumns().isEmpty()) {
+            throw new IllegalArgumentException("Owned table %s cannot have children".formatted(owned.getTableName()));
+        }
+        ownedReferences.add(new OwnedReference(column, owned));
+        return this;
+    }
+
+    /** a copy of this node that is matched to the root id by a different column, e.g. "portal_id" rather than "id" */
+    public CascadeDeleteNode keyedBy(String column) {
+        CascadeDeleteNode copy = new CascadeDeleteNode(tableName, column, children);
+        copy.requiredCascade = requiredCascade;
+        copy.clearedColumns = clearedColumns;
+        copy.ownedReferences = ownedReferences;
+        return copy;
+    }
+
+    public record OwnedReference(String column, CascadeDeleteNode node) {}
+}
@@ -3,6 +3,7 @@ package bio.terra.pearl.core.dao;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.UUID;
 
 @Component
@@ -22,4 +23,13 @@ public class DaoUtils {
                 .one()
         );
     }
+
+    /** gets count uuids from the database in a single round trip */
+    public List<UUID> generateUUIDs(int count) {
+        return jdbi.withHandle(handle -> handle.createQuery("select gen_random_uuid() from generate_series(1, :count);")
+                .bind("count", count)
+                .mapTo(UUID.class)
+                .list()
+        );
+    }
 }
@@ -0,0 +1,129 @@
+package bio.terra.pearl.core.dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import org.jdbi.v3.core.mapper.ColumnMapper;
+import org.jdbi.v3.core.mapper.NoSuchMapperException;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * Drop-in replacement for Jdbi's BeanMapper for our entity classes.  BeanMapper works out which column goes to which
+ * property, and calls the setters, reflectively.  This mapper does the property introspection once per class (see
+ * BeanAccessors), and when specialized for a result set, resolves each property's column index and column mapper up
+ * front, so mapping a row is just a loop over arrays calling compiled setters.
+ *
+ * Columns are matched to properties the same way BeanMapper does by default: case-insensitively, ignoring
+ * underscores, after the optional prefix.  So "enrollee__study_environment_id" maps to studyEnvironmentId with prefix
+ * "enrollee__".  Like BeanMapper, columns without a property are ignored, and a null value leaves a primitive
+ * property at its default.
+ */
+public class EntityRowMapper<T> implements RowMapper<T> {
+    private static final Map<CacheKey, EntityRowMapper<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<T> clazz;
+    private final String prefix;
+    private final BeanAccessors<T> accessors;
+    /** properties keyed by normalized prefix + name, for matching against normalized column names */
+    private final Map<String, BeanAccessors.Property> propertiesByColumnKey = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <T> EntityRowMapper<T> of(Class<T> clazz, String prefix) {
+        return (EntityRowMapper<T>) CACHE.computeIfAbsent(new CacheKey(clazz, prefix),
+                key -> new EntityRowMapper<>(clazz, prefix));
+    }
+
+    public static <T> EntityRowMapper<T> of(Class<T> clazz) {
+        return of(clazz, "");
+    }
+
+    protected EntityRowMapper(Class<T> clazz, String prefix) {
+        this.clazz = clazz;
+        this.prefix = prefix;
+        this.accessors = BeanAccessors.forClass(clazz);
+        String normalizedPrefix = normalize(prefix);
+        accessors.getProperties().values().stream()
+                .filter(property -> property.setter() != null)
+                .forEach(property -> propertiesByColumnKey.put(normalizedPrefix + normalize(property.name()), property));
+    }
+
+    @Override
+    public T map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return specialize(rs, ctx).map(rs, ctx);
+    }
+
+    /**
+     * Jdbi calls this once per result set (and RowView once per result set and type), so the column lookups here
+     * aren't repeated per row.
+     */
+    @Override
+    public RowMapper<T> specialize(ResultSet rs, StatementContext ctx) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<Integer> columnIndexes = new ArrayList<>();
+        List<BeanAccessors.Property> matched = new ArrayList<>();
+        Map<String, String> matchedColumns = new HashMap<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String column = metaData.getColumnLabel(i);
+            BeanAccessors.Property property = propertiesByColumnKey.get(normalize(column));
+            if (property == null) {
+                continue;
+            }
+            String previous = matchedColumns.put(property.name(), column);
+            if (previous != null) {
+                throw new IllegalArgumentException("Property %s of %s matches both columns %s and %s"
+                        .formatted(property.name(), clazz.getSimpleName(), previous, column));
+            }
+            columnIndexes.add(i);
+            matched.add(property);
+        }
+        if (matched.isEmpty() && metaData.getColumnCount() > 0) {
+            throw new IllegalArgumentException("Mapping %s with prefix '%s' didn't find any matching columns"
+                    .formatted(clazz.getSimpleName(), prefix));
+        }
+
+        int size = matched.size();
+        int[] indexes = new int[size];
+        ColumnMapper<?>[] columnMappers = new ColumnMapper<?>[size];
+        BiConsumer<Object, Object>[] setters = newSetterArray(size);
+        boolean[] primitive = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            BeanAccessors.Property property = matched.get(i);
+            indexes[i] = columnIndexes.get(i);
+            columnMappers[i] = ctx.findColumnMapperFor(property.type())
+                    .orElseThrow(() -> new NoSuchMapperException("No column mapper for property %s of %s"
+                            .formatted(property.name(), clazz.getSimpleName())));
+            setters[i] = property.setter();
+            primitive[i] = property.rawType().isPrimitive();
+        }
+
+        return (resultSet, context) -> {
+            T bean = accessors.newInstance();
+            for (int i = 0; i < size; i++) {
+                Object value = columnMappers[i].map(resultSet, indexes[i], context);
+                if (value != null || !primitive[i]) {
+                    setters[i].accept(bean, value);
+                }
+            }
+            return bean;
+        };
+    }
+
+    /** lower case, without underscores -- the same normalization BeanMapper's default name matching uses */
+    protected static String normalize(String name) {
+        return name.replace("_", "").toLowerCase();
+    }
+
+    private record CacheKey(Class<?> clazz, String prefix) {}
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object>[] newSetterArray(int size) {
+        return (BiConsumer<Object, Object>[]) new BiConsumer[size];
+    }
+}
@@ -24,6 +24,12 @@ public class ConsentFormDao extends BaseVersionedJdbiDao<ConsentForm> {
         return findAllByPropertyCollection("id", ids);
     }
 
+    @Override
+    protected List<String> getNoContentColumns() {
+        return List.of("id", "created_at", "last_updated_at", "stable_id", "version", "published_version", "portal_id",
+                "name");
+    }
+
     @Override
     protected Class<ConsentForm> getClazz() {
         return ConsentForm.class;
@@ -33,6 +39,10 @@ public class ConsentFormDao extends BaseVersionedJdbiDao<ConsentForm> {
         return findAllByProperty("portal_id", portalId);
     }
 
+    public void deleteByPortalId(UUID portalId) {
+        deleteByProperty("portal_id", portalId);
+    }
+
     public int getNextVersion(String stableId) {
         return jdbi.withHandle(handle ->
                 handle.createQuery("select max(version) from " + tableName + " where stable_id = :stableId")
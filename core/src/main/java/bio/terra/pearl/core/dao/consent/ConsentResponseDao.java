@@ -3,8 +3,11 @@ package bio.terra.pearl.core.dao.consent;
 
 import bio.terra.pearl.core.dao.BaseJdbiDao;
 import bio.terra.pearl.core.model.consent.ConsentResponse;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -27,4 +30,13 @@ public class ConsentResponseDao extends BaseJdbiDao<ConsentResponse> {
         return findAllByTwoProperties("enrollee_id", enrolleeId,
                 "consent_form_id", consentFormId);
     }
+
+    public Map<UUID, List<ConsentResponse>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return streamAllByPropertyCollection("enrollee_id", enrolleeIds)
+                .collect(Collectors.groupingBy(ConsentResponse::getEnrolleeId));
+    }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
 }
@@ -0,0 +1,29 @@
+package bio.terra.pearl.core.dao.dataimport;
+
+import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
+import bio.terra.pearl.core.model.dataimport.DataImport;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class DataImportDao extends BaseMutableJdbiDao<DataImport> {
+    public DataImportDao(Jdbi jdbi) {
+        super(jdbi);
+    }
+
+    @Override
+    protected Class<DataImport> getClazz() {
+        return DataImport.class;
+    }
+
+    public List<DataImport> findByStudyEnvironmentId(UUID studyEnvId) {
+        return findAllByProperty("study_environment_id", studyEnvId);
+    }
+
+    public void deleteByStudyEnvironmentId(UUID studyEnvId) {
+        deleteByProperty("study_environment_id", studyEnvId);
+    }
+}
@@ -0,0 +1,172 @@
+package bio.terra.pearl.core.dao.kit;
+
+import bio.terra.pearl.core.dao.BaseJdbiDao;
+import bio.terra.pearl.core.model.kit.EnrolleeKitSummary;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The enrollee_kit_summary table is a read model: rows are never written directly, only recomputed from the enrollee,
+ * participant_task and kit_request tables with refresh (for particular enrollees) or rebuild (for everyone).
+ */
+@Component
+public class EnrolleeKitSummaryDao extends BaseJdbiDao<EnrolleeKitSummary> {
+    /** sortable properties, mapped to their columns, so that sort input never goes into the sql directly */
+    public static final Map<String, String> SORT_COLUMNS = Map.of(
+            "createdAt", "enrollee_created_at",
+            "shortcode", "enrollee_shortcode",
+            "requiredSurveysCompleted", "required_surveys_completed",
+            "optionalSurveysCompleted", "optional_surveys_completed",
+            "kitRequestCount", "kit_request_count",
+            "latestKitCreatedAt", "latest_kit_created_at");
+
+    public EnrolleeKitSummaryDao(Jdbi jdbi) {
+        super(jdbi);
+    }
+
+    @Override
+    protected Class<EnrolleeKitSummary> getClazz() {
+        return EnrolleeKitSummary.class;
+    }
+
+    /**
+     * Recomputes the summaries of the given enrollees in a single statement.  Enrollees that no longer exist are
+     * skipped, so this doesn't remove their summaries -- see deleteByEnrolleeIds.  Returns the number of rows written.
+     */
+    public int refresh(Collection<UUID> enrolleeIds) {
+        if (enrolleeIds.isEmpty()) {
+            return 0;
+        }
+        return jdbi.withHandle(handle ->
+                handle.createUpdate(getSummaryUpsertSql("where enrollee_id = any(:enrolleeIds)",
+                                "where enrollee.id = any(:enrolleeIds)"))
+                        .bindArray("enrolleeIds", UUID.class, enrolleeIds)
+                        .execute()
+        );
+    }
+
+    /** recomputes all summaries from scratch.  Should be called in a transaction.  Returns the number of rows written */
+    public int rebuild() {
+        return jdbi.withHandle(handle -> {
+            handle.createUpdate("delete from " + tableName + ";").execute();
+            return handle.createUpdate(getSummaryUpsertSql("", "")).execute();
+        });
+    }
+
+    /**
+     * A page of the summaries for the study environment matching the filter.  sortProperty must be one of
+     * SORT_COLUMNS; ties are broken by id so that pages are stable.
+     */
+    public List<EnrolleeKitSummary> findPage(UUID studyEnvironmentId, Filter filter, String sortProperty,
+                                             boolean descending, int offset, int limit) {
+        String sortColumn = SORT_COLUMNS.get(sortProperty);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Cannot sort kit summaries by " + sortProperty);
+        }
+        String sql = """
+                select * from %s where %s
+                 order by %s %s nulls last, id
+                 offset :offset limit :limit;
+                """.formatted(tableName, getFilterSql(filter), sortColumn, descending ? "desc" : "asc");
+        return jdbi.withHandle(handle -> {
+            Query query = handle.createQuery(sql)
+                    .bind("offset", offset)
+                    .bind("limit", limit);
+            return bindFilter(query, studyEnvironmentId, filter).mapTo(clazz).list();
+        });
+    }
+
+    public int count(UUID studyEnvironmentId, Filter filter) {
+        String sql = "select count(*) from %s where %s;".formatted(tableName, getFilterSql(filter));
+        return jdbi.withHandle(handle ->
+                bindFilter(handle.createQuery(sql), studyEnvironmentId, filter).mapTo(int.class).one()
+        );
+    }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
+
+    /**
+     * Optional criteria for findPage and count -- null means don't filter on that property.  Whether all required
+     * surveys are complete depends on the environment's configuration, so the number of required surveys is needed
+     * for that filter.
+     */
+    public record Filter(Boolean consented, Boolean requiredSurveysComplete, int requiredSurveyCount,
+                         Boolean kitRequested) {
+        public static final Filter NONE = new Filter(null, null, 0, null);
+    }
+
+    protected String getFilterSql(Filter filter) {
+        StringBuilder sql = new StringBuilder(" study_environment_id = :studyEnvironmentId ");
+        if (filter.consented() != null) {
+            sql.append(" and consented = :consented ");
+        }
+        if (filter.requiredSurveysComplete() != null) {
+            sql.append(filter.requiredSurveysComplete()
+                    ? " and required_surveys_completed >= :requiredSurveyCount "
+                    : " and required_surveys_completed < :requiredSurveyCount ");
+        }
+        if (filter.kitRequested() != null) {
+            sql.append(filter.kitRequested() ? " and kit_request_count > 0 " : " and kit_request_count = 0 ");
+        }
+        return sql.toString();
+    }
+
+    protected Query bindFilter(Query query, UUID studyEnvironmentId, Filter filter) {
+        query.bind("studyEnvironmentId", studyEnvironmentId);
+        if (filter.consented() != null) {
+            query.bind("consented", filter.consented());
+        }
+        if (filter.requiredSurveysComplete() != null) {
+            query.bind("requiredSurveyCount", filter.requiredSurveyCount());
+        }
+        return query;
+    }
+
+    /**
+     * computes the summaries of the enrollees matching the where clause, and inserts them, or updates the existing
+     * summaries.  The task and kit aggregates take their own (enrollee_id) where clause, so they can be restricted
+     * before grouping.
+     */
+    protected String getSummaryUpsertSql(String childWhereClause, String enrolleeWhereClause) {
+        return """
+                insert into enrollee_kit_summary
+                 (created_at, last_updated_at, enrollee_id, study_environment_id, enrollee_shortcode,
+                 enrollee_created_at, consented, required_surveys_completed, optional_surveys_completed,
+                 kit_request_count, latest_kit_status, latest_kit_created_at)
+                select now(), now(), enrollee.id, enrollee.study_environment_id, enrollee.shortcode, enrollee.created_at,
+                 enrollee.consented, coalesce(tasks.required_completed, 0), coalesce(tasks.optional_completed, 0),
+                 coalesce(kits.kit_request_count, 0), latest_kit.status, latest_kit.created_at
+                 from enrollee
+                 left join (select enrollee_id, count(*) filter (where blocks_hub) as required_completed,
+                   count(*) filter (where not blocks_hub) as optional_completed
+                   from (select * from participant_task %1$s) enrollee_task
+                   where task_type = 'SURVEY' and status = 'COMPLETE' group by enrollee_id) tasks
+                   on tasks.enrollee_id = enrollee.id
+                 left join (select enrollee_id, count(*) as kit_request_count
+                   from kit_request %1$s group by enrollee_id) kits
+                   on kits.enrollee_id = enrollee.id
+                 left join lateral (select status, created_at from kit_request
+                   where kit_request.enrollee_id = enrollee.id order by created_at desc limit 1) latest_kit on true
+                 %2$s
+                on conflict (enrollee_id) do update set
+                 last_updated_at = excluded.last_updated_at,
+                 study_environment_id = excluded.study_environment_id,
+                 enrollee_shortcode = excluded.enrollee_shortcode,
+                 enrollee_created_at = excluded.enrollee_created_at,
+                 consented = excluded.consented,
+                 required_surveys_completed = excluded.required_surveys_completed,
+                 optional_surveys_completed = excluded.optional_surveys_completed,
+                 kit_request_count = excluded.kit_request_count,
+                 latest_kit_status = excluded.latest_kit_status,
+                 latest_kit_created_at = excluded.latest_kit_created_at;
+                """.formatted(childWhereClause, enrolleeWhereClause);
+    }
+}
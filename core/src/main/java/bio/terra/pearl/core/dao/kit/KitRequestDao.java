@@ -59,4 +59,8 @@ public class KitRequestDao extends BaseMutableJdbiDao<KitRequest> {
                         .list()
         );
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
 }
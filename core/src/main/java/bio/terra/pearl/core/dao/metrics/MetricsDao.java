@@ -1,25 +1,55 @@
 package bio.terra.pearl.core.dao.metrics;
 
 import bio.terra.pearl.core.model.metrics.BasicMetricDatum;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.TimeBucket;
 import bio.terra.pearl.core.model.metrics.TimeRange;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.jdbi.v3.core.statement.Query;
 import org.springframework.stereotype.Component;
 
 /**
  * Returns lists of BasicMetricDatum for metrics queries
  * The returned data from each query should be sorted ascending by the 'time' property of each datum.
- * Because metrics are read-only -- there is only a DAO -- no need for a service yet
+ *
+ * Also returns counts bucketed by time, which for day and week buckets are read from the metric_daily_rollup table.
+ * The rollups are kept up to date by MetricsRollupService.
  * */
 @Component
 public class MetricsDao {
+  /**
+   * where each metric's data comes from, for bucketed counts and rollups.  The time and subcategory are sql expressions
+   * on the table, and the filter is a where clause selecting the rows that count toward the metric.
+   */
+  protected record MetricSource(String table, String subcategory, String time, String filter) {}
+  protected static final Map<MetricName, MetricSource> METRIC_SOURCES = Map.of(
+      MetricName.STUDY_ENROLLMENT, new MetricSource("enrollee", "''", "created_at", "true"),
+      MetricName.STUDY_ENROLLEE_CONSENTED, new MetricSource("enrollee", "''", "created_at", "consented = true"),
+      MetricName.STUDY_SURVEY_COMPLETION, new MetricSource("participant_task",
+          "coalesce(target_stable_id, '')", "coalesce(completed_at, created_at)",
+          "task_type = 'SURVEY' and status = 'COMPLETE'"),
+      MetricName.STUDY_REQUIRED_SURVEY_COMPLETION, new MetricSource("participant_task",
+          "coalesce(target_stable_id, '')", "coalesce(completed_at, created_at)",
+          "task_type = 'SURVEY' and status = 'COMPLETE' and blocks_hub = true")
+  );
   private Jdbi jdbi;
 
   public MetricsDao(Jdbi jdbi) {
     this.jdbi = jdbi;
     jdbi.registerRowMapper(BasicMetricDatum.class, BeanMapper.of(BasicMetricDatum.class));
+    jdbi.registerRowMapper(BucketedMetricDatum.class, BeanMapper.of(BucketedMetricDatum.class));
   }
 
   public List<BasicMetricDatum> studyEnrollments(UUID studyEnvironmentId, TimeRange range) {
@@ -93,6 +123,190 @@ public class MetricsDao {
     );
   }
 
+  /**
+   * counts of the metric per (bucket, subcategory), sorted ascending by bucket.  Hour buckets are counted directly
+   * from the source table.  Day and week buckets are summed from the daily rollups for days before today, plus a
+   * direct count of today's rows, so the cost scales with the number of buckets rather than the number of rows.
+   * For day and week buckets, the time range is applied to whole days.
+   */
+  public List<BucketedMetricDatum> bucketedCounts(UUID studyEnvironmentId, MetricName metricName,
+                                                  TimeBucket bucket, TimeRange range) {
+    return bucketedCounts(studyEnvironmentId, List.of(metricName), bucket, range).get(metricName);
+  }
+
+  /**
+   * bucketed counts for several metrics at once, in a single union query.  Returns a map of metric name to that
+   * metric's counts -- every requested metric has an entry, even if it has no data.
+   */
+  public Map<MetricName, List<BucketedMetricDatum>> bucketedCounts(UUID studyEnvironmentId,
+                                                                   Collection<MetricName> metricNames,
+                                                                   TimeBucket bucket, TimeRange range) {
+    Map<MetricName, List<BucketedMetricDatum>> countsByMetric = new LinkedHashMap<>();
+    metricNames.forEach(metricName -> countsByMetric.put(metricName, new ArrayList<>()));
+    if (metricNames.isEmpty()) {
+      return countsByMetric;
+    }
+    String query = metricNames.stream()
+        .map(metricName -> "(%s)".formatted(getBucketedQueryString(metricName, bucket, range)))
+        .collect(Collectors.joining(" union all ")) + " order by name, bucket asc, subcategory asc;";
+    List<BucketedMetricDatum> counts = jdbi.withHandle(handle -> {
+      Query handleQuery = handle.createQuery(query)
+          .bind("studyEnvironmentId", studyEnvironmentId)
+          .bindBean(range);
+      if (!TimeBucket.HOUR.equals(bucket)) {
+        // timestamps are stored as local times, so "today" is in the server's zone, as are the rollup days
+        handleQuery.bind("startOfToday", LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+      }
+      return handleQuery.mapToBean(BucketedMetricDatum.class).list();
+    });
+    counts.forEach(count -> countsByMetric.get(MetricName.valueOf(count.getName())).add(count));
+    return countsByMetric;
+  }
+
+  /** the bucketed count query for a single metric.  The metric name is inlined, so these can be unioned */
+  protected String getBucketedQueryString(MetricName metricName, TimeBucket bucket, TimeRange range) {
+    MetricSource source = METRIC_SOURCES.get(metricName);
+    String sourceQuery = """
+        select %s as subcategory, %s as metric_time from %s
+         where study_environment_id = :studyEnvironmentId and %s
+        """.formatted(source.subcategory(), source.time(), source.table(), source.filter());
+    if (TimeBucket.HOUR.equals(bucket)) {
+      return """
+          select '%s' as name, subcategory, date_trunc('hour', metric_time) as bucket, count(*) as count
+           from (%s) source
+           where %s
+           group by subcategory, bucket
+          """.formatted(metricName.name(), sourceQuery, getTimeRangeQueryString("metric_time", range));
+    }
+    return """
+        select '%s' as name, subcategory, date_trunc('%s', day) as bucket, sum(count) as count from (
+          select subcategory, cast(bucket_date as timestamp) as day, count
+           from metric_daily_rollup
+           where study_environment_id = :studyEnvironmentId and metric_name = '%s'
+           and bucket_date < cast(:startOfToday as date) and %s
+          union all
+          select subcategory, date_trunc('day', metric_time) as day, count(*) as count
+           from (%s) source
+           where metric_time >= :startOfToday and %s
+           group by subcategory, day
+        ) days
+        group by subcategory, bucket
+        """.formatted(metricName.name(), bucket.getTruncField(), metricName.name(),
+        getDateRangeQueryString("bucket_date", range), sourceQuery,
+        getTimeRangeQueryString("metric_time", range));
+  }
+
+  /**
+   * recomputes the daily rollups of every metric, for each (study environment, day) that has a source row created
+   * or updated since the given time.  Should be called in a transaction.  Returns the number of rollup rows written.
+   */
+  public int refreshRollups(Instant since) {
+    return jdbi.withHandle(handle -> {
+      int count = 0;
+      for (Map.Entry<MetricName, MetricSource> entry : METRIC_SOURCES.entrySet()) {
+        MetricSource source = entry.getValue();
+        // any change to a source row can change the count for that row's day, whether or not it still matches the filter
+        String changedDays = """
+            select distinct study_environment_id, cast(%s as date) as bucket_date
+             from %s where last_updated_at >= :since
+            """.formatted(source.time(), source.table());
+        handle.createUpdate("""
+            delete from metric_daily_rollup using (%s) changed
+             where metric_daily_rollup.metric_name = :metricName
+             and metric_daily_rollup.study_environment_id = changed.study_environment_id
+             and metric_daily_rollup.bucket_date = changed.bucket_date;
+            """.formatted(changedDays))
+            .bind("since", since)
+            .bind("metricName", entry.getKey().name())
+            .execute();
+        // the upsert is in case days have changed since the delete ran
+        count += handle.createUpdate(getRollupInsertSql(source, """
+              join (%s) changed on source.study_environment_id = changed.study_environment_id
+              and cast(source.metric_time as date) = changed.bucket_date
+            """.formatted(changedDays)))
+            .bind("since", since)
+            .bind("metricName", entry.getKey().name())
+            .execute();
+      }
+      return count;
+    });
+  }
+
+  /** recomputes all rollups from scratch.  Should be called in a transaction.  Returns the number of rows written */
+  public int rebuildRollups() {
+    return jdbi.withHandle(handle -> {
+      handle.createUpdate("delete from metric_daily_rollup;").execute();
+      int count = 0;
+      for (Map.Entry<MetricName, MetricSource> entry : METRIC_SOURCES.entrySet()) {
+        count += handle.createUpdate(getRollupInsertSql(entry.getValue(), ""))
+            .bind("metricName", entry.getKey().name())
+            .execute();
+      }
+      return count;
+    });
+  }
+
+  /**
+   * takes a transaction-scoped lock on the rollups, so that refreshes and rebuilds from different instances run one
+   * at a time rather than deleting and reinserting the same days concurrently.  Released when the transaction ends.
+   */
+  public void lockRollups() {
+    jdbi.withHandle(handle ->
+        handle.createQuery("select 1 from pg_advisory_xact_lock(hashtext('metric_daily_rollup'))")
+            .mapTo(Integer.class)
+            .one()
+    );
+  }
+
+  /**
+   * when the rollups were last written, which is when the refresh or rebuild that wrote them started.  Empty if there
+   * are no rollups, e.g. on a new database.
+   */
+  public Optional<Instant> findLastRollupUpdate() {
+    return jdbi.withHandle(handle ->
+        handle.createQuery("select max(last_updated_at) from metric_daily_rollup")
+            .mapTo(Instant.class)
+            .findOne()
+    );
+  }
+
+  public void deleteRollupsByStudyEnvironmentId(UUID studyEnvironmentId) {
+    jdbi.withHandle(handle ->
+        handle.createUpdate("delete from metric_daily_rollup where study_environment_id = :studyEnvironmentId;")
+            .bind("studyEnvironmentId", studyEnvironmentId)
+            .execute()
+    );
+  }
+
+  /** inserts (or updates) the daily counts for the source, optionally restricted by a join */
+  protected String getRollupInsertSql(MetricSource source, String joinClause) {
+    return """
+        insert into metric_daily_rollup
+         (created_at, last_updated_at, study_environment_id, metric_name, subcategory, bucket_date, count)
+        select now(), now(), source.study_environment_id, :metricName, source.subcategory,
+         cast(source.metric_time as date), count(*)
+         from (select study_environment_id, %s as subcategory, %s as metric_time from %s where %s) source
+         %s
+         group by source.study_environment_id, source.subcategory, cast(source.metric_time as date)
+        on conflict (study_environment_id, metric_name, subcategory, bucket_date)
+         do update set count = excluded.count, last_updated_at = excluded.last_updated_at;
+        """.formatted(source.subcategory(), source.time(), source.table(), source.filter(), joinClause);
+  }
+
+  /** like getTimeRangeQueryString, but for a date column, including any day the range partially covers */
+  protected String getDateRangeQueryString(String dateField, TimeRange timeRange) {
+    if (timeRange.getStart() == null && timeRange.getEnd() == null) {
+      return " 1 = 1 ";
+    }
+    if (timeRange.getStart() == null) {
+      return " %s <= cast(:end as date) ".formatted(dateField);
+    }
+    if (timeRange.getEnd() == null) {
+      return " %s >= cast(:start as date) ".formatted(dateField);
+    }
+    return " %s >= cast(:start as date) and %s <= cast(:end as date) ".formatted(dateField, dateField);
+  }
+
   protected String getTimeRangeQueryString(String timeField, TimeRange timeRange) {
     if (timeRange.getStart() == null && timeRange.getEnd() == null) {
       return " 1 = 1 ";
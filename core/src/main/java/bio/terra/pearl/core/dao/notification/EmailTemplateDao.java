@@ -2,6 +2,7 @@ package bio.terra.pearl.core.dao.notification;
 
 import bio.terra.pearl.core.dao.BaseVersionedJdbiDao;
 import bio.terra.pearl.core.model.notification.EmailTemplate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
@@ -13,6 +14,12 @@ public class EmailTemplateDao extends BaseVersionedJdbiDao<EmailTemplate> {
         super(jdbi);
     }
 
+    @Override
+    protected List<String> getNoContentColumns() {
+        return List.of("id", "created_at", "last_updated_at", "stable_id", "version", "published_version", "portal_id",
+                "name");
+    }
+
     @Override
     protected Class<EmailTemplate> getClazz() {
         return EmailTemplate.class;
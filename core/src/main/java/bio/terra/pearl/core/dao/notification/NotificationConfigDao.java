@@ -4,7 +4,11 @@ import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.notification.EmailTemplate;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -54,6 +58,14 @@ public class NotificationConfigDao extends BaseMutableJdbiDao<NotificationConfig
         }
     }
 
+    /** like attachTemplates, but the templates are loaded without their subject and body */
+    public void attachTemplatesNoContent(List<NotificationConfig> configs) {
+        Map<UUID, EmailTemplate> templatesById = emailTemplateDao.findAllNoContent(configs.stream()
+                        .map(NotificationConfig::getEmailTemplateId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(EmailTemplate::getId, Function.identity()));
+        configs.forEach(config -> config.setEmailTemplate(templatesById.get(config.getEmailTemplateId())));
+    }
+
     public void deleteByStudyEnvironmentId(UUID studyEnvironmentId) {
         deleteByProperty("study_environment_id", studyEnvironmentId);
     }
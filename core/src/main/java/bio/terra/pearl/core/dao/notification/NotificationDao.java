@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.notification.Notification;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
@@ -42,4 +43,8 @@ public class NotificationDao extends BaseMutableJdbiDao<Notification> {
     public void deleteByEnrolleeId(UUID enrolleeId) {
         deleteByProperty("enrollee_id", enrolleeId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
 }
@@ -0,0 +1,30 @@
+package bio.terra.pearl.core.dao.notification;
+
+import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
+import bio.terra.pearl.core.model.notification.SendgridEventCheckpoint;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+public class SendgridEventCheckpointDao extends BaseMutableJdbiDao<SendgridEventCheckpoint> {
+
+    public SendgridEventCheckpointDao(Jdbi jdbi) {
+        super(jdbi);
+    }
+
+    @Override
+    protected Class<SendgridEventCheckpoint> getClazz() {
+        return SendgridEventCheckpoint.class;
+    }
+
+    /** there is normally only one checkpoint, which is updated in place */
+    public Optional<SendgridEventCheckpoint> findLatest() {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("select * from " + tableName + " order by created_at desc limit 1")
+                        .mapTo(clazz)
+                        .findOne()
+        );
+    }
+}
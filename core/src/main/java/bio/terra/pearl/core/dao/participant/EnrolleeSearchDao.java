@@ -1,6 +1,7 @@
 package bio.terra.pearl.core.dao.participant;
 
 import bio.terra.pearl.core.dao.BaseJdbiDao;
+import bio.terra.pearl.core.dao.EntityRowMapper;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.kit.KitRequestStatus;
@@ -15,7 +16,6 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.RowMapper;
-import org.jdbi.v3.core.mapper.reflect.BeanMapper;
 import org.jdbi.v3.core.statement.Query;
 import org.springframework.stereotype.Component;
 
@@ -41,9 +41,9 @@ public class EnrolleeSearchDao {
         generateSelectString(enrolleeDao) + ", " + generateSelectString(profileDao) +
             ", participant_user.last_login, participant_user.username " +
         ", kit_request.status as kit_request__status";
-    enrolleeRowMapper = BeanMapper.of(Enrollee.class, enrolleeDao.getTableName() + "__");
-    profileRowMapper = BeanMapper.of(Profile.class, profileDao.getTableName() + "__");
-    participantUserRowMapper = BeanMapper.of(ParticipantUser.class, participantUserDao.getTableName() + "__");
+    enrolleeRowMapper = EntityRowMapper.of(Enrollee.class, enrolleeDao.getTableName() + "__");
+    profileRowMapper = EntityRowMapper.of(Profile.class, profileDao.getTableName() + "__");
+    participantUserRowMapper = EntityRowMapper.of(ParticipantUser.class, participantUserDao.getTableName() + "__");
   }
 
   public List<EnrolleeSearchResult> search(String studyShortcode, EnvironmentName envName,
@@ -121,6 +121,16 @@ public class EnrolleeSearchDao {
     String sortQuery = " order by enrollee.id, enrollee.created_at desc, kit_request.created_at desc;";
 
     String sqlQuery = selectQuery + fromQuery + whereQuery + sortQuery;
+
+    // distinct on requires ordering by enrollee.id first, so facets that rank results are ordered by in an outer query
+    List<String> orderBys = facets.stream().map(facet -> facet.getOrderBy())
+        .filter(orderBy -> orderBy != null)
+        .collect(Collectors.toList());
+    if (!orderBys.isEmpty()) {
+      orderBys.add("enrollee__created_at desc");
+      sqlQuery = "select * from (" + sqlQuery.replaceAll(";$", "") + ") search_result order by " +
+          orderBys.stream().collect(Collectors.joining(", ")) + ";";
+    }
     return sqlQuery;
   }
 
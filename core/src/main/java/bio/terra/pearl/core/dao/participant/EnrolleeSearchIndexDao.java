@@ -0,0 +1,103 @@
+package bio.terra.pearl.core.dao.participant;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The enrollee_search_index table holds, per enrollee, the lowercased text that keyword search matches against (the
+ * shortcode plus the configured profile fields) and a tsvector of it for ranking.  Like enrollee_kit_summary, rows are
+ * never written directly, only recomputed from the enrollee and profile tables with refresh or rebuild.
+ */
+@Component
+public class EnrolleeSearchIndexDao {
+    public static final String PROFILE_FIELDS_VAR = "env.search.profileFields";
+    public static final String DEFAULT_PROFILE_FIELDS = "given_name,family_name,contact_email,phone_number";
+    public static final String TABLE_NAME = "enrollee_search_index";
+    private final Jdbi jdbi;
+    private final String upsertSql;
+
+    public EnrolleeSearchIndexDao(Jdbi jdbi, ProfileDao profileDao, Environment env) {
+        this.jdbi = jdbi;
+        String profileFields = env.getProperty(PROFILE_FIELDS_VAR, DEFAULT_PROFILE_FIELDS);
+        List<String> profileColumns = Arrays.stream(profileFields.split(","))
+                .map(String::trim).filter(column -> !column.isEmpty()).toList();
+        List<String> validColumns = profileDao.getGetQueryColumns();
+        profileColumns.stream().filter(column -> !validColumns.contains(column)).findAny().ifPresent(column -> {
+            throw new IllegalArgumentException("%s includes %s, which is not a profile column"
+                    .formatted(PROFILE_FIELDS_VAR, column));
+        });
+        upsertSql = generateUpsertSql(profileColumns);
+    }
+
+    /**
+     * Recomputes the index rows of the given enrollees in a single statement.  Enrollees that no longer exist are
+     * skipped, so this doesn't remove their rows -- see deleteByEnrolleeIds.  Returns the number of rows written.
+     */
+    public int refresh(Collection<UUID> enrolleeIds) {
+        if (enrolleeIds.isEmpty()) {
+            return 0;
+        }
+        return jdbi.withHandle(handle ->
+                handle.createUpdate(upsertSql.formatted("where enrollee.id = any(:ids)"))
+                        .bindArray("ids", UUID.class, enrolleeIds)
+                        .execute()
+        );
+    }
+
+    /** recomputes the index rows of every enrollee with one of the given profiles */
+    public int refreshByProfileIds(Collection<UUID> profileIds) {
+        if (profileIds.isEmpty()) {
+            return 0;
+        }
+        return jdbi.withHandle(handle ->
+                handle.createUpdate(upsertSql.formatted("where enrollee.profile_id = any(:ids)"))
+                        .bindArray("ids", UUID.class, profileIds)
+                        .execute()
+        );
+    }
+
+    /** recomputes the whole index.  Should be called in a transaction.  Returns the number of rows written */
+    public int rebuild() {
+        return jdbi.withHandle(handle -> {
+            handle.createUpdate("delete from " + TABLE_NAME + ";").execute();
+            return handle.createUpdate(upsertSql.formatted("")).execute();
+        });
+    }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        if (enrolleeIds.isEmpty()) {
+            return;
+        }
+        jdbi.useHandle(handle ->
+                handle.createUpdate("delete from " + TABLE_NAME + " where enrollee_id = any(:enrolleeIds);")
+                        .bindArray("enrolleeIds", UUID.class, enrolleeIds)
+                        .execute()
+        );
+    }
+
+    /**
+     * the upsert, with a %s for the where clause.  Profile columns are cast to text since the configured fields may
+     * include dates; concat_ws skips nulls
+     */
+    protected static String generateUpsertSql(List<String> profileColumns) {
+        String fields = profileColumns.stream().map(column -> ", profile.%s::text".formatted(column))
+                .collect(Collectors.joining());
+        return """
+                insert into %1$s (enrollee_id, study_environment_id, search_text, search_vector)
+                select enrollee.id, enrollee.study_environment_id, indexed.search_text,
+                 to_tsvector('simple', indexed.search_text)
+                 from enrollee
+                 left join profile on profile.id = enrollee.profile_id
+                 cross join lateral (select lower(concat_ws(' ', enrollee.shortcode%2$s)) as search_text) indexed
+                 %%s
+                on conflict (enrollee_id) do update set study_environment_id = excluded.study_environment_id,
+                 search_text = excluded.search_text, search_vector = excluded.search_vector;
+                """.formatted(TABLE_NAME, fields);
+    }
+}
@@ -2,6 +2,7 @@ package bio.terra.pearl.core.dao.participant;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.participant.ParticipantNote;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
@@ -23,4 +24,8 @@ public class ParticipantNoteDao extends BaseMutableJdbiDao<ParticipantNote> {
   protected Class<ParticipantNote> getClazz() {
     return ParticipantNote.class;
   }
+
+  public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+    deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+  }
 }
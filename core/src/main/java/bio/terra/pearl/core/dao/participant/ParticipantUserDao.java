@@ -3,7 +3,10 @@ package bio.terra.pearl.core.dao.participant;
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -20,10 +23,39 @@ public class ParticipantUserDao extends BaseMutableJdbiDao<ParticipantUser> {
       return findByTwoProperties("username", username, "environment_name", environmentName);
    }
 
+   /** the users of the environment with any of the given usernames */
+   public List<ParticipantUser> findAllByUsernames(Collection<String> usernames, EnvironmentName environmentName) {
+      if (usernames.isEmpty()) {
+         return List.of();
+      }
+      return jdbi.withHandle(handle ->
+              handle.createQuery(selectSql
+                              + " where username = any(:usernames) and environment_name = :environmentName;")
+                      .bindArray("usernames", String.class, usernames)
+                      .bind("environmentName", environmentName)
+                      .mapTo(clazz)
+                      .list()
+      );
+   }
+
    public Optional<ParticipantUser> findByToken(String token) {
       return findByProperty("token", token);
    }
 
+   /** deletes whichever of the given users are no longer attached to any portal */
+   public int deleteOrphans(Collection<UUID> userIds) {
+      if (userIds.isEmpty()) {
+         return 0;
+      }
+      return jdbi.withHandle(handle ->
+              handle.createUpdate("delete from " + tableName + " where id = any(:userIds)"
+                              + " and not exists (select 1 from portal_participant_user"
+                              + " where portal_participant_user.participant_user_id = " + tableName + ".id);")
+                      .bindArray("userIds", UUID.class, userIds)
+                      .execute()
+      );
+   }
+
    public ParticipantUserDao(Jdbi jdbi) {
       super(jdbi);
    }
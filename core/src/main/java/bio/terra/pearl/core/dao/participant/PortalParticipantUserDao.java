@@ -3,6 +3,7 @@ package bio.terra.pearl.core.dao.participant;
 import bio.terra.pearl.core.dao.BaseJdbiDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.participant.PortalParticipantUser;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -61,6 +62,20 @@ public class PortalParticipantUserDao extends BaseJdbiDao<PortalParticipantUser>
         return findAllByProperty("participant_user_id", userId);
     }
 
+    public List<PortalParticipantUser> findByParticipantUserIds(Collection<UUID> participantUserIds, UUID portalEnvId) {
+        if (participantUserIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbi.withHandle(handle ->
+                handle.createQuery(selectSql + " where portal_environment_id = :portalEnvId"
+                                + " and participant_user_id = any(:participantUserIds)")
+                        .bind("portalEnvId", portalEnvId)
+                        .bindArray("participantUserIds", UUID.class, participantUserIds)
+                        .mapTo(clazz)
+                        .list()
+        );
+    }
+
     public List<PortalParticipantUser> findByPortalEnvironmentId(UUID portalEnvId) {
         return findAllByProperty("portal_environment_id", portalEnvId);
     }
@@ -3,8 +3,13 @@ package bio.terra.pearl.core.dao.participant;
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.Profile;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -31,6 +36,16 @@ public class ProfileDao extends BaseMutableJdbiDao<Profile> {
         return profileOpt;
     }
 
+    /** bulk version of loadWithMailingAddress, using one query for the profiles and one for the addresses */
+    public List<Profile> findAllWithMailingAddress(List<UUID> profileIds) {
+        List<Profile> profiles = findAll(profileIds);
+        List<UUID> addressIds = profiles.stream().map(Profile::getMailingAddressId).filter(Objects::nonNull).toList();
+        Map<UUID, MailingAddress> addressById = mailingAddressDao.findAll(addressIds).stream()
+                .collect(Collectors.toMap(MailingAddress::getId, Function.identity()));
+        profiles.forEach(profile -> profile.setMailingAddress(addressById.get(profile.getMailingAddressId())));
+        return profiles;
+    }
+
     /** updates the profile and also updates the attached mailing address, if any */
     public Profile updateWithMailingAddress(Profile profile) {
         MailingAddress mailingAddress = profile.getMailingAddress();
@@ -5,9 +5,22 @@ import bio.terra.pearl.core.dao.consent.ConsentResponseDao;
 import bio.terra.pearl.core.dao.survey.PreEnrollmentResponseDao;
 import bio.terra.pearl.core.dao.survey.SurveyResponseDao;
 import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
+import bio.terra.pearl.core.model.consent.ConsentResponse;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.model.participant.WithdrawnEnrollee;
+import bio.terra.pearl.core.model.survey.PreEnrollmentResponse;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -49,6 +62,23 @@ public class WithdrawnEnrolleeDao extends BaseJdbiDao<WithdrawnEnrollee> {
     return countByProperty("study_environment_id", studyEnvId);
   }
 
+  /** returns the subset of the given shortcodes that have withdrawal records */
+  public Set<String> findWithdrawnShortcodes(Collection<String> shortcodes) {
+    if (shortcodes.isEmpty()) {
+      return new HashSet<>();
+    }
+    return jdbi.withHandle(handle ->
+        handle.createQuery("select shortcode from " + tableName + " where shortcode = any(:shortcodes);")
+            .bindArray("shortcodes", String.class, shortcodes)
+            .mapTo(String.class)
+            .collect(Collectors.toSet())
+    );
+  }
+
+  public List<WithdrawnEnrollee> findAllByShortcodes(Collection<String> shortcodes) {
+    return findAllByPropertyCollection("shortcode", shortcodes);
+  }
+
   /**
    * gets everything we need to save for compliance reasons even after a participant withdraws.
    *  For now, we're playing it safe and getting pretty much everything,
@@ -66,4 +96,35 @@ public class WithdrawnEnrolleeDao extends BaseJdbiDao<WithdrawnEnrollee> {
     }
     return enrollee;
   }
+
+  /**
+   * bulk version of loadForWithdrawalPreservation -- loads the same data, but with a fixed number of queries
+   * regardless of how many enrollees are passed in.
+   */
+  public List<Enrollee> loadForWithdrawalPreservation(List<Enrollee> enrollees) {
+    List<UUID> enrolleeIds = enrollees.stream().map(Enrollee::getId).toList();
+    Map<UUID, List<SurveyResponse>> responsesByEnrollee = surveyResponseDao.findByEnrolleeIdsWithAnswers(enrolleeIds);
+    Map<UUID, List<ConsentResponse>> consentsByEnrollee = consentResponseDao.findByEnrolleeIds(enrolleeIds);
+    Map<UUID, Set<ParticipantTask>> tasksByEnrollee = participantTaskDao.findByEnrolleeIds(enrolleeIds);
+    List<UUID> profileIds = enrollees.stream().map(Enrollee::getProfileId).filter(Objects::nonNull).distinct().toList();
+    Map<UUID, Profile> profilesById = profileDao.findAllWithMailingAddress(profileIds).stream()
+        .collect(Collectors.toMap(Profile::getId, Function.identity()));
+    List<UUID> preEnrollIds = enrollees.stream().map(Enrollee::getPreEnrollmentResponseId)
+        .filter(Objects::nonNull).toList();
+    Map<UUID, PreEnrollmentResponse> preEnrollsById = preEnrollmentResponseDao.findAll(preEnrollIds).stream()
+        .collect(Collectors.toMap(PreEnrollmentResponse::getId, Function.identity()));
+
+    for (Enrollee enrollee : enrollees) {
+      enrollee.getSurveyResponses().addAll(responsesByEnrollee.getOrDefault(enrollee.getId(), List.of()));
+      enrollee.getConsentResponses().addAll(consentsByEnrollee.getOrDefault(enrollee.getId(), List.of()));
+      enrollee.getParticipantTasks().addAll(tasksByEnrollee.getOrDefault(enrollee.getId(), Set.of()));
+      if (enrollee.getProfileId() != null) {
+        enrollee.setProfile(profilesById.get(enrollee.getProfileId()));
+      }
+      if (enrollee.getPreEnrollmentResponseId() != null) {
+        enrollee.setPreEnrollmentResponse(preEnrollsById.get(enrollee.getPreEnrollmentResponseId()));
+      }
+    }
+    return enrollees;
+  }
 }
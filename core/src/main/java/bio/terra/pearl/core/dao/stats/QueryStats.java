@@ -0,0 +1,108 @@
+package bio.terra.pearl.core.dao.stats;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts the sql statements run by one unit of work -- an API request or a scheduled job -- on the thread doing it.
+ * Statements are recorded by QueryStatsRecorder while the stats are active, between start and stop.
+ *
+ * Statements are also counted by their sql, before parameters are bound.  The same sql run many times in one unit of
+ * work, with different parameters, is the signature of an N+1 query: loading a list, then loading something for each
+ * item with its own query.  See getRepeatedStatements.
+ */
+public class QueryStats {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final QueryStats previous;
+    private final Map<String, Integer> countsBySql = new LinkedHashMap<>();
+    private int statementCount = 0;
+    private int failedStatementCount = 0;
+    private long rowsWritten = 0;
+    private long totalNanos = 0;
+
+    private QueryStats(String name, QueryStats previous) {
+        this.name = name;
+        this.previous = previous;
+    }
+
+    /** starts counting this thread's statements, until stop is called.  Calls can be nested */
+    public static QueryStats start(String name) {
+        QueryStats stats = new QueryStats(name, CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** stops counting, resuming the stats that were active when these were started, if any */
+    public void stop() {
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Query stats %s are not the current stats for this thread".formatted(name));
+        }
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static Optional<QueryStats> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /** statements are also counted toward any enclosing stats, so a job's totals include its nested work */
+    void recordStatement(String sql, long nanos, boolean failed) {
+        for (QueryStats stats = this; stats != null; stats = stats.previous) {
+            stats.statementCount++;
+            stats.failedStatementCount += failed ? 1 : 0;
+            stats.totalNanos += nanos;
+            stats.countsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordRowsWritten(int rows) {
+        for (QueryStats stats = this; stats != null; stats = stats.previous) {
+            stats.rowsWritten += rows;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getFailedStatementCount() {
+        return failedStatementCount;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public Duration getTotalTime() {
+        return Duration.ofNanos(totalNanos);
+    }
+
+    /** counts of each distinct sql statement run, in the order they were first run */
+    public Map<String, Integer> getCountsBySql() {
+        return countsBySql;
+    }
+
+    /** statements run at least minCount times, most-run first.  These are the N+1 candidates */
+    public List<RepeatedStatement> getRepeatedStatements(int minCount) {
+        return countsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minCount)
+                .map(entry -> new RepeatedStatement(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(RepeatedStatement::count).reversed())
+                .toList();
+    }
+
+    public record RepeatedStatement(String sql, int count) {}
+}
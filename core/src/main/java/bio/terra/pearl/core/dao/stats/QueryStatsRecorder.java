@@ -0,0 +1,53 @@
+package bio.terra.pearl.core.dao.stats;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.StatementCustomizer;
+
+/**
+ * Records each statement Jdbi runs into the thread's current QueryStats, if there are any.  Installed as both the
+ * SqlLogger, wrapping the logger that would otherwise be used, and a statement customizer, to read update counts --
+ * see JdbiConfiguration.  Jdbi doesn't expose how many rows a query's result set has, so only rows written are
+ * counted.
+ */
+public class QueryStatsRecorder implements SqlLogger, StatementCustomizer {
+    private final SqlLogger delegate;
+
+    public QueryStatsRecorder(SqlLogger delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void logBeforeExecution(StatementContext context) {
+        delegate.logBeforeExecution(context);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        delegate.logAfterExecution(context);
+        QueryStats.current().ifPresent(stats ->
+                stats.recordStatement(context.getRenderedSql(), context.getElapsedTime(ChronoUnit.NANOS), false));
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        delegate.logException(context, ex);
+        QueryStats.current().ifPresent(stats ->
+                stats.recordStatement(context.getRenderedSql(), context.getElapsedTime(ChronoUnit.NANOS), true));
+    }
+
+    @Override
+    public void afterExecution(PreparedStatement statement, StatementContext context) throws SQLException {
+        if (QueryStats.current().isEmpty()) {
+            return;
+        }
+        // -1 for queries
+        int updateCount = statement.getUpdateCount();
+        if (updateCount > 0) {
+            QueryStats.current().get().recordRowsWritten(updateCount);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bio.terra.pearl.core.dao.stats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes QueryStats as metrics, tagged with the kind of work (request or job) and its name, and logs a warning
+ * for any statement run often enough in one unit of work to suggest an N+1 query.  Apps without a MeterRegistry
+ * bean (e.g. populate) record to Micrometer's global registry.
+ */
+@Component
+@Slf4j
+public class QueryStatsReporter {
+    /** statements run at least this many times in one unit of work are logged as possible N+1 queries */
+    public static final String N_PLUS_ONE_THRESHOLD_VAR = "env.db.nPlusOneThreshold";
+    public static final String REQUEST_SCOPE = "request";
+    public static final String JOB_SCOPE = "job";
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public QueryStatsReporter(ObjectProvider<MeterRegistry> meterRegistry, Environment env) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.nPlusOneThreshold = env.getProperty(N_PLUS_ONE_THRESHOLD_VAR, Integer.class, 5);
+    }
+
+    /** runs the work with its own QueryStats, then reports them */
+    public <T> T call(String scope, String name, Supplier<T> work) {
+        QueryStats stats = QueryStats.start(name);
+        try {
+            return work.get();
+        } finally {
+            stats.stop();
+            report(scope, stats);
+        }
+    }
+
+    public void run(String scope, String name, Runnable work) {
+        call(scope, name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void report(String scope, QueryStats stats) {
+        report(scope, stats, stats.getName());
+    }
+
+    /** reports under the given name, for work whose name isn't known until it's done (e.g. a request's route) */
+    public void report(String scope, QueryStats stats, String name) {
+        DistributionSummary.builder("pearl.db.statements")
+                .description("sql statements run per request or job")
+                .tags("scope", scope, "name", name)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        DistributionSummary.builder("pearl.db.rows.written")
+                .tags("scope", scope, "name", name)
+                .register(meterRegistry)
+                .record(stats.getRowsWritten());
+        Timer.builder("pearl.db.time")
+                .description("time spent running sql statements per request or job")
+                .tags("scope", scope, "name", name)
+                .register(meterRegistry)
+                .record(stats.getTotalTime());
+
+        List<QueryStats.RepeatedStatement> repeated = stats.getRepeatedStatements(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("pearl.db.n_plus_one", "scope", scope, "name", name).increment();
+            repeated.forEach(statement -> log.warn("Possible N+1 query in {}: run {} times of {} statements: {}",
+                    name, statement.count(), stats.getStatementCount(), statement.sql()));
+        }
+    }
+}
@@ -5,8 +5,11 @@ import bio.terra.pearl.core.dao.consent.ConsentFormDao;
 import bio.terra.pearl.core.model.consent.ConsentForm;
 import bio.terra.pearl.core.model.consent.StudyEnvironmentConsent;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -40,6 +43,16 @@ public class StudyEnvironmentConsentDao extends BaseMutableJdbiDao<StudyEnvironm
         return studyEnvConsents;
     }
 
+    /** like findAllByStudyEnvIdWithConsent, but the consent forms are loaded without their content */
+    public List<StudyEnvironmentConsent> findAllByStudyEnvIdWithConsentNoContent(UUID studyEnvId) {
+        List<StudyEnvironmentConsent> studyEnvConsents = findAllByStudyEnvironmentId(studyEnvId);
+        Map<UUID, ConsentForm> consentsById = consentFormDao.findAllNoContent(studyEnvConsents.stream()
+                        .map(StudyEnvironmentConsent::getConsentFormId).distinct().toList())
+                .stream().collect(Collectors.toMap(ConsentForm::getId, Function.identity()));
+        studyEnvConsents.forEach(sec -> sec.setConsentForm(consentsById.get(sec.getConsentFormId())));
+        return studyEnvConsents;
+    }
+
     public List<StudyEnvironmentConsent> findByConsentForm(UUID studyEnvId, String consentStableId) {
         return jdbi.withHandle(handle ->
                 handle.createQuery("select " + prefixedGetQueryColumns("a") + " from " + tableName +
@@ -10,8 +10,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.reflect.BeanMapper;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -103,6 +108,83 @@ public class StudyEnvironmentDao extends BaseMutableJdbiDao<StudyEnvironment> {
         return studyEnv;
     }
 
+    /**
+     * like loadWithAllContent, but the surveys, consent forms, and email templates are loaded without their content --
+     * for when only the configs and the documents' stableIds and versions are needed, as when diffing for publishing
+     */
+    public StudyEnvironment loadWithConfigsNoContent(StudyEnvironment studyEnv) {
+        UUID studyEnvId = studyEnv.getId();
+        studyEnv.setStudyEnvironmentConfig(studyEnvironmentConfigDao.find(studyEnv.getStudyEnvironmentConfigId()).get());
+        studyEnv.setConfiguredSurveys(studyEnvironmentSurveyDao.findAllByStudyEnvIdWithSurveyNoContent(studyEnvId));
+        if (studyEnv.getPreEnrollSurveyId() != null) {
+            studyEnv.setPreEnrollSurvey(surveyDao.findAllNoContent(List.of(studyEnv.getPreEnrollSurveyId())).get(0));
+        }
+        studyEnv.setConfiguredConsents(studyEnvironmentConsentDao
+                .findAllByStudyEnvIdWithConsentNoContent(studyEnvId));
+        var notificationConfigs = notificationConfigDao.findByStudyEnvironmentId(studyEnvId, true);
+        notificationConfigDao.attachTemplatesNoContent(notificationConfigs);
+        studyEnv.setNotificationConfigs(notificationConfigs);
+        return studyEnv;
+    }
+
+    /**
+     * Returns a fingerprint of each of the portal's study environments for the given environment name, computed in a
+     * single query.  The fingerprint is a hash of everything PortalDiffService compares: the environment config, and
+     * the active surveys, consents, and notification configs -- each config's columns other than ignoreColumns, plus
+     * the stableId and version of the document it references.  Two study environments with the same fingerprint and
+     * pre-enroll survey have no changes between them.
+     */
+    public List<PublishingFingerprint> findPublishingFingerprints(UUID portalId, EnvironmentName envName,
+                                                                  List<String> ignoreColumns) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("""
+                                select study.shortcode as study_shortcode, pre_enroll.stable_id as pre_enroll_stable_id,
+                                    pre_enroll.version as pre_enroll_version,
+                                    md5(concat_ws('|',
+                                        coalesce((select (to_jsonb(sec) - cast(:ignoreColumns as text[]))::text
+                                            from study_environment_config sec
+                                            where sec.id = a.study_environment_config_id), ''),
+                                        coalesce((select string_agg(((to_jsonb(ses) - cast(:ignoreColumns as text[]))
+                                                || jsonb_build_object('stableId', s.stable_id, 'version', s.version))::text,
+                                                ',' order by s.stable_id, s.version, ses.id)
+                                            from study_environment_survey ses join survey s on ses.survey_id = s.id
+                                            where ses.study_environment_id = a.id and ses.active), ''),
+                                        coalesce((select string_agg(((to_jsonb(sc) - cast(:ignoreColumns as text[]))
+                                                || jsonb_build_object('stableId', cf.stable_id, 'version', cf.version))::text,
+                                                ',' order by cf.stable_id, cf.version, sc.id)
+                                            from study_environment_consent sc join consent_form cf on sc.consent_form_id = cf.id
+                                            where sc.study_environment_id = a.id), ''),
+                                        coalesce((select string_agg(((to_jsonb(nc) - cast(:ignoreColumns as text[]))
+                                                || jsonb_build_object('stableId', et.stable_id, 'version', et.version))::text,
+                                                ',' order by et.stable_id, et.version, nc.id)
+                                            from notification_config nc left join email_template et on nc.email_template_id = et.id
+                                            where nc.study_environment_id = a.id and nc.active), '')
+                                    )) as fingerprint
+                                from study_environment a
+                                join study on a.study_id = study.id
+                                join portal_study on portal_study.study_id = study.id
+                                left join survey pre_enroll on a.pre_enroll_survey_id = pre_enroll.id
+                                where portal_study.portal_id = :portalId and a.environment_name = :environmentName
+                                """)
+                        .bind("portalId", portalId)
+                        .bind("environmentName", envName)
+                        .bindArray("ignoreColumns", String.class, ignoreColumns)
+                        .map(publishingFingerprintMapper)
+                        .list()
+        );
+    }
+
+    @Getter
+    @Setter @NoArgsConstructor
+    public static class PublishingFingerprint {
+        private String studyShortcode;
+        private String preEnrollStableId;
+        private Integer preEnrollVersion;
+        private String fingerprint;
+    }
+
+    private final RowMapper<PublishingFingerprint> publishingFingerprintMapper = BeanMapper.of(PublishingFingerprint.class);
+
     public void deleteByStudyId(UUID studyId) {
         deleteByProperty("study_id", studyId);
     }
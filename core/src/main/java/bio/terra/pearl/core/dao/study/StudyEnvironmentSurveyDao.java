@@ -5,8 +5,10 @@ import bio.terra.pearl.core.dao.survey.SurveyDao;
 import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
 import bio.terra.pearl.core.model.survey.Survey;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
@@ -64,6 +66,16 @@ public class StudyEnvironmentSurveyDao extends BaseMutableJdbiDao<StudyEnvironme
         return studyEnvSurvs;
     }
 
+    /** like findAllByStudyEnvIdWithSurvey, for active surveys, but the surveys are loaded without their content */
+    public List<StudyEnvironmentSurvey> findAllByStudyEnvIdWithSurveyNoContent(UUID studyEnvId) {
+        List<StudyEnvironmentSurvey> studyEnvSurvs = findAllByStudyEnvironmentId(studyEnvId, true);
+        Map<UUID, Survey> surveysById = surveyDao.findAllNoContent(studyEnvSurvs.stream()
+                        .map(StudyEnvironmentSurvey::getSurveyId).distinct().toList())
+                .stream().collect(Collectors.toMap(Survey::getId, Function.identity()));
+        studyEnvSurvs.forEach(ses -> ses.setSurvey(surveysById.get(ses.getSurveyId())));
+        return studyEnvSurvs;
+    }
+
     public List<StudyEnvironmentSurvey> findBySurveyId(UUID surveyId) {
         return findAllByProperty("survey_id", surveyId);
     }
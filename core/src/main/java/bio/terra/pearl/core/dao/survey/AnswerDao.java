@@ -2,6 +2,7 @@ package bio.terra.pearl.core.dao.survey;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.survey.Answer;
+import java.util.Collection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -56,4 +57,12 @@ public class AnswerDao extends BaseMutableJdbiDao<Answer> {
     public List<Answer> findByEnrolleeId(UUID enrolleeId) {
         return findAllByProperty("enrollee_id", enrolleeId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
+
+    public List<Answer> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return findAllByPropertyCollection("enrollee_id", enrolleeIds);
+    }
 }
@@ -47,6 +47,12 @@ public class SurveyDao extends BaseVersionedJdbiDao<Survey> {
         );
     }
 
+    @Override
+    protected List<String> getNoContentColumns() {
+        return List.of("id", "created_at", "last_updated_at", "stable_id", "version", "published_version", "portal_id",
+                "name");
+    }
+
     @Override
     protected Class<Survey> getClazz() {
         return Survey.class;
@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import java.util.*;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -43,6 +44,20 @@ public class SurveyResponseDao extends BaseMutableJdbiDao<SurveyResponse> {
         return responses;
     }
 
+    /** bulk version of findByEnrolleeIdWithAnswers -- returns a map of enrolleeId -> responses with answers attached */
+    public Map<UUID, List<SurveyResponse>> findByEnrolleeIdsWithAnswers(Collection<UUID> enrolleeIds) {
+        List<SurveyResponse> responses = findAllByPropertyCollection("enrollee_id", enrolleeIds);
+        List<Answer> answers = answerDao.findByEnrolleeIds(enrolleeIds);
+        Map<UUID, SurveyResponse> responseById = new HashMap<>();
+        for (SurveyResponse response : responses) {
+            responseById.put(response.getId(), response);
+        }
+        for (Answer answer : answers) {
+            responseById.get(answer.getSurveyResponseId()).getAnswers().add(answer);
+        }
+        return responses.stream().collect(Collectors.groupingBy(SurveyResponse::getEnrolleeId));
+    }
+
     public Optional<SurveyResponse> findOneWithAnswers(UUID responseId) {
         Optional<SurveyResponse> responseOpt = find(responseId);
         responseOpt.ifPresent(response -> {
@@ -68,4 +83,8 @@ public class SurveyResponseDao extends BaseMutableJdbiDao<SurveyResponse> {
                         .findOne()
         );
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
 }
@@ -50,4 +50,8 @@ public class AdminTaskDao extends BaseMutableJdbiDao<AdminTask> {
     public void deleteByStudyEnvironmentId(UUID studyEnvId) {
         deleteByProperty("study_environment_id", studyEnvId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
 }
@@ -56,6 +56,21 @@ public class ParticipantTaskDao extends BaseMutableJdbiDao<ParticipantTask> {
         return findByTwoProperties("id", taskId, "portal_participant_user_id", ppUserId);
     }
 
+    /**
+     * takes a transaction-scoped lock on assigning the target (e.g. a survey) in the study environment, so that two
+     * assignments of the same survey -- bulk, or from an enrollee's event -- can't both decide an enrollee is missing
+     * the task and both create it.  Callers must check the enrollee's tasks after taking it.  The lock is released
+     * when the transaction ends.
+     */
+    public void lockTargetForStudyEnvironment(UUID studyEnvironmentId, String targetStableId) {
+        jdbi.withHandle(handle ->
+                handle.createQuery("select 1 from pg_advisory_xact_lock(hashtext(:lockKey))")
+                        .bind("lockKey", "participant_task:" + studyEnvironmentId + ":" + targetStableId)
+                        .mapTo(Integer.class)
+                        .one()
+        );
+    }
+
     public void deleteByEnrolleeId(UUID enrolleeId) {
         deleteByProperty("enrollee_id", enrolleeId);
     }
@@ -104,4 +119,8 @@ public class ParticipantTaskDao extends BaseMutableJdbiDao<ParticipantTask> {
     }
 
     public RowMapper enrolleeTasksMapper = BeanMapper.of(EnrolleeWithTasks.class);
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteAllByUuidProperty("enrollee_id", enrolleeIds);
+    }
 }
@@ -0,0 +1,31 @@
+package bio.terra.pearl.core.model.dataimport;
+
+import bio.terra.pearl.core.model.BaseEntity;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.util.UUID;
+
+/**
+ * A run of the participant import for a file.  The row counts are saved along with each batch of imported rows, so
+ * they always reflect what has been committed, and a run that stopped part way can be resumed from rowsProcessed.
+ */
+@Getter @Setter
+@SuperBuilder @NoArgsConstructor
+public class DataImport extends BaseEntity {
+    private UUID studyEnvironmentId;
+    private UUID portalEnvironmentId;
+    private UUID creatingAdminUserId;
+    private String fileName;
+    private ImportFileFormat fileFormat;
+    @Builder.Default
+    private DataImportStatus status = DataImportStatus.IN_PROGRESS;
+    private int rowsProcessed;
+    private int rowsImported;
+    private int rowsSkipped;
+    private int rowsFailed;
+    private String errorMessage;
+}
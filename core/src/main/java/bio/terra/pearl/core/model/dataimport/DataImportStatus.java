@@ -0,0 +1,7 @@
+package bio.terra.pearl.core.model.dataimport;
+
+public enum DataImportStatus {
+    IN_PROGRESS,
+    COMPLETE,
+    FAILED
+}
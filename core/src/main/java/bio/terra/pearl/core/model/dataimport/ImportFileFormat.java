@@ -0,0 +1,7 @@
+package bio.terra.pearl.core.model.dataimport;
+
+/** the delimited formats the participant import reads -- TSV is the format of the participant export */
+public enum ImportFileFormat {
+    TSV,
+    CSV
+}
@@ -0,0 +1,34 @@
+package bio.terra.pearl.core.model.kit;
+
+import bio.terra.pearl.core.model.BaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Precomputed row for the kit management page: one per enrollee, with just the consent, survey and kit information
+ * needed to decide who should be sent a kit.  Derived entirely from the enrollee, participant_task and kit_request
+ * tables, and kept up to date by EnrolleeKitSummaryService as those are written.
+ */
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+public class EnrolleeKitSummary extends BaseEntity {
+    private UUID enrolleeId;
+    private UUID studyEnvironmentId;
+    private String enrolleeShortcode;
+    private Instant enrolleeCreatedAt;
+    private boolean consented;
+    /** completed survey tasks that block the hub, i.e. that are for required surveys */
+    private int requiredSurveysCompleted;
+    private int optionalSurveysCompleted;
+    private int kitRequestCount;
+    /** status of the most recently created kit request, null if there are none */
+    private KitRequestStatus latestKitStatus;
+    private Instant latestKitCreatedAt;
+}
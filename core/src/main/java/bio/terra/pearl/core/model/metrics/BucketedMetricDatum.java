@@ -0,0 +1,15 @@
+package bio.terra.pearl.core.model.metrics;
+
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** the number of occurrences of a metric (within a subcategory) in the time bucket starting at 'bucket' */
+@Getter @Setter @NoArgsConstructor
+public class BucketedMetricDatum {
+  private String name;
+  private String subcategory;
+  private Instant bucket;
+  private long count;
+}
@@ -0,0 +1,12 @@
+package bio.terra.pearl.core.model.metrics;
+
+/** granularity for bucketed metrics.  The lowercase name is the postgres date_trunc field */
+public enum TimeBucket {
+  HOUR,
+  DAY,
+  WEEK;
+
+  public String getTruncField() {
+    return name().toLowerCase();
+  }
+}
@@ -0,0 +1,24 @@
+package bio.terra.pearl.core.model.notification;
+
+import bio.terra.pearl.core.model.BaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+
+/**
+ * Progress of the SendGrid activity import.  SendGrid pages backwards in time from the end of the queried range, so
+ * each saved page moves pageEnd back toward rangeStart.  Once the whole range is saved, pageEnd is null and rangeEnd
+ * is the high-water mark the next import starts from.
+ */
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+public class SendgridEventCheckpoint extends BaseEntity {
+    private Instant rangeStart;
+    private Instant rangeEnd;
+    private Instant pageEnd;
+}
@@ -0,0 +1,129 @@
+package bio.terra.pearl.core.service;
+
+import bio.terra.pearl.core.config.DbWorkload;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs bulk operations requested by admins, like assigning a survey to a whole cohort, in the background, so the
+ * request that starts one returns right away rather than holding the request thread for the whole operation.  Callers
+ * get an operation id back, and can poll its status -- the progress the operation last reported through its listener,
+ * and then its result or error.
+ *
+ * The queue is bounded: when it's full, submit throws RejectedExecutionException, so the admin can try again later
+ * rather than the operations piling up.  Statuses are kept in memory, on the instance that ran the operation, for
+ * STATUS_RETENTION after they finish.
+ */
+@Component
+@Slf4j
+public class BulkOperationExecutor implements DisposableBean {
+    public static final String WORKER_THREADS_VAR = "env.bulkOperations.workerThreads";
+    public static final String QUEUE_CAPACITY_VAR = "env.bulkOperations.queueCapacity";
+    private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private final TaskDecorator taskDecorator;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, BulkOperationStatus> statuses = new ConcurrentHashMap<>();
+
+    public BulkOperationExecutor(Environment env, ObjectProvider<TaskDecorator> taskDecorator) {
+        this.taskDecorator = taskDecorator.getIfUnique(() -> runnable -> runnable);
+        int workerThreads = env.getProperty(WORKER_THREADS_VAR, Integer.class, 1);
+        int queueCapacity = env.getProperty(QUEUE_CAPACITY_VAR, Integer.class, 10);
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("bulk-operation-"));
+    }
+
+    /**
+     * queues the operation, returning its initial status.  scopeId identifies what the operation is for (e.g. the
+     * configured survey being assigned), so that a status is only returned to callers asking about the same thing.
+     * The work is passed a listener for its progress, and its return value becomes the status' result.
+     */
+    public BulkOperationStatus submit(String operationName, UUID scopeId,
+                                      Function<Consumer<BulkOperationProgress>, Object> work) {
+        removeExpiredStatuses();
+        UUID operationId = UUID.randomUUID();
+        BulkOperationStatus queued = new BulkOperationStatus(operationId, scopeId, BulkOperationState.QUEUED,
+                new BulkOperationProgress(operationName, 0, 0), null, null, null);
+        statuses.put(operationId, queued);
+        try {
+            executor.execute(taskDecorator.decorate(() -> run(operationId, work)));
+        } catch (RejectedExecutionException e) {
+            statuses.remove(operationId);
+            throw new RejectedExecutionException("Too many bulk operations queued, try again later", e);
+        }
+        return queued;
+    }
+
+    /** the operation's status, if it's known on this instance and was submitted for the same scope */
+    public Optional<BulkOperationStatus> findStatus(UUID operationId, UUID scopeId) {
+        return Optional.ofNullable(statuses.get(operationId))
+                .filter(status -> status.scopeId().equals(scopeId));
+    }
+
+    protected void run(UUID operationId, Function<Consumer<BulkOperationProgress>, Object> work) {
+        statuses.computeIfPresent(operationId, (id, status) -> status.withState(BulkOperationState.RUNNING));
+        Consumer<BulkOperationProgress> progressListener = progress ->
+                statuses.computeIfPresent(operationId, (id, status) -> status.withProgress(progress));
+        try {
+            Object result = DbWorkload.BATCH.call(() -> work.apply(progressListener));
+            statuses.computeIfPresent(operationId, (id, status) -> status.finish(BulkOperationState.COMPLETE, result, null));
+        } catch (Exception e) {
+            log.error("Bulk operation {} failed", operationId, e);
+            statuses.computeIfPresent(operationId, (id, status) -> status.finish(BulkOperationState.FAILED, null, e.getMessage()));
+        }
+    }
+
+    protected void removeExpiredStatuses() {
+        Instant cutoff = Instant.now().minus(STATUS_RETENTION);
+        statuses.values().removeIf(status -> status.finishedAt() != null && status.finishedAt().isBefore(cutoff));
+    }
+
+    /** lets queued operations finish on shutdown, up to SHUTDOWN_TIMEOUT, since they were accepted */
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Bulk operations still running at shutdown: {} queued", executor.getQueue().size());
+        }
+    }
+
+    public enum BulkOperationState {
+        QUEUED,
+        RUNNING,
+        COMPLETE,
+        FAILED
+    }
+
+    /** progress is the last one the operation reported; result and error are set once it finishes */
+    public record BulkOperationStatus(UUID id, UUID scopeId, BulkOperationState state, BulkOperationProgress progress,
+                                      Object result, String error, Instant finishedAt) {
+        BulkOperationStatus withState(BulkOperationState newState) {
+            return new BulkOperationStatus(id, scopeId, newState, progress, result, error, finishedAt);
+        }
+
+        BulkOperationStatus withProgress(BulkOperationProgress newProgress) {
+            return new BulkOperationStatus(id, scopeId, state, newProgress, result, error, finishedAt);
+        }
+
+        BulkOperationStatus finish(BulkOperationState finalState, Object newResult, String newError) {
+            return new BulkOperationStatus(id, scopeId, finalState, progress, newResult, newError, Instant.now());
+        }
+    }
+}
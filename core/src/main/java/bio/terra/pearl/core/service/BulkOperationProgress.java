@@ -0,0 +1,15 @@
+package bio.terra.pearl.core.service;
+
+/**
+ * Progress snapshot for long-running bulk operations that process their input in chunks.
+ * processed and total are in whatever unit the operation works on (e.g. enrollees).
+ */
+public record BulkOperationProgress(String operationName, int processed, int total) {
+    public boolean isComplete() {
+        return processed >= total;
+    }
+
+    public int percentComplete() {
+        return total == 0 ? 100 : (int) (100L * processed / total);
+    }
+}
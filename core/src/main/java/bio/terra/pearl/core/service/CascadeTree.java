@@ -2,6 +2,7 @@ package bio.terra.pearl.core.service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class CascadeTree {
     public static final CascadeTree NONE = new CascadeTree();
@@ -23,4 +24,14 @@ public class CascadeTree {
     public CascadeTree(CascadeProperty property, CascadeTree subtree) {
         childMap.put(property, subtree);
     }
+
+    /**
+     * a tree equivalent to a flat set of cascades -- every property in the set applies at every depth.  This lets
+     * callers that take a Set<CascadeProperty> use tree-driven operations like CascadeDeleteDao.
+     */
+    public static CascadeTree fromSet(Set<CascadeProperty> cascades) {
+        CascadeTree tree = new CascadeTree();
+        cascades.forEach(property -> tree.childMap.put(property, tree));
+        return tree;
+    }
 }
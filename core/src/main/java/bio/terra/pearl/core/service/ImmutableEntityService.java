@@ -30,6 +30,12 @@ public abstract class ImmutableEntityService<M extends BaseEntity, D extends Bas
         dao.bulkCreate(modelObjs);
     }
 
+    /** like bulkCreate, but returns the created objects, in the same order */
+    @Transactional
+    public List<M> createAll(List<M> modelObjs) {
+        return dao.createAll(modelObjs);
+    }
+
     public Optional<M> find(UUID id) {
         return dao.find(id);
     }
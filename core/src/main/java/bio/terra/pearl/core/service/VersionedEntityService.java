@@ -25,6 +25,10 @@ public abstract class VersionedEntityService<T extends BaseEntity & Versioned, D
         return dao.findByStableId(stableId);
     }
 
+    public List<T> findAllNoContent(List<UUID> ids) {
+        return dao.findAllNoContent(ids);
+    }
+
     public int getNextVersion(String stableId) {
         return dao.getNextVersion(stableId);
     }
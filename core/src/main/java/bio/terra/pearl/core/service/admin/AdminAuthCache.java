@@ -0,0 +1,250 @@
+package bio.terra.pearl.core.service.admin;
+
+import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.admin.AdminUserWithPermissions;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory cache of resolved admin principals.  Entries are keyed by admin user id, and hold the AdminUser along
+ * with their portal memberships and per-portal permissions, so that authorizing a request doesn't need to hit the
+ * database.  A second map takes a hash of each bearer token to the user it resolved to, so a user with several
+ * sessions has a single entry, and dropping that entry drops it for all of their tokens.
+ *
+ * Token mappings live until the earlier of the token's own expiry and the configured max ttl; user entries live for
+ * the max ttl.  User entries are dropped whenever the user, their portal memberships, or their roles change, and the
+ * whole cache is cleared when roles or permissions themselves change.  Callers always get their own copy of the
+ * AdminUser, so nothing they set on it can leak into other requests.
+ *
+ * A request that misses the cache loads the user and then puts them.  If an invalidation lands in between, the load
+ * may have read the old state, so callers take a generation from beginLoad() before loading, and put skips (or
+ * undoes) caching a load that an invalidation has since overtaken.
+ */
+@Component
+public class AdminAuthCache {
+    public static final String TTL_SECONDS_VAR = "env.adminAuth.cacheTtlSeconds";
+    public static final String MAX_ENTRIES_VAR = "env.adminAuth.cacheMaxEntries";
+    private final Duration maxTtl;
+    private final int maxEntries;
+    /** token hash -> which user it resolved to */
+    private final ConcurrentHashMap<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    /** admin user id -> resolved principal */
+    private final ConcurrentHashMap<UUID, CachedAdminAuth> users = new ConcurrentHashMap<>();
+    /** advanced by every invalidation, so loads can tell whether one happened since they started */
+    private final AtomicLong generation = new AtomicLong();
+    /** admin user id -> generation of that user's last invalidation */
+    private final ConcurrentHashMap<UUID, Long> userInvalidations = new ConcurrentHashMap<>();
+    /** generation of the last invalidateAll */
+    private final AtomicLong allInvalidation = new AtomicLong();
+
+    public AdminAuthCache(Environment env) {
+        this.maxTtl = Duration.ofSeconds(env.getProperty(TTL_SECONDS_VAR, Long.class, 300L));
+        this.maxEntries = env.getProperty(MAX_ENTRIES_VAR, Integer.class, 10000);
+    }
+
+    /** returns the cached principal for the token, if present and not expired */
+    public Optional<CachedAdminAuth> get(String token) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        String key = hashToken(token);
+        CachedToken cachedToken = tokens.get(key);
+        if (cachedToken == null) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+        if (cachedToken.isExpired(now)) {
+            tokens.remove(key, cachedToken);
+            return Optional.empty();
+        }
+        return findByUserId(cachedToken.adminUserId(), now);
+    }
+
+    /** call before loading a user to put, and pass the result to put */
+    public long beginLoad() {
+        return generation.get();
+    }
+
+    /**
+     * caches the principal for the given token.  tokenExpiresAt may be null if the token doesn't declare an expiry,
+     * in which case the max ttl is used.  loadGeneration is from beginLoad() -- if the user has been invalidated since,
+     * the principal is returned but not cached.
+     */
+    public CachedAdminAuth put(String token, AdminUser user, Set<UUID> portalIds,
+                               Map<UUID, ? extends Set<String>> portalPermissions, Instant tokenExpiresAt,
+                               long loadGeneration) {
+        Instant now = Instant.now();
+        Instant userExpiresAt = now.plus(maxTtl);
+        Instant tokenExpiry = userExpiresAt;
+        if (tokenExpiresAt != null && tokenExpiresAt.isBefore(tokenExpiry)) {
+            tokenExpiry = tokenExpiresAt;
+        }
+        Map<UUID, Set<String>> permissionsCopy = new HashMap<>();
+        portalPermissions.forEach((portalId, perms) -> permissionsCopy.put(portalId, Set.copyOf(perms)));
+        CachedAdminAuth cached = new CachedAdminAuth(copyOf(user), Set.copyOf(portalIds),
+                Map.copyOf(permissionsCopy), userExpiresAt);
+        if (!isEnabled() || !tokenExpiry.isAfter(now) || isInvalidatedSince(user.getId(), loadGeneration)) {
+            return cached;
+        }
+        if (tokens.size() >= maxEntries || users.size() >= maxEntries) {
+            evictExpired(now);
+            if (tokens.size() >= maxEntries || users.size() >= maxEntries) {
+                // still full of live entries -- just start over rather than track recency
+                tokens.clear();
+                users.clear();
+            }
+        }
+        users.put(user.getId(), cached);
+        tokens.put(hashToken(token), new CachedToken(user.getId(), tokenExpiry));
+        // an invalidation records its generation before removing entries, so one that got in after the check above
+        // either removed this entry already, or is seen here
+        if (isInvalidatedSince(user.getId(), loadGeneration)) {
+            users.remove(user.getId(), cached);
+        }
+        return cached;
+    }
+
+    /** finds the cached portal memberships for the given user, if they have a live entry */
+    public Optional<Set<UUID>> findPortalIds(UUID adminUserId) {
+        return findByUserId(adminUserId, Instant.now()).map(CachedAdminAuth::portalIds);
+    }
+
+    /**
+     * drops the entry for the given user, which takes effect for all of their tokens.  If called inside a
+     * transaction, the entry is dropped again after commit, so a concurrent request can't re-cache the pre-commit
+     * state.
+     */
+    public void invalidateUser(UUID adminUserId) {
+        runNowAndAfterCommit(() -> {
+            userInvalidations.merge(adminUserId, generation.incrementAndGet(), Math::max);
+            users.remove(adminUserId);
+        });
+    }
+
+    /** drops everything -- for changes like role permission edits that could affect any number of users */
+    public void invalidateAll() {
+        runNowAndAfterCommit(() -> {
+            long invalidation = generation.incrementAndGet();
+            allInvalidation.accumulateAndGet(invalidation, Math::max);
+            // per-user generations older than this one no longer tell loads anything
+            userInvalidations.values().removeIf(userInvalidation -> userInvalidation <= invalidation);
+            users.clear();
+            tokens.clear();
+        });
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    protected Optional<CachedAdminAuth> findByUserId(UUID adminUserId, Instant now) {
+        CachedAdminAuth cached = users.get(adminUserId);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (cached.isExpired(now)) {
+            users.remove(adminUserId, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    protected boolean isInvalidatedSince(UUID adminUserId, long loadGeneration) {
+        return allInvalidation.get() > loadGeneration
+                || userInvalidations.getOrDefault(adminUserId, 0L) > loadGeneration;
+    }
+
+    protected boolean isEnabled() {
+        return !maxTtl.isZero() && !maxTtl.isNegative() && maxEntries > 0;
+    }
+
+    protected void evictExpired(Instant now) {
+        tokens.values().removeIf(cachedToken -> cachedToken.isExpired(now));
+        users.values().removeIf(cached -> cached.isExpired(now));
+    }
+
+    protected void runNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    /** we never hold onto raw tokens, just a digest of them */
+    protected static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    protected static AdminUser copyOf(AdminUser user) {
+        return AdminUser.builder()
+                .id(user.getId())
+                .createdAt(user.getCreatedAt())
+                .lastUpdatedAt(user.getLastUpdatedAt())
+                .username(user.getUsername())
+                .token(user.getToken())
+                .lastLogin(user.getLastLogin())
+                .superuser(user.isSuperuser())
+                .portalAdminUsers(new HashSet<>(user.getPortalAdminUsers()))
+                .build();
+    }
+
+    protected record CachedToken(UUID adminUserId, Instant expiresAt) {
+        public boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    /** portalIds and portalPermissions are immutable, and user() returns a fresh copy on each call */
+    public record CachedAdminAuth(AdminUser user, Set<UUID> portalIds, Map<UUID, Set<String>> portalPermissions,
+                                  Instant expiresAt) {
+        @Override
+        public AdminUser user() {
+            return copyOf(user);
+        }
+
+        public boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+
+        public boolean isInPortal(UUID portalId) {
+            return user.isSuperuser() || portalIds.contains(portalId);
+        }
+
+        public Set<String> getPermissions(UUID portalId) {
+            return portalPermissions.getOrDefault(portalId, Set.of());
+        }
+
+        /** in the shape the current-user endpoints return, with mutable copies the caller is free to change */
+        public AdminUserWithPermissions toUserWithPermissions() {
+            Map<UUID, HashSet<String>> permissions = new HashMap<>();
+            portalPermissions.forEach((portalId, perms) -> permissions.put(portalId, new HashSet<>(perms)));
+            return new AdminUserWithPermissions(user(), permissions);
+        }
+    }
+}
@@ -15,12 +15,15 @@ import org.springframework.transaction.annotation.Transactional;
 public class AdminUserService extends CrudService<AdminUser, AdminUserDao> {
     private PortalAdminUserService portalAdminUserService;
     private PortalAdminUserRoleService portalAdminUserRoleService;
+    private AdminAuthCache adminAuthCache;
 
     public AdminUserService(AdminUserDao adminUserDao, PortalAdminUserService portalAdminUserService,
-                            PortalAdminUserRoleService portalAdminUserRoleService) {
+                            PortalAdminUserRoleService portalAdminUserRoleService,
+                            AdminAuthCache adminAuthCache) {
         super(adminUserDao);
         this.portalAdminUserService = portalAdminUserService;
         this.portalAdminUserRoleService = portalAdminUserRoleService;
+        this.adminAuthCache = adminAuthCache;
     }
 
     public Optional<AdminUser> findByUsername(String username) {
@@ -43,9 +46,17 @@ public class AdminUserService extends CrudService<AdminUser, AdminUserDao> {
         return savedUser;
     }
 
+    @Transactional
+    @Override
+    public AdminUser update(AdminUser adminUser) {
+        adminAuthCache.invalidateUser(adminUser.getId());
+        return dao.update(adminUser);
+    }
+
     @Override
     @Transactional
     public void delete(UUID adminUserId, Set<CascadeProperty> cascade) {
+        adminAuthCache.invalidateUser(adminUserId);
         portalAdminUserService.deleteByUserId(adminUserId);
         dao.delete(adminUserId);
     }
@@ -2,16 +2,30 @@ package bio.terra.pearl.core.service.admin;
 
 import bio.terra.pearl.core.dao.admin.PermissionDao;
 import bio.terra.pearl.core.model.admin.Permission;
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import java.util.Optional;
 
+import java.util.Set;
+import java.util.UUID;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PermissionService extends ImmutableEntityService<Permission, PermissionDao> {
 
-    public PermissionService(PermissionDao permissionDao) {
+    private AdminAuthCache adminAuthCache;
+
+    public PermissionService(PermissionDao permissionDao, AdminAuthCache adminAuthCache) {
         super(permissionDao);
+        this.adminAuthCache = adminAuthCache;
+    }
+
+    @Transactional
+    @Override
+    public void delete(UUID permissionId, Set<CascadeProperty> cascade) {
+        adminAuthCache.invalidateAll();
+        dao.delete(permissionId);
     }
 
     public Optional<Permission> findByName(String name) {
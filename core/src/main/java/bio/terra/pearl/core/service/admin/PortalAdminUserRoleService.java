@@ -24,16 +24,27 @@ public class PortalAdminUserRoleService extends ImmutableEntityService<PortalAdm
 
     private RoleService roleService;
 
+    private AdminAuthCache adminAuthCache;
+
     public PortalAdminUserRoleService(PermissionService permissionService,
                                       PortalAdminUserRoleDao portalAdminUserRoleDao,
                                       @Lazy PortalAdminUserService portalAdminUserService,
                                       RolePermissionService rolePermissionService,
-                                      RoleService roleService) {
+                                      RoleService roleService,
+                                      AdminAuthCache adminAuthCache) {
         super(portalAdminUserRoleDao);
         this.permissionService = permissionService;
         this.portalAdminUserService = portalAdminUserService;
         this.rolePermissionService = rolePermissionService;
         this.roleService = roleService;
+        this.adminAuthCache = adminAuthCache;
+    }
+
+    @Transactional
+    @Override
+    public PortalAdminUserRole create(PortalAdminUserRole portalAdminUserRole) {
+        invalidateCachedAuth(portalAdminUserRole.getPortalAdminUserId());
+        return dao.create(portalAdminUserRole);
     }
 
     public List<PortalAdminUserRole> getRolesForAdminUser(UUID adminUserId) {
@@ -58,6 +69,7 @@ public class PortalAdminUserRoleService extends ImmutableEntityService<PortalAdm
         var portalAdminUser = portalAdminUserService.find(portalAdminUserId).orElseThrow(() -> new UserNotFoundException(portalAdminUserId));
         var roles = roleNames.stream().map(roleName -> roleService.findByName(roleName).orElseThrow(() -> new RoleNotFoundException(roleName))).toList();
 
+        adminAuthCache.invalidateUser(portalAdminUser.getAdminUserId());
         dao.deleteByPortalAdminUserId(portalAdminUser.getId());
         roles.forEach(role -> {
             PortalAdminUserRole portalAdminUserRole = PortalAdminUserRole.builder().portalAdminUserId(portalAdminUserId).roleId(role.getId()).build();
@@ -84,7 +96,14 @@ public class PortalAdminUserRoleService extends ImmutableEntityService<PortalAdm
         return portalAdminUserRoles;
     }
 
+    @Transactional
     public void deleteByPortalAdminUserId(UUID portalAdminUserId) {
+        invalidateCachedAuth(portalAdminUserId);
         dao.deleteByPortalAdminUserId(portalAdminUserId);
     }
+
+    protected void invalidateCachedAuth(UUID portalAdminUserId) {
+        portalAdminUserService.find(portalAdminUserId)
+                .ifPresent(portalAdminUser -> adminAuthCache.invalidateUser(portalAdminUser.getAdminUserId()));
+    }
 }
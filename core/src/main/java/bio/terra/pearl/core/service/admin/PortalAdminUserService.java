@@ -4,11 +4,13 @@ import bio.terra.pearl.core.dao.admin.PortalAdminUserDao;
 import bio.terra.pearl.core.model.admin.PortalAdminUser;
 import bio.terra.pearl.core.model.admin.PortalAdminUserRole;
 import bio.terra.pearl.core.model.portal.Portal;
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.exception.UserNotFoundException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,17 +19,39 @@ import org.springframework.transaction.annotation.Transactional;
 public class PortalAdminUserService extends ImmutableEntityService<PortalAdminUser, PortalAdminUserDao> {
 
     private PortalAdminUserRoleService portalAdminUserRoleService;
+    private AdminAuthCache adminAuthCache;
 
     public PortalAdminUserService(PortalAdminUserDao portalAdminUserDao,
-                                  PortalAdminUserRoleService portalAdminUserRoleService) {
+                                  PortalAdminUserRoleService portalAdminUserRoleService,
+                                  AdminAuthCache adminAuthCache) {
         super(portalAdminUserDao);
         this.portalAdminUserRoleService = portalAdminUserRoleService;
+        this.adminAuthCache = adminAuthCache;
+    }
+
+    @Transactional
+    @Override
+    public PortalAdminUser create(PortalAdminUser portalAdminUser) {
+        adminAuthCache.invalidateUser(portalAdminUser.getAdminUserId());
+        return dao.create(portalAdminUser);
+    }
+
+    @Transactional
+    @Override
+    public void delete(UUID portalAdminUserId, Set<CascadeProperty> cascade) {
+        dao.find(portalAdminUserId)
+                .ifPresent(portalAdminUser -> adminAuthCache.invalidateUser(portalAdminUser.getAdminUserId()));
+        dao.delete(portalAdminUserId);
     }
 
     public List<PortalAdminUser> findByPortal(UUID portalId) {
         return dao.findByPortal(portalId);
     }
 
+    public List<PortalAdminUser> findByUserId(UUID adminUserId) {
+        return dao.findByUserId(adminUserId);
+    }
+
     public Optional<PortalAdminUser> findOneWithRolesAndPermissions(UUID portalAdminUserId) {
         var portalAdminUserOpt = dao.find(portalAdminUserId);
         return portalAdminUserOpt.map(portalAdminUser -> {
@@ -59,6 +83,7 @@ public class PortalAdminUserService extends ImmutableEntityService<PortalAdminUs
 
     @Transactional
     public void deleteByUserId(UUID adminUserId) {
+        adminAuthCache.invalidateUser(adminUserId);
         List<PortalAdminUser> portalAdminUsers = dao.findByUserId(adminUserId);
         // for now this will probably be a small list, so it's fine to just delete them one by one
         portalAdminUsers.forEach(portalAdminUser -> portalAdminUserRoleService.deleteByPortalAdminUserId(portalAdminUser.getId()));
@@ -70,6 +95,7 @@ public class PortalAdminUserService extends ImmutableEntityService<PortalAdminUs
         PortalAdminUser portalAdminUser = findByUserIdAndPortal(adminUserId, portal.getId()).orElseThrow(() ->
                 new NotFoundException(
                         String.format("Portal user not found for user ID %s and portal %s", adminUserId, portal.getShortcode())));
+        adminAuthCache.invalidateUser(adminUserId);
         portalAdminUserRoleService.deleteByPortalAdminUserId(portalAdminUser.getId());
         dao.delete(portalAdminUser.getId());
     }
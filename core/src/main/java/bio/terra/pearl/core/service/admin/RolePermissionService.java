@@ -2,17 +2,52 @@ package bio.terra.pearl.core.service.admin;
 
 import bio.terra.pearl.core.dao.admin.RolePermissionDao;
 import bio.terra.pearl.core.model.admin.RolePermission;
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class RolePermissionService extends ImmutableEntityService<RolePermission, RolePermissionDao> {
 
-    public RolePermissionService(RolePermissionDao rolePermissionDao) {
+    private AdminAuthCache adminAuthCache;
+
+    public RolePermissionService(RolePermissionDao rolePermissionDao, AdminAuthCache adminAuthCache) {
         super(rolePermissionDao);
+        this.adminAuthCache = adminAuthCache;
+    }
+
+    /** a role's permissions apply to everyone with the role, so any change clears all cached admin auth */
+    @Transactional
+    @Override
+    public RolePermission create(RolePermission rolePermission) {
+        adminAuthCache.invalidateAll();
+        return dao.create(rolePermission);
+    }
+
+    @Transactional
+    @Override
+    public void bulkCreate(List<RolePermission> rolePermissions) {
+        adminAuthCache.invalidateAll();
+        dao.bulkCreate(rolePermissions);
+    }
+
+    @Transactional
+    @Override
+    public List<RolePermission> createAll(List<RolePermission> rolePermissions) {
+        adminAuthCache.invalidateAll();
+        return dao.createAll(rolePermissions);
+    }
+
+    @Transactional
+    @Override
+    public void delete(UUID rolePermissionId, Set<CascadeProperty> cascade) {
+        adminAuthCache.invalidateAll();
+        dao.delete(rolePermissionId);
     }
 
     public List<RolePermission> findByRole(UUID roleId) {
@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.admin.RoleDao;
 import bio.terra.pearl.core.model.admin.Permission;
 import bio.terra.pearl.core.model.admin.Role;
 
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,6 +12,7 @@ import bio.terra.pearl.core.model.admin.RolePermission;
 import java.util.List;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,11 +21,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class RoleService extends ImmutableEntityService<Role, RoleDao> {
     private PermissionService permissionService;
     private RolePermissionService rolePermissionService;
+    private AdminAuthCache adminAuthCache;
 
-    public RoleService(RoleDao roleDao, PermissionService permissionService, RolePermissionService rolePermissionService) {
+    public RoleService(RoleDao roleDao, PermissionService permissionService, RolePermissionService rolePermissionService,
+                       AdminAuthCache adminAuthCache) {
         super(roleDao);
         this.permissionService = permissionService;
         this.rolePermissionService = rolePermissionService;
+        this.adminAuthCache = adminAuthCache;
     }
 
     @Transactional
@@ -46,6 +51,13 @@ public class RoleService extends ImmutableEntityService<Role, RoleDao> {
         return savedRole;
     }
 
+    @Transactional
+    @Override
+    public void delete(UUID roleId, Set<CascadeProperty> cascade) {
+        adminAuthCache.invalidateAll();
+        dao.delete(roleId);
+    }
+
     public Optional<Role> findOne(UUID roleId) { return dao.find(roleId); }
 
     public Optional<Role> findByName(String roleName) {
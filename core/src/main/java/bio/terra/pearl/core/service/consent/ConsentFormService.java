@@ -4,8 +4,6 @@ import bio.terra.pearl.core.dao.consent.ConsentFormDao;
 import bio.terra.pearl.core.model.consent.ConsentForm;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.VersionedEntityService;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.beans.BeanUtils;
@@ -20,10 +18,7 @@ public class ConsentFormService extends VersionedEntityService<ConsentForm, Cons
 
     @Transactional
     public void deleteByPortalId(UUID portalId) {
-        List<ConsentForm> forms = dao.findByPortalId(portalId);
-        for (ConsentForm form : forms) {
-            delete(form.getId(), new HashSet<>());
-        }
+        dao.deleteByPortalId(portalId);
     }
 
     @Transactional
@@ -13,6 +13,7 @@ import bio.terra.pearl.core.service.study.StudyEnvironmentConsentService;
 import bio.terra.pearl.core.service.workflow.EventService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
@@ -42,6 +43,11 @@ public class ConsentResponseService extends ImmutableEntityService<ConsentRespon
         return dao.findByEnrolleeId(enrolleeId);
     }
 
+    @Transactional
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
+
 
     public ConsentWithResponses findWithResponses(UUID studyEnvId, String stableId, Integer version,
                                                   Enrollee enrollee, UUID participantUserId) {
@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
@@ -62,10 +63,7 @@ public class ConsentTaskDispatcher {
         List<ParticipantTask> tasks = buildTasks(enrolleeEvent.getEnrollee(), enrolleeEvent.getEnrolleeRuleData(),
                 enrolleeEvent.getPortalParticipantUser().getId(),
                 studyEnvConsents);
-        for (ParticipantTask task : tasks) {
-            task = participantTaskService.create(task);
-            enrolleeEvent.getEnrollee().getParticipantTasks().add(task);
-        }
+        enrolleeEvent.getEnrollee().getParticipantTasks().addAll(participantTaskService.createAll(tasks));
         updateEnrolleeConsented(enrolleeEvent.getEnrollee(), enrolleeEvent.getEnrollee().getParticipantTasks());
     }
 
@@ -98,10 +96,14 @@ public class ConsentTaskDispatcher {
                                                    UUID portalParticipantUserId,
                                                    List<StudyEnvironmentConsent> studyEnvConsents) {
         List<ParticipantTask> tasks = new ArrayList<>();
+        Set<String> existingStableIds = enrollee.getParticipantTasks().stream()
+                .map(ParticipantTask::getTargetStableId)
+                .collect(Collectors.toSet());
         for (StudyEnvironmentConsent studyConsent : studyEnvConsents) {
             if (RuleEvaluator.evaluateEnrolleeRule(studyConsent.getEligibilityRule(), enrolleeRuleData)) {
                 ParticipantTask consentTask = buildTask(studyConsent, enrollee, portalParticipantUserId);
-                if (!isDuplicateTask(consentTask, enrollee.getParticipantTasks())) {
+                // an enrollee cannot have two tasks for the same consent form -- see isDuplicateTask
+                if (!existingStableIds.contains(consentTask.getTargetStableId())) {
                     tasks.add(consentTask);
                 }
             }
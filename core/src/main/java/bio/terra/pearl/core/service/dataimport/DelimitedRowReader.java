@@ -0,0 +1,117 @@
+package bio.terra.pearl.core.service.dataimport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a delimited file one row at a time, so only the current row is ever in memory.  Handles the quoting the
+ * TsvExporter produces (values containing a newline or the delimiter are wrapped in double quotes) as well as
+ * standard CSV quoting, where a double quote inside a quoted value is written as two.  Blank lines are skipped.
+ */
+public class DelimitedRowReader {
+    /** a row longer than this is almost certainly an unclosed quote, so stop rather than read the rest of the file */
+    public static final int MAX_ROW_LENGTH = 1 << 20;
+    private final Reader reader;
+    private final char delimiter;
+    private int peeked = -2;
+    /** the line of the file the next character is on */
+    private int line = 1;
+    /** the line the row last returned by readRow starts on */
+    private int rowLine = 0;
+
+    /** the reader should be buffered -- this reads a character at a time */
+    public DelimitedRowReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * the 1-based line of the file that the row last returned by readRow starts on.  Blank lines, and line breaks
+     * inside quoted values, are counted, so this is the line an editor would show.
+     */
+    public int getLineNumber() {
+        return rowLine;
+    }
+
+    /** returns the next row's values, or null at the end of the file */
+    public List<String> readRow() throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean inQuotes = false;
+        boolean quoted = false;
+        int rowLength = 0;
+        int startLine = line;
+        int c;
+        while ((c = read()) != -1) {
+            if (++rowLength > MAX_ROW_LENGTH) {
+                throw new IllegalArgumentException(
+                        "The row on line %d is longer than %d characters -- check for an unmatched quote"
+                                .formatted(startLine, MAX_ROW_LENGTH));
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        value.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"' && value.isEmpty() && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(value.toString());
+                value.setLength(0);
+                quoted = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (values.isEmpty() && value.isEmpty() && !quoted) {
+                    // blank line
+                    startLine = line;
+                    continue;
+                }
+                break;
+            } else {
+                value.append((char) c);
+            }
+        }
+        if (c == -1 && values.isEmpty() && value.isEmpty() && !quoted) {
+            return null;
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("The row on line %d has an unmatched quote".formatted(startLine));
+        }
+        values.add(value.toString());
+        rowLine = startLine;
+        return values;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = reader.read();
+        }
+        // a \r\n is one line break, counted at the \n
+        if (c == '\n' || (c == '\r' && peek() != '\n')) {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
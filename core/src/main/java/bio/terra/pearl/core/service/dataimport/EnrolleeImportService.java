@@ -0,0 +1,470 @@
+package bio.terra.pearl.core.service.dataimport;
+
+import bio.terra.pearl.core.config.DbWorkload;
+import bio.terra.pearl.core.dao.dataimport.DataImportDao;
+import bio.terra.pearl.core.dao.participant.EnrolleeDao;
+import bio.terra.pearl.core.dao.participant.MailingAddressDao;
+import bio.terra.pearl.core.dao.participant.ParticipantUserDao;
+import bio.terra.pearl.core.dao.participant.PortalParticipantUserDao;
+import bio.terra.pearl.core.dao.participant.ProfileDao;
+import bio.terra.pearl.core.dao.survey.AnswerDao;
+import bio.terra.pearl.core.dao.survey.SurveyResponseDao;
+import bio.terra.pearl.core.model.BaseEntity;
+import bio.terra.pearl.core.model.dataimport.DataImport;
+import bio.terra.pearl.core.model.dataimport.DataImportStatus;
+import bio.terra.pearl.core.model.dataimport.ImportFileFormat;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.ParticipantUser;
+import bio.terra.pearl.core.model.participant.PortalParticipantUser;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.service.BulkOperationProgress;
+import bio.terra.pearl.core.service.TransactionHandler;
+import bio.terra.pearl.core.service.dataimport.ImportRowMapper.ImportedRow;
+import bio.terra.pearl.core.service.dataimport.ImportRowMapper.ImportedSurvey;
+import bio.terra.pearl.core.service.exception.NotFoundException;
+import bio.terra.pearl.core.service.export.EnrolleeExportService;
+import bio.terra.pearl.core.service.export.ExportFileFormat;
+import bio.terra.pearl.core.service.export.instance.ExportOptions;
+import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService;
+import bio.terra.pearl.core.service.participant.EnrolleeSearchIndexService;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports participants from a file laid out like the participant export (see TsvExporter), creating a participant
+ * user, portal participant user, profile, enrollee, and survey responses and answers for each row.
+ *
+ * The file is streamed: rows are read and mapped one at a time, and written IMPORT_BATCH_SIZE at a time with one
+ * insert batch (or COPY, for large batches) per table, so memory use doesn't depend on the size of the file.  Each
+ * batch commits in its own transaction along with the updated row counts on the DataImport, so if an import stops
+ * part way (a database error, a restart...) it can be resumed with the same file and will pick up after the last
+ * committed batch.  Rows whose enrollee shortcode already exists in the environment are skipped, so re-importing a
+ * file is also safe.
+ *
+ * Like the synthetic populate, no events are published, so no tasks or notifications are created for the imported
+ * enrollees.
+ */
+@Service
+@Slf4j
+public class EnrolleeImportService {
+    public static final int IMPORT_BATCH_SIZE = 500;
+    /** only the first errors are kept, so a file of bad rows can't use unbounded memory */
+    public static final int MAX_REPORTED_ERRORS = 100;
+    private final DataImportDao dataImportDao;
+    private final EnrolleeDao enrolleeDao;
+    private final ParticipantUserDao participantUserDao;
+    private final PortalParticipantUserDao portalParticipantUserDao;
+    private final ProfileDao profileDao;
+    private final MailingAddressDao mailingAddressDao;
+    private final SurveyResponseDao surveyResponseDao;
+    private final AnswerDao answerDao;
+    private final EnrolleeService enrolleeService;
+    private final EnrolleeExportService enrolleeExportService;
+    private final StudyEnvironmentService studyEnvironmentService;
+    private final StudyEnvironmentSurveyService studyEnvironmentSurveyService;
+    private final EnrolleeKitSummaryService enrolleeKitSummaryService;
+    private final EnrolleeSearchIndexService enrolleeSearchIndexService;
+    private final TransactionHandler transactionHandler;
+    private final ObjectMapper objectMapper;
+
+    public EnrolleeImportService(DataImportDao dataImportDao, EnrolleeDao enrolleeDao,
+                                 ParticipantUserDao participantUserDao,
+                                 PortalParticipantUserDao portalParticipantUserDao, ProfileDao profileDao,
+                                 MailingAddressDao mailingAddressDao, SurveyResponseDao surveyResponseDao,
+                                 AnswerDao answerDao, EnrolleeService enrolleeService,
+                                 EnrolleeExportService enrolleeExportService,
+                                 StudyEnvironmentService studyEnvironmentService,
+                                 StudyEnvironmentSurveyService studyEnvironmentSurveyService,
+                                 EnrolleeKitSummaryService enrolleeKitSummaryService,
+                                 EnrolleeSearchIndexService enrolleeSearchIndexService,
+                                 TransactionHandler transactionHandler, ObjectMapper objectMapper) {
+        this.dataImportDao = dataImportDao;
+        this.enrolleeDao = enrolleeDao;
+        this.participantUserDao = participantUserDao;
+        this.portalParticipantUserDao = portalParticipantUserDao;
+        this.profileDao = profileDao;
+        this.mailingAddressDao = mailingAddressDao;
+        this.surveyResponseDao = surveyResponseDao;
+        this.answerDao = answerDao;
+        this.enrolleeService = enrolleeService;
+        this.enrolleeExportService = enrolleeExportService;
+        this.studyEnvironmentService = studyEnvironmentService;
+        this.studyEnvironmentSurveyService = studyEnvironmentSurveyService;
+        this.enrolleeKitSummaryService = enrolleeKitSummaryService;
+        this.enrolleeSearchIndexService = enrolleeSearchIndexService;
+        this.transactionHandler = transactionHandler;
+        this.objectMapper = objectMapper;
+    }
+
+    /** a row that wasn't imported.  lineNumber is the line of the file the row starts on, counting the header rows */
+    public record RowError(int lineNumber, String message) {}
+
+    /**
+     * the state of the import once the file has been read.  errors has at most MAX_REPORTED_ERRORS entries --
+     * the DataImport has the full counts.  ignoredColumns are columns of the file that weren't imported.
+     */
+    public record ImportResult(DataImport dataImport, List<RowError> errors, List<String> ignoredColumns) {}
+
+    /**
+     * Imports the file into the study environment.  fileSize is used for progress reporting, which is in KiB of the
+     * file read.  progressListener is optional, and is called after each batch.
+     */
+    public ImportResult importFile(UUID portalEnvironmentId, UUID studyEnvironmentId, UUID adminUserId,
+                                   String fileName, ImportFileFormat fileFormat, InputStream inputStream,
+                                   long fileSize, Consumer<BulkOperationProgress> progressListener) throws IOException {
+        DataImport dataImport = dataImportDao.create(DataImport.builder()
+                .portalEnvironmentId(portalEnvironmentId)
+                .studyEnvironmentId(studyEnvironmentId)
+                .creatingAdminUserId(adminUserId)
+                .fileName(fileName)
+                .fileFormat(fileFormat)
+                .build());
+        return DbWorkload.BATCH.call(() -> runImport(dataImport, inputStream, fileSize, progressListener));
+    }
+
+    /**
+     * Continues an import that didn't finish, from the first row after the last committed batch.  inputStream
+     * must be the same file.
+     */
+    public ImportResult resumeImport(UUID dataImportId, InputStream inputStream, long fileSize,
+                                     Consumer<BulkOperationProgress> progressListener) throws IOException {
+        DataImport dataImport = dataImportDao.find(dataImportId)
+                .orElseThrow(() -> new NotFoundException("Data import not found"));
+        if (dataImport.getStatus() == DataImportStatus.COMPLETE) {
+            throw new IllegalArgumentException("Import %s is already complete".formatted(dataImportId));
+        }
+        dataImport.setStatus(DataImportStatus.IN_PROGRESS);
+        dataImport.setErrorMessage(null);
+        DataImport resumed = dataImportDao.update(dataImport);
+        log.info("Resuming import {} of {} after {} rows", dataImportId, resumed.getFileName(),
+                resumed.getRowsProcessed());
+        return DbWorkload.BATCH.call(() -> runImport(resumed, inputStream, fileSize, progressListener));
+    }
+
+    public List<DataImport> findByStudyEnvironmentId(UUID studyEnvironmentId) {
+        return dataImportDao.findByStudyEnvironmentId(studyEnvironmentId);
+    }
+
+    protected ImportResult runImport(DataImport dataImport, InputStream inputStream, long fileSize,
+                                     Consumer<BulkOperationProgress> progressListener) throws IOException {
+        List<RowError> errors = new ArrayList<>();
+        try {
+            ImportContext context = buildContext(dataImport);
+            CountingInputStream countingStream = new CountingInputStream(inputStream);
+            DelimitedRowReader reader = new DelimitedRowReader(
+                    new BufferedReader(new InputStreamReader(countingStream, StandardCharsets.UTF_8)),
+                    getDelimiter(dataImport.getFileFormat()));
+            List<String> headers = reader.readRow();
+            if (headers == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            ImportRowMapper rowMapper = new ImportRowMapper(headers, context.moduleInfos(), objectMapper);
+
+            List<String> values = reader.readRow();
+            if (values != null && rowMapper.isSubHeaderRow(values)) {
+                values = reader.readRow();
+            }
+            // on resume, skip the rows that were already committed
+            for (int i = 0; i < dataImport.getRowsProcessed() && values != null; i++) {
+                values = reader.readRow();
+            }
+
+            int totalKiB = (int) (fileSize / 1024);
+            List<NumberedRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            while (values != null) {
+                batch.add(new NumberedRow(reader.getLineNumber(), values));
+                values = reader.readRow();
+                if (batch.size() == IMPORT_BATCH_SIZE || values == null) {
+                    DataImport current = dataImport;
+                    dataImport = transactionHandler.runInTransaction(() ->
+                            importBatch(current, batch, rowMapper, context, errors));
+                    batch.clear();
+                    BulkOperationProgress progress = new BulkOperationProgress("participant import",
+                            (int) Math.min(countingStream.getCount() / 1024, totalKiB), totalKiB);
+                    log.info("Import {}: {} rows processed, {} imported, {} skipped, {} failed ({}%)",
+                            dataImport.getId(), dataImport.getRowsProcessed(), dataImport.getRowsImported(),
+                            dataImport.getRowsSkipped(), dataImport.getRowsFailed(), progress.percentComplete());
+                    if (progressListener != null) {
+                        progressListener.accept(progress);
+                    }
+                }
+            }
+            dataImport.setStatus(DataImportStatus.COMPLETE);
+            dataImport = dataImportDao.update(dataImport);
+            return new ImportResult(dataImport, errors, rowMapper.getIgnoredHeaders());
+        } catch (IOException | RuntimeException e) {
+            // the counts of the last committed batch are what a resume should start from, so reload before saving
+            DataImport failed = dataImportDao.find(dataImport.getId()).orElseThrow();
+            failed.setStatus(DataImportStatus.FAILED);
+            failed.setErrorMessage(e.getMessage());
+            dataImportDao.update(failed);
+            log.error("Import {} failed after {} rows", failed.getId(), failed.getRowsProcessed(), e);
+            throw e;
+        }
+    }
+
+    /** maps, validates and writes a batch of rows, and saves the updated counts on the DataImport */
+    protected DataImport importBatch(DataImport dataImport, List<NumberedRow> rows, ImportRowMapper rowMapper,
+                                     ImportContext context, List<RowError> errors) {
+        List<MappedRow> mappedRows = new ArrayList<>(rows.size());
+        int failedCount = 0;
+        for (NumberedRow row : rows) {
+            try {
+                mappedRows.add(new MappedRow(row.lineNumber(), rowMapper.map(row.values())));
+            } catch (IllegalArgumentException e) {
+                addError(errors, row.lineNumber(), e.getMessage());
+                failedCount++;
+            }
+        }
+
+        Map<String, Enrollee> existingEnrollees = enrolleeDao.findAllByShortcodes(mappedRows.stream()
+                        .map(row -> row.row().getEnrollee().getShortcode()).filter(Objects::nonNull)
+                        .toList())
+                .stream().collect(Collectors.toMap(Enrollee::getShortcode, enrollee -> enrollee));
+        Set<String> existingUsernames = participantUserDao.findAllByUsernames(mappedRows.stream()
+                                .map(row -> row.row().getProfile().getContactEmail())
+                                .filter(Objects::nonNull).toList(),
+                        context.studyEnvironment().getEnvironmentName())
+                .stream().map(ParticipantUser::getUsername).collect(Collectors.toSet());
+
+        Set<String> batchShortcodes = new HashSet<>();
+        Set<String> batchUsernames = new HashSet<>();
+        int skippedCount = 0;
+        ImportBatch batch = new ImportBatch();
+        for (MappedRow mappedRow : mappedRows) {
+            ImportedRow row = mappedRow.row();
+            String shortcode = row.getEnrollee().getShortcode();
+            String username = row.getProfile().getContactEmail();
+            Enrollee existing = shortcode == null ? null : existingEnrollees.get(shortcode);
+            String error = null;
+            if (existing != null && existing.getStudyEnvironmentId().equals(dataImport.getStudyEnvironmentId())) {
+                // already imported
+                skippedCount++;
+                continue;
+            } else if (existing != null || batchShortcodes.contains(shortcode)) {
+                error = "Shortcode %s is already in use".formatted(shortcode);
+            } else if (username == null) {
+                error = "A contact email is required, as it is the participant's username";
+            } else if (existingUsernames.contains(username) || batchUsernames.contains(username)) {
+                error = "A participant with username %s already exists".formatted(username);
+            }
+            if (error != null) {
+                addError(errors, mappedRow.lineNumber(), error);
+                failedCount++;
+                continue;
+            }
+            // only claimed once the row is valid, so a failed row doesn't block a later row with the same values
+            if (shortcode != null) {
+                batchShortcodes.add(shortcode);
+            }
+            batchUsernames.add(username);
+            addToBatch(batch, row, dataImport, context);
+        }
+
+        // written in foreign-key dependency order
+        mailingAddressDao.bulkCreateWithIdSpecified(batch.mailingAddresses);
+        profileDao.bulkCreateWithIdSpecified(batch.profiles);
+        participantUserDao.bulkCreateWithIdSpecified(batch.participantUsers);
+        portalParticipantUserDao.bulkCreateWithIdSpecified(batch.portalParticipantUsers);
+        enrolleeDao.bulkCreateWithIdSpecified(batch.enrollees);
+        surveyResponseDao.bulkCreateWithIdSpecified(batch.surveyResponses);
+        answerDao.bulkCreateWithIdSpecified(batch.answers);
+        List<UUID> enrolleeIds = batch.enrollees.stream().map(Enrollee::getId).toList();
+        enrolleeKitSummaryService.refresh(enrolleeIds);
+        enrolleeSearchIndexService.refresh(enrolleeIds);
+
+        dataImport.setRowsProcessed(dataImport.getRowsProcessed() + rows.size());
+        dataImport.setRowsImported(dataImport.getRowsImported() + batch.enrollees.size());
+        dataImport.setRowsSkipped(dataImport.getRowsSkipped() + skippedCount);
+        dataImport.setRowsFailed(dataImport.getRowsFailed() + failedCount);
+        return dataImportDao.update(dataImport);
+    }
+
+    /** assigns ids, links up the row's objects, and adds them to the batch */
+    protected void addToBatch(ImportBatch batch, ImportedRow row, DataImport dataImport, ImportContext context) {
+        Instant now = Instant.now();
+        Enrollee enrollee = row.getEnrollee();
+        Instant createdAt = enrollee.getCreatedAt() == null ? now : enrollee.getCreatedAt();
+
+        Profile profile = row.getProfile();
+        MailingAddress mailingAddress = profile.getMailingAddress();
+        if (mailingAddress != null) {
+            setNewIdentity(mailingAddress, createdAt);
+            profile.setMailingAddressId(mailingAddress.getId());
+            batch.mailingAddresses.add(mailingAddress);
+        }
+        setNewIdentity(profile, createdAt);
+        batch.profiles.add(profile);
+
+        ParticipantUser participantUser = ParticipantUser.builder()
+                .id(UUID.randomUUID())
+                .username(profile.getContactEmail())
+                .createdAt(createdAt)
+                .lastUpdatedAt(createdAt)
+                .build();
+        participantUser.setEnvironmentName(context.studyEnvironment().getEnvironmentName());
+        batch.participantUsers.add(participantUser);
+        batch.portalParticipantUsers.add(PortalParticipantUser.builder()
+                .id(UUID.randomUUID())
+                .participantUserId(participantUser.getId())
+                .profileId(profile.getId())
+                .portalEnvironmentId(dataImport.getPortalEnvironmentId())
+                .createdAt(createdAt)
+                .lastUpdatedAt(createdAt)
+                .build());
+
+        setNewIdentity(enrollee, createdAt);
+        if (enrollee.getShortcode() == null) {
+            enrollee.setShortcode(enrolleeService.generateShortcode());
+        }
+        enrollee.setParticipantUserId(participantUser.getId());
+        enrollee.setProfileId(profile.getId());
+        enrollee.setStudyEnvironmentId(dataImport.getStudyEnvironmentId());
+        batch.enrollees.add(enrollee);
+
+        for (Map.Entry<String, ImportedSurvey> surveyEntry : row.getSurveys().entrySet()) {
+            Survey survey = context.latestSurveys().get(surveyEntry.getKey());
+            SurveyResponse response = surveyEntry.getValue().getResponse();
+            Instant responseUpdatedAt = response.getLastUpdatedAt() == null ? createdAt : response.getLastUpdatedAt();
+            setNewIdentity(response, createdAt);
+            response.setLastUpdatedAt(responseUpdatedAt);
+            response.setEnrolleeId(enrollee.getId());
+            response.setSurveyId(survey.getId());
+            response.setCreatingAdminUserId(dataImport.getCreatingAdminUserId());
+            batch.surveyResponses.add(response);
+            for (Answer answer : surveyEntry.getValue().getAnswers().values()) {
+                answer.setId(UUID.randomUUID());
+                answer.setCreatedAt(responseUpdatedAt);
+                answer.setLastUpdatedAt(responseUpdatedAt);
+                answer.setSurveyResponseId(response.getId());
+                answer.setEnrolleeId(enrollee.getId());
+                answer.setCreatingAdminUserId(dataImport.getCreatingAdminUserId());
+                answer.setSurveyStableId(survey.getStableId());
+                answer.setSurveyVersion(survey.getVersion());
+                batch.answers.add(answer);
+            }
+        }
+    }
+
+    /** the module infos and surveys for the environment, which are the same for every row */
+    protected ImportContext buildContext(DataImport dataImport) {
+        UUID studyEnvId = dataImport.getStudyEnvironmentId();
+        StudyEnvironment studyEnv = studyEnvironmentService.find(studyEnvId)
+                .orElseThrow(() -> new NotFoundException("Study environment not found"));
+        List<List<ModuleExportInfo>> moduleInfos = new ArrayList<>();
+        try {
+            // the file may have been exported with or without split option columns, so map the columns of both
+            for (boolean splitOptions : List.of(false, true)) {
+                moduleInfos.add(enrolleeExportService.generateModuleInfos(
+                        new ExportOptions(splitOptions, true, true, ExportFileFormat.TSV, null), studyEnvId));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to read the survey definitions of the environment", e);
+        }
+        // answers are saved against the latest version of each survey
+        Map<String, Survey> latestSurveys = new HashMap<>();
+        for (StudyEnvironmentSurvey configuredSurvey :
+                studyEnvironmentSurveyService.findAllByStudyEnvIdWithSurvey(studyEnvId, null)) {
+            latestSurveys.merge(configuredSurvey.getSurvey().getStableId(), configuredSurvey.getSurvey(),
+                    (a, b) -> a.getVersion() >= b.getVersion() ? a : b);
+        }
+        return new ImportContext(studyEnv, moduleInfos, latestSurveys);
+    }
+
+    private static char getDelimiter(ImportFileFormat fileFormat) {
+        return switch (fileFormat) {
+            case TSV -> '\t';
+            case CSV -> ',';
+        };
+    }
+
+    private static void setNewIdentity(BaseEntity entity, Instant createdAt) {
+        entity.setId(UUID.randomUUID());
+        entity.setCreatedAt(createdAt);
+        entity.setLastUpdatedAt(createdAt);
+    }
+
+    private static void addError(List<RowError> errors, int lineNumber, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(lineNumber, message));
+        }
+    }
+
+    protected record ImportContext(StudyEnvironment studyEnvironment, List<List<ModuleExportInfo>> moduleInfos,
+                                   Map<String, Survey> latestSurveys) {}
+
+    protected record NumberedRow(int lineNumber, List<String> values) {}
+
+    protected record MappedRow(int lineNumber, ImportedRow row) {}
+
+    /** the objects to write for a batch, one list per table */
+    protected static class ImportBatch {
+        private final List<MailingAddress> mailingAddresses = new ArrayList<>();
+        private final List<Profile> profiles = new ArrayList<>();
+        private final List<ParticipantUser> participantUsers = new ArrayList<>();
+        private final List<PortalParticipantUser> portalParticipantUsers = new ArrayList<>();
+        private final List<Enrollee> enrollees = new ArrayList<>();
+        private final List<SurveyResponse> surveyResponses = new ArrayList<>();
+        private final List<Answer> answers = new ArrayList<>();
+    }
+
+    /** counts the bytes read, for progress reporting */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package bio.terra.pearl.core.service.dataimport;
+
+import bio.terra.pearl.core.dao.BeanAccessors;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.model.survey.QuestionChoice;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.service.export.BaseExporter;
+import bio.terra.pearl.core.service.export.formatters.EnrolleeFormatter;
+import bio.terra.pearl.core.service.export.formatters.ExportFormatUtils;
+import bio.terra.pearl.core.service.export.formatters.ExportFormatter;
+import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
+import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
+import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Maps the columns of a participant export back to the enrollee, profile, survey response and answer fields they
+ * came from.  The columns are worked out from the same ModuleExportInfos the exporters use, so any file the export
+ * produced (with or without split option columns, with stable ids or text for options) can be read back.  The mapping
+ * and value conversion for each column is resolved once, from the header row, so mapping a row is just a loop over
+ * the values.  Columns that don't match anything (e.g. from surveys the environment doesn't have) are ignored.
+ */
+public class ImportRowMapper {
+    private static final String PROFILE_MODULE_NAME = "profile";
+    private static final String MAILING_ADDRESS_PREFIX = "mailingAddress.";
+    private static final String MULTI_VALUE_DELIMITER = ", ";
+    private final ObjectMapper objectMapper;
+    /** indexed by column, null for columns that aren't imported */
+    private final ColumnWriter[] writers;
+    private final String[] subHeaders;
+    private final List<String> ignoredHeaders = new ArrayList<>();
+
+    /** writes a (non-empty) value from a column to the row being imported */
+    @FunctionalInterface
+    private interface ColumnWriter {
+        void write(ImportedRow row, String value);
+    }
+
+    private record ColumnInfo(ColumnWriter writer, String subHeader) {}
+
+    /**
+     * @param moduleInfos the module infos for the environment, generated both with and without split option columns,
+     *                    so that either form of the export can be read
+     */
+    public ImportRowMapper(List<String> headers, List<List<ModuleExportInfo>> moduleInfos, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        Map<String, ColumnInfo> columnsByHeader = new HashMap<>();
+        for (List<ModuleExportInfo> infos : moduleInfos) {
+            BaseExporter.applyToEveryColumn(infos, (moduleInfo, itemInfo, isOtherDescription, choice) -> {
+                ExportFormatter formatter = moduleInfo.getFormatter();
+                String header = formatter.getColumnHeader(moduleInfo, itemInfo, isOtherDescription, choice);
+                if (!columnsByHeader.containsKey(header)) {
+                    columnsByHeader.put(header, new ColumnInfo(
+                            makeWriter(moduleInfo, itemInfo, isOtherDescription, choice),
+                            formatter.getColumnSubHeader(moduleInfo, itemInfo, isOtherDescription, choice)));
+                }
+            });
+        }
+        writers = new ColumnWriter[headers.size()];
+        subHeaders = new String[headers.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            ColumnInfo column = columnsByHeader.get(headers.get(i));
+            if (column == null) {
+                ignoredHeaders.add(headers.get(i));
+            } else {
+                writers[i] = column.writer();
+                subHeaders[i] = column.subHeader();
+            }
+        }
+        String shortcodeHeader = ExportFormatUtils.getColumnKey(EnrolleeFormatter.ENROLLEE_MODULE_NAME, "shortcode");
+        if (!headers.contains(shortcodeHeader)) {
+            throw new IllegalArgumentException("The file has no %s column -- is the first row the header row?"
+                    .formatted(shortcodeHeader));
+        }
+    }
+
+    public List<String> getIgnoredHeaders() {
+        return ignoredHeaders;
+    }
+
+    /** whether the row is the human-readable subheader row the exporters write under the header */
+    public boolean isSubHeaderRow(List<String> values) {
+        boolean anyMapped = false;
+        for (int i = 0; i < writers.length && i < values.size(); i++) {
+            if (writers[i] != null) {
+                if (!Objects.equals(subHeaders[i], values.get(i))) {
+                    return false;
+                }
+                anyMapped = true;
+            }
+        }
+        return anyMapped;
+    }
+
+    /**
+     * builds the objects for a row -- the caller assigns the ids and links them up.  Throws IllegalArgumentException
+     * if the row has the wrong number of columns or a value can't be converted.
+     */
+    public ImportedRow map(List<String> values) {
+        if (values.size() != writers.length) {
+            throw new IllegalArgumentException("Expected %d columns, found %d"
+                    .formatted(writers.length, values.size()));
+        }
+        ImportedRow row = new ImportedRow();
+        for (int i = 0; i < writers.length; i++) {
+            String value = values.get(i);
+            if (writers[i] != null && !value.isEmpty()) {
+                writers[i].write(row, value);
+            }
+        }
+        row.finishAnswers(objectMapper);
+        return row;
+    }
+
+    private ColumnWriter makeWriter(ModuleExportInfo moduleInfo, ItemExportInfo itemInfo, boolean isOtherDescription,
+                                    QuestionChoice choice) {
+        String moduleName = moduleInfo.getModuleName();
+        String property = itemInfo.getPropertyAccessor();
+        if (EnrolleeFormatter.ENROLLEE_MODULE_NAME.equals(moduleName)) {
+            return beanPropertyWriter(Enrollee.class, property, ImportedRow::getEnrollee);
+        } else if (PROFILE_MODULE_NAME.equals(moduleName)) {
+            if (property.startsWith(MAILING_ADDRESS_PREFIX)) {
+                return beanPropertyWriter(MailingAddress.class, property.substring(MAILING_ADDRESS_PREFIX.length()),
+                        ImportedRow::getOrCreateMailingAddress);
+            }
+            return beanPropertyWriter(Profile.class, property, ImportedRow::getProfile);
+        } else if (property != null) {
+            // a property of the survey response, e.g. complete
+            return beanPropertyWriter(SurveyResponse.class, property,
+                    row -> row.getOrCreateSurvey(moduleName).getResponse());
+        }
+        String questionStableId = itemInfo.getQuestionStableId();
+        if (isOtherDescription) {
+            return (row, value) -> row.getOrCreateSurvey(moduleName).getOrCreateAnswer(questionStableId)
+                    .setOtherDescription(value);
+        }
+        if (choice != null) {
+            // one of the columns of a split-option question -- collect the selected options into a single answer
+            return (row, value) -> {
+                if (SurveyFormatter.SPLIT_OPTION_SELECTED_VALUE.equals(value)) {
+                    row.getOrCreateSurvey(moduleName).addSelectedChoice(questionStableId, choice.stableId());
+                } else if (!SurveyFormatter.SPLIT_OPTION_UNSELECTED_VALUE.equals(value)) {
+                    throw new IllegalArgumentException("Unexpected value '%s' for option %s of %s"
+                            .formatted(value, choice.stableId(), questionStableId));
+                }
+            };
+        }
+        BiConsumer<Answer, String> valueSetter = answerValueSetter(itemInfo);
+        return (row, value) -> valueSetter.accept(row.getOrCreateSurvey(moduleName).getOrCreateAnswer(questionStableId),
+                value);
+    }
+
+    /**
+     * converts an exported answer value back to what the participant UI saves -- option stable ids rather than text,
+     * and a json array for multi-select questions.  Like the export, everything else is a string.
+     */
+    private BiConsumer<Answer, String> answerValueSetter(ItemExportInfo itemInfo) {
+        Map<String, String> choiceStableIds = new HashMap<>();
+        if (itemInfo.getChoices() != null) {
+            itemInfo.getChoices().forEach(choice -> choiceStableIds.putIfAbsent(choice.text(), choice.stableId()));
+            // stable ids take precedence over text, for exports done with stableIdsForOptions
+            itemInfo.getChoices().forEach(choice -> choiceStableIds.put(choice.stableId(), choice.stableId()));
+        }
+        if (itemInfo.isAllowMultiple()) {
+            return (answer, value) -> setObjectValue(answer, Arrays.stream(value.split(MULTI_VALUE_DELIMITER))
+                    .map(option -> choiceStableIds.getOrDefault(option, option)).toList(), objectMapper);
+        }
+        if ("boolean".equals(itemInfo.getQuestionType())) {
+            return (answer, value) -> answer.setValueAndType(parseBoolean(value));
+        }
+        return (answer, value) -> answer.setValueAndType(choiceStableIds.getOrDefault(value, value));
+    }
+
+    /** setValueAndType would take a json string for a STRING value, so object values are set explicitly */
+    private static void setObjectValue(Answer answer, List<String> options, ObjectMapper objectMapper) {
+        try {
+            answer.setAnswerType(AnswerType.OBJECT);
+            answer.setObjectValue(objectMapper.writeValueAsString(options));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to convert options for " + answer.getQuestionStableId(), e);
+        }
+    }
+
+    private static ColumnWriter beanPropertyWriter(Class<?> beanClass, String property,
+                                                       Function<ImportedRow, Object> beanGetter) {
+        BeanAccessors.Property beanProperty = BeanAccessors.forClass(beanClass).getProperties().get(property);
+        if (beanProperty == null || beanProperty.setter() == null) {
+            throw new IllegalStateException("Exported property %s is not writable on %s"
+                    .formatted(property, beanClass.getSimpleName()));
+        }
+        BiConsumer<Object, Object> setter = beanProperty.setter();
+        Function<String, Object> converter = propertyConverter(beanProperty.rawType());
+        return (row, value) -> {
+            Object converted;
+            try {
+                converted = converter.apply(value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid value '%s' for %s".formatted(value, property), e);
+            }
+            setter.accept(beanGetter.apply(row), converted);
+        };
+    }
+
+    /** the inverse of ExportFormatUtils.formatForExport, for the property types the export includes */
+    private static Function<String, Object> propertyConverter(Class<?> type) {
+        if (type == String.class) {
+            return value -> value;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return ImportRowMapper::parseBoolean;
+        } else if (type == LocalDate.class) {
+            return ExportFormatUtils::parseLocalDate;
+        } else if (type == Instant.class) {
+            return ExportFormatUtils::parseInstant;
+        } else if (type == int.class || type == Integer.class) {
+            return Integer::valueOf;
+        } else if (type == Double.class) {
+            return Double::valueOf;
+        }
+        throw new IllegalStateException("Cannot import values of type " + type.getName());
+    }
+
+    /** strict, unlike Boolean.parseBoolean, so that a typo fails the row rather than importing false */
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Expected true or false, found '%s'".formatted(value));
+    }
+
+    /** the objects built from a single row, before ids are assigned */
+    public static class ImportedRow {
+        private final Enrollee enrollee = new Enrollee();
+        private final Profile profile = new Profile();
+        /** keyed by survey stable id, in column order */
+        private final Map<String, ImportedSurvey> surveys = new LinkedHashMap<>();
+
+        public Enrollee getEnrollee() {
+            return enrollee;
+        }
+
+        public Profile getProfile() {
+            return profile;
+        }
+
+        public Map<String, ImportedSurvey> getSurveys() {
+            return surveys;
+        }
+
+        MailingAddress getOrCreateMailingAddress() {
+            if (profile.getMailingAddress() == null) {
+                profile.setMailingAddress(new MailingAddress());
+            }
+            return profile.getMailingAddress();
+        }
+
+        ImportedSurvey getOrCreateSurvey(String surveyStableId) {
+            return surveys.computeIfAbsent(surveyStableId, stableId -> new ImportedSurvey());
+        }
+
+        void finishAnswers(ObjectMapper objectMapper) {
+            for (ImportedSurvey survey : surveys.values()) {
+                survey.finishAnswers(objectMapper);
+            }
+        }
+    }
+
+    /** a survey response, and its answers keyed by question stable id */
+    public static class ImportedSurvey {
+        private final SurveyResponse response = new SurveyResponse();
+        private final Map<String, Answer> answers = new LinkedHashMap<>();
+        private final Map<String, List<String>> selectedChoices = new LinkedHashMap<>();
+
+        public SurveyResponse getResponse() {
+            return response;
+        }
+
+        public Map<String, Answer> getAnswers() {
+            return answers;
+        }
+
+        Answer getOrCreateAnswer(String questionStableId) {
+            return answers.computeIfAbsent(questionStableId, stableId -> Answer.builder()
+                    .questionStableId(stableId)
+                    .answerType(AnswerType.NONE)
+                    .build());
+        }
+
+        void addSelectedChoice(String questionStableId, String choiceStableId) {
+            selectedChoices.computeIfAbsent(questionStableId, stableId -> new ArrayList<>()).add(choiceStableId);
+        }
+
+        void finishAnswers(ObjectMapper objectMapper) {
+            for (Map.Entry<String, List<String>> selected : selectedChoices.entrySet()) {
+                setObjectValue(getOrCreateAnswer(selected.getKey()), selected.getValue(), objectMapper);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import bio.terra.datarepo.api.UnauthenticatedApi;
 import bio.terra.datarepo.client.ApiException;
 import bio.terra.datarepo.model.*;
 import bio.terra.pearl.core.model.datarepo.TdrTable;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
 import bio.terra.pearl.core.shared.GoogleServiceAccountUtils;
 import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
@@ -21,10 +22,12 @@ import java.util.*;
 public class DataRepoClient {
 
     private Environment env;
+    private Instrumentation instrumentation;
 
     @Autowired
-    public DataRepoClient(Environment env) {
+    public DataRepoClient(Environment env, Instrumentation instrumentation) {
         this.env = env;
+        this.instrumentation = instrumentation;
     }
 
     //Dataset APIs
@@ -55,7 +58,7 @@ public class DataRepoClient {
                 .defaultProfileId(spendProfileId)
                 .schema(schema);
 
-        return datasetsApi.createDataset(dataset);
+        return timeCall("createDataset", () -> datasetsApi.createDataset(dataset));
     }
 
     /* TDR on Azure currently only supports appends during dataset ingest. As a result, this will only
@@ -76,13 +79,13 @@ public class DataRepoClient {
                 .updateStrategy(IngestRequestModel.UpdateStrategyEnum.APPEND) //This is the default, and the only available option on Azure right now
                 .path(blobSasUrl);
 
-        return datasetsApi.ingestDataset(datasetId, request);
+        return timeCall("ingestDataset", () -> datasetsApi.ingestDataset(datasetId, request));
     }
 
     public JobModel deleteDataset(UUID datasetId) throws ApiException {
         DatasetsApi datasetsApi = getDatasetsApi();
 
-        return datasetsApi.deleteDataset(datasetId);
+        return timeCall("deleteDataset", () -> datasetsApi.deleteDataset(datasetId));
     }
 
     //TODO: This is to be replaced by JN-133. This code should only ever be executed in dev.
@@ -100,20 +103,24 @@ public class DataRepoClient {
     public JobModel getJobStatus(String jobId) throws ApiException {
         JobsApi jobsApi = getJobsApi();
 
-        return jobsApi.retrieveJob(jobId);
+        return timeCall("getJobStatus", () -> jobsApi.retrieveJob(jobId));
     }
 
     public Object getJobResult(String jobId) throws ApiException {
         JobsApi jobsApi = getJobsApi();
 
-        return jobsApi.retrieveJobResult(jobId);
+        return timeCall("getJobResult", () -> jobsApi.retrieveJobResult(jobId));
     }
 
     //Unauthenticated APIs
     public RepositoryStatusModel getServiceStatus() throws ApiException{
         UnauthenticatedApi unauthenticatedApi = getUnauthenticatedApi();
 
-        return unauthenticatedApi.serviceStatus();
+        return timeCall("getServiceStatus", () -> unauthenticatedApi.serviceStatus());
+    }
+
+    private <T> T timeCall(String operation, Instrumentation.Work<T, ApiException> call) throws ApiException {
+        return instrumentation.call(Instrumentation.EXTERNAL_CALL_TIMER, call, "service", "tdr", "operation", operation);
     }
 
     //TDR API objects
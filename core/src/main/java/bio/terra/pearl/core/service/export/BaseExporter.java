@@ -81,6 +81,11 @@ public abstract class BaseExporter {
     }
 
     public void applyToEveryColumn(ColumnProcessor columnProcessor) {
+        applyToEveryColumn(moduleExportInfos, columnProcessor);
+    }
+
+    /** calls the processor for each column of the modules, in export order.  The import maps columns with this too */
+    public static void applyToEveryColumn(List<ModuleExportInfo> moduleExportInfos, ColumnProcessor columnProcessor) {
         for (ModuleExportInfo moduleExportInfo : moduleExportInfos) {
             for (ItemExportInfo itemExportInfo : moduleExportInfo.getItems()) {
                 if (itemExportInfo.isSplitOptionsIntoColumns()) {
@@ -1,5 +1,6 @@
 package bio.terra.pearl.core.service.export;
 
+import bio.terra.pearl.core.config.DbWorkload;
 import bio.terra.pearl.core.dao.survey.AnswerDao;
 import bio.terra.pearl.core.dao.survey.SurveyDao;
 import bio.terra.pearl.core.dao.survey.SurveyQuestionDefinitionDao;
@@ -12,6 +13,7 @@ import bio.terra.pearl.core.service.export.formatters.ProfileFormatter;
 import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import bio.terra.pearl.core.service.participant.ProfileService;
@@ -38,6 +40,7 @@ public class EnrolleeExportService {
     private final SurveyDao surveyDao;
     private final EnrolleeService enrolleeService;
     private final ObjectMapper objectMapper;
+    private final Instrumentation instrumentation;
 
     public EnrolleeExportService(ProfileService profileService,
                                  AnswerDao answerDao,
@@ -45,7 +48,8 @@ public class EnrolleeExportService {
                                  StudyEnvironmentSurveyService studyEnvironmentSurveyService, SurveyResponseService surveyResponseService,
                                  ParticipantTaskService participantTaskService,
                                  SurveyDao surveyDao,
-                                 EnrolleeService enrolleeService, ObjectMapper objectMapper) {
+                                 EnrolleeService enrolleeService, ObjectMapper objectMapper,
+                                 Instrumentation instrumentation) {
         this.profileService = profileService;
         this.answerDao = answerDao;
         this.surveyQuestionDefinitionDao = surveyQuestionDefinitionDao;
@@ -55,38 +59,51 @@ public class EnrolleeExportService {
         this.surveyDao = surveyDao;
         this.enrolleeService = enrolleeService;
         this.objectMapper = objectMapper;
+        this.instrumentation = instrumentation;
     }
 
     /**
      * exports the specified number of enrollees from the given environment
-     * The enrollees will be returned most-recently-created first
+     * The enrollees will be returned most-recently-created first.  Reads from the export connection pool.
+     * The load, format and write phases are each timed -- see Instrumentation.EXPORT_PHASE_TIMER
      * */
     public void export(ExportOptions exportOptions, UUID studyEnvironmentId, OutputStream os) throws Exception {
-        List<ModuleExportInfo> moduleExportInfos = generateModuleInfos(exportOptions, studyEnvironmentId);
-        var enrolleeMaps = generateExportMaps(studyEnvironmentId,
-                moduleExportInfos, exportOptions.limit());
-        BaseExporter exporter = getExporter(exportOptions.fileFormat(), moduleExportInfos, enrolleeMaps);
-        exporter.export(os);
+        DbWorkload.EXPORT.call(() -> {
+            List<ModuleExportInfo> moduleExportInfos = generateModuleInfos(exportOptions, studyEnvironmentId);
+            var enrolleeMaps = generateExportMaps(studyEnvironmentId,
+                    moduleExportInfos, exportOptions.limit());
+            BaseExporter exporter = getExporter(exportOptions.fileFormat(), moduleExportInfos, enrolleeMaps);
+            instrumentation.call(Instrumentation.EXPORT_PHASE_TIMER, () -> {
+                exporter.export(os);
+                return null;
+            }, "phase", "write");
+            return null;
+        });
     }
 
     public List<Map<String, String>> generateExportMaps(UUID studyEnvironmentId,
                                                    List<ModuleExportInfo> moduleExportInfos, Integer limit) throws Exception {
-        List<Enrollee> enrollees = enrolleeService.findByStudyEnvironment(studyEnvironmentId, "created_at", "DESC");
-        if (limit != null && enrollees.size() > 0) {
-            enrollees = enrollees.subList(0, Math.min(enrollees.size(), limit));
-        }
-        return generateExportMaps(enrollees, moduleExportInfos);
+        return DbWorkload.EXPORT.call(() -> {
+            List<Enrollee> enrollees = enrolleeService.findByStudyEnvironment(studyEnvironmentId, "created_at", "DESC");
+            if (limit != null && enrollees.size() > 0) {
+                enrollees = enrollees.subList(0, Math.min(enrollees.size(), limit));
+            }
+            return generateExportMaps(enrollees, moduleExportInfos);
+        });
     }
 
     public List<Map<String, String>> generateExportMaps(List<Enrollee> enrollees,
                                                         List<ModuleExportInfo> moduleExportInfos) throws Exception {
-        List<EnrolleeExportData> enrolleeExportData = loadAllEnrolleesForExport(enrollees);
-
-        List<Map<String, String>> exportMaps = new ArrayList<>();
-        for (EnrolleeExportData exportData : enrolleeExportData) {
-            exportMaps.add(generateExportMap(exportData, moduleExportInfos));
-        }
-        return exportMaps;
+        List<EnrolleeExportData> enrolleeExportData = instrumentation.call(Instrumentation.EXPORT_PHASE_TIMER,
+                () -> loadAllEnrolleesForExport(enrollees), "phase", "load");
+
+        return instrumentation.call(Instrumentation.EXPORT_PHASE_TIMER, () -> {
+            List<Map<String, String>> exportMaps = new ArrayList<>();
+            for (EnrolleeExportData exportData : enrolleeExportData) {
+                exportMaps.add(generateExportMap(exportData, moduleExportInfos));
+            }
+            return exportMaps;
+        }, "phase", "format");
     }
 
     public Map<String, String> generateExportMap(EnrolleeExportData exportData,
@@ -44,6 +44,17 @@ public class ExportFormatUtils {
                 .withZone(ZoneOffset.UTC).format(instant);
     }
 
+    /** the inverse of formatLocalDate, for reading exported values back in */
+    public static LocalDate parseLocalDate(String value) {
+        return LocalDate.parse(value, DateTimeFormatter.ofPattern(ANALYSIS_DATE_FORMAT));
+    }
+
+    /** the inverse of formatInstant.  Note the export format has minute precision, so seconds are lost */
+    public static Instant parseInstant(String value) {
+        return Instant.from(DateTimeFormatter.ofPattern(ANALYSIS_DATE_TIME_FORMAT)
+                .withZone(ZoneOffset.UTC).parse(value));
+    }
+
     public static String formatForExport(Object value) {
         if (value == null) {
             return NULL_STRING;
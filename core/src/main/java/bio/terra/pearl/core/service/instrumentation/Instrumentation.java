@@ -0,0 +1,90 @@
+package bio.terra.pearl.core.service.instrumentation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Timers and counters for the work that happens around a request rather than in it: event listeners, notification
+ * sends, export phases, calls to Pepper, TDR and SendGrid, and scheduled jobs.  Every timer gets an outcome tag of
+ * success or failure, so one metric gives both latency and error rate.  The APIs publish these through actuator's
+ * prometheus endpoint; apps without a MeterRegistry bean (e.g. populate) record to Micrometer's global registry.
+ *
+ * Tags should be low-cardinality -- event and listener names, not enrollee or config ids.
+ */
+@Component
+public class Instrumentation {
+    public static final String EVENT_LISTENER_TIMER = "pearl.event.listener";
+    public static final String NOTIFICATION_SEND_TIMER = "pearl.notification.send";
+    public static final String EXPORT_PHASE_TIMER = "pearl.export.phase";
+    public static final String EXTERNAL_CALL_TIMER = "pearl.external.call";
+    public static final String SCHEDULED_JOB_TIMER = "pearl.scheduled.job";
+    public static final String OUTCOME_TAG = "outcome";
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public Instrumentation(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public Instrumentation(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    /** runs the work, timing it under the given timer and tags plus its outcome */
+    public <T, E extends Exception> T call(String timerName, Work<T, E> work, String... tags) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = FAILURE;
+        try {
+            T result = work.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            stop(sample, timerName, outcome, tags);
+        }
+    }
+
+    public void run(String timerName, Runnable work, String... tags) {
+        call(timerName, () -> {
+            work.run();
+            return null;
+        }, tags);
+    }
+
+    /** times a Mono from subscription until it completes or errors.  Cancellations aren't recorded */
+    public <T> Mono<T> time(String timerName, Mono<T> call, String... tags) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(result -> stop(sample, timerName, SUCCESS, tags))
+                    .doOnError(e -> stop(sample, timerName, FAILURE, tags));
+        });
+    }
+
+    /** for work whose outcome isn't just success or failure, e.g. a notification that's skipped */
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String timerName, String outcome, String... tags) {
+        sample.stop(Timer.builder(timerName)
+                .tags(Tags.of(tags).and(OUTCOME_TAG, outcome))
+                .register(meterRegistry));
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+}
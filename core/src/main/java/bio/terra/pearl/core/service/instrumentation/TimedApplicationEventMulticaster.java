@@ -0,0 +1,54 @@
+package bio.terra.pearl.core.service.instrumentation;
+
+import bio.terra.pearl.core.service.workflow.BaseEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ApplicationListenerMethodAdapter;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+/**
+ * Spring's default multicaster, but timing each listener's handling of our events (anything published via
+ * EventService), tagged with the event type and listener.  Listeners run synchronously in the publishing thread, so
+ * these timers show how much of a request's latency each listener is responsible for.  Spring's own events are
+ * dispatched untimed.
+ */
+public class TimedApplicationEventMulticaster extends SimpleApplicationEventMulticaster {
+    private final ObjectProvider<Instrumentation> instrumentation;
+
+    /** the multicaster is created before most beans, so Instrumentation is looked up lazily */
+    public TimedApplicationEventMulticaster(ObjectProvider<Instrumentation> instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    protected void invokeListener(ApplicationListener<?> listener, ApplicationEvent event) {
+        Object payload = event instanceof PayloadApplicationEvent<?> payloadEvent ? payloadEvent.getPayload() : event;
+        if (!(payload instanceof BaseEvent)) {
+            super.invokeListener(listener, event);
+            return;
+        }
+        instrumentation.getObject().run(Instrumentation.EVENT_LISTENER_TIMER,
+                () -> super.invokeListener(listener, event),
+                "event", payload.getClass().getSimpleName(), "listener", listenerName(listener));
+    }
+
+    /**
+     * e.g. "SurveyTaskDispatcher.createSurveyTasks".  Annotated listeners' ids are the full method signature, which
+     * is more than a tag needs
+     */
+    protected static String listenerName(ApplicationListener<?> listener) {
+        if (listener instanceof ApplicationListenerMethodAdapter methodAdapter) {
+            String methodName = methodAdapter.getListenerId();
+            int paramStart = methodName.indexOf('(');
+            if (paramStart >= 0) {
+                methodName = methodName.substring(0, paramStart);
+            }
+            int methodStart = methodName.lastIndexOf('.');
+            int classStart = methodName.lastIndexOf('.', methodStart - 1);
+            return methodName.substring(classStart + 1);
+        }
+        return listener.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,76 @@
+package bio.terra.pearl.core.service.kit;
+
+import bio.terra.pearl.core.dao.kit.EnrolleeKitSummaryDao;
+import bio.terra.pearl.core.dao.study.StudyEnvironmentSurveyDao;
+import bio.terra.pearl.core.model.kit.EnrolleeKitSummary;
+import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains and queries the kit management read model.  Services that write enrollees, survey tasks or kit requests
+ * call refresh for the enrollees they touched, so the summaries stay current without the kit page ever having to
+ * load tasks or kits itself.  rebuild() recomputes everything, and is run periodically in case concurrent writes to
+ * the same enrollee left a summary behind.
+ */
+@Service
+@Slf4j
+public class EnrolleeKitSummaryService {
+    public static final int MAX_PAGE_SIZE = 500;
+    private final EnrolleeKitSummaryDao dao;
+    private final StudyEnvironmentSurveyDao studyEnvironmentSurveyDao;
+
+    public EnrolleeKitSummaryService(EnrolleeKitSummaryDao dao, StudyEnvironmentSurveyDao studyEnvironmentSurveyDao) {
+        this.dao = dao;
+        this.studyEnvironmentSurveyDao = studyEnvironmentSurveyDao;
+    }
+
+    public void refresh(UUID enrolleeId) {
+        refresh(List.of(enrolleeId));
+    }
+
+    public void refresh(Collection<UUID> enrolleeIds) {
+        dao.refresh(enrolleeIds);
+    }
+
+    @Transactional
+    public void rebuild() {
+        int count = dao.rebuild();
+        log.info("Enrollee kit summary rebuild wrote {} rows", count);
+    }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
+
+    /**
+     * A page of the environment's summaries.  Each of the filters is optional -- null means don't filter on it.
+     * sortProperty must be one of EnrolleeKitSummaryDao.SORT_COLUMNS.
+     */
+    public EnrolleeKitSummaryPage findPage(UUID studyEnvironmentId, Boolean consented, Boolean requiredSurveysComplete,
+                                           Boolean kitRequested, String sortProperty, boolean descending,
+                                           int pageIndex, int pageSize) {
+        if (pageIndex < 0 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and %d, and page index non-negative"
+                    .formatted(MAX_PAGE_SIZE));
+        }
+        int requiredSurveyCount = (int) studyEnvironmentSurveyDao.findAllByStudyEnvironmentId(studyEnvironmentId, true)
+                .stream().filter(StudyEnvironmentSurvey::isRequired).count();
+        EnrolleeKitSummaryDao.Filter filter = new EnrolleeKitSummaryDao.Filter(consented, requiredSurveysComplete,
+                requiredSurveyCount, kitRequested);
+        List<EnrolleeKitSummary> summaries = dao.findPage(studyEnvironmentId, filter, sortProperty, descending,
+                pageIndex * pageSize, pageSize);
+        return new EnrolleeKitSummaryPage(summaries, dao.count(studyEnvironmentId, filter), requiredSurveyCount);
+    }
+
+    /**
+     * totalCount is the number of summaries matching the filter across all pages.  requiredSurveyCount is included so
+     * callers can tell whether a given enrollee has completed every required survey.
+     */
+    public record EnrolleeKitSummaryPage(List<EnrolleeKitSummary> summaries, int totalCount, int requiredSurveyCount) {}
+}
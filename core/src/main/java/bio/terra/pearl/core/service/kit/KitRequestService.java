@@ -28,6 +28,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.util.*;
@@ -41,6 +43,10 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
     // possible statuses are.
     private static final Set<String> PEPPER_COMPLETED_STATUSES = Set.of("PROCESSED", "CANCELLED");
     private static final Set<String> PEPPER_FAILED_STATUSES = Set.of("CONTAMINATED");
+    /** how many studies' kit statuses are fetched from DSM at once during a full sync */
+    private static final int DSM_SYNC_CONCURRENCY = 4;
+    /** how many kit requests are sent to DSM at once during a bulk request */
+    private static final int DSM_REQUEST_CONCURRENCY = 8;
 
     private final DaoUtils daoUtils;
 
@@ -52,7 +58,8 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
                              @Lazy StudyEnvironmentService studyEnvironmentService,
                              @Lazy StudyService studyService,
                              ObjectMapper objectMapper,
-                             DaoUtils daoUtils) {
+                             DaoUtils daoUtils,
+                             EnrolleeKitSummaryService enrolleeKitSummaryService) {
         super(dao);
         this.studyEnvironmentKitTypeService = studyEnvironmentKitTypeService;
         this.enrolleeService = enrolleeService;
@@ -63,6 +70,7 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
         this.studyService = studyService;
         this.objectMapper = objectMapper;
         this.daoUtils = daoUtils;
+        this.enrolleeKitSummaryService = enrolleeKitSummaryService;
     }
 
     /**
@@ -95,10 +103,98 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
             log.error("Unable to write kit response status from Pepper: kit id %s", kitRequest.getId());
         }
         kitRequest = dao.createWithIdSpecified(kitRequest);
+        enrolleeKitSummaryService.refresh(enrollee.getId());
         log.info("Kit request created: enrollee: {}, kit: {}", enrollee.getShortcode(), kitRequest.getId());
         return kitRequest;
     }
 
+    /**
+     * Requests a kit of the given type for each of the enrollees.  Profiles are loaded and kit ids generated in bulk,
+     * the DSM requests are sent concurrently (at most DSM_REQUEST_CONCURRENCY at a time), and the successful kit
+     * requests are saved in one batch.  A failure for one enrollee doesn't affect the others -- the results are
+     * returned in the same order as the enrollees, each with either the saved kit request or the error.
+     */
+    public List<KitRequestResult> requestKits(AdminUser adminUser, String studyShortcode, List<Enrollee> enrollees,
+                                              String kitTypeName) {
+        KitType kitType = kitTypeDao.findByName(kitTypeName)
+                .orElseThrow(() -> new NotFoundException("Kit type not found: " + kitTypeName));
+        Map<UUID, Profile> profilesById = profileService.findAllWithMailingAddress(
+                enrollees.stream().map(Enrollee::getProfileId).filter(Objects::nonNull).toList()
+        ).stream().collect(Collectors.toMap(Profile::getId, Function.identity()));
+        List<UUID> kitIds = daoUtils.generateUUIDs(enrollees.size());
+
+        List<KitRequestResult> results = new ArrayList<>(enrollees.size());
+        List<PendingKitRequest> pendingRequests = new ArrayList<>();
+        for (int i = 0; i < enrollees.size(); i++) {
+            Enrollee enrollee = enrollees.get(i);
+            try {
+                Profile profile = profilesById.get(enrollee.getProfileId());
+                if (profile == null) {
+                    throw new IllegalArgumentException("No profile for enrollee: " + enrollee.getShortcode());
+                }
+                PepperKitAddress pepperKitAddress = makePepperKitAddress(profile);
+                KitRequest kitRequest = assemble(adminUser, enrollee, pepperKitAddress, kitType, kitIds.get(i));
+                pendingRequests.add(new PendingKitRequest(i, enrollee, kitRequest, pepperKitAddress));
+                results.add(null);
+            } catch (Exception e) {
+                results.add(KitRequestResult.failure(enrollee.getShortcode(), e));
+            }
+        }
+
+        List<Map.Entry<Integer, KitRequestResult>> sentResults = Flux.fromIterable(pendingRequests)
+                .flatMap(pending -> Mono.defer(() -> pepperDSMClient.sendKitRequestAsync(
+                                studyShortcode, pending.enrollee(), pending.kitRequest(), pending.address()))
+                        .map(dsmKitStatus -> {
+                            setDsmStatus(pending.kitRequest(), dsmKitStatus);
+                            return KitRequestResult.success(pending.enrollee().getShortcode(), pending.kitRequest());
+                        })
+                        .onErrorResume(PepperParseException.class, e -> {
+                            // as with single requests, the kit was created in DSM, so save it even though we
+                            // couldn't read the status
+                            log.error("Unable to parse kit response status from Pepper: kit id {}", pending.kitRequest().getId());
+                            return Mono.just(KitRequestResult.success(pending.enrollee().getShortcode(), pending.kitRequest()));
+                        })
+                        .onErrorResume(e -> Mono.just(KitRequestResult.failure(pending.enrollee().getShortcode(),
+                                e instanceof Exception exception ? exception : new RuntimeException(e))))
+                        .map(result -> Map.entry(pending.index(), result)), DSM_REQUEST_CONCURRENCY)
+                .collectList()
+                .block();
+
+        List<KitRequest> sentKits = new ArrayList<>();
+        for (Map.Entry<Integer, KitRequestResult> sentResult : sentResults) {
+            results.set(sentResult.getKey(), sentResult.getValue());
+            if (sentResult.getValue().kitRequest() != null) {
+                sentKits.add(sentResult.getValue().kitRequest());
+            }
+        }
+        dao.bulkCreateWithIdSpecified(sentKits);
+        enrolleeKitSummaryService.refresh(sentKits.stream().map(KitRequest::getEnrolleeId).distinct().toList());
+        log.info("Bulk kit request: {} of {} kits created for study {}", sentKits.size(), enrollees.size(), studyShortcode);
+        return results;
+    }
+
+    /** the outcome of a kit request for one enrollee.  Exactly one of kitRequest and error is non-null */
+    public record KitRequestResult(String enrolleeShortcode, KitRequest kitRequest, Exception error) {
+        public static KitRequestResult success(String enrolleeShortcode, KitRequest kitRequest) {
+            return new KitRequestResult(enrolleeShortcode, kitRequest, null);
+        }
+
+        public static KitRequestResult failure(String enrolleeShortcode, Exception error) {
+            return new KitRequestResult(enrolleeShortcode, null, error);
+        }
+    }
+
+    private record PendingKitRequest(int index, Enrollee enrollee, KitRequest kitRequest, PepperKitAddress address) {}
+
+    private void setDsmStatus(KitRequest kitRequest, PepperKitStatus dsmKitStatus) {
+        try {
+            kitRequest.setDsmStatus(objectMapper.writeValueAsString(dsmKitStatus));
+        } catch (JsonProcessingException e) {
+            // the pepper request was already successful, so don't fail the kit over this
+            log.error("Unable to write kit response status from Pepper: kit id {}", kitRequest.getId());
+        }
+    }
+
     /**
      * Collect the address fields sent to Pepper with a kit request. This is not the full DSM request, just the address
      * information captured at the time of, and stored with, the kit request.
@@ -132,9 +228,12 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
         var allKitTypes = kitTypeDao.findAll();
         var kitTypeMap = allKitTypes.stream().collect(Collectors.toMap(KitType::getId, Function.identity()));
         var kits = dao.findByStudyEnvironment(studyEnvironment.getId());
+        Map<UUID, Enrollee> enrolleeMap = enrolleeService.findAll(
+                kits.stream().map(KitRequest::getEnrolleeId).distinct().toList()
+        ).stream().collect(Collectors.toMap(Enrollee::getId, Function.identity()));
         kits.forEach(kit -> {
             kit.setKitType(kitTypeMap.get(kit.getKitTypeId()));
-            enrolleeService.find(kit.getEnrolleeId()).ifPresent(kit::setEnrollee);
+            kit.setEnrollee(enrolleeMap.get(kit.getEnrolleeId()));
         });
         return kits;
     }
@@ -176,20 +275,29 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
         // it doesn't actually matter what order we process the studies in, but it's nice for logging to have them
         // consistently alphabetical
         studies.sort(Comparator.comparing(Study::getShortcode));
+        // for each study, grab all the statuses from Pepper.  The requests are made concurrently, but only the DSM
+        // calls -- the database updates below stay on this thread, inside this transaction.
+        // (Pepper doesn't have a concept of study environments, so all kits from a study are under the same code)
+        Map<String, List<PepperKitStatus>> pepperKitStatusesByStudy = Flux.fromIterable(studies)
+                .flatMap(study -> Flux.defer(() -> pepperDSMClient.fetchKitStatusByStudyAsync(study.getShortcode()))
+                        .collectList()
+                        .map(statuses -> Map.entry(study.getShortcode(), statuses))
+                        .onErrorResume(e -> e instanceof PepperParseException || e instanceof PepperApiException, e -> {
+                            // if one sync fails, keep trying others in case the failure is just isolated unexpected data
+                            log.error("kit status sync failed for study %s".formatted(study.getShortcode()), e);
+                            return Mono.empty();
+                        }), DSM_SYNC_CONCURRENCY)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
         for (Study study : studies) {
-            // for each study, grab all the statuses from Pepper
-            // (Pepper doesn't have a concept of study environments, so all kits from a study are under the same code)
-            // then update the statuses in Juniper for each environment
-           try {
-               Collection<PepperKitStatus> pepperKitStatuses = pepperDSMClient.fetchKitStatusByStudy(study.getShortcode());
-               // now find the environments for this study from the list of environments with kit types
-               studyEnvs.stream().filter(studyEnv -> studyEnv.getStudyId().equals(study.getId())).forEach( studyEnv -> {
-                   syncKitStatusesForStudyEnv(study.getShortcode(), studyEnv.getEnvironmentName(), pepperKitStatuses);
-               });
-            } catch (PepperParseException | PepperApiException e) {
-                // if one sync fails, keep trying others in case the failure is just isolated unexpected data
-                log.error("kit status sync failed for study %s".formatted(study.getShortcode()), e);
+            List<PepperKitStatus> pepperKitStatuses = pepperKitStatusesByStudy.get(study.getShortcode());
+            if (pepperKitStatuses == null) {
+                continue;
             }
+            // now update the statuses in Juniper for each environment of this study that has kit types
+            studyEnvs.stream().filter(studyEnv -> studyEnv.getStudyId().equals(study.getId())).forEach( studyEnv -> {
+                syncKitStatusesForStudyEnv(study.getShortcode(), studyEnv.getEnvironmentName(), pepperKitStatuses);
+            });
         }
     }
 
@@ -213,12 +321,15 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
 
                     // The set of kits returned from DSM may be different from the set of incomplete kits in Juniper, but
                     // we want to update the records in Juniper so those are the ones we want to iterate here.
+                    Set<UUID> updatedEnrolleeIds = new HashSet<>();
                     for (KitRequest kit : kits) {
                         var pepperKitStatus = pepperKitStatusByKitId.get(kit.getId().toString());
                         if (pepperKitStatus != null) {
                             saveKitStatus(kit, pepperKitStatus, pepperStatusFetchedAt);
+                            updatedEnrolleeIds.add(kit.getEnrolleeId());
                         }
                     }
+                    enrolleeKitSummaryService.refresh(updatedEnrolleeIds);
                 }
         );
     }
@@ -234,12 +345,20 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
     }
 
     /**
-     * Delete kits for an enrollee. Only for use by populate functions.
+     * Delete kits for an enrollee, along with their kit summary. Only for use by populate functions.
      */
     public void deleteByEnrolleeId(UUID enrolleeId, Set<CascadeProperty> cascade) {
         for (KitRequest kitRequest : dao.findByEnrollee(enrolleeId)) {
             dao.delete(kitRequest.getId());
         }
+        enrolleeKitSummaryService.deleteByEnrolleeIds(List.of(enrolleeId));
+    }
+
+    /** deletes kits and kit summaries, for use when the enrollees themselves are being deleted */
+    @Transactional
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+        enrolleeKitSummaryService.deleteByEnrolleeIds(enrolleeIds);
     }
 
     /** Just creates the object -- does not communicate with pepper or save to database.  The created
@@ -250,8 +369,17 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
             PepperKitAddress pepperKitAddress,
             String kitTypeName) {
         KitType kitType = kitTypeDao.findByName(kitTypeName).get();
+        return assemble(adminUser, enrollee, pepperKitAddress, kitType, daoUtils.generateUUID());
+    }
+
+    protected KitRequest assemble(
+            AdminUser adminUser,
+            Enrollee enrollee,
+            PepperKitAddress pepperKitAddress,
+            KitType kitType,
+            UUID kitId) {
         KitRequest kitRequest = KitRequest.builder()
-                .id(daoUtils.generateUUID())
+                .id(kitId)
                 .creatingAdminUserId(adminUser.getId())
                 .enrolleeId(enrollee.getId())
                 .kitTypeId(kitType.getId())
@@ -312,4 +440,5 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
     private final StudyEnvironmentService studyEnvironmentService;
     private final ObjectMapper objectMapper;
     private StudyEnvironmentKitTypeService studyEnvironmentKitTypeService;
+    private final EnrolleeKitSummaryService enrolleeKitSummaryService;
 }
@@ -2,75 +2,124 @@ package bio.terra.pearl.core.service.kit.pepper;
 
 import bio.terra.pearl.core.model.kit.KitRequest;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import reactor.netty.resources.ConnectionProvider;
 
 import javax.validation.Validator;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Live client for DSM.  Requests are non-blocking, and go through a bounded connection pool: at most maxConnections
+ * requests are in flight at once, up to maxPendingRequests more wait for a connection, and any beyond that are
+ * rejected.  That pool is the bulkhead that keeps bulk operations from flooding DSM.  Each call also has a timeout,
+ * and goes through a circuit breaker so that calls fail fast while DSM is down.
+ */
 @Component
 @Slf4j
 public class LivePepperDSMClient implements PepperDSMClient {
+    private static final Duration JWT_LIFETIME = Duration.ofMinutes(15);
+    /** a cached JWT is replaced once it's this close to expiring, so that it can't expire in flight */
+    private static final Duration JWT_RENEWAL_MARGIN = Duration.ofMinutes(1);
     private final PepperDSMConfig pepperDSMConfig;
+    private final PepperDSMConnectionConfig connectionConfig;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
     private final Validator validator;
+    private final PepperCircuitBreaker circuitBreaker;
+    private final Instrumentation instrumentation;
+    private final AtomicReference<CachedJwt> cachedJwt = new AtomicReference<>();
 
     public LivePepperDSMClient(PepperDSMConfig pepperDSMConfig,
+                               PepperDSMConnectionConfig connectionConfig,
                                WebClient.Builder webClientBuilder,
                                ObjectMapper objectMapper,
-                               Validator validator) {
+                               Validator validator,
+                               Instrumentation instrumentation) {
         this.pepperDSMConfig = pepperDSMConfig;
-        this.webClient = webClientBuilder.build();
+        this.connectionConfig = connectionConfig;
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("pepper-dsm")
+                .maxConnections(connectionConfig.getMaxConnections())
+                .pendingAcquireMaxCount(connectionConfig.getMaxPendingRequests())
+                .pendingAcquireTimeout(connectionConfig.getRequestTimeout())
+                .maxIdleTime(connectionConfig.getMaxIdleTime())
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectionConfig.getConnectTimeout().toMillis());
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
         this.objectMapper = objectMapper;
         this.validator = validator;
+        this.instrumentation = instrumentation;
+        this.circuitBreaker = new PepperCircuitBreaker(connectionConfig.getCircuitFailureThreshold(),
+                connectionConfig.getCircuitOpenDuration());
     }
 
     @Override
-    public PepperKitStatus sendKitRequest(String studyShortcode, Enrollee enrollee, KitRequest kitRequest, PepperKitAddress address)
-    throws PepperApiException, PepperParseException {
+    public Mono<PepperKitStatus> sendKitRequestAsync(String studyShortcode, Enrollee enrollee, KitRequest kitRequest,
+                                                     PepperKitAddress address) {
         var request = buildAuthedPostRequest("shipKit", makeKitRequestBody(studyShortcode, enrollee, kitRequest, address));
-        PepperKitStatusResponse response = retrieveAndDeserializeResponse(request, PepperKitStatusResponse.class);
-        if (response.getKits().length != 1) {
-            throw new PepperParseException("Expected a single result from shipKit by ID (%s), got %d".formatted(
-                    kitRequest.getId(), response.getKits().length), response.getKits().toString(), response);
-        }
-        return response.getKits()[0];
+        return retrieveAndDeserializeResponse("shipKit", request, PepperKitStatusResponse.class,
+                        connectionConfig.getRequestTimeout())
+                .map(response -> {
+                    if (response.getKits().length != 1) {
+                        throw new PepperParseException("Expected a single result from shipKit by ID (%s), got %d".formatted(
+                                kitRequest.getId(), response.getKits().length), response.getKits().toString(), response);
+                    }
+                    return response.getKits()[0];
+                });
     }
 
     @Override
-    public PepperKitStatus fetchKitStatus(UUID kitRequestId) throws PepperApiException, PepperParseException {
+    public Mono<PepperKitStatus> fetchKitStatusAsync(UUID kitRequestId) {
         var request = buildAuthedGetRequest("kitstatus/juniperKit/%s".formatted(kitRequestId));
-        var response = retrieveAndDeserializeResponse(request, PepperKitStatusResponse.class);
-        if (response.getKits().length != 1) {
-            throw new PepperApiException("Expected a single result from fetchKitStatus by ID (%s), got %d".formatted(
-                    kitRequestId, response.getKits().length));
-        }
-        return response.getKits()[0];
+        return retrieveAndDeserializeResponse("fetchKitStatus", request, PepperKitStatusResponse.class,
+                        connectionConfig.getRequestTimeout())
+                .map(response -> {
+                    if (response.getKits().length != 1) {
+                        throw new PepperApiException("Expected a single result from fetchKitStatus by ID (%s), got %d".formatted(
+                                kitRequestId, response.getKits().length));
+                    }
+                    return response.getKits()[0];
+                });
     }
 
     @Override
-    public Collection<PepperKitStatus> fetchKitStatusByStudy(String studyShortcode) throws PepperApiException, PepperParseException {
+    public Flux<PepperKitStatus> fetchKitStatusByStudyAsync(String studyShortcode) {
         var request = buildAuthedGetRequest("kitstatus/study/%s".formatted(makePepperStudyName(studyShortcode)));
-        var response = retrieveAndDeserializeResponse(request, PepperKitStatusResponse.class);
-        return Arrays.asList(response.getKits());
+        // a whole study's kits can be a large response, so this gets a longer timeout than single-kit calls
+        return retrieveAndDeserializeResponse("fetchKitStatusByStudy", request, PepperKitStatusResponse.class,
+                        connectionConfig.getStudyRequestTimeout())
+                .flatMapMany(response -> Flux.fromArray(response.getKits()));
     }
 
     private String makePepperStudyName(String studyShortcode) {
@@ -115,29 +164,58 @@ public class LivePepperDSMClient implements PepperDSMClient {
     }
 
     private String buildAuthorizationHeader() {
-        return "Bearer " + generateDsmJwt();
+        return "Bearer " + getDsmJwt();
+    }
+
+    /**
+     * Signing a JWT for every call is wasted work when many calls are made at once, so the token is reused until it
+     * is close to expiring, or the configured issuer or secret changes.
+     */
+    private String getDsmJwt() {
+        CachedJwt jwt = cachedJwt.get();
+        Instant now = Instant.now();
+        if (jwt == null
+                || now.plus(JWT_RENEWAL_MARGIN).isAfter(jwt.expiresAt())
+                || !Objects.equals(jwt.issuer(), pepperDSMConfig.getIssuerClaim())
+                || !Objects.equals(jwt.secret(), pepperDSMConfig.getSecret())) {
+            Instant expiresAt = now.plus(JWT_LIFETIME);
+            jwt = new CachedJwt(generateDsmJwt(expiresAt), expiresAt,
+                    pepperDSMConfig.getIssuerClaim(), pepperDSMConfig.getSecret());
+            cachedJwt.set(jwt);
+        }
+        return jwt.token();
     }
 
-    private String generateDsmJwt() {
-        var now = System.currentTimeMillis();
-        var fifteenMinutes = 15 * 60 * 1000;
+    protected String generateDsmJwt(Instant expiresAt) {
         return JWT.create()
                 .withIssuer(pepperDSMConfig.getIssuerClaim())
-                .withExpiresAt(Instant.ofEpochMilli(now + fifteenMinutes))
+                .withExpiresAt(expiresAt)
                 .sign(Algorithm.HMAC256(pepperDSMConfig.getSecret()));
     }
 
+    private record CachedJwt(String token, Instant expiresAt, String issuer, String secret) {}
+
     /**
      * Performs the request defined by the given WebClient specification and deserializes the response to the given
-     * type.
+     * type.  The request is sent when the returned Mono is subscribed to, and timed under the given operation name.
+     *
+     * errors from 4xx/5xx response status, timeouts, and connection errors are signalled as PepperApiException
+     * (PepperRequestRejectedException if our own connection pool turned the request away)
+     * errors parsing the response are signalled as PepperParseExceptions
      *
-     * exceptions from 4xx/5xx response status are thrown as PepperApiException
-     * exceptions parsing the response are thrown as PepperParseExceptions
+     * The timeout applies from when the request is sent, so time spent waiting for a pooled connection (bounded
+     * separately by the pool's acquire timeout) isn't blamed on DSM.
      */
-    private <T> T retrieveAndDeserializeResponse(WebClient.RequestHeadersSpec<?> requestHeadersSpec, Class<T> clazz) {
-        requestHeadersSpec.httpRequest(req -> log.info("Sending DSM request: {}", req.getURI()));
+    private <T> Mono<T> retrieveAndDeserializeResponse(String operation,
+                                                       WebClient.RequestHeadersSpec<?> requestHeadersSpec,
+                                                       Class<T> clazz, Duration timeout) {
+        requestHeadersSpec.httpRequest(req -> {
+            log.info("Sending DSM request: {}", req.getURI());
+            HttpClientRequest reactorRequest = req.getNativeRequest();
+            reactorRequest.responseTimeout(timeout);
+        });
 
-        return requestHeadersSpec
+        Mono<T> call = requestHeadersSpec
                 .retrieve()
                 .onStatus(
                         status -> status.is4xxClientError() || status.is5xxServerError(),
@@ -146,7 +224,28 @@ public class LivePepperDSMClient implements PepperDSMClient {
                 .flatMap(deserializeTo(clazz))
                 .map(responseAndBody -> validate(responseAndBody, clazz))
                 .map(responseAndBody -> responseAndBody.responseObj)
-                .block();
+                .onErrorMap(WebClientRequestException.class, e -> mapRequestException(e, timeout))
+                // a backstop in case the pool wait and the response timeout somehow don't fire
+                .timeout(timeout.plus(connectionConfig.getRequestTimeout()))
+                .onErrorMap(TimeoutException.class, e -> new PepperApiException(
+                        "No response from DSM after %s".formatted(timeout), HttpStatus.GATEWAY_TIMEOUT, e));
+        return instrumentation.time(Instrumentation.EXTERNAL_CALL_TIMER, circuitBreaker.protect(call),
+                "service", "pepper", "operation", operation);
+    }
+
+    /** maps a failure to send the request, or to get a response to it, to a PepperApiException */
+    private PepperApiException mapRequestException(WebClientRequestException e, Duration timeout) {
+        Throwable cause = e.getCause();
+        if (cause instanceof PoolAcquirePendingLimitException || cause instanceof PoolAcquireTimeoutException) {
+            return new PepperRequestRejectedException(
+                    "Too many DSM requests in progress: %s".formatted(cause.getMessage()), e);
+        }
+        if (cause instanceof ReadTimeoutException) {
+            return new PepperApiException("No response from DSM after %s".formatted(timeout),
+                    HttpStatus.GATEWAY_TIMEOUT, e);
+        }
+        return new PepperApiException("Unable to reach DSM: %s".formatted(e.getMessage()),
+                HttpStatus.SERVICE_UNAVAILABLE, e);
     }
 
     /**
@@ -235,4 +334,34 @@ public class LivePepperDSMClient implements PepperDSMClient {
             this.secret = environment.getProperty("env.dsm.secret");
         }
     }
+
+    /** tuning for the DSM connection pool, timeouts and circuit breaker.  The defaults suit normal DSM load */
+    @Component
+    @Getter
+    public static class PepperDSMConnectionConfig {
+        private final int maxConnections;
+        private final int maxPendingRequests;
+        private final Duration connectTimeout;
+        private final Duration requestTimeout;
+        private final Duration studyRequestTimeout;
+        private final Duration maxIdleTime;
+        private final int circuitFailureThreshold;
+        private final Duration circuitOpenDuration;
+
+        public PepperDSMConnectionConfig(Environment environment) {
+            this.maxConnections = environment.getProperty("env.dsm.maxConnections", Integer.class, 10);
+            this.maxPendingRequests = environment.getProperty("env.dsm.maxPendingRequests", Integer.class, 500);
+            this.connectTimeout = Duration.ofSeconds(
+                    environment.getProperty("env.dsm.connectTimeoutSeconds", Integer.class, 5));
+            this.requestTimeout = Duration.ofSeconds(
+                    environment.getProperty("env.dsm.requestTimeoutSeconds", Integer.class, 30));
+            this.studyRequestTimeout = Duration.ofSeconds(
+                    environment.getProperty("env.dsm.studyRequestTimeoutSeconds", Integer.class, 120));
+            this.maxIdleTime = Duration.ofSeconds(
+                    environment.getProperty("env.dsm.maxIdleSeconds", Integer.class, 30));
+            this.circuitFailureThreshold = environment.getProperty("env.dsm.circuitFailureThreshold", Integer.class, 5);
+            this.circuitOpenDuration = Duration.ofSeconds(
+                    environment.getProperty("env.dsm.circuitOpenSeconds", Integer.class, 30));
+        }
+    }
 }
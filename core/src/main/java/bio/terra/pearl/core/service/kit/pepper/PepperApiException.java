@@ -27,6 +27,12 @@ public class PepperApiException extends RuntimeException {
         this.errorResponse = errorResponse;
     }
 
+    public PepperApiException(String message, HttpStatus httpStatus, Exception cause) {
+        super(message, cause);
+        this.httpStatus = httpStatus;
+        this.errorResponse = null;
+    }
+
     public PepperApiException(String message, HttpStatus httpStatus) {
         super(message);
         this.httpStatus = httpStatus;
@@ -0,0 +1,104 @@
+package bio.terra.pearl.core.service.kit.pepper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Stops calling DSM for a while once it looks unavailable, so that bulk operations fail fast rather than piling up
+ * requests against a degraded server.  After failureThreshold consecutive failures the circuit opens, and calls fail
+ * immediately with a 503 PepperApiException.  Once openDuration has passed, a single trial call is let through: if it
+ * succeeds the circuit closes, otherwise it stays open for another openDuration.
+ *
+ * Only server-side failures (5xx responses, timeouts, connection errors) count.  A 4xx or an unparseable response
+ * means DSM is up and answering, so those are treated as successes.  Requests our own connection pool rejected never
+ * reached DSM, so they count as neither.
+ */
+@Slf4j
+public class PepperCircuitBreaker {
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private int consecutiveFailures = 0;
+    private Instant openedAt = null;
+    private boolean trialInProgress = false;
+
+    public PepperCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /** returns a Mono that runs the call if the circuit allows it, and records the outcome */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new PepperApiException("DSM is unavailable: too many recent failures",
+                        HttpStatus.SERVICE_UNAVAILABLE));
+            }
+            return call
+                    .doOnSuccess(result -> onSuccess())
+                    .doOnError(e -> {
+                        if (e instanceof PepperRequestRejectedException) {
+                            onCancel();
+                        } else if (isServerFailure(e)) {
+                            onFailure();
+                        } else {
+                            onSuccess();
+                        }
+                    })
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public synchronized boolean isOpen() {
+        return openedAt != null;
+    }
+
+    protected synchronized boolean tryAcquire() {
+        if (openedAt == null) {
+            return true;
+        }
+        if (trialInProgress || Instant.now().isBefore(openedAt.plus(openDuration))) {
+            return false;
+        }
+        trialInProgress = true;
+        return true;
+    }
+
+    protected synchronized void onSuccess() {
+        if (openedAt != null) {
+            log.info("DSM call succeeded, closing circuit");
+        }
+        consecutiveFailures = 0;
+        openedAt = null;
+        trialInProgress = false;
+    }
+
+    protected synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInProgress = false;
+        if (openedAt != null || consecutiveFailures >= failureThreshold) {
+            if (openedAt == null) {
+                log.warn("{} consecutive DSM failures, opening circuit for {}", consecutiveFailures, openDuration);
+            }
+            openedAt = Instant.now();
+        }
+    }
+
+    /** a cancelled or locally rejected trial call tells us nothing, so let the next call be the trial instead */
+    protected synchronized void onCancel() {
+        trialInProgress = false;
+    }
+
+    protected static boolean isServerFailure(Throwable e) {
+        if (e instanceof PepperParseException) {
+            return false;
+        }
+        if (e instanceof PepperApiException apiException && apiException.getHttpStatus() != null) {
+            return apiException.getHttpStatus().is5xxServerError();
+        }
+        return true;
+    }
+}
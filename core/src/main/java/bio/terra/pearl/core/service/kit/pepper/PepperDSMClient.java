@@ -2,10 +2,17 @@ package bio.terra.pearl.core.service.kit.pepper;
 
 import bio.terra.pearl.core.model.kit.KitRequest;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Collection;
 import java.util.UUID;
 
+/**
+ * Client for Pepper DSM, the kit management system.  The async methods are the primary API, so that callers working
+ * with many kits or studies can issue requests concurrently without tying up a thread per request.  The blocking
+ * methods are conveniences for single requests, and just wait on the async versions.
+ */
 public interface PepperDSMClient {
     /**
      * Sends a sample kit request to Pepper.
@@ -17,7 +24,18 @@ public interface PepperDSMClient {
      * @return status result from Pepper
      * @throws PepperApiException on error from Pepper or failure to process the Pepper response
      */
-    PepperKitStatus sendKitRequest(String studyShortcode, Enrollee enrollee, KitRequest kitRequest, PepperKitAddress address) throws PepperApiException, PepperParseException;
-    PepperKitStatus fetchKitStatus(UUID kitRequestId) throws PepperApiException, PepperParseException;
-    Collection<PepperKitStatus> fetchKitStatusByStudy(String studyShortcode) throws PepperApiException, PepperParseException;
+    default PepperKitStatus sendKitRequest(String studyShortcode, Enrollee enrollee, KitRequest kitRequest, PepperKitAddress address) throws PepperApiException, PepperParseException {
+        return sendKitRequestAsync(studyShortcode, enrollee, kitRequest, address).block();
+    }
+    default PepperKitStatus fetchKitStatus(UUID kitRequestId) throws PepperApiException, PepperParseException {
+        return fetchKitStatusAsync(kitRequestId).block();
+    }
+    default Collection<PepperKitStatus> fetchKitStatusByStudy(String studyShortcode) throws PepperApiException, PepperParseException {
+        return fetchKitStatusByStudyAsync(studyShortcode).collectList().block();
+    }
+
+    /** as sendKitRequest, but errors are signalled through the Mono rather than thrown */
+    Mono<PepperKitStatus> sendKitRequestAsync(String studyShortcode, Enrollee enrollee, KitRequest kitRequest, PepperKitAddress address);
+    Mono<PepperKitStatus> fetchKitStatusAsync(UUID kitRequestId);
+    Flux<PepperKitStatus> fetchKitStatusByStudyAsync(String studyShortcode);
 }
@@ -0,0 +1,14 @@
+package bio.terra.pearl.core.service.kit.pepper;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A DSM request that was turned away by our own connection pool (too many requests already waiting, or no connection
+ * freed up in time), so it never reached DSM.  Reported as a 429, and not counted by the circuit breaker either way,
+ * since it says nothing about whether DSM is up.
+ */
+public class PepperRequestRejectedException extends PepperApiException {
+    public PepperRequestRejectedException(String message, Exception cause) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS, cause);
+    }
+}
@@ -17,6 +17,8 @@ import org.apache.commons.lang3.RandomUtils;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -86,6 +88,22 @@ public class StubPepperDSMClient implements PepperDSMClient {
         }).toList();
     }
 
+    @Override
+    public Mono<PepperKitStatus> sendKitRequestAsync(String studyShortcode, Enrollee enrollee, KitRequest kitRequest, PepperKitAddress address) {
+        return Mono.fromCallable(() -> sendKitRequest(studyShortcode, enrollee, kitRequest, address));
+    }
+
+    @Override
+    public Mono<PepperKitStatus> fetchKitStatusAsync(UUID kitRequestId) {
+        return Mono.fromCallable(() -> fetchKitStatus(kitRequestId));
+    }
+
+    /** the stub reads kits from the database, so this runs on the subscribing thread to stay in its transaction */
+    @Override
+    public Flux<PepperKitStatus> fetchKitStatusByStudyAsync(String studyShortcode) {
+        return Flux.defer(() -> Flux.fromIterable(fetchKitStatusByStudy(studyShortcode)));
+    }
+
     protected List<PepperKitStatus.Status> MOCK_STATUS_SEQUENCE = List.of(
             PepperKitStatus.Status.CREATED,
             PepperKitStatus.Status.QUEUED,
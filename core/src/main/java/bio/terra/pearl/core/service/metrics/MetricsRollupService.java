@@ -0,0 +1,53 @@
+package bio.terra.pearl.core.service.metrics;
+
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
+import bio.terra.pearl.core.service.TransactionHandler;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the daily metric rollups that back the bucketed metrics.  refresh() is cheap, and only recomputes days
+ * with source rows changed since the rollups were last written.  Deleted rows (e.g. from withdrawal) don't leave
+ * anything to detect, so rebuild() should also be run periodically to recompute everything.
+ *
+ * How far the rollups are up to date is read from the rollup table itself, so it survives restarts and is shared
+ * by every instance.  Both operations hold a database lock, so instances don't rewrite the same days at once.
+ */
+@Service
+@Slf4j
+public class MetricsRollupService {
+    /** how far before the last rollup write to look for changes, to catch transactions that were still in flight */
+    public static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+    private final MetricsDao metricsDao;
+    private final TransactionHandler transactionHandler;
+
+    public MetricsRollupService(MetricsDao metricsDao, TransactionHandler transactionHandler) {
+        this.metricsDao = metricsDao;
+        this.transactionHandler = transactionHandler;
+    }
+
+    /** recomputes the days that changed since the last rollup write, or everything if there are no rollups yet */
+    public void refresh() {
+        int count = transactionHandler.runInTransaction(() -> {
+            metricsDao.lockRollups();
+            Optional<Instant> lastUpdate = metricsDao.findLastRollupUpdate();
+            if (lastUpdate.isEmpty()) {
+                log.info("No metric rollups found, rebuilding");
+                return metricsDao.rebuildRollups();
+            }
+            return metricsDao.refreshRollups(lastUpdate.get().minus(REFRESH_OVERLAP));
+        });
+        log.info("Metric rollup refresh wrote {} rows", count);
+    }
+
+    public void rebuild() {
+        int count = transactionHandler.runInTransaction(() -> {
+            metricsDao.lockRollups();
+            return metricsDao.rebuildRollups();
+        });
+        log.info("Metric rollup rebuild wrote {} rows", count);
+    }
+}
@@ -0,0 +1,88 @@
+package bio.terra.pearl.core.service.notification;
+
+import bio.terra.pearl.core.config.BlockingSubmitPolicy;
+import bio.terra.pearl.core.config.DbWorkload;
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends notifications queued by bulk operations, like assigning a survey to a whole cohort, after the operation's
+ * transaction commits.  These get their own threads and queue, separate from EnrolleeEventExecutor's lanes, so that
+ * a large send can't fill the lanes that participants' own events go through.
+ *
+ * Each queued task is a batch of sends (e.g. one chunk of a bulk operation).  The queue is bounded: when it's full,
+ * the submitter waits for room, so a very large operation is slowed down rather than queueing without limit.
+ */
+@Component
+@Slf4j
+public class BulkNotificationExecutor implements DisposableBean {
+    public static final String WORKER_THREADS_VAR = "env.notifications.bulkWorkerThreads";
+    public static final String QUEUE_CAPACITY_VAR = "env.notifications.bulkQueueCapacity";
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private final TaskDecorator taskDecorator;
+    private final ThreadPoolExecutor executor;
+
+    public BulkNotificationExecutor(Environment env, ObjectProvider<TaskDecorator> taskDecorator) {
+        this.taskDecorator = taskDecorator.getIfUnique(() -> runnable -> runnable);
+        int workerThreads = env.getProperty(WORKER_THREADS_VAR, Integer.class, 2);
+        int queueCapacity = env.getProperty(QUEUE_CAPACITY_VAR, Integer.class, 50);
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("bulk-notification-"),
+                new BlockingSubmitPolicy());
+        executor.prestartAllCoreThreads();
+    }
+
+    /** runs the work once the current transaction commits, or right away if there isn't one */
+    public void runAfterCommit(Runnable work) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(work);
+                }
+            });
+        } else {
+            submit(work);
+        }
+    }
+
+    protected void submit(Runnable work) {
+        Runnable task = taskDecorator.decorate(() -> runLogged(work));
+        try {
+            // when the queue is full, this waits for room -- see BlockingSubmitPolicy
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Bulk notification executor unavailable, sending on the submitting thread");
+            task.run();
+        }
+    }
+
+    protected void runLogged(Runnable work) {
+        try {
+            DbWorkload.BATCH.run(work);
+        } catch (Exception e) {
+            log.error("Bulk notification send failed", e);
+        }
+    }
+
+    /** lets queued sends finish on shutdown, since their notifications are already saved as ready to send */
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Bulk notification sends still queued at shutdown: {} batches", executor.getQueue().size());
+        }
+    }
+}
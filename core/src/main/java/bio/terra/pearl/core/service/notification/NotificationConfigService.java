@@ -47,6 +47,10 @@ public class NotificationConfigService extends CrudService<NotificationConfig, N
         dao.attachTemplates(configs);
     }
 
+    public void attachTemplatesNoContent(List<NotificationConfig> configs) {
+        dao.attachTemplatesNoContent(configs);
+    }
+
     public void deleteByStudyEnvironmentId(UUID studyEnvironmentId) {
         dao.deleteByStudyEnvironmentId(studyEnvironmentId);
     }
@@ -6,6 +6,7 @@ import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
 import bio.terra.pearl.core.service.rule.RuleEvaluator;
 import bio.terra.pearl.core.service.workflow.DispatcherOrder;
 import bio.terra.pearl.core.service.workflow.EnrolleeEvent;
+import bio.terra.pearl.core.service.workflow.EnrolleeEventExecutor;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -20,19 +21,33 @@ public class NotificationDispatcher {
     private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
     private NotificationConfigService notificationConfigService;
     private NotificationService notificationService;
+    private EnrolleeEventExecutor enrolleeEventExecutor;
+    private BulkNotificationExecutor bulkNotificationExecutor;
     private Map<NotificationDeliveryType, NotificationSender> senderMap;
 
     public NotificationDispatcher(NotificationConfigService notificationConfigService,
-                                  NotificationService notificationService, EnrolleeEmailService enrolleeEmailService) {
+                                  NotificationService notificationService, EnrolleeEmailService enrolleeEmailService,
+                                  EnrolleeEventExecutor enrolleeEventExecutor,
+                                  BulkNotificationExecutor bulkNotificationExecutor) {
         this.notificationConfigService = notificationConfigService;
         this.notificationService = notificationService;
+        this.enrolleeEventExecutor = enrolleeEventExecutor;
+        this.bulkNotificationExecutor = bulkNotificationExecutor;
         senderMap = Map.of(NotificationDeliveryType.EMAIL, enrolleeEmailService);
     }
 
-    /** notifications could be triggered by just about anything, so listen to all enrollee events */
+    /**
+     * notifications could be triggered by just about anything, so listen to all enrollee events.  Nothing in the
+     * participant's response depends on them, so they're processed after the event's transaction commits -- see
+     * EnrolleeEventExecutor
+     */
     @EventListener
     @Order(DispatcherOrder.NOTIFICATION)
     public void handleEvent(EnrolleeEvent event) {
+        enrolleeEventExecutor.runAfterCommit(event.getEnrollee().getId(), () -> dispatchNotifications(event));
+    }
+
+    protected void dispatchNotifications(EnrolleeEvent event) {
         List<NotificationConfig> configs = notificationConfigService
                 .findByStudyEnvironmentId(event.getEnrollee().getStudyEnvironmentId(), true)
                 .stream().filter(config  -> config.getNotificationType().equals(NotificationType.EVENT))
@@ -58,8 +73,47 @@ public class NotificationDispatcher {
     protected void dispatchNotificationAsync(NotificationConfig config, EnrolleeRuleData enrolleeRuleData, UUID portalEnvId) {
         Notification notification = initializeNotification(config, enrolleeRuleData, portalEnvId, null);
         notification = notificationService.create(notification);
-        senderMap.get(config.getDeliveryType())
-                .processNotificationAsync(notification, config, enrolleeRuleData);
+        NotificationSender sender = senderMap.get(config.getDeliveryType());
+        if (enrolleeEventExecutor.isAsync()) {
+            // already off the request thread, and in order with the enrollee's other events, so send right here
+            sender.processNotification(notification, config, enrolleeRuleData, sender.loadContextInfo(config));
+        } else {
+            sender.processNotificationAsync(notification, config, enrolleeRuleData);
+        }
+    }
+
+    /**
+     * bulk version of dispatchNotificationAsync, for sending the same notification to many enrollees at once -- e.g.
+     * telling a cohort about a newly assigned survey.  The notifications are saved with one insert, and sent after the
+     * current transaction commits, as a single batch on BulkNotificationExecutor rather than on the enrollees' event
+     * lanes, which participants' own events need.
+     */
+    public void dispatchNotificationsAsync(NotificationConfig config, List<EnrolleeRuleData> enrolleeRuleData,
+                                           UUID portalEnvId) {
+        if (enrolleeRuleData.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = notificationService.createAll(enrolleeRuleData.stream()
+                .map(ruleData -> initializeNotification(config, ruleData, portalEnvId, null))
+                .toList());
+        NotificationSender sender = senderMap.get(config.getDeliveryType());
+        if (enrolleeEventExecutor.isAsync()) {
+            NotificationContextInfo contextInfo = sender.loadContextInfo(config);
+            bulkNotificationExecutor.runAfterCommit(() -> {
+                for (int i = 0; i < notifications.size(); i++) {
+                    try {
+                        sender.processNotification(notifications.get(i), config, enrolleeRuleData.get(i), contextInfo);
+                    } catch (Exception e) {
+                        // so one failure doesn't stop the rest of the batch
+                        logger.error("Notification {} failed to process", notifications.get(i).getId(), e);
+                    }
+                }
+            });
+        } else {
+            for (int i = 0; i < notifications.size(); i++) {
+                sender.processNotificationAsync(notifications.get(i), config, enrolleeRuleData.get(i));
+            }
+        }
     }
 
     public void dispatchNotification(NotificationConfig config, EnrolleeRuleData enrolleeRuleData,
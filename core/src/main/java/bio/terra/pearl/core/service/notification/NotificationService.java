@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.notification.NotificationDao;
 import bio.terra.pearl.core.model.notification.Notification;
 import bio.terra.pearl.core.service.CrudService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
@@ -22,4 +23,8 @@ public class NotificationService extends CrudService<Notification, NotificationD
     public void deleteByEnrolleeId(UUID enrolleeId) {
         dao.deleteByEnrolleeId(enrolleeId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
 }
@@ -6,6 +6,7 @@ import bio.terra.pearl.core.model.notification.NotificationDeliveryStatus;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.study.Study;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import bio.terra.pearl.core.service.notification.NotificationSender;
 import bio.terra.pearl.core.service.notification.NotificationService;
@@ -16,6 +17,7 @@ import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
 import bio.terra.pearl.core.service.study.StudyService;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
 import com.sendgrid.Mail;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.text.StringSubstitutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,11 +36,13 @@ public class EnrolleeEmailService implements NotificationSender {
     private EmailTemplateService emailTemplateService;
     private ApplicationRoutingPaths routingPaths;
     private SendgridClient sendgridClient;
+    private Instrumentation instrumentation;
 
     public EnrolleeEmailService(NotificationService notificationService,
                                 PortalEnvironmentService portalEnvService, PortalService portalService,
                                 StudyService studyService, EmailTemplateService emailTemplateService,
-                                ApplicationRoutingPaths routingPaths, SendgridClient sendgridClient) {
+                                ApplicationRoutingPaths routingPaths, SendgridClient sendgridClient,
+                                Instrumentation instrumentation) {
         this.notificationService = notificationService;
         this.portalEnvService = portalEnvService;
         this.portalService = portalService;
@@ -46,6 +50,7 @@ public class EnrolleeEmailService implements NotificationSender {
         this.emailTemplateService = emailTemplateService;
         this.routingPaths = routingPaths;
         this.sendgridClient = sendgridClient;
+        this.instrumentation = instrumentation;
     }
 
     @Async
@@ -57,6 +62,7 @@ public class EnrolleeEmailService implements NotificationSender {
 
     public void processNotification(Notification notification, NotificationConfig config, EnrolleeRuleData ruleData,
                                     NotificationContextInfo contextInfo) {
+        Timer.Sample sendTimer = instrumentation.startTimer();
         if (!shouldSendEmail(config, ruleData, contextInfo)) {
             notification.setDeliveryStatus(NotificationDeliveryStatus.SKIPPED);
         } else {
@@ -73,6 +79,11 @@ public class EnrolleeEmailService implements NotificationSender {
                         ruleData.enrollee().getShortcode());
             }
         }
+        // outcome is sent, skipped or failed
+        instrumentation.stop(sendTimer, Instrumentation.NOTIFICATION_SEND_TIMER,
+                notification.getDeliveryStatus().name().toLowerCase(),
+                "deliveryType", String.valueOf(config.getDeliveryType()),
+                "notificationType", String.valueOf(config.getNotificationType()));
         if (notification.getId() != null) {
             // the notification might have been saved, but in a transaction not-yet completed (if, for example,
             // study enrollment transaction is taking a long time). So retry the update if it fails
@@ -1,6 +1,7 @@
 package bio.terra.pearl.core.service.notification.email;
 
 import bio.terra.pearl.core.model.notification.SendgridEvent;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -24,10 +25,12 @@ public class SendgridClient {
   public static final String SENDGRID_API_KEY_VAR = "env.email.sendgridApiKey";
   private final String sendGridApiKey;
   private String emailRedirectAddress = "";
+  private final Instrumentation instrumentation;
 
-  public SendgridClient(Environment env) {
+  public SendgridClient(Environment env, Instrumentation instrumentation) {
     this.sendGridApiKey = env.getProperty(SENDGRID_API_KEY_VAR, "");
     this.emailRedirectAddress = env.getProperty(EMAIL_REDIRECT_VAR, "");
+    this.instrumentation = instrumentation;
   }
 
 
@@ -43,7 +46,8 @@ public class SendgridClient {
     request.setMethod(Method.POST);
     request.setEndpoint("mail/send");
     request.setBody(mail.build());
-    sg.api(request);
+    instrumentation.call(Instrumentation.EXTERNAL_CALL_TIMER, () -> sg.api(request),
+        "service", "sendgrid", "operation", "sendEmail");
   }
 
   public List<SendgridEvent> getEvents(Instant startDate, Instant endDate, int queryLimit) throws Exception {
@@ -60,7 +64,8 @@ public class SendgridClient {
     request.setEndpoint("messages");
     request.addQueryParam("limit", Integer.toString(queryLimit));
     request.addQueryParam("query", query);
-    Response response = sg.api(request);
+    Response response = instrumentation.call(Instrumentation.EXTERNAL_CALL_TIMER, () -> sg.api(request),
+        "service", "sendgrid", "operation", "getEvents");
 
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.registerModule(new JavaTimeModule());
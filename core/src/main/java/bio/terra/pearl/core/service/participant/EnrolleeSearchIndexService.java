@@ -0,0 +1,47 @@
+package bio.terra.pearl.core.service.participant;
+
+import bio.terra.pearl.core.dao.participant.EnrolleeSearchIndexDao;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the keyword search index.  EnrolleeService and ProfileService refresh it whenever they write a shortcode
+ * or profile, and bulk writers (population, import) refresh the enrollees they created.  rebuild() recomputes
+ * everything -- it's run periodically to catch rows left stale by concurrent writes, and is needed after changing
+ * which profile fields are indexed.
+ */
+@Service
+@Slf4j
+public class EnrolleeSearchIndexService {
+    private final EnrolleeSearchIndexDao dao;
+
+    public EnrolleeSearchIndexService(EnrolleeSearchIndexDao dao) {
+        this.dao = dao;
+    }
+
+    public void refresh(UUID enrolleeId) {
+        refresh(List.of(enrolleeId));
+    }
+
+    public void refresh(Collection<UUID> enrolleeIds) {
+        dao.refresh(enrolleeIds);
+    }
+
+    public void refreshByProfileId(UUID profileId) {
+        dao.refreshByProfileIds(List.of(profileId));
+    }
+
+    @Transactional
+    public void rebuild() {
+        int count = dao.rebuild();
+        log.info("Enrollee search index rebuild wrote {} rows", count);
+    }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
+}
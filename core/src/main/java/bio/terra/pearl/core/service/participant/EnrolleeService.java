@@ -1,5 +1,7 @@
 package bio.terra.pearl.core.service.participant;
 
+import bio.terra.pearl.core.dao.CascadeDeleteDao;
+import bio.terra.pearl.core.dao.CascadeDeleteNode;
 import bio.terra.pearl.core.dao.participant.EnrolleeDao;
 import bio.terra.pearl.core.dao.survey.PreEnrollmentResponseDao;
 import bio.terra.pearl.core.model.EnvironmentName;
@@ -9,8 +11,10 @@ import bio.terra.pearl.core.model.participant.PortalParticipantUser;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.CascadeTree;
 import bio.terra.pearl.core.service.CrudService;
 import bio.terra.pearl.core.service.consent.ConsentResponseService;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService;
 import bio.terra.pearl.core.service.kit.KitRequestService;
 import bio.terra.pearl.core.service.notification.NotificationService;
 import bio.terra.pearl.core.service.portal.PortalService;
@@ -21,9 +25,11 @@ import bio.terra.pearl.core.service.workflow.AdminTaskService;
 import bio.terra.pearl.core.service.workflow.DataChangeRecordService;
 import java.security.SecureRandom;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import org.springframework.context.annotation.Lazy;
@@ -34,6 +40,20 @@ import org.springframework.transaction.annotation.Transactional;
 public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
     public static final String PARTICIPANT_SHORTCODE_ALLOWED_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     public static final int PARTICIPANT_SHORTCODE_LENGTH = 6;
+    /** set-based equivalent of delete, children in the same dependency order as bulkDelete */
+    protected static final CascadeDeleteNode DELETE_CASCADE = CascadeDeleteNode.of("enrollee", "id",
+            CascadeDeleteNode.of("participant_task", "enrollee_id"),
+            CascadeDeleteNode.of("answer", "enrollee_id"),
+            CascadeDeleteNode.of("survey_response", "enrollee_id"),
+            CascadeDeleteNode.of("consent_response", "enrollee_id"),
+            CascadeDeleteNode.of("admin_task", "enrollee_id"),
+            CascadeDeleteNode.of("data_change_record", "enrollee_id"),
+            CascadeDeleteNode.of("participant_note", "enrollee_id"),
+            CascadeDeleteNode.of("kit_request", "enrollee_id"),
+            CascadeDeleteNode.of("enrollee_kit_summary", "enrollee_id"),
+            CascadeDeleteNode.of("enrollee_search_index", "enrollee_id"),
+            CascadeDeleteNode.of("notification", "enrollee_id"))
+            .owning("pre_enrollment_response_id", CascadeDeleteNode.of("pre_enrollment_response", "id"));
     private SurveyResponseService surveyResponseService;
     private ParticipantTaskService participantTaskService;
     private StudyEnvironmentService studyEnvironmentService;
@@ -47,7 +67,10 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
     private ParticipantUserService participantUserService;
     private ParticipantNoteService participantNoteService;
     private KitRequestService kitRequestService;
+    private EnrolleeKitSummaryService enrolleeKitSummaryService;
+    private EnrolleeSearchIndexService enrolleeSearchIndexService;
     private AdminTaskService adminTaskService;
+    private CascadeDeleteDao cascadeDeleteDao;
     private SecureRandom secureRandom;
 
     public EnrolleeService(EnrolleeDao enrolleeDao,
@@ -63,7 +86,10 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
                            @Lazy ParticipantUserService participantUserService,
                            ParticipantNoteService participantNoteService,
                            KitRequestService kitRequestService,
-                           AdminTaskService adminTaskService, SecureRandom secureRandom) {
+                           EnrolleeKitSummaryService enrolleeKitSummaryService,
+                           EnrolleeSearchIndexService enrolleeSearchIndexService,
+                           AdminTaskService adminTaskService, CascadeDeleteDao cascadeDeleteDao,
+                           SecureRandom secureRandom) {
         super(enrolleeDao);
         this.surveyResponseService = surveyResponseService;
         this.participantTaskService = participantTaskService;
@@ -78,7 +104,10 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
         this.participantUserService = participantUserService;
         this.participantNoteService = participantNoteService;
         this.kitRequestService = kitRequestService;
+        this.enrolleeKitSummaryService = enrolleeKitSummaryService;
+        this.enrolleeSearchIndexService = enrolleeSearchIndexService;
         this.adminTaskService = adminTaskService;
+        this.cascadeDeleteDao = cascadeDeleteDao;
         this.secureRandom = secureRandom;
     }
 
@@ -105,9 +134,8 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
         return dao.findByStudyEnvironmentId(studyEnvironmentId, sortProperty, sortDir);
     }
 
-    public List<Enrollee> findForKitManagement(String studyShortcode, EnvironmentName envName) {
-        StudyEnvironment studyEnvironment = studyEnvironmentService.findByStudy(studyShortcode, envName).get();
-        return dao.findForKitManagement(studyEnvironment.getId());
+    public List<UUID> findIdsByStudyEnvironment(UUID studyEnvironmentId) {
+        return dao.findIdsByStudyEnvironmentId(studyEnvironmentId);
     }
 
     public Enrollee loadForAdminView(Enrollee enrollee) {
@@ -144,6 +172,7 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
         adminTaskService.deleteByEnrolleId(enrolleeId, null);
         participantNoteService.deleteByEnrollee(enrolleeId);
         kitRequestService.deleteByEnrolleeId(enrolleeId, cascades);
+        enrolleeSearchIndexService.deleteByEnrolleeIds(List.of(enrolleeId));
 
         notificationService.deleteByEnrolleeId(enrolleeId);
         dataChangeRecordService.deleteByEnrolleeId(enrolleeId);
@@ -156,10 +185,60 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
         }
     }
 
+    /**
+     * Set-based version of delete for many enrollees at once.  Rather than walking each enrollee's children one at a
+     * time, each child table is cleared with a single statement over the whole set, in foreign-key dependency order.
+     * Callers should keep the set to a bounded size (see WithdrawnEnrolleeService.bulkWithdraw for chunking).
+     * As with delete, live enrollees can only be removed once a withdrawal record has been preserved.
+     */
+    @Transactional
+    public void bulkDelete(List<Enrollee> enrollees) {
+        if (enrollees.isEmpty()) {
+            return;
+        }
+        checkBulkDeleteAllowed(enrollees);
+        List<UUID> enrolleeIds = enrollees.stream().map(Enrollee::getId).toList();
+        participantTaskService.deleteByEnrolleeIds(enrolleeIds);
+        surveyResponseService.deleteByEnrolleeIds(enrolleeIds);
+        consentResponseService.deleteByEnrolleeIds(enrolleeIds);
+        adminTaskService.deleteByEnrolleeIds(enrolleeIds);
+        dataChangeRecordService.deleteByEnrolleeIds(enrolleeIds);
+        participantNoteService.deleteByEnrolleeIds(enrolleeIds);
+        kitRequestService.deleteByEnrolleeIds(enrolleeIds);
+        enrolleeSearchIndexService.deleteByEnrolleeIds(enrolleeIds);
+        notificationService.deleteByEnrolleeIds(enrolleeIds);
+        dao.deleteAll(enrolleeIds);
+        preEnrollmentResponseDao.deleteAll(enrollees.stream().map(Enrollee::getPreEnrollmentResponseId)
+                .filter(Objects::nonNull).toList());
+    }
+
+    /** bulk equivalent of the live-environment check in delete */
+    protected void checkBulkDeleteAllowed(List<Enrollee> enrollees) {
+        List<UUID> studyEnvIds = enrollees.stream().map(Enrollee::getStudyEnvironmentId).distinct().toList();
+        Set<UUID> liveStudyEnvIds = studyEnvironmentService.findAll(studyEnvIds).stream()
+                .filter(studyEnv -> studyEnv.getEnvironmentName().equals(EnvironmentName.live))
+                .map(StudyEnvironment::getId)
+                .collect(Collectors.toSet());
+        List<String> liveShortcodes = enrollees.stream()
+                .filter(enrollee -> liveStudyEnvIds.contains(enrollee.getStudyEnvironmentId()))
+                .map(Enrollee::getShortcode).toList();
+        if (withdrawnEnrolleeService.findWithdrawnShortcodes(liveShortcodes).size() != liveShortcodes.size()) {
+            throw new UnsupportedOperationException("Cannot delete live, non-withdrawn participants");
+        }
+    }
+
     @Transactional
     public void deleteByStudyEnvironmentId(UUID studyEnvironmentId, Set<CascadeProperty> cascade) {
-        for (Enrollee enrollee : dao.findByStudyEnvironmentId(studyEnvironmentId)) {
-            delete(enrollee.getId(), cascade);
+        List<Enrollee> enrollees = dao.findByStudyEnvironmentId(studyEnvironmentId);
+        if (enrollees.isEmpty()) {
+            return;
+        }
+        checkBulkDeleteAllowed(enrollees);
+        cascadeDeleteDao.delete(DELETE_CASCADE.keyedBy("study_environment_id"), studyEnvironmentId,
+                CascadeTree.fromSet(cascade));
+        if (cascade.contains(AllowedCascades.PARTICIPANT_USER)) {
+            enrollees.stream().map(Enrollee::getParticipantUserId).distinct().forEach(participantUserId ->
+                    participantUserService.delete(participantUserId, CascadeProperty.EMPTY_SET));
         }
     }
 
@@ -169,14 +248,26 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
             enrollee.setShortcode(generateShortcode());
         }
         Enrollee savedEnrollee = dao.create(enrollee);
+        enrolleeKitSummaryService.refresh(savedEnrollee.getId());
+        enrolleeSearchIndexService.refresh(savedEnrollee.getId());
         logger.info("Enrollee created.  id: {}, shortcode: {}, participantUserId: {}", savedEnrollee.getId(),
                 savedEnrollee.getShortcode(), savedEnrollee.getParticipantUserId());
         return savedEnrollee;
     }
 
+    /** the shortcode is part of the keyword search index, so refresh it */
+    @Override
+    @Transactional
+    public Enrollee update(Enrollee enrollee) {
+        Enrollee updatedEnrollee = dao.update(enrollee);
+        enrolleeSearchIndexService.refresh(updatedEnrollee.getId());
+        return updatedEnrollee;
+    }
+
     @Transactional
     public void updateConsented(UUID enrolleeId, boolean consented) {
         dao.updateConsented(enrolleeId, consented);
+        enrolleeKitSummaryService.refresh(enrolleeId);
         logger.info("Updated enrollee consent status: enrollee: {}, consented {}", enrolleeId, consented);
     }
 
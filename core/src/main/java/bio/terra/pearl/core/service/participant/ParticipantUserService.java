@@ -33,11 +33,7 @@ public class ParticipantUserService extends CrudService<ParticipantUser, Partici
     /** deletes users no longer attached to any portals */
     @Transactional
     public void deleteOrphans(List<UUID> userIds, Set<CascadeProperty> cascades) {
-        userIds.stream().forEach(userId -> {
-            if (portalParticipantUserService.findByParticipantUserId(userId).size() == 0) {
-                delete(userId, cascades);
-            }
-        });
+        dao.deleteOrphans(userIds);
     }
 
     public Optional<ParticipantUser> findOne(String username, EnvironmentName environmentName) {
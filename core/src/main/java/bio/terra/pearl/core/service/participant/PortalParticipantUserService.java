@@ -1,13 +1,17 @@
 package bio.terra.pearl.core.service.participant;
 
+import bio.terra.pearl.core.dao.CascadeDeleteDao;
+import bio.terra.pearl.core.dao.CascadeDeleteNode;
 import bio.terra.pearl.core.dao.participant.PortalParticipantUserDao;
 import bio.terra.pearl.core.dao.survey.PreregistrationResponseDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.participant.PortalParticipantUser;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.CascadeTree;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.workflow.DataChangeRecordService;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -18,18 +22,27 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PortalParticipantUserService extends ImmutableEntityService<PortalParticipantUser, PortalParticipantUserDao> {
+    /** set-based equivalent of delete, including the profile and its mailing address */
+    protected static final CascadeDeleteNode DELETE_CASCADE = CascadeDeleteNode.of("portal_participant_user", "id",
+            CascadeDeleteNode.of("preregistration_response", "portal_participant_user_id"),
+            CascadeDeleteNode.of("data_change_record", "portal_participant_user_id"))
+            .owning("profile_id", CascadeDeleteNode.of("profile", "id")
+                    .owning("mailing_address_id", CascadeDeleteNode.of("mailing_address", "id")));
     private ProfileService profileService;
     private PreregistrationResponseDao preregistrationResponseDao;
     private DataChangeRecordService dataChangeRecordService;
+    private CascadeDeleteDao cascadeDeleteDao;
 
     public PortalParticipantUserService(PortalParticipantUserDao dao,
                                         ProfileService profileService,
                                         PreregistrationResponseDao preregistrationResponseDao,
-                                        @Lazy DataChangeRecordService dataChangeRecordService) {
+                                        @Lazy DataChangeRecordService dataChangeRecordService,
+                                        CascadeDeleteDao cascadeDeleteDao) {
         super(dao);
         this.profileService = profileService;
         this.preregistrationResponseDao = preregistrationResponseDao;
         this.dataChangeRecordService = dataChangeRecordService;
+        this.cascadeDeleteDao = cascadeDeleteDao;
     }
 
     @Transactional
@@ -65,6 +78,10 @@ public class PortalParticipantUserService extends ImmutableEntityService<PortalP
         return dao.findOne(participantUserId, portalShortcode);
     }
 
+    public List<PortalParticipantUser> findByParticipantUserIds(Collection<UUID> participantUserIds, UUID portalEnvId) {
+        return dao.findByParticipantUserIds(participantUserIds, portalEnvId);
+    }
+
     public List<PortalParticipantUser> findByPortalEnvironmentId(UUID portalId) {
         return dao.findByPortalEnvironmentId(portalId);
     }
@@ -87,17 +104,11 @@ public class PortalParticipantUserService extends ImmutableEntityService<PortalP
 
     @Transactional
     public void deleteByParticipantUserId(UUID participantUserId) {
-        List<PortalParticipantUser> users = dao.findByParticipantUserId(participantUserId);
-        for(PortalParticipantUser ppUser : users) {
-            delete(ppUser.getId(), CascadeProperty.EMPTY_SET);
-        }
+        cascadeDeleteDao.delete(DELETE_CASCADE.keyedBy("participant_user_id"), participantUserId, CascadeTree.NONE);
     }
 
     @Transactional
     public void deleteByPortalEnvironmentId(UUID portalEnvId) {
-        List<PortalParticipantUser> users = dao.findByPortalEnvironmentId(portalEnvId);
-        for(PortalParticipantUser ppUser : users) {
-            delete(ppUser.getId(), CascadeProperty.EMPTY_SET);
-        }
+        cascadeDeleteDao.delete(DELETE_CASCADE.keyedBy("portal_environment_id"), portalEnvId, CascadeTree.NONE);
     }
 }
@@ -6,6 +6,7 @@ import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.CrudService;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -15,10 +16,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class ProfileService extends CrudService<Profile, ProfileDao> {
     private MailingAddressDao mailingAddressDao;
+    private EnrolleeSearchIndexService enrolleeSearchIndexService;
 
-    public ProfileService(ProfileDao profileDao, MailingAddressDao mailingAddressDao) {
+    public ProfileService(ProfileDao profileDao, MailingAddressDao mailingAddressDao,
+                          EnrolleeSearchIndexService enrolleeSearchIndexService) {
         super(profileDao);
         this.mailingAddressDao = mailingAddressDao;
+        this.enrolleeSearchIndexService = enrolleeSearchIndexService;
     }
 
     @Transactional
@@ -35,9 +39,24 @@ public class ProfileService extends CrudService<Profile, ProfileDao> {
         return dao.loadWithMailingAddress(profileId);
     }
 
+    public List<Profile> findAllWithMailingAddress(List<UUID> profileIds) {
+        return dao.findAllWithMailingAddress(profileIds);
+    }
+
+    /** names and contact info are part of the keyword search index, so refresh the profile's enrollees */
+    @Override
+    @Transactional
+    public Profile update(Profile profile) {
+        Profile updatedProfile = dao.update(profile);
+        enrolleeSearchIndexService.refreshByProfileId(updatedProfile.getId());
+        return updatedProfile;
+    }
+
     @Transactional
     public Profile updateWithMailingAddress(Profile profile) {
-        return dao.updateWithMailingAddress(profile);
+        Profile updatedProfile = dao.updateWithMailingAddress(profile);
+        enrolleeSearchIndexService.refreshByProfileId(updatedProfile.getId());
+        return updatedProfile;
     }
 
     @Transactional
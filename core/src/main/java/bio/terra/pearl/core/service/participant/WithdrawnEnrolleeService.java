@@ -5,13 +5,21 @@ import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.participant.PortalParticipantUser;
 import bio.terra.pearl.core.model.participant.WithdrawnEnrollee;
+import bio.terra.pearl.core.service.BulkOperationProgress;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
+import bio.terra.pearl.core.service.TransactionHandler;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.collections4.ListUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,14 +29,19 @@ public class WithdrawnEnrolleeService extends ImmutableEntityService<WithdrawnEn
   private ObjectMapper objectMapper;
   private PortalParticipantUserService portalParticipantUserService;
   private ParticipantUserService participantUserService;
+  private TransactionHandler transactionHandler;
+  /** how many enrollees bulkWithdraw loads, preserves, and deletes at a time */
+  public static final int BULK_WITHDRAWAL_CHUNK_SIZE = 500;
 
   public WithdrawnEnrolleeService(WithdrawnEnrolleeDao dao, EnrolleeService enrolleeService, ObjectMapper objectMapper,
-                                  PortalParticipantUserService portalParticipantUserService, ParticipantUserService participantUserService) {
+                                  PortalParticipantUserService portalParticipantUserService, ParticipantUserService participantUserService,
+                                  TransactionHandler transactionHandler) {
     super(dao);
     this.enrolleeService = enrolleeService;
     this.objectMapper = objectMapper;
     this.portalParticipantUserService = portalParticipantUserService;
     this.participantUserService = participantUserService;
+    this.transactionHandler = transactionHandler;
   }
 
   public void deleteByStudyEnvironmentId(UUID studyEnvironmentId) {
@@ -43,6 +56,10 @@ public class WithdrawnEnrolleeService extends ImmutableEntityService<WithdrawnEn
     return dao.isWithdrawn(shortcode);
   }
 
+  public Set<String> findWithdrawnShortcodes(List<String> shortcodes) {
+    return dao.findWithdrawnShortcodes(shortcodes);
+  }
+
   /**
    * creates a WithdrawnEnrollee for the passed-in enrollee, and DELETES THE ENROLLEE.
    * Although the WithdrawnEnrollee record may contain much of the enrollee's data, this should be assumed to be
@@ -52,32 +69,78 @@ public class WithdrawnEnrolleeService extends ImmutableEntityService<WithdrawnEn
   public WithdrawnEnrollee withdrawEnrollee(Enrollee enrollee) throws JsonProcessingException {
     dao.loadForWithdrawalPreservation(enrollee);
     ParticipantUser user = participantUserService.find(enrollee.getParticipantUserId()).get();
-    WithdrawnEnrollee withdrawnEnrollee = WithdrawnEnrollee.builder()
+    WithdrawnEnrollee withdrawnEnrollee = create(buildWithdrawnEnrollee(enrollee, user));
+
+    enrolleeService.delete(enrollee.getId(), CascadeProperty.EMPTY_SET);
+
+    return withdrawnEnrollee;
+  }
+
+  /**
+   * Withdraws (and DELETES) all the enrollees with the given ids, for cases like study closures or batch data
+   * deletion requests.  Enrollees are processed in chunks of BULK_WITHDRAWAL_CHUNK_SIZE: each chunk is loaded with a
+   * fixed number of queries, preserved with a single batched insert, and removed with set-based deletes.
+   * When called outside a transaction, each chunk commits on its own, so an interrupted run can be re-run with the
+   * same ids -- enrollees that are already gone are skipped.
+   * progressListener is optional, and is called after each chunk.  Returns the number of enrollees withdrawn.
+   */
+  public int bulkWithdraw(List<UUID> enrolleeIds, Consumer<BulkOperationProgress> progressListener) {
+    int processed = 0;
+    int withdrawnCount = 0;
+    for (List<UUID> chunk : ListUtils.partition(enrolleeIds, BULK_WITHDRAWAL_CHUNK_SIZE)) {
+      withdrawnCount += transactionHandler.runInTransaction(() -> withdrawChunk(chunk));
+      processed += chunk.size();
+      BulkOperationProgress progress = new BulkOperationProgress("withdrawal", processed, enrolleeIds.size());
+      logger.info("Bulk withdrawal: {} of {} enrollees processed ({}%)",
+          processed, enrolleeIds.size(), progress.percentComplete());
+      if (progressListener != null) {
+        progressListener.accept(progress);
+      }
+    }
+    return withdrawnCount;
+  }
+
+  protected int withdrawChunk(List<UUID> enrolleeIds) {
+    List<Enrollee> enrollees = enrolleeService.findAll(enrolleeIds);
+    if (enrollees.isEmpty()) {
+      return 0;
+    }
+    dao.loadForWithdrawalPreservation(enrollees);
+    List<UUID> userIds = enrollees.stream().map(Enrollee::getParticipantUserId).distinct().toList();
+    Map<UUID, ParticipantUser> usersById = participantUserService.findAll(userIds).stream()
+        .collect(Collectors.toMap(ParticipantUser::getId, Function.identity()));
+    List<WithdrawnEnrollee> withdrawns = new ArrayList<>();
+    try {
+      for (Enrollee enrollee : enrollees) {
+        withdrawns.add(buildWithdrawnEnrollee(enrollee, usersById.get(enrollee.getParticipantUserId())));
+      }
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Could not serialize enrollee data for withdrawal", e);
+    }
+    dao.bulkCreate(withdrawns);
+    enrolleeService.bulkDelete(enrollees);
+    return enrollees.size();
+  }
+
+  protected WithdrawnEnrollee buildWithdrawnEnrollee(Enrollee enrollee, ParticipantUser user) throws JsonProcessingException {
+    return WithdrawnEnrollee.builder()
         .shortcode(enrollee.getShortcode())
         .studyEnvironmentId(enrollee.getStudyEnvironmentId())
         .enrolleeData(objectMapper.writeValueAsString(enrollee))
         .userData(objectMapper.writeValueAsString(user))
         .build();
-    withdrawnEnrollee = create(withdrawnEnrollee);
-
-    enrolleeService.delete(enrollee.getId(), CascadeProperty.EMPTY_SET);
-
-    return withdrawnEnrollee;
   }
 
   @Transactional
-  public List<WithdrawnEnrollee> withdrawFromPortal(PortalParticipantUser ppUser) throws JsonProcessingException {
+  public List<WithdrawnEnrollee> withdrawFromPortal(PortalParticipantUser ppUser) {
     List<Enrollee> enrollees = enrolleeService.findByPortalParticipantUser(ppUser);
-    List<WithdrawnEnrollee> withdrawns = new ArrayList<>();
-    for (Enrollee enrollee : enrollees) {
-      withdrawns.add(withdrawEnrollee(enrollee));
-    }
+    bulkWithdraw(enrollees.stream().map(Enrollee::getId).toList(), null);
     portalParticipantUserService.delete(ppUser.getId(), CascadeProperty.EMPTY_SET);
-    return withdrawns;
+    return dao.findAllByShortcodes(enrollees.stream().map(Enrollee::getShortcode).toList());
   }
 
   @Transactional
-  public List<WithdrawnEnrollee> withdrawFromJuniper(ParticipantUser participantUser) throws JsonProcessingException {
+  public List<WithdrawnEnrollee> withdrawFromJuniper(ParticipantUser participantUser) {
     List<PortalParticipantUser> ppUsers =portalParticipantUserService.findByParticipantUserId(participantUser.getId());
     List<WithdrawnEnrollee> withdrawns = new ArrayList<>();
     for (PortalParticipantUser ppUser : ppUsers) {
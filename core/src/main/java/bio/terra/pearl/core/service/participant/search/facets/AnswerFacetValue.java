@@ -0,0 +1,33 @@
+package bio.terra.pearl.core.service.participant.search.facets;
+
+import bio.terra.pearl.core.model.survey.AnswerType;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A filter on the answers to one survey question.  What's matched depends on answerType: STRING answers equal to one
+ * of the values, OBJECT (multi-select) answers that include one of the values, BOOLEAN answers equal to the first
+ * value ("true" or "false"), or NUMBER answers between min and max, inclusive -- either end may be left null.
+ */
+@Getter @Setter
+@NoArgsConstructor
+public class AnswerFacetValue {
+  private String surveyStableId;
+  private String questionStableId;
+  private AnswerType answerType;
+  private List<String> values = List.of();
+  private Double min;
+  private Double max;
+
+  public AnswerFacetValue(String surveyStableId, String questionStableId, AnswerType answerType, List<String> values,
+                          Double min, Double max) {
+    this.surveyStableId = surveyStableId;
+    this.questionStableId = questionStableId;
+    this.answerType = answerType;
+    this.values = values;
+    this.min = min;
+    this.max = max;
+  }
+}
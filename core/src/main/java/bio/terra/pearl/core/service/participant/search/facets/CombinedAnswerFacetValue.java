@@ -0,0 +1,19 @@
+package bio.terra.pearl.core.service.participant.search.facets;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** answer filters on any number of questions -- an enrollee has to match all of them */
+@Getter
+@Setter
+@NoArgsConstructor
+public class CombinedAnswerFacetValue implements FacetValue {
+  private String keyName;
+  private List<AnswerFacetValue> values;
+  public CombinedAnswerFacetValue(String keyName, List<AnswerFacetValue> values) {
+    this.values = values;
+    this.keyName = keyName;
+  }
+}
@@ -19,6 +19,9 @@ public class FacetValueFactory {
       ),
       "keyword", Map.of(
               "keyword", new FacetDefinition(StringFacetValue.class, new KeywordFacetSqlGenerator())
+      ),
+      "answer", Map.of(
+          "value", new FacetDefinition(CombinedAnswerFacetValue.class, new AnswerFacetSqlGenerator())
       )
   );
 
@@ -0,0 +1,144 @@
+package bio.terra.pearl.core.service.participant.search.facets.sql;
+
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.service.participant.search.facets.AnswerFacetValue;
+import bio.terra.pearl.core.service.participant.search.facets.CombinedAnswerFacetValue;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.jdbi.v3.core.statement.Query;
+
+/**
+ * Filters enrollees by their survey answers.  Each question's filter is an exists subquery keyed by survey and
+ * question stable id, written so that it can be resolved from the answer search indexes (see
+ * 2023_11_16_answer_search_indexes.yaml) rather than by reading every answer to the question: scalar values against
+ * the covering index for their type (by hash for strings, which may be long free text), multi-select values by jsonb
+ * containment.  Enrollees with more than one response to a survey match if any of their answers do.
+ */
+public class AnswerFacetSqlGenerator implements FacetSqlGenerator<CombinedAnswerFacetValue> {
+  private static final String TABLE_NAME = "answer";
+
+  public AnswerFacetSqlGenerator() {}
+
+  @Override
+  public String getTableName() {
+    return TABLE_NAME;
+  }
+
+  @Override
+  public String getJoinQuery() {
+    // answers are matched with exists subqueries, so that enrollees with many answers aren't duplicated
+    return "";
+  }
+
+  @Override
+  public String getSelectQuery(CombinedAnswerFacetValue facetValue) {
+    return null;
+  }
+
+  @Override
+  public String getWhereClause(CombinedAnswerFacetValue facetValue, int facetIndex) {
+    if (facetValue.getValues().isEmpty()) {
+      return " 1 = 1";
+    }
+    return IntStream.range(0, facetValue.getValues().size()).mapToObj(i -> """
+         exists (select 1 from answer where answer.enrollee_id = enrollee.id
+         and answer.survey_stable_id = :%s
+         and answer.question_stable_id = :%s
+         and %s)
+        """.formatted(getParamName("SurveyStableId", facetIndex, i), getParamName("QuestionStableId", facetIndex, i),
+            getValueClause(facetValue.getValues().get(i), facetIndex, i))
+    ).collect(Collectors.joining(" and"));
+  }
+
+  /** with no values (or range), a filter matches any answer of the given type to the question */
+  protected String getValueClause(AnswerFacetValue value, int facetIndex, int subIndex) {
+    AnswerType answerType = value.getAnswerType();
+    if (answerType == null) {
+      throw new IllegalArgumentException("Answer facet for %s must specify an answer type"
+          .formatted(value.getQuestionStableId()));
+    }
+    return switch (answerType) {
+      // the string index is on the value's hash, so match the hash to use it, and then the value itself
+      case STRING -> value.getValues().isEmpty() ? "answer.string_value is not null"
+          : ("md5(answer.string_value) = any(array(select md5(v) from unnest(cast(:%1$s as text[])) v))"
+              + " and answer.string_value = any(:%1$s)").formatted(getParamName("Value", facetIndex, subIndex));
+      case BOOLEAN -> value.getValues().isEmpty() ? "answer.boolean_value is not null"
+          : "answer.boolean_value = :%s".formatted(getParamName("Value", facetIndex, subIndex));
+      case NUMBER -> getRangeClause(value, facetIndex, subIndex);
+      case OBJECT -> {
+        // the like matches the array index's predicate, so the planner can use it
+        String containsClause = IntStream.range(0, value.getValues().size()).mapToObj(j ->
+            "answer.object_value::jsonb @> jsonb_build_array(cast(:%s as text))"
+                .formatted(getParamName("Value", facetIndex, subIndex) + "_" + j)
+        ).collect(Collectors.joining(" or "));
+        yield value.getValues().isEmpty() ? "answer.object_value like '[%'"
+            : "answer.object_value like '[%%' and (%s)".formatted(containsClause);
+      }
+      default -> throw new IllegalArgumentException("Cannot filter on %s answers".formatted(answerType));
+    };
+  }
+
+  private String getRangeClause(AnswerFacetValue value, int facetIndex, int subIndex) {
+    String clause = "answer.number_value is not null";
+    if (value.getMin() != null) {
+      clause += " and answer.number_value >= :%s".formatted(getParamName("Min", facetIndex, subIndex));
+    }
+    if (value.getMax() != null) {
+      clause += " and answer.number_value <= :%s".formatted(getParamName("Max", facetIndex, subIndex));
+    }
+    return clause;
+  }
+
+  @Override
+  public String getCombinedWhereClause(List<CombinedAnswerFacetValue> facetValues) {
+    return "";
+  }
+
+  @Override
+  public void bindSqlParameters(CombinedAnswerFacetValue facetValue, int facetIndex, Query query) {
+    for (int i = 0; i < facetValue.getValues().size(); i++) {
+      AnswerFacetValue value = facetValue.getValues().get(i);
+      query.bind(getParamName("SurveyStableId", facetIndex, i), value.getSurveyStableId());
+      query.bind(getParamName("QuestionStableId", facetIndex, i), value.getQuestionStableId());
+      String valueParam = getParamName("Value", facetIndex, i);
+      switch (value.getAnswerType()) {
+        case STRING -> {
+          if (!value.getValues().isEmpty()) {
+            query.bindArray(valueParam, String.class, value.getValues());
+          }
+        }
+        case BOOLEAN -> {
+          if (!value.getValues().isEmpty()) {
+            query.bind(valueParam, parseBoolean(value.getValues().get(0)));
+          }
+        }
+        case NUMBER -> {
+          if (value.getMin() != null) {
+            query.bind(getParamName("Min", facetIndex, i), value.getMin());
+          }
+          if (value.getMax() != null) {
+            query.bind(getParamName("Max", facetIndex, i), value.getMax());
+          }
+        }
+        case OBJECT -> {
+          for (int j = 0; j < value.getValues().size(); j++) {
+            query.bind(valueParam + "_" + j, value.getValues().get(j));
+          }
+        }
+        default -> { }
+      }
+    }
+  }
+
+  private static boolean parseBoolean(String value) {
+    if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+      throw new IllegalArgumentException("Boolean answer facet values must be true or false, not " + value);
+    }
+    return Boolean.parseBoolean(value);
+  }
+
+  private static String getParamName(String paramType, int facetIndex, int subIndex) {
+    return "answer%s%d_%d".formatted(paramType, facetIndex, subIndex);
+  }
+}
@@ -11,6 +11,10 @@ public interface FacetSqlGenerator<T extends FacetValue> {
   String getJoinQuery();
   String getWhereClause(T facetValue, int facetIndex);
   String getCombinedWhereClause(List<T> facetValues);
+  // an order by expression over a column from getSelectQuery, for facets that rank results.  null if the facet doesn't
+  default String getOrderBy(T facetValue) {
+    return null;
+  }
 
   void bindSqlParameters(T facetValue, int facetIndex, Query query);
 }
@@ -1,6 +1,6 @@
 package bio.terra.pearl.core.service.participant.search.facets.sql;
 
-import bio.terra.pearl.core.dao.BaseJdbiDao;
+import bio.terra.pearl.core.dao.participant.EnrolleeSearchIndexDao;
 import bio.terra.pearl.core.service.participant.search.EnrolleeSearchUtils;
 import bio.terra.pearl.core.service.participant.search.facets.StringFacetValue;
 import org.jdbi.v3.core.statement.Query;
@@ -9,24 +9,41 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+/**
+ * Matches keywords against the enrollee_search_index, which holds the shortcode and the configured profile fields of
+ * each enrollee as one lowercased string.  Each keyword must appear somewhere in it -- the substring match is served
+ * by the trigram index -- and results are ranked by how closely the keywords match whole words.
+ */
 public class KeywordFacetSqlGenerator implements FacetSqlGenerator<StringFacetValue> {
+    public static final String RANK_COLUMN = "keyword_rank";
 
     public KeywordFacetSqlGenerator() {}
 
     @Override
     public String getTableName() {
-        // this facet is only tied to enrollee and Profile tables that are already joined
-        return "";
+        return EnrolleeSearchIndexDao.TABLE_NAME;
     }
 
     @Override
     public String getJoinQuery() {
-        return "";
+        return " left join enrollee_search_index on enrollee_search_index.enrollee_id = enrollee.id";
     }
 
     @Override
     public String getSelectQuery(StringFacetValue facetValue) {
-        return null; // already included in base query
+        if (facetValue.getValues().isEmpty()) {
+            return null;
+        }
+        String rank = IntStream.range(0, facetValue.getValues().size())
+                .mapToObj(index -> {
+                    String paramName = getRankParamName(facetValue, index);
+                    return """
+                            ts_rank(enrollee_search_index.search_vector, plainto_tsquery('simple', :%1$s))
+                             + word_similarity(:%1$s, enrollee_search_index.search_text)"""
+                            .formatted(paramName);
+                })
+                .collect(Collectors.joining(" + "));
+        return " (%s) as %s".formatted(rank, RANK_COLUMN);
     }
 
     @Override
@@ -35,16 +52,8 @@ public class KeywordFacetSqlGenerator implements FacetSqlGenerator<StringFacetVa
             return " 1 = 1";
         }
         return IntStream.range(0, facetValue.getValues().size())
-                .mapToObj(index -> {
-                    String paramName = EnrolleeSearchUtils.getSqlParamName("keyword", facetValue.getKeyName(), index);
-                    return """
-                            (profile.given_name ilike :%1$s 
-                              OR profile.family_name ilike :%1$s
-                              OR profile.contact_email ilike :%1$s
-                              OR enrollee.shortcode ilike :%1$s)
-                            """
-                            .formatted(paramName);
-                })
+                .mapToObj(index -> " enrollee_search_index.search_text like :%s"
+                        .formatted(getParamName(facetValue, index)))
                 .collect(Collectors.joining(" AND"));
     }
 
@@ -53,11 +62,31 @@ public class KeywordFacetSqlGenerator implements FacetSqlGenerator<StringFacetVa
         return "";
     }
 
+    @Override
+    public String getOrderBy(StringFacetValue facetValue) {
+        return facetValue.getValues().isEmpty() ? null : RANK_COLUMN + " desc";
+    }
+
     @Override
     public void bindSqlParameters(StringFacetValue facetValue, int facetIndex, Query query) {
         for(int i = 0; i < facetValue.getValues().size(); i++) {
-            query.bind(EnrolleeSearchUtils.getSqlParamName("keyword",
-                    facetValue.getKeyName(), i), "%" + facetValue.getValues().get(i) + "%");
+            // the index text is lowercased, so lowercasing the keyword makes the match case-insensitive
+            String keyword = facetValue.getValues().get(i).toLowerCase();
+            query.bind(getParamName(facetValue, i), "%" + escapeLike(keyword) + "%");
+            query.bind(getRankParamName(facetValue, i), keyword);
         }
     }
+
+    /** so that keywords containing _ or % match those characters literally */
+    protected static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String getParamName(StringFacetValue facetValue, int index) {
+        return EnrolleeSearchUtils.getSqlParamName("keyword", facetValue.getKeyName(), index);
+    }
+
+    private static String getRankParamName(StringFacetValue facetValue, int index) {
+        return EnrolleeSearchUtils.getSqlParamName("keywordRank", facetValue.getKeyName(), index);
+    }
 }
@@ -26,6 +26,9 @@ public class SqlSearchableFacet<T extends FacetValue> {
   public String getCombinedWhereClause(List<T> facetValues) {
     return sqlGenerator.getCombinedWhereClause(facetValues);
   };
+  public String getOrderBy() {
+    return sqlGenerator.getOrderBy(value);
+  }
 
   public void bindSqlParameters(int facetIndex, Query query) {
     sqlGenerator.bindSqlParameters(value, facetIndex, query);
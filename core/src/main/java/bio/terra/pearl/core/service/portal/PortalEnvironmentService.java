@@ -92,12 +92,13 @@ public class PortalEnvironmentService extends CrudService<PortalEnvironment, Por
         portalParticipantUserService.deleteByPortalEnvironmentId(id);
         // clean up any preregistration responses not associated with a user
         preregistrationResponseDao.deleteByPortalEnvironmentId(id);
-        if (cascades.contains(PortalService.AllowedCascades.PARTICIPANT_USER)) {
-            participantUserService.deleteOrphans(participantUserIds, cascades);
-        }
         notificationConfigService.deleteByPortalEnvironmentId(id);
         mailingListContactService.deleteByPortalEnvId(id);
         dataChangeRecordService.deleteByPortalEnvironmentId(id);
+        // orphans go after the contacts and change records, since those can reference participant users
+        if (cascades.contains(PortalService.AllowedCascades.PARTICIPANT_USER)) {
+            participantUserService.deleteOrphans(participantUserIds, cascades);
+        }
         dao.delete(id);
         portalEnvironmentConfigService.delete(envConfigId, cascades);
     }
@@ -10,6 +10,7 @@ import bio.terra.pearl.core.model.study.PortalStudy;
 import bio.terra.pearl.core.model.study.Study;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.CrudService;
+import bio.terra.pearl.core.service.admin.AdminAuthCache;
 import bio.terra.pearl.core.service.consent.ConsentFormService;
 import bio.terra.pearl.core.service.notification.email.EmailTemplateService;
 import bio.terra.pearl.core.service.participant.ParticipantUserService;
@@ -40,6 +41,7 @@ public class PortalService extends CrudService<Portal, PortalDao> {
     private SiteContentService siteContentService;
     private EmailTemplateService emailTemplateService;
     private SiteImageService siteImageService;
+    private AdminAuthCache adminAuthCache;
 
     public PortalService(PortalDao portalDao, PortalStudyService portalStudyService,
                          StudyService studyService,
@@ -49,7 +51,8 @@ public class PortalService extends CrudService<Portal, PortalDao> {
                          PortalAdminUserDao portalAdminUserDao, SurveyService surveyService,
                          ConsentFormService consentFormService, SiteContentService siteContentService,
                          EmailTemplateService emailTemplateService,
-                         SiteImageService siteImageService) {
+                         SiteImageService siteImageService,
+                         AdminAuthCache adminAuthCache) {
         super(portalDao);
         this.portalStudyService = portalStudyService;
         this.portalEnvironmentService = portalEnvironmentService;
@@ -62,6 +65,7 @@ public class PortalService extends CrudService<Portal, PortalDao> {
         this.siteContentService = siteContentService;
         this.emailTemplateService = emailTemplateService;
         this.siteImageService = siteImageService;
+        this.adminAuthCache = adminAuthCache;
     }
 
     @Transactional
@@ -99,6 +103,7 @@ public class PortalService extends CrudService<Portal, PortalDao> {
         emailTemplateService.deleteByPortalId(portalId);
         siteImageService.deleteByPortalShortcode(portal.getShortcode());
         portalAdminUserDao.deleteByPortalId(portalId);
+        adminAuthCache.invalidateAll();
         dao.delete(portalId);
     }
 
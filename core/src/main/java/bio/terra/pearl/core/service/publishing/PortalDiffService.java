@@ -1,6 +1,9 @@
 package bio.terra.pearl.core.service.publishing;
 
+import bio.terra.pearl.core.config.DbWorkload;
+import bio.terra.pearl.core.dao.BaseJdbiDao;
 import bio.terra.pearl.core.dao.publishing.PortalEnvironmentChangeRecordDao;
+import bio.terra.pearl.core.dao.study.StudyEnvironmentDao.PublishingFingerprint;
 import bio.terra.pearl.core.model.BaseEntity;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.Versioned;
@@ -25,14 +28,45 @@ import bio.terra.pearl.core.service.survey.SurveyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Computes the changes needed to make one environment match another, for publishing.  Study environments are first
+ * compared by a fingerprint of their configs and the versions of the documents they reference, fetched for all of a
+ * portal's studies in one query per environment -- only studies whose fingerprints differ are loaded and diffed, and
+ * those are diffed concurrently on up to env.publishing.diffThreads threads.  Documents are loaded without their
+ * content, since only their stableIds and versions are compared.
+ *
+ * Inside a transaction, studies are diffed on the calling thread, since other threads couldn't see the transaction's
+ * uncommitted changes.
+ */
 @Service
-public class PortalDiffService {
+public class PortalDiffService implements DisposableBean {
     public static final List<String> CONFIG_IGNORE_PROPS = List.of("id", "createdAt", "lastUpdatedAt", "class",
             "studyEnvironmentId", "portalEnvironmentId", "emailTemplateId", "emailTemplate",
             "consentFormId", "consentForm", "surveyId", "survey", "versionedEntity");
+    /** the column names of CONFIG_IGNORE_PROPS, for excluding them from fingerprints */
+    private static final List<String> FINGERPRINT_IGNORE_COLUMNS = CONFIG_IGNORE_PROPS.stream()
+            .map(BaseJdbiDao::toSnakeCase).toList();
+    public static final String DIFF_THREADS_VAR = "env.publishing.diffThreads";
     private PortalEnvironmentService portalEnvService;
     private PortalEnvironmentConfigService portalEnvironmentConfigService;
     private SiteContentService siteContentService;
@@ -42,6 +76,9 @@ public class PortalDiffService {
     private PortalEnvironmentChangeRecordDao portalEnvironmentChangeRecordDao;
     private StudyEnvironmentService studyEnvironmentService;
     private StudyService studyService;
+    private final TaskDecorator taskDecorator;
+    /** null if studies are always diffed serially */
+    private final ThreadPoolExecutor diffExecutor;
 
     public PortalDiffService(PortalEnvironmentService portalEnvService,
                              PortalEnvironmentConfigService portalEnvironmentConfigService,
@@ -49,7 +86,8 @@ public class PortalDiffService {
                              NotificationConfigService notificationConfigService,
                              ObjectMapper objectMapper,
                              PortalEnvironmentChangeRecordDao portalEnvironmentChangeRecordDao,
-                             StudyEnvironmentService studyEnvironmentService, StudyService studyService) {
+                             StudyEnvironmentService studyEnvironmentService, StudyService studyService,
+                             Environment env, ObjectProvider<TaskDecorator> taskDecorator) {
         this.portalEnvService = portalEnvService;
         this.portalEnvironmentConfigService = portalEnvironmentConfigService;
         this.siteContentService = siteContentService;
@@ -59,6 +97,16 @@ public class PortalDiffService {
         this.portalEnvironmentChangeRecordDao = portalEnvironmentChangeRecordDao;
         this.studyEnvironmentService = studyEnvironmentService;
         this.studyService = studyService;
+        // e.g. to carry the request's trace onto the diff threads
+        this.taskDecorator = taskDecorator.getIfUnique(() -> runnable -> runnable);
+        int diffThreads = env.getProperty(DIFF_THREADS_VAR, Integer.class, 4);
+        if (diffThreads > 1) {
+            this.diffExecutor = new ThreadPoolExecutor(diffThreads, diffThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new CustomizableThreadFactory("portal-diff-"));
+            this.diffExecutor.allowCoreThreadTimeOut(true);
+        } else {
+            this.diffExecutor = null;
+        }
     }
 
     public PortalEnvironmentChange diffPortalEnvs(String shortcode, EnvironmentName source, EnvironmentName dest) throws Exception {
@@ -76,12 +124,8 @@ public class PortalDiffService {
                 destEnv.getNotificationConfigs(),
                 CONFIG_IGNORE_PROPS);
 
-        List<StudyEnvironmentChange> studyEnvChanges = new ArrayList<>();
         List<Study> studies = studyService.findByPortalId(sourceEnv.getPortalId());
-        for (Study study : studies) {
-            StudyEnvironmentChange studyEnvChange = diffStudyEnvs(study.getShortcode(), sourceEnv.getEnvironmentName(), destEnv.getEnvironmentName());
-            studyEnvChanges.add(studyEnvChange);
-        }
+        List<StudyEnvironmentChange> studyEnvChanges = diffStudyEnvs(studies, sourceEnv, destEnv);
 
         return new PortalEnvironmentChange(
                 siteContentRecord,
@@ -102,10 +146,10 @@ public class PortalDiffService {
             portalEnv.setSiteContent(siteContentService.find(portalEnv.getSiteContentId()).get());
         }
         if (portalEnv.getPreRegSurveyId() != null) {
-            portalEnv.setPreRegSurvey(surveyService.find(portalEnv.getPreRegSurveyId()).get());
+            portalEnv.setPreRegSurvey(surveyService.findAllNoContent(List.of(portalEnv.getPreRegSurveyId())).get(0));
         }
         var notificationConfigs = notificationConfigService.findByPortalEnvironmentId(portalEnv.getId());
-        notificationConfigService.attachTemplates(notificationConfigs);
+        notificationConfigService.attachTemplatesNoContent(notificationConfigs);
         portalEnv.setNotificationConfigs(notificationConfigs);
 
         return portalEnv;
@@ -154,6 +198,78 @@ public class PortalDiffService {
         return Objects.equals(configA.versionedEntity().getStableId(), configB.versionedEntity().getStableId());
     }
 
+    /**
+     * diffs the portal environments' study environments, in the order of the given studies.  Studies whose
+     * fingerprints match get an empty change without being loaded
+     */
+    protected List<StudyEnvironmentChange> diffStudyEnvs(List<Study> studies, PortalEnvironment sourceEnv,
+                                                         PortalEnvironment destEnv) throws Exception {
+        if (studies.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, PublishingFingerprint> sourceFingerprints = findFingerprints(sourceEnv);
+        Map<String, PublishingFingerprint> destFingerprints = findFingerprints(destEnv);
+        List<Future<StudyEnvironmentChange>> studyEnvDiffs = new ArrayList<>();
+        for (Study study : studies) {
+            String shortcode = study.getShortcode();
+            PublishingFingerprint sourceFingerprint = sourceFingerprints.get(shortcode);
+            if (isFingerprintMatch(sourceFingerprint, destFingerprints.get(shortcode))) {
+                studyEnvDiffs.add(CompletableFuture.completedFuture(unchangedStudyEnv(shortcode, sourceFingerprint)));
+            } else {
+                studyEnvDiffs.add(submitDiff(() ->
+                        diffStudyEnvs(shortcode, sourceEnv.getEnvironmentName(), destEnv.getEnvironmentName())));
+            }
+        }
+        List<StudyEnvironmentChange> studyEnvChanges = new ArrayList<>();
+        for (Future<StudyEnvironmentChange> studyEnvDiff : studyEnvDiffs) {
+            try {
+                studyEnvChanges.add(studyEnvDiff.get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        return studyEnvChanges;
+    }
+
+    protected Map<String, PublishingFingerprint> findFingerprints(PortalEnvironment portalEnv) {
+        return studyEnvironmentService.findPublishingFingerprints(portalEnv.getPortalId(),
+                        portalEnv.getEnvironmentName(), FINGERPRINT_IGNORE_COLUMNS)
+                .stream().collect(Collectors.toMap(PublishingFingerprint::getStudyShortcode, Function.identity()));
+    }
+
+    protected static boolean isFingerprintMatch(PublishingFingerprint source, PublishingFingerprint dest) {
+        if (source == null || dest == null) {
+            return false;
+        }
+        return Objects.equals(source.getFingerprint(), dest.getFingerprint())
+                && Objects.equals(source.getPreEnrollStableId(), dest.getPreEnrollStableId())
+                && Objects.equals(source.getPreEnrollVersion(), dest.getPreEnrollVersion());
+    }
+
+    protected static StudyEnvironmentChange unchangedStudyEnv(String studyShortcode, PublishingFingerprint fingerprint) {
+        return new StudyEnvironmentChange(
+                studyShortcode,
+                new ArrayList<>(),
+                new VersionedEntityChange<>(fingerprint.getPreEnrollStableId(), fingerprint.getPreEnrollVersion(),
+                        fingerprint.getPreEnrollStableId(), fingerprint.getPreEnrollVersion()),
+                new ListChange<>(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()),
+                new ListChange<>(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()),
+                new ListChange<>(new ArrayList<>(), new ArrayList<>(), new ArrayList<>())
+        );
+    }
+
+    /** runs the diff on the diff executor, or right away if diffs are serial or there's a transaction */
+    protected Future<StudyEnvironmentChange> submitDiff(Callable<StudyEnvironmentChange> diff) throws Exception {
+        if (diffExecutor == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return CompletableFuture.completedFuture(diff.call());
+        }
+        // so the diff's connections come from the same pool the caller's would
+        DbWorkload workload = DbWorkload.current();
+        FutureTask<StudyEnvironmentChange> task = new FutureTask<>(() -> workload.call(diff::call));
+        diffExecutor.execute(taskDecorator.decorate(task));
+        return task;
+    }
+
     public StudyEnvironmentChange diffStudyEnvs(String studyShortcode, EnvironmentName source, EnvironmentName dest) throws Exception {
         StudyEnvironment sourceEnv = loadStudyEnvForProcessing(studyShortcode, source);
         StudyEnvironment destEnv = loadStudyEnvForProcessing(studyShortcode, dest);
@@ -191,8 +307,14 @@ public class PortalDiffService {
 
     public StudyEnvironment loadStudyEnvForProcessing(String shortcode, EnvironmentName envName) {
         StudyEnvironment studyEnvironment = studyEnvironmentService.findByStudy(shortcode, envName).get();
-        return studyEnvironmentService.loadWithAllContent(studyEnvironment);
+        return studyEnvironmentService.loadWithConfigsNoContent(studyEnvironment);
     }
 
+    @Override
+    public void destroy() {
+        if (diffExecutor != null) {
+            diffExecutor.shutdownNow();
+        }
+    }
 
 }
@@ -5,7 +5,11 @@ import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.participant.ProfileService;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
@@ -26,18 +30,16 @@ public class EnrolleeRuleService {
     }
 
     /**
-     * useful for bulk-fetching enrollees for processing
-     * this isn't terribly optimized -- we could do the join in the DB.  But this is assuming that the number of enrollees
-     *  is ~5-30, not 1000+, and so the main goal is just making sure we only do 2 total DB roundtrips
+     * useful for bulk-fetching enrollees for processing, in 2 total DB roundtrips.  Profiles are matched up by id, so
+     * this is fine for the chunks of a few hundred enrollees that bulk operations work in
      */
     public List<EnrolleeRuleData> fetchData(List<UUID> enrolleeIds) {
         List<Enrollee> enrollees = enrolleeService.findAll(enrolleeIds);
-        List<Profile> profiles = profileService.findAll(enrollees.stream().map(Enrollee::getProfileId).toList());
-        List<EnrolleeRuleData> ruleData = enrollees.stream().map(enrollee -> {
-            Profile profile = profiles.stream().filter(p ->
-                    p.getId().equals(enrollee.getProfileId())).findFirst().orElse(null);
-            return new EnrolleeRuleData(enrollee, profile);
-        }).toList();
-        return ruleData;
+        Map<UUID, Profile> profilesById = profileService
+                .findAll(enrollees.stream().map(Enrollee::getProfileId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(Profile::getId, Function.identity()));
+        return enrollees.stream()
+                .map(enrollee -> new EnrolleeRuleData(enrollee, profilesById.get(enrollee.getProfileId())))
+                .toList();
     }
 }
@@ -1,26 +1,42 @@
 package bio.terra.pearl.core.service.site;
 
+import bio.terra.pearl.core.dao.CascadeDeleteDao;
+import bio.terra.pearl.core.dao.CascadeDeleteNode;
 import bio.terra.pearl.core.dao.site.SiteContentDao;
 import bio.terra.pearl.core.model.site.*;
 
 import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.CascadeTree;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.VersionedEntityService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class SiteContentService extends VersionedEntityService<SiteContent, SiteContentDao> {
+    /**
+     * everything owned by a site content.  Landing page ids are cleared first since they point back down into the
+     * pages, and footer sections are owned by reference from the localized site.
+     */
+    protected static final CascadeDeleteNode DELETE_CASCADE = CascadeDeleteNode.of("site_content", "id",
+            CascadeDeleteNode.of("localized_site_content", "site_content_id",
+                    CascadeDeleteNode.of("navbar_item", "localized_site_content_id"),
+                    CascadeDeleteNode.of("html_page", "localized_site_content_id",
+                            CascadeDeleteNode.of("html_section", "html_page_id")))
+                    .clearing("landing_page_id")
+                    .owning("footer_section_id", CascadeDeleteNode.of("html_section", "id")));
     private LocalizedSiteContentService localizedSiteContentService;
+    private CascadeDeleteDao cascadeDeleteDao;
 
-    public SiteContentService(SiteContentDao dao, LocalizedSiteContentService localizedSiteContentService) {
+    public SiteContentService(SiteContentDao dao, LocalizedSiteContentService localizedSiteContentService,
+                              CascadeDeleteDao cascadeDeleteDao) {
         super(dao);
         this.localizedSiteContentService = localizedSiteContentService;
+        this.cascadeDeleteDao = cascadeDeleteDao;
     }
 
     /** attaches all the content (pages, sections, navbar) children for the given language to the SiteContent */
@@ -53,20 +69,15 @@ public class SiteContentService extends VersionedEntityService<SiteContent, Site
         return create(siteContent);
     }
 
+    @Transactional
     @Override
     public void delete(UUID siteContentId,  Set<CascadeProperty> cascade) {
-        List<LocalizedSiteContent> localSites = localizedSiteContentService.findBySiteContent(siteContentId);
-        for (LocalizedSiteContent localSite : localSites) {
-            localizedSiteContentService.delete(localSite.getId(), cascade);
-        }
-        dao.delete(siteContentId);
+        cascadeDeleteDao.delete(DELETE_CASCADE, siteContentId, CascadeTree.fromSet(cascade));
     }
 
+    @Transactional
     public void deleteByPortalId(UUID portalId) {
-        List<SiteContent> siteContents = dao.findByPortalId(portalId);
-        for (SiteContent siteContent : siteContents) {
-            delete(siteContent.getId(), CascadeProperty.EMPTY_SET);
-        }
+        cascadeDeleteDao.delete(DELETE_CASCADE.keyedBy("portal_id"), portalId, CascadeTree.NONE);
     }
 
     /** strip out all ids so fresh copies of everything will be made in the DB */
@@ -1,5 +1,7 @@
 package bio.terra.pearl.core.service.study;
 
+import bio.terra.pearl.core.dao.dataimport.DataImportDao;
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentConsentDao;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentDao;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentSurveyDao;
@@ -37,6 +39,8 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
     private WithdrawnEnrolleeService withdrawnEnrolleeService;
     private AdminTaskService adminTaskService;
     private StudyEnvironmentKitTypeService studyEnvironmentKitTypeService;
+    private MetricsDao metricsDao;
+    private DataImportDao dataImportDao;
 
 
     public StudyEnvironmentService(StudyEnvironmentDao studyEnvironmentDao,
@@ -49,7 +53,8 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
                                    DatasetService datasetService,
                                    DataRepoJobService dataRepoJobService,
                                    WithdrawnEnrolleeService withdrawnEnrolleeService,
-                                   AdminTaskService adminTaskService, StudyEnvironmentKitTypeService studyEnvironmentKitTypeService) {
+                                   AdminTaskService adminTaskService, StudyEnvironmentKitTypeService studyEnvironmentKitTypeService,
+                                   MetricsDao metricsDao, DataImportDao dataImportDao) {
         super(studyEnvironmentDao);
         this.studyEnvironmentSurveyDao = studyEnvironmentSurveyDao;
         this.studyEnvironmentConfigService =  studyEnvironmentConfigService;
@@ -62,6 +67,8 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
         this.withdrawnEnrolleeService = withdrawnEnrolleeService;
         this.adminTaskService = adminTaskService;
         this.studyEnvironmentKitTypeService = studyEnvironmentKitTypeService;
+        this.metricsDao = metricsDao;
+        this.dataImportDao = dataImportDao;
     }
 
     public List<StudyEnvironment> findByStudy(UUID studyId) {
@@ -76,6 +83,16 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
         return dao.loadWithAllContent(studyEnvironment);
     }
 
+    public StudyEnvironment loadWithConfigsNoContent(StudyEnvironment studyEnvironment) {
+        return dao.loadWithConfigsNoContent(studyEnvironment);
+    }
+
+    public List<StudyEnvironmentDao.PublishingFingerprint> findPublishingFingerprints(UUID portalId,
+                                                                                       EnvironmentName envName,
+                                                                                       List<String> ignoreColumns) {
+        return dao.findPublishingFingerprints(portalId, envName, ignoreColumns);
+    }
+
     @Transactional
     @Override
     public StudyEnvironment create(StudyEnvironment studyEnv) {
@@ -115,6 +132,8 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
         withdrawnEnrolleeService.deleteByStudyEnvironmentId(studyEnvironmentId);
         adminTaskService.deleteByStudyEnvironmentId(studyEnvironmentId, null);
         studyEnvironmentKitTypeService.deleteByStudyEnvironmentId(studyEnvironmentId, cascade);
+        metricsDao.deleteRollupsByStudyEnvironmentId(studyEnvironmentId);
+        dataImportDao.deleteByStudyEnvironmentId(studyEnvironmentId);
         dao.delete(studyEnvironmentId);
         if (studyEnv.getStudyEnvironmentConfigId() != null) {
             studyEnvironmentConfigService.delete(studyEnv.getStudyEnvironmentConfigId());
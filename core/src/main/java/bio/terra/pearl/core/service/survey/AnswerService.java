@@ -3,6 +3,7 @@ package bio.terra.pearl.core.service.survey;
 import bio.terra.pearl.core.dao.survey.AnswerDao;
 import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.service.CrudService;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,4 +34,8 @@ public class AnswerService extends CrudService<Answer, AnswerDao> {
     public void deleteByResponseId(UUID responseId) {
         dao.deleteByResponseId(responseId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
 }
@@ -0,0 +1,178 @@
+package bio.terra.pearl.core.service.survey;
+
+import bio.terra.pearl.core.config.DbWorkload;
+import bio.terra.pearl.core.model.notification.NotificationConfig;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.PortalParticipantUser;
+import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.service.BulkOperationExecutor;
+import bio.terra.pearl.core.service.BulkOperationProgress;
+import bio.terra.pearl.core.service.TransactionHandler;
+import bio.terra.pearl.core.service.notification.NotificationDispatcher;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import bio.terra.pearl.core.service.participant.PortalParticipantUserService;
+import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
+import bio.terra.pearl.core.service.rule.EnrolleeRuleService;
+import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Assigns a survey to the enrollees already in a study environment.  Normally a survey is only assigned when an
+ * enrollee has an EnrolleeEvent (see SurveyTaskDispatcher), so a survey added to a live study would otherwise not
+ * reach most of the existing cohort until they next do something.
+ *
+ * Enrollees are processed in chunks of ASSIGNMENT_CHUNK_SIZE, each in its own transaction.  A chunk's rule data,
+ * existing tasks, and portal participant users are loaded with a fixed number of queries, the survey's eligibility
+ * rule and duplicate checks are the same ones SurveyTaskDispatcher applies, and the new tasks are written with a
+ * single insert.  Re-running an assignment is safe: enrollees who already have the task are skipped.
+ */
+@Service
+@Slf4j
+public class SurveyAssignmentService {
+    /** how many enrollees are evaluated and assigned per transaction */
+    public static final int ASSIGNMENT_CHUNK_SIZE = 500;
+    private final EnrolleeService enrolleeService;
+    private final EnrolleeRuleService enrolleeRuleService;
+    private final PortalParticipantUserService portalParticipantUserService;
+    private final ParticipantTaskService participantTaskService;
+    private final SurveyService surveyService;
+    private final SurveyTaskDispatcher surveyTaskDispatcher;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TransactionHandler transactionHandler;
+    private final BulkOperationExecutor bulkOperationExecutor;
+
+    public SurveyAssignmentService(EnrolleeService enrolleeService, EnrolleeRuleService enrolleeRuleService,
+                                   PortalParticipantUserService portalParticipantUserService,
+                                   ParticipantTaskService participantTaskService, SurveyService surveyService,
+                                   SurveyTaskDispatcher surveyTaskDispatcher,
+                                   NotificationDispatcher notificationDispatcher,
+                                   TransactionHandler transactionHandler,
+                                   BulkOperationExecutor bulkOperationExecutor) {
+        this.enrolleeService = enrolleeService;
+        this.enrolleeRuleService = enrolleeRuleService;
+        this.portalParticipantUserService = portalParticipantUserService;
+        this.participantTaskService = participantTaskService;
+        this.surveyService = surveyService;
+        this.surveyTaskDispatcher = surveyTaskDispatcher;
+        this.notificationDispatcher = notificationDispatcher;
+        this.transactionHandler = transactionHandler;
+        this.bulkOperationExecutor = bulkOperationExecutor;
+    }
+
+    /** enrolleesChecked is every enrollee in the environment; tasksCreated counts only the newly assigned ones */
+    public record AssignmentResult(int enrolleesChecked, int tasksCreated) {}
+
+    /**
+     * Assigns the configured survey to every eligible enrollee of its study environment who doesn't already have it.
+     * notificationConfig is optional -- if given, it's sent to each enrollee the survey was assigned to, after their
+     * chunk commits.  progressListener is optional, and is called after each chunk.
+     */
+    public AssignmentResult assignToExistingEnrollees(StudyEnvironmentSurvey studyEnvSurvey, UUID portalEnvironmentId,
+                                                      NotificationConfig notificationConfig,
+                                                      Consumer<BulkOperationProgress> progressListener) {
+        prepareAssignment(studyEnvSurvey);
+        return DbWorkload.BATCH.call(() ->
+                assignInChunks(studyEnvSurvey, portalEnvironmentId, notificationConfig, progressListener));
+    }
+
+    /**
+     * As assignToExistingEnrollees, but queued on the BulkOperationExecutor, so that a large cohort doesn't tie up the
+     * caller.  The survey is checked before this returns; the returned status' id, with the configured survey's id
+     * as scope, can then be used to follow the assignment's progress, and get its AssignmentResult once it's done.
+     */
+    public BulkOperationExecutor.BulkOperationStatus startAssignmentToExistingEnrollees(
+            StudyEnvironmentSurvey studyEnvSurvey, UUID portalEnvironmentId, NotificationConfig notificationConfig) {
+        prepareAssignment(studyEnvSurvey);
+        return bulkOperationExecutor.submit("survey assignment", studyEnvSurvey.getId(), progressListener ->
+                assignInChunks(studyEnvSurvey, portalEnvironmentId, notificationConfig, progressListener));
+    }
+
+    /** the status of an assignment started by startAssignmentToExistingEnrollees for the configured survey */
+    public Optional<BulkOperationExecutor.BulkOperationStatus> findAssignmentStatus(UUID studyEnvSurveyId,
+                                                                                   UUID operationId) {
+        return bulkOperationExecutor.findStatus(operationId, studyEnvSurveyId);
+    }
+
+    protected void prepareAssignment(StudyEnvironmentSurvey studyEnvSurvey) {
+        if (!studyEnvSurvey.isActive()) {
+            throw new IllegalArgumentException("Only active surveys can be assigned");
+        }
+        if (studyEnvSurvey.getSurvey() == null) {
+            studyEnvSurvey.setSurvey(surveyService.find(studyEnvSurvey.getSurveyId()).orElseThrow());
+        }
+    }
+
+    protected AssignmentResult assignInChunks(StudyEnvironmentSurvey studyEnvSurvey, UUID portalEnvironmentId,
+                                              NotificationConfig notificationConfig,
+                                              Consumer<BulkOperationProgress> progressListener) {
+        List<UUID> enrolleeIds = enrolleeService.findIdsByStudyEnvironment(studyEnvSurvey.getStudyEnvironmentId());
+        String stableId = studyEnvSurvey.getSurvey().getStableId();
+        int processed = 0;
+        int tasksCreated = 0;
+        for (List<UUID> chunk : ListUtils.partition(enrolleeIds, ASSIGNMENT_CHUNK_SIZE)) {
+            tasksCreated += transactionHandler.runInTransaction(() ->
+                    assignChunk(studyEnvSurvey, portalEnvironmentId, notificationConfig, chunk));
+            processed += chunk.size();
+            BulkOperationProgress progress = new BulkOperationProgress("survey assignment", processed,
+                    enrolleeIds.size());
+            log.info("Survey assignment of {}: {} of {} enrollees processed, {} tasks created ({}%)",
+                    stableId, processed, enrolleeIds.size(), tasksCreated, progress.percentComplete());
+            if (progressListener != null) {
+                progressListener.accept(progress);
+            }
+        }
+        return new AssignmentResult(enrolleeIds.size(), tasksCreated);
+    }
+
+    /** evaluates and assigns one chunk of enrollees, returning the number of tasks created */
+    protected int assignChunk(StudyEnvironmentSurvey studyEnvSurvey, UUID portalEnvironmentId,
+                              NotificationConfig notificationConfig, List<UUID> enrolleeIds) {
+        // so a concurrent assignment of the same survey waits for this chunk, and then sees its tasks
+        participantTaskService.lockTargetForStudyEnvironment(studyEnvSurvey.getStudyEnvironmentId(),
+                studyEnvSurvey.getSurvey().getStableId());
+        List<EnrolleeRuleData> ruleData = enrolleeRuleService.fetchData(enrolleeIds);
+        Map<UUID, Set<ParticipantTask>> tasksByEnrolleeId = participantTaskService.findByEnrolleeIds(enrolleeIds);
+        Map<UUID, PortalParticipantUser> ppUsersByUserId = portalParticipantUserService
+                .findByParticipantUserIds(ruleData.stream()
+                        .map(enrolleeRuleData -> enrolleeRuleData.enrollee().getParticipantUserId())
+                        .distinct().toList(), portalEnvironmentId)
+                .stream().collect(Collectors.toMap(PortalParticipantUser::getParticipantUserId, Function.identity()));
+
+        List<ParticipantTask> tasks = new ArrayList<>();
+        List<EnrolleeRuleData> assignedRuleData = new ArrayList<>();
+        for (EnrolleeRuleData enrolleeRuleData : ruleData) {
+            Enrollee enrollee = enrolleeRuleData.enrollee();
+            PortalParticipantUser ppUser = ppUsersByUserId.get(enrollee.getParticipantUserId());
+            if (ppUser == null) {
+                log.warn("Enrollee {} has no portal participant user in portal environment {}, skipping",
+                        enrollee.getShortcode(), portalEnvironmentId);
+                continue;
+            }
+            enrollee.getParticipantTasks().addAll(tasksByEnrolleeId.getOrDefault(enrollee.getId(), Set.of()));
+            List<ParticipantTask> enrolleeTasks = surveyTaskDispatcher.buildTasks(enrollee, ppUser, enrolleeRuleData,
+                    List.of(studyEnvSurvey));
+            if (!enrolleeTasks.isEmpty()) {
+                tasks.addAll(enrolleeTasks);
+                assignedRuleData.add(enrolleeRuleData);
+            }
+        }
+        participantTaskService.createAll(tasks);
+        if (notificationConfig != null) {
+            notificationDispatcher.dispatchNotificationsAsync(notificationConfig, assignedRuleData,
+                    portalEnvironmentId);
+        }
+        return tasks.size();
+    }
+}
@@ -251,6 +251,13 @@ public class SurveyResponseService extends ImmutableEntityService<SurveyResponse
         dao.delete(responseId);
     }
 
+    /** deletes all responses (and their answers) for the given enrollees */
+    @Transactional
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        answerService.deleteByEnrolleeIds(enrolleeIds);
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
+
     public void validateResponse(Survey survey, ParticipantTask task, List<Answer> answers) {
         if (!survey.getStableId().equals(task.getTargetStableId())) {
             throw new IllegalArgumentException("submitted form does not match assigned task");
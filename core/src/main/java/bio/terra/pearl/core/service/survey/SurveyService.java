@@ -1,5 +1,7 @@
 package bio.terra.pearl.core.service.survey;
 
+import bio.terra.pearl.core.dao.CascadeDeleteDao;
+import bio.terra.pearl.core.dao.CascadeDeleteNode;
 import bio.terra.pearl.core.dao.survey.AnswerMappingDao;
 import bio.terra.pearl.core.dao.survey.SurveyDao;
 import bio.terra.pearl.core.dao.survey.SurveyQuestionDefinitionDao;
@@ -8,6 +10,7 @@ import bio.terra.pearl.core.model.survey.AnswerMapping;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
 import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.CascadeTree;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.VersionedEntityService;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -24,13 +27,19 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class SurveyService extends VersionedEntityService<Survey, SurveyDao> {
+    protected static final CascadeDeleteNode DELETE_CASCADE = CascadeDeleteNode.of("survey", "id",
+            CascadeDeleteNode.of("answer_mapping", "survey_id"),
+            CascadeDeleteNode.of("survey_question_definition", "survey_id"));
     private AnswerMappingDao answerMappingDao;
     private SurveyQuestionDefinitionDao surveyQuestionDefinitionDao;
+    private CascadeDeleteDao cascadeDeleteDao;
 
-    public SurveyService(SurveyDao surveyDao, AnswerMappingDao answerMappingDao, SurveyQuestionDefinitionDao surveyQuestionDefinitionDao) {
+    public SurveyService(SurveyDao surveyDao, AnswerMappingDao answerMappingDao,
+                         SurveyQuestionDefinitionDao surveyQuestionDefinitionDao, CascadeDeleteDao cascadeDeleteDao) {
         super(surveyDao);
         this.answerMappingDao = answerMappingDao;
         this.surveyQuestionDefinitionDao = surveyQuestionDefinitionDao;
+        this.cascadeDeleteDao = cascadeDeleteDao;
     }
 
     public List<Survey> findByStableIdNoContent(String stableId) {
@@ -150,10 +159,7 @@ public class SurveyService extends VersionedEntityService<Survey, SurveyDao> {
 
     @Transactional
     public void deleteByPortalId(UUID portalId) {
-        List<Survey> surveys = dao.findByPortalId(portalId);
-        for (Survey survey : surveys) {
-            delete(survey.getId(), new HashSet<>());
-        }
+        cascadeDeleteDao.delete(DELETE_CASCADE.keyedBy("portal_id"), portalId, CascadeTree.NONE);
     }
 
     /**
@@ -17,8 +17,11 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
@@ -48,12 +51,32 @@ public class SurveyTaskDispatcher {
                 enrolleeEvent.getPortalParticipantUser(),
                 enrolleeEvent.getEnrolleeRuleData(),
                 studyEnvSurveys);
+        if (!tasksToAdd.isEmpty()) {
+            tasksToAdd = recheckUnderLock(enrolleeEvent, studyEnvSurveys, tasksToAdd);
+        }
         for (ParticipantTask task : tasksToAdd) {
             logger.info("Task creation: enrollee {}  -- task {}, target {}", enrolleeEvent.getEnrollee().getShortcode(),
                     task.getTaskType(), task.getTargetStableId());
-            task = participantTaskService.create(task);
-            enrolleeEvent.getEnrollee().getParticipantTasks().add(task);
         }
+        // one insert for all the tasks, rather than a round trip each
+        enrolleeEvent.getEnrollee().getParticipantTasks().addAll(participantTaskService.createAll(tasksToAdd));
+    }
+
+    /**
+     * a bulk assignment (see SurveyAssignmentService) may be creating the same tasks for this enrollee concurrently, so
+     * take the locks it takes, in a consistent order, and then rebuild the tasks against the enrollee's tasks as they
+     * are now.  Only done when there are tasks to add, so events that assign nothing don't lock anything.
+     */
+    protected List<ParticipantTask> recheckUnderLock(EnrolleeEvent enrolleeEvent,
+                                                     List<StudyEnvironmentSurvey> studyEnvSurveys,
+                                                     List<ParticipantTask> tasksToAdd) {
+        Enrollee enrollee = enrolleeEvent.getEnrollee();
+        tasksToAdd.stream().map(ParticipantTask::getTargetStableId).distinct().sorted()
+                .forEach(stableId -> participantTaskService
+                        .lockTargetForStudyEnvironment(enrollee.getStudyEnvironmentId(), stableId));
+        enrollee.getParticipantTasks().addAll(participantTaskService.findByEnrolleeId(enrollee.getId()));
+        return buildTasks(enrollee, enrolleeEvent.getPortalParticipantUser(), enrolleeEvent.getEnrolleeRuleData(),
+                studyEnvSurveys);
     }
 
     /** builds the consent tasks, does not add them to the event or persist them */
@@ -62,10 +85,13 @@ public class SurveyTaskDispatcher {
                                             EnrolleeRuleData enrolleeRuleData,
                                             List<StudyEnvironmentSurvey> studyEnvSurveys) {
         List<ParticipantTask> tasks = new ArrayList<>();
+        Map<String, List<ParticipantTask>> existingTasksByStableId = groupByStableId(enrollee.getParticipantTasks());
         for (StudyEnvironmentSurvey studySurvey : studyEnvSurveys) {
             if (isEligibleForSurvey(studySurvey.getEligibilityRule(), enrolleeRuleData)) {
                 ParticipantTask task = buildTask(studySurvey, enrollee, portalParticipantUser);
-                if (!isDuplicateTask(studySurvey, task, enrollee.getParticipantTasks())) {
+                List<ParticipantTask> sameSurveyTasks = existingTasksByStableId
+                        .getOrDefault(task.getTargetStableId(), List.of());
+                if (!isDuplicateTask(studySurvey, task, sameSurveyTasks)) {
                     tasks.add(task);
                 }
             }
@@ -102,7 +128,7 @@ public class SurveyTaskDispatcher {
      * survey must allow recurrence.
      */
     public static boolean isDuplicateTask(StudyEnvironmentSurvey studySurvey, ParticipantTask task,
-                                   Set<ParticipantTask> allTasks) {
+                                   Collection<ParticipantTask> allTasks) {
         return !allTasks.stream().filter(existingTask ->
                 existingTask.getTargetStableId().equals(task.getTargetStableId()) &&
                         !isRecurrenceWindowOpen(studySurvey, existingTask))
@@ -111,6 +137,16 @@ public class SurveyTaskDispatcher {
 
 
 
+    /**
+     * an enrollee's tasks by their target stableId, so duplicate checks only look at tasks for the same survey rather
+     * than scanning every task for every configured survey
+     */
+    public static Map<String, List<ParticipantTask>> groupByStableId(Set<ParticipantTask> tasks) {
+        return tasks.stream()
+                .filter(task -> task.getTargetStableId() != null)
+                .collect(Collectors.groupingBy(ParticipantTask::getTargetStableId));
+    }
+
     /**
      * whether or not sufficient time has passed since a previous instance of a survey being assigned to assign
      * a new one
@@ -0,0 +1,131 @@
+package bio.terra.pearl.core.service.workflow;
+
+import bio.terra.pearl.core.config.BlockingSubmitPolicy;
+import bio.terra.pearl.core.config.DbWorkload;
+import bio.terra.pearl.core.service.TransactionHandler;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs the parts of event handling that the participant's response doesn't depend on -- notifications now, webhooks
+ * later -- after the publishing transaction commits, on background threads.  So a slow email config neither delays
+ * the participant's submit nor holds the transaction's locks while it runs.  Listeners whose results go into the
+ * HubResponse (task creation, consent status) stay ordinary in-transaction listeners.
+ *
+ * Work for the same enrollee always goes to the same lane -- a single thread with its own queue -- so it runs in the
+ * order it was submitted.  Each lane's queue is bounded: when it's full, submitters wait for room, since running the
+ * work anywhere else could put it ahead of the enrollee's work already queued.  A backlog slows submitters down
+ * rather than growing without limit or dropping work.  If the publishing transaction rolls back, its work never runs.
+ *
+ * With env.events.asyncAfterCommit off (the default outside the deployed APIs, including tests), work runs inline
+ * when submitted, inside the publishing transaction.
+ */
+@Component
+@Slf4j
+public class EnrolleeEventExecutor implements DisposableBean {
+    public static final String ASYNC_AFTER_COMMIT_VAR = "env.events.asyncAfterCommit";
+    public static final String WORKER_THREADS_VAR = "env.events.workerThreads";
+    public static final String QUEUE_CAPACITY_VAR = "env.events.queueCapacity";
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private final TransactionHandler transactionHandler;
+    private final TaskDecorator taskDecorator;
+    private final boolean async;
+    private final List<ThreadPoolExecutor> lanes;
+
+    public EnrolleeEventExecutor(Environment env, TransactionHandler transactionHandler,
+                                 ObjectProvider<TaskDecorator> taskDecorator) {
+        this.transactionHandler = transactionHandler;
+        // e.g. to carry the request's trace into the lane
+        this.taskDecorator = taskDecorator.getIfUnique(() -> runnable -> runnable);
+        this.async = env.getProperty(ASYNC_AFTER_COMMIT_VAR, Boolean.class, false);
+        int workerThreads = env.getProperty(WORKER_THREADS_VAR, Integer.class, 4);
+        int queueCapacity = env.getProperty(QUEUE_CAPACITY_VAR, Integer.class, 250);
+        this.lanes = !async ? List.of() : IntStream.range(0, workerThreads)
+                .mapToObj(i -> newLane(i, queueCapacity))
+                .toList();
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /** runs the work once the current transaction commits, or right away if there isn't one */
+    public void runAfterCommit(UUID enrolleeId, Runnable work) {
+        if (!async) {
+            work.run();
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(enrolleeId, work);
+                }
+            });
+        } else {
+            submit(enrolleeId, work);
+        }
+    }
+
+    protected void submit(UUID enrolleeId, Runnable work) {
+        ThreadPoolExecutor lane = lanes.get(Math.floorMod(enrolleeId.hashCode(), lanes.size()));
+        Runnable task = taskDecorator.decorate(() -> runLogged(enrolleeId, work));
+        try {
+            // when the lane's queue is full, this waits for room -- see BlockingSubmitPolicy
+            lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            // only when shutting down or interrupted, so this may run ahead of the enrollee's work still in the lane
+            log.warn("Event lane unavailable, running event work for enrollee {} on the submitting thread",
+                    enrolleeId);
+            // this may be inside the committed transaction's afterCommit, where any writes would join a transaction
+            // that will never commit, so it needs a transaction of its own
+            transactionHandler.runInNewTransaction(() -> {
+                task.run();
+                return null;
+            });
+        }
+    }
+
+    /** a failure is logged, rather than killing the lane's thread or stopping the enrollee's later work */
+    protected void runLogged(UUID enrolleeId, Runnable work) {
+        try {
+            DbWorkload.BATCH.run(work);
+        } catch (Exception e) {
+            log.error("Event processing failed for enrollee {}", enrolleeId, e);
+        }
+    }
+
+    protected ThreadPoolExecutor newLane(int index, int queueCapacity) {
+        ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("enrollee-event-%d-".formatted(index)), new BlockingSubmitPolicy());
+        lane.prestartAllCoreThreads();
+        return lane;
+    }
+
+    /** lets queued work finish on shutdown, so that notifications for already-committed events aren't lost */
+    @Override
+    public void destroy() throws InterruptedException {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Event work still queued at shutdown: {} tasks", lane.getQueue().size());
+            }
+        }
+    }
+}
@@ -2,11 +2,17 @@ package bio.terra.pearl.core.service.workflow;
 
 import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.CrudService;
 import bio.terra.pearl.core.service.admin.AdminUserService;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,16 +23,30 @@ import org.springframework.transaction.annotation.Transactional;
 public class ParticipantTaskService extends CrudService<ParticipantTask, ParticipantTaskDao> {
     private static final Logger logger = LoggerFactory.getLogger(AdminUserService.class);
 
-    public ParticipantTaskService(ParticipantTaskDao dao) {
+    private final EnrolleeKitSummaryService enrolleeKitSummaryService;
+
+    public ParticipantTaskService(ParticipantTaskDao dao, EnrolleeKitSummaryService enrolleeKitSummaryService) {
         super(dao);
+        this.enrolleeKitSummaryService = enrolleeKitSummaryService;
     }
 
     public List<ParticipantTask> findByEnrolleeId(UUID enrolleeId) {
         return dao.findByEnrolleeId(enrolleeId);
     }
 
+    public Map<UUID, Set<ParticipantTask>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return dao.findByEnrolleeIds(enrolleeIds);
+    }
+
+    /** see ParticipantTaskDao.lockTargetForStudyEnvironment -- must be called in a transaction */
+    public void lockTargetForStudyEnvironment(UUID studyEnvironmentId, String targetStableId) {
+        dao.lockTargetForStudyEnvironment(studyEnvironmentId, targetStableId);
+    }
+
     public void deleteByEnrolleeId(UUID enrolleeId) { dao.deleteByEnrolleeId(enrolleeId);}
 
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) { dao.deleteByEnrolleeIds(enrolleeIds);}
+
     public Optional<ParticipantTask> authTaskToPortalParticipantUser(UUID taskId, UUID ppUserId) {
         return dao.findByPortalParticipantUserId(taskId, ppUserId);
     }
@@ -41,15 +61,65 @@ public class ParticipantTaskService extends CrudService<ParticipantTask, Partici
         ParticipantTask savedTask = dao.create(task);
         logger.info("ParticipantTask created - id: {}, targetStableId: {}, enrolleeId: {}",
                 task.getId(), task.getTargetStableId(), task.getEnrolleeId());
+        if (countsTowardKitSummary(savedTask)) {
+            enrolleeKitSummaryService.refresh(savedTask.getEnrolleeId());
+        }
         return savedTask;
     }
 
+    /** creates the tasks with a single insert, returning them with their ids, in the same order */
+    @Transactional
+    @Override
+    public List<ParticipantTask> createAll(List<ParticipantTask> tasks) {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+        List<ParticipantTask> savedTasks = dao.createAll(tasks);
+        for (ParticipantTask task : savedTasks) {
+            logger.info("ParticipantTask created - id: {}, targetStableId: {}, enrolleeId: {}",
+                    task.getId(), task.getTargetStableId(), task.getEnrolleeId());
+        }
+        // the kit summary is per enrollee, so refresh it once however many completed survey tasks they got
+        List<UUID> completedEnrolleeIds = savedTasks.stream()
+                .filter(this::countsTowardKitSummary)
+                .map(ParticipantTask::getEnrolleeId)
+                .distinct()
+                .toList();
+        if (!completedEnrolleeIds.isEmpty()) {
+            enrolleeKitSummaryService.refresh(completedEnrolleeIds);
+        }
+        return savedTasks;
+    }
+
     @Transactional
     @Override
     public ParticipantTask update(ParticipantTask task) {
         if (task.getStatus().isTerminalStatus() && task.getCompletedAt() == null) {
             task.setCompletedAt(Instant.now());
         }
-        return dao.update(task);
+        boolean isSurveyTask = TaskType.SURVEY.equals(task.getTaskType()) && task.getEnrolleeId() != null;
+        ParticipantTask priorTask = isSurveyTask ? dao.find(task.getId()).orElse(null) : null;
+        ParticipantTask updatedTask = dao.update(task);
+        if (isSurveyTask && kitSummaryCountChanged(priorTask, updatedTask)) {
+            enrolleeKitSummaryService.refresh(updatedTask.getEnrolleeId());
+        }
+        return updatedTask;
+    }
+
+    /**
+     * the kit management summary counts an enrollee's completed survey tasks, split by blocksHub, so only those tasks
+     * need it refreshed.  Anything else the summary misses is picked up by its periodic rebuild.
+     */
+    protected boolean countsTowardKitSummary(ParticipantTask task) {
+        return TaskType.SURVEY.equals(task.getTaskType()) && task.getEnrolleeId() != null
+                && TaskStatus.COMPLETE.equals(task.getStatus());
+    }
+
+    protected boolean kitSummaryCountChanged(ParticipantTask priorTask, ParticipantTask updatedTask) {
+        if (priorTask == null) {
+            return countsTowardKitSummary(updatedTask);
+        }
+        return countsTowardKitSummary(priorTask) != countsTowardKitSummary(updatedTask)
+                || (countsTowardKitSummary(updatedTask) && priorTask.isBlocksHub() != updatedTask.isBlocksHub());
     }
 }
@@ -0,0 +1,32 @@
+package bio.terra.pearl.core.config;
+
+import bio.terra.pearl.core.service.BulkOperationExecutor;
+import bio.terra.pearl.core.service.notification.BulkNotificationExecutor;
+import bio.terra.pearl.core.service.workflow.EnrolleeEventExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class DataSourceConfigurationTests {
+    @Test
+    public void testReplicaUrlKeepsDatabaseAndParams() {
+        String primaryUrl = "jdbc:postgresql://127.0.0.1:5432/pearl?sslmode=require&ApplicationName=pearl";
+        assertThat(DataSourceConfiguration.replicaUrl(primaryUrl, "replica.internal"),
+                equalTo("jdbc:postgresql://replica.internal/pearl?sslmode=require&ApplicationName=pearl"));
+    }
+
+    @Test
+    public void testBatchPoolSizedForBatchThreads() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty(EnrolleeEventExecutor.WORKER_THREADS_VAR, "6")
+                .withProperty(BulkNotificationExecutor.WORKER_THREADS_VAR, "3")
+                .withProperty(BulkOperationExecutor.WORKER_THREADS_VAR, "2")
+                .withProperty(DataSourceConfiguration.BATCH_POOL_SIZE_VAR, "");
+        assertThat(DataSourceConfiguration.batchPoolSize(env), equalTo(13));
+
+        env.setProperty(DataSourceConfiguration.BATCH_POOL_SIZE_VAR, "5");
+        assertThat(DataSourceConfiguration.batchPoolSize(env), equalTo(5));
+    }
+}
@@ -0,0 +1,35 @@
+package bio.terra.pearl.core.config;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/** not transactional, since a test transaction would pin every statement to the interactive pool */
+public class WorkloadRoutingDataSourceTests extends BaseSpringBootTest {
+    @Autowired
+    private Jdbi jdbi;
+
+    @Test
+    public void testExportConnectionsAreReadOnly() {
+        assertThat(getReadOnly(), equalTo("off"));
+        assertThat(DbWorkload.EXPORT.call(this::getReadOnly), equalTo("on"));
+        assertThat(DbWorkload.BATCH.call(this::getReadOnly), equalTo("off"));
+    }
+
+    @Test
+    public void testPreviousWorkloadRestored() {
+        DbWorkload.BATCH.run(() -> {
+            assertThat(DbWorkload.EXPORT.call(() -> DbWorkload.current()), equalTo(DbWorkload.EXPORT));
+            assertThat(DbWorkload.current(), equalTo(DbWorkload.BATCH));
+        });
+        assertThat(DbWorkload.current(), equalTo(DbWorkload.INTERACTIVE));
+    }
+
+    private String getReadOnly() {
+        return jdbi.withHandle(handle -> handle.createQuery("show transaction_read_only").mapTo(String.class).one());
+    }
+}
@@ -9,6 +9,7 @@ import bio.terra.pearl.core.model.study.Study;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -72,6 +73,22 @@ public class BaseJdbiDaoTests extends BaseSpringBootTest {
         assertThat(portalDao.findOneByShortcode(portal2.getShortcode()).get().getName(), equalTo(portal2.getName()));
     }
 
+    @Test
+    @Transactional
+    public void testBulkInsertWithCopy() {
+        List<Portal> portals = IntStream.range(0, BaseJdbiDao.BULK_COPY_THRESHOLD)
+                .mapToObj(i -> portalFactory.builder("testBulkInsertWithCopy").build())
+                .toList();
+        // characters that have to be escaped in COPY text format
+        portals.get(0).setName("tab\there\nnewline \\N backslash");
+        portalDao.bulkCreate(portals);
+        assertThat(portalDao.findOneByShortcode(portals.get(0).getShortcode()).get().getName(),
+                equalTo(portals.get(0).getName()));
+        Portal lastPortal = portalDao.findOneByShortcode(portals.get(portals.size() - 1).getShortcode()).get();
+        assertThat(lastPortal.getName(), equalTo(portals.get(portals.size() - 1).getName()));
+        assertThat(lastPortal.getId(), notNullValue());
+    }
+
     @Test
     @Transactional
     public void testBulkInsertFailsIfAnyFail() {
@@ -83,6 +100,21 @@ public class BaseJdbiDaoTests extends BaseSpringBootTest {
         });
     }
 
+    @Test
+    @Transactional
+    public void testBulkInsertWithIdSpecified() {
+        Portal portal1 = portalFactory.builder("testBulkInsertWithIdSpecified").id(UUID.randomUUID()).build();
+        Portal portal2 = portalFactory.builder("testBulkInsertWithIdSpecified").id(UUID.randomUUID()).build();
+        portalDao.bulkCreateWithIdSpecified(List.of(portal1, portal2));
+        assertThat(portalDao.find(portal1.getId()).get().getShortcode(), equalTo(portal1.getShortcode()));
+        assertThat(portalDao.find(portal2.getId()).get().getShortcode(), equalTo(portal2.getShortcode()));
+
+        Portal noIdPortal = portalFactory.builder("testBulkInsertWithIdSpecified").build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            portalDao.bulkCreateWithIdSpecified(List.of(noIdPortal));
+        });
+    }
+
     @Test
     @Transactional
     public void testStreamAllByProperty() {
@@ -113,4 +145,17 @@ public class BaseJdbiDaoTests extends BaseSpringBootTest {
         // Assert
         assertThat(foundPortals, contains(portal1, portal2));
     }
+
+    @Test
+    @Transactional
+    public void testFindAllByStringPropertyCollection() {
+        var portal1 = portalDao.create(portalFactory.builder("testFindAllByStringPropertyCollection").build());
+        var portal2 = portalDao.create(portalFactory.builder("testFindAllByStringPropertyCollection").build());
+
+        var foundPortals = portalDao.findAllByPropertyCollection("shortcode",
+                List.of(portal1.getShortcode(), portal2.getShortcode()));
+
+        assertThat(foundPortals, containsInAnyOrder(portal1, portal2));
+        assertThat(portalDao.selectSql, not(containsString("*")));
+    }
 }
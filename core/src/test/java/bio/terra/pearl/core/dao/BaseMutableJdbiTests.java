@@ -33,6 +33,18 @@ public class BaseMutableJdbiTests {
                 testDao.getUpsertQuerySql("uuid_field"));
     }
 
+    @Test
+    public void testStagedUpsertSql() {
+        BaseMutableJdbiTests.SimpleModelDao testDao = new BaseMutableJdbiTests.SimpleModelDao(null);
+        Assertions.assertEquals("insert into simple_model (bool_field, created_at, instant_field, int_field, last_updated_at, string_field, uuid_field) " +
+                        "select distinct on (uuid_field) bool_field, created_at, instant_field, int_field, last_updated_at, string_field, uuid_field " +
+                        "from simple_model_staging order by uuid_field, ctid desc " +
+                        "on conflict (uuid_field) do update set " +
+                        "bool_field = excluded.bool_field, instant_field = excluded.instant_field, int_field = excluded.int_field, " +
+                        "last_updated_at = excluded.last_updated_at, string_field = excluded.string_field, uuid_field = excluded.uuid_field",
+                testDao.getStagedUpsertQuerySql("simple_model_staging", "uuid_field"));
+    }
+
     @Getter
     @Setter
     private class SimpleModel extends BaseEntity {
@@ -0,0 +1,88 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.site.HtmlSectionDao;
+import bio.terra.pearl.core.factory.site.SiteContentFactory;
+import bio.terra.pearl.core.model.site.HtmlPage;
+import bio.terra.pearl.core.model.site.HtmlSection;
+import bio.terra.pearl.core.model.site.LocalizedSiteContent;
+import bio.terra.pearl.core.model.site.SiteContent;
+import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.CascadeTree;
+import bio.terra.pearl.core.service.site.SiteContentService;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class CascadeDeleteDaoTests extends BaseSpringBootTest {
+    @Autowired
+    private SiteContentService siteContentService;
+    @Autowired
+    private SiteContentFactory siteContentFactory;
+    @Autowired
+    private HtmlSectionDao htmlSectionDao;
+
+    private enum TestCascades implements CascadeProperty {
+        SECTIONS
+    }
+
+    @Test
+    public void testPlanOrdersChildrenFirst() {
+        CascadeDeleteNode root = CascadeDeleteNode.of("html_page", "id",
+                CascadeDeleteNode.of("html_section", "html_page_id").onlyWith(TestCascades.SECTIONS));
+        List<String> statements = CascadeDeleteDao.plan(root, new CascadeTree(TestCascades.SECTIONS));
+        assertThat(statements, equalTo(List.of(
+                "delete from html_section t1 using html_page t0 where t1.html_page_id = t0.id and t0.id = :rootId",
+                "delete from html_page t0 where t0.id = :rootId")));
+    }
+
+    @Test
+    public void testPlanSkipsChildrenNotInTree() {
+        CascadeDeleteNode root = CascadeDeleteNode.of("html_page", "id",
+                CascadeDeleteNode.of("html_section", "html_page_id").onlyWith(TestCascades.SECTIONS));
+        List<String> statements = CascadeDeleteDao.plan(root, CascadeTree.NONE);
+        assertThat(statements, equalTo(List.of("delete from html_page t0 where t0.id = :rootId")));
+    }
+
+    @Test
+    public void testPlanClearsAndOwns() {
+        CascadeDeleteNode root = CascadeDeleteNode.of("localized_site_content", "site_content_id")
+                .clearing("landing_page_id")
+                .owning("footer_section_id", CascadeDeleteNode.of("html_section", "id"));
+        List<String> statements = CascadeDeleteDao.plan(root, CascadeTree.NONE);
+        assertThat(statements, equalTo(List.of(
+                "update localized_site_content t0 set landing_page_id = null where t0.site_content_id = :rootId",
+                "with deleted_0 as (delete from localized_site_content t0 where t0.site_content_id = :rootId"
+                        + " returning t0.footer_section_id)"
+                        + " delete from html_section where id in (select footer_section_id from deleted_0)")));
+    }
+
+    @Test
+    @Transactional
+    public void testDeleteSiteContentGraph() {
+        HtmlPage landingPage = HtmlPage.builder()
+                .title("home")
+                .sections(List.of(HtmlSection.builder().rawContent("hello").build())).build();
+        LocalizedSiteContent lsc = LocalizedSiteContent.builder()
+                .language("en")
+                .footerSection(HtmlSection.builder().rawContent("footer").build())
+                .landingPage(landingPage).build();
+        SiteContent content = siteContentService.create(siteContentFactory
+                .builderWithDependencies("testDeleteSiteContentGraph")
+                .localizedSiteContents(List.of(lsc))
+                .build());
+        LocalizedSiteContent savedLsc = content.getLocalizedSiteContents().get(0);
+        HtmlSection footer = savedLsc.getFooterSection();
+        HtmlSection pageSection = savedLsc.getLandingPage().getSections().get(0);
+
+        siteContentService.delete(content.getId(), Set.of());
+        assertThat(siteContentService.find(content.getId()).isEmpty(), equalTo(true));
+        assertThat(htmlSectionDao.find(footer.getId()).isEmpty(), equalTo(true));
+        assertThat(htmlSectionDao.find(pageSection.getId()).isEmpty(), equalTo(true));
+    }
+}
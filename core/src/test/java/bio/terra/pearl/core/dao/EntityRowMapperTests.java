@@ -0,0 +1,53 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import java.util.UUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class EntityRowMapperTests extends BaseSpringBootTest {
+    private static final String ENROLLEE_SQL = """
+            select gen_random_uuid() as enrollee__id, now() as enrollee__created_at,
+              gen_random_uuid() as enrollee__study_environment_id, 'MAPPER' as enrollee__shortcode,
+              true as enrollee__consented, 'ignored' as other__shortcode
+            """;
+    @Autowired
+    Jdbi jdbi;
+
+    @Test
+    public void testMapsLikeBeanMapper() {
+        Enrollee expected = jdbi.withHandle(handle -> handle.createQuery(ENROLLEE_SQL)
+                .map(BeanMapper.of(Enrollee.class, "enrollee__"))
+                .one());
+        Enrollee mapped = jdbi.withHandle(handle -> handle.createQuery(ENROLLEE_SQL)
+                .map(EntityRowMapper.of(Enrollee.class, "enrollee__"))
+                .one());
+        assertThat(mapped.getId(), notNullValue());
+        assertThat(mapped.getCreatedAt(), notNullValue());
+        assertThat(mapped.getStudyEnvironmentId(), notNullValue());
+        assertThat(mapped.getShortcode(), equalTo(expected.getShortcode()));
+        assertThat(mapped.isConsented(), equalTo(expected.isConsented()));
+        assertThat(mapped.getParticipantUserId(), nullValue());
+    }
+
+    @Test
+    public void testNullPrimitiveKeepsDefault() {
+        Enrollee mapped = jdbi.withHandle(handle -> handle.createQuery(
+                        "select :id as id, null::boolean as consented")
+                .bind("id", UUID.randomUUID())
+                .map(EntityRowMapper.of(Enrollee.class))
+                .one());
+        assertThat(mapped.isConsented(), equalTo(false));
+    }
+
+    @Test
+    public void testCachesPerClassAndPrefix() {
+        assertThat(EntityRowMapper.of(Enrollee.class), sameInstance(EntityRowMapper.of(Enrollee.class)));
+        assertThat(EntityRowMapper.of(Enrollee.class, "a"), not(sameInstance(EntityRowMapper.of(Enrollee.class))));
+    }
+}
@@ -0,0 +1,217 @@
+package bio.terra.pearl.core.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.postgresql.PGStatement;
+
+/**
+ * Checks the plans of the queries the DAOs run.  Queries are captured, with their parameter values, while running
+ * DAO methods, and each is then run again under EXPLAIN ANALYZE twice:
+ *  - with sequential scans disabled.  If a large table is still scanned sequentially, no index can serve the query,
+ *    so an index on the scan's filter columns is recommended, as a changeset to apply.
+ *  - as planned, to check the rows it reads from large tables against a budget, and optionally its execution time.
+ *    Timing depends on the machine running the tests, so it's only checked if a time budget is given.
+ * Plans depend on the amount of data, so the large tables should be seeded first -- see QueryPlanTests.  Since the
+ * queries are run again, this should only be used on queries that don't write.
+ */
+public class QueryPlanChecker {
+    /** tables that grow with the number of participants, so that queries mustn't read them in full */
+    public static final Set<String> LARGE_TABLES = Set.of("participant_user", "portal_participant_user", "profile",
+            "enrollee", "participant_task", "notification", "kit_request", "survey_response", "answer",
+            "consent_response", "participant_note");
+    public static final long DEFAULT_MAX_ROWS_READ = 500;
+    // e.g. "(study_environment_id = '...'::uuid)" or "(enrollee_id = ANY ('{...}'::uuid[]))"
+    private static final Pattern FILTER_COLUMN = Pattern.compile("(\\w+) = (?:ANY \\()?'");
+
+    private final Jdbi jdbi;
+    private final ObjectMapper objectMapper;
+    private final long maxRowsRead;
+    /** null if execution time isn't checked */
+    private final Double maxExecutionMs;
+
+    public QueryPlanChecker(Jdbi jdbi, ObjectMapper objectMapper) {
+        this(jdbi, objectMapper, DEFAULT_MAX_ROWS_READ, null);
+    }
+
+    public QueryPlanChecker(Jdbi jdbi, ObjectMapper objectMapper, long maxRowsRead, Double maxExecutionMs) {
+        this.jdbi = jdbi;
+        this.objectMapper = objectMapper;
+        this.maxRowsRead = maxRowsRead;
+        this.maxExecutionMs = maxExecutionMs;
+    }
+
+    /** recommendation is null if the problem isn't one an index would fix */
+    public record PlanProblem(String sql, String problem, String recommendation) {}
+
+    /**
+     * runs the work, and returns the queries it ran, with their parameter values inlined.  The work runs inside a
+     * handle whose logger captures the queries; DAO calls on this thread reuse that handle, so only the work's own
+     * queries are captured, and the Jdbi's logger (and so QueryStats) is left alone for other threads
+     */
+    public List<String> capture(Runnable work) {
+        List<String> queries = new ArrayList<>();
+        jdbi.useHandle(handle -> {
+            SqlStatements config = handle.getConfig(SqlStatements.class);
+            config.setSqlLogger(capturingLogger(config.getSqlLogger(), queries));
+            work.run();
+        });
+        if (queries.isEmpty()) {
+            // so a check can't pass just because the work's queries went through some other handle
+            throw new IllegalStateException("No queries were captured");
+        }
+        return queries;
+    }
+
+    private static SqlLogger capturingLogger(SqlLogger previous, List<String> queries) {
+        return new SqlLogger() {
+            @Override
+            public void logBeforeExecution(StatementContext context) {
+                previous.logBeforeExecution(context);
+                String sql = renderWithParameters(context);
+                String lowerSql = sql.stripLeading().toLowerCase();
+                if (lowerSql.startsWith("select") || lowerSql.startsWith("with")) {
+                    queries.add(sql);
+                }
+            }
+
+            @Override
+            public void logAfterExecution(StatementContext context) {
+                previous.logAfterExecution(context);
+            }
+
+            @Override
+            public void logException(StatementContext context, SQLException ex) {
+                previous.logException(context, ex);
+            }
+        };
+    }
+
+    /** checks each distinct query, returning all the problems found */
+    public List<PlanProblem> check(List<String> queries) throws SQLException {
+        return jdbi.withHandle(handle -> {
+            List<PlanProblem> problems = new ArrayList<>();
+            for (String sql : new LinkedHashSet<>(queries)) {
+                problems.addAll(check(handle, sql));
+            }
+            return problems;
+        });
+    }
+
+    protected List<PlanProblem> check(Handle handle, String sql) throws SQLException {
+        List<PlanProblem> problems = new ArrayList<>();
+        JsonNode indexedPlan = explain(handle, sql, false);
+        for (JsonNode scan : findSeqScans(indexedPlan.get("Plan"), new ArrayList<>())) {
+            String tableName = scan.get("Relation Name").asText();
+            problems.add(new PlanProblem(sql, "sequential scan of " + tableName,
+                    recommendIndex(tableName, scan.path("Filter").asText(""))));
+        }
+
+        JsonNode plan = explain(handle, sql, true);
+        long rowsRead = countLargeTableRowsRead(plan.get("Plan"));
+        if (rowsRead > maxRowsRead) {
+            problems.add(new PlanProblem(sql, "read %d rows from large tables, over the budget of %d"
+                    .formatted(rowsRead, maxRowsRead), null));
+        }
+        double executionMs = plan.get("Execution Time").asDouble();
+        if (maxExecutionMs != null && executionMs > maxExecutionMs) {
+            problems.add(new PlanProblem(sql, "took %.1f ms, over the budget of %.1f ms"
+                    .formatted(executionMs, maxExecutionMs), null));
+        }
+        return problems;
+    }
+
+    /** the top-level object of the json plan, with the "Plan" node and the overall timings */
+    protected JsonNode explain(Handle handle, String sql, boolean enableSeqScan) throws SQLException {
+        // plain jdbc, so that jdbi doesn't try to parse the inlined values for parameters or template attributes
+        try (Statement statement = handle.getConnection().createStatement()) {
+            // set local lasts until the end of the transaction, so this is reset by the next call
+            statement.execute("set local enable_seqscan = " + (enableSeqScan ? "on" : "off"));
+            String explainSql = "explain (analyze, buffers, format json) " + sql.strip().replaceAll(";$", "");
+            try (ResultSet resultSet = statement.executeQuery(explainSql)) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not parse plan for " + sql, e);
+        }
+    }
+
+    private List<JsonNode> findSeqScans(JsonNode node, List<JsonNode> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+            seqScans.add(node);
+        }
+        node.path("Plans").forEach(child -> findSeqScans(child, seqScans));
+        return seqScans;
+    }
+
+    /** rows returned or filtered out by each scan of a large table, over all its loops */
+    private long countLargeTableRowsRead(JsonNode node) {
+        long rowsRead = 0;
+        if (LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+            long rowsPerLoop = node.path("Actual Rows").asLong()
+                    + node.path("Rows Removed by Filter").asLong()
+                    + node.path("Rows Removed by Index Recheck").asLong();
+            rowsRead += rowsPerLoop * node.path("Actual Loops").asLong(1);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            rowsRead += countLargeTableRowsRead(child);
+        }
+        return rowsRead;
+    }
+
+    /** a changeset for an index on the columns the scan filters by equality, in the form of our liquibase files */
+    protected String recommendIndex(String tableName, String filter) {
+        Set<String> columns = new LinkedHashSet<>();
+        Matcher matcher = FILTER_COLUMN.matcher(filter);
+        while (matcher.find()) {
+            columns.add(matcher.group(1));
+        }
+        if (columns.isEmpty()) {
+            return "no equality filter on %s to index (filter: %s) -- the query may need rewriting"
+                    .formatted(tableName, filter);
+        }
+        String indexName = "idx_%s_%s".formatted(tableName, String.join("_", columns));
+        return """
+                  - changeSet:
+                      id: "%1$s"
+                      author: juniper
+                      runInTransaction: false
+                      changes:
+                        - sql:
+                            sql: CREATE INDEX CONCURRENTLY IF NOT EXISTS %1$s ON %2$s (%3$s);
+                """.formatted(indexName, tableName, String.join(", ", columns));
+    }
+
+    /** a readable summary of the problems, with the recommended changesets, for a test failure message */
+    public static String report(List<PlanProblem> problems) {
+        return problems.stream().map(problem -> "%s:%n%s%n%s".formatted(problem.problem(), problem.sql(),
+                        problem.recommendation() == null ? "" : "recommended:\n" + problem.recommendation()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String renderWithParameters(StatementContext context) {
+        try {
+            // the postgres driver's toString inlines the bound values into the sql
+            return context.getStatement().unwrap(PGStatement.class).toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not get the sql of the statement", e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.kit.KitRequestDao;
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
+import bio.terra.pearl.core.dao.notification.NotificationDao;
+import bio.terra.pearl.core.dao.participant.EnrolleeDao;
+import bio.terra.pearl.core.dao.participant.EnrolleeSearchDao;
+import bio.terra.pearl.core.dao.participant.ParticipantNoteDao;
+import bio.terra.pearl.core.dao.survey.AnswerDao;
+import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.admin.AdminUserFactory;
+import bio.terra.pearl.core.factory.consent.ConsentFormFactory;
+import bio.terra.pearl.core.factory.consent.ConsentResponseFactory;
+import bio.terra.pearl.core.factory.kit.KitRequestFactory;
+import bio.terra.pearl.core.factory.notification.NotificationConfigFactory;
+import bio.terra.pearl.core.factory.notification.NotificationFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
+import bio.terra.pearl.core.factory.survey.SurveyFactory;
+import bio.terra.pearl.core.model.consent.ConsentResponse;
+import bio.terra.pearl.core.model.kit.KitRequest;
+import bio.terra.pearl.core.model.metrics.TimeRange;
+import bio.terra.pearl.core.model.notification.Notification;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.ParticipantNote;
+import bio.terra.pearl.core.model.study.Study;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.consent.ConsentResponseService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentService;
+import bio.terra.pearl.core.service.study.StudyService;
+import bio.terra.pearl.core.service.survey.SurveyResponseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Guards the plans of the DAOs' hot queries.  Each test creates one enrollee, with a row in each participant table,
+ * then copies those rows for a few thousand enrollees of another study environment, so that the queries run against
+ * tables where a missing index shows.  See QueryPlanChecker for what's checked.  When a query fails, the message
+ * includes a changeset for any index that would fix it.
+ */
+public class QueryPlanTests extends BaseSpringBootTest {
+    private static final int SEEDED_ENROLLEES = 2000;
+    @Autowired
+    private Jdbi jdbi;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private ParticipantTaskFactory participantTaskFactory;
+    @Autowired
+    private NotificationConfigFactory notificationConfigFactory;
+    @Autowired
+    private NotificationFactory notificationFactory;
+    @Autowired
+    private KitRequestFactory kitRequestFactory;
+    @Autowired
+    private SurveyFactory surveyFactory;
+    @Autowired
+    private ConsentFormFactory consentFormFactory;
+    @Autowired
+    private ConsentResponseFactory consentResponseFactory;
+    @Autowired
+    private AdminUserFactory adminUserFactory;
+    @Autowired
+    private SurveyResponseService surveyResponseService;
+    @Autowired
+    private ConsentResponseService consentResponseService;
+    @Autowired
+    private StudyService studyService;
+    @Autowired
+    private StudyEnvironmentService studyEnvironmentService;
+    @Autowired
+    private AnswerDao answerDao;
+    @Autowired
+    private ParticipantNoteDao participantNoteDao;
+    @Autowired
+    private EnrolleeDao enrolleeDao;
+    @Autowired
+    private EnrolleeSearchDao enrolleeSearchDao;
+    @Autowired
+    private ParticipantTaskDao participantTaskDao;
+    @Autowired
+    private NotificationDao notificationDao;
+    @Autowired
+    private KitRequestDao kitRequestDao;
+    @Autowired
+    private MetricsDao metricsDao;
+
+    @Test
+    @Transactional
+    public void testParticipantQueryPlans(TestInfo testInfo) throws Exception {
+        Enrollee enrollee = seedParticipants(getTestName(testInfo));
+        UUID studyEnvId = enrollee.getStudyEnvironmentId();
+        QueryPlanChecker checker = new QueryPlanChecker(jdbi, objectMapper);
+        List<String> queries = checker.capture(() -> {
+            enrolleeDao.findByStudyEnvironmentId(studyEnvId);
+            enrolleeDao.findByProfileId(enrollee.getProfileId());
+            enrolleeDao.loadForAdminView(enrolleeDao.find(enrollee.getId()).get());
+            notificationDao.findByEnrolleeId(enrollee.getId());
+            answerDao.findByEnrolleeId(enrollee.getId());
+            kitRequestDao.findByStudyEnvironment(studyEnvId);
+            participantTaskDao.findByStatusAndTime(studyEnvId, TaskType.SURVEY, Duration.ZERO, Duration.ofDays(30),
+                    Duration.ZERO, List.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS));
+        });
+        List<QueryPlanChecker.PlanProblem> problems = checker.check(queries);
+        assertThat(QueryPlanChecker.report(problems), problems, empty());
+    }
+
+    @Test
+    @Transactional
+    public void testSearchAndMetricsQueryPlans(TestInfo testInfo) throws Exception {
+        Enrollee enrollee = seedParticipants(getTestName(testInfo));
+        StudyEnvironment studyEnv = studyEnvironmentService.find(enrollee.getStudyEnvironmentId()).get();
+        Study study = studyService.find(studyEnv.getStudyId()).get();
+        TimeRange range = new TimeRange(Instant.now().minus(Duration.ofDays(30)), Instant.now());
+        QueryPlanChecker checker = new QueryPlanChecker(jdbi, objectMapper);
+        List<String> queries = checker.capture(() -> {
+            enrolleeSearchDao.search(study.getShortcode(), studyEnv.getEnvironmentName(), List.of());
+            metricsDao.studyEnrollments(studyEnv.getId(), range);
+            metricsDao.studyConsentedEnrollees(studyEnv.getId(), range);
+            metricsDao.studySurveyCompletions(studyEnv.getId(), range);
+        });
+        List<QueryPlanChecker.PlanProblem> problems = checker.check(queries);
+        assertThat(QueryPlanChecker.report(problems), problems, empty());
+    }
+
+    /**
+     * creates an enrollee with a row in each participant table, then copies those rows for SEEDED_ENROLLEES
+     * enrollees of a different study environment.  Returns the original enrollee
+     */
+    private Enrollee seedParticipants(String testName) throws Exception {
+        EnrolleeFactory.EnrolleeBundle bundle = enrolleeFactory.buildWithPortalUser(testName);
+        Enrollee enrollee = bundle.enrollee();
+        ParticipantTask task = participantTaskFactory.buildPersisted(bundle, TaskStatus.NEW, TaskType.SURVEY);
+        Notification notification = notificationFactory.buildPersisted(bundle,
+                notificationConfigFactory.buildPersisted(testName));
+        KitRequest kitRequest = kitRequestFactory.buildPersisted(testName, enrollee.getId());
+        Survey survey = surveyFactory.buildPersisted(testName);
+        SurveyResponse response = surveyResponseService.create(SurveyResponse.builder()
+                .enrolleeId(enrollee.getId())
+                .creatingParticipantUserId(enrollee.getParticipantUserId())
+                .surveyId(survey.getId())
+                .build());
+        Answer answer = answerDao.create(Answer.builder()
+                .enrolleeId(enrollee.getId())
+                .surveyResponseId(response.getId())
+                .creatingParticipantUserId(enrollee.getParticipantUserId())
+                .surveyStableId(survey.getStableId())
+                .surveyVersion(survey.getVersion())
+                .questionStableId("color")
+                .answerType(AnswerType.STRING)
+                .stringValue("blue")
+                .build());
+        ConsentResponse consentResponse = consentResponseService.create(consentResponseFactory.builder(testName)
+                .consentFormId(consentFormFactory.buildPersisted(testName).getId())
+                .enrolleeId(enrollee.getId())
+                .build());
+        ParticipantNote note = participantNoteDao.create(ParticipantNote.builder()
+                .enrolleeId(enrollee.getId())
+                .creatingAdminUserId(adminUserFactory.buildPersisted(testName).getId())
+                .text("note")
+                .build());
+
+        StudyEnvironment otherStudyEnv = studyEnvironmentFactory.buildPersisted(testName + "other");
+        String otherStudyEnvId = "'%s'::uuid".formatted(otherStudyEnv.getId());
+        String salt = UUID.randomUUID().toString();
+        jdbi.useHandle(handle -> {
+            copyRows(handle, salt, "participant_user", enrollee.getParticipantUserId(), 1,
+                    "'username', n || template.username");
+            copyRows(handle, salt, "profile", enrollee.getProfileId(), 1);
+            copyRows(handle, salt, "portal_participant_user", bundle.portalParticipantUser().getId(), 1,
+                    "'participant_user_id', " + copyId("participant_user", "n"),
+                    "'profile_id', " + copyId("profile", "n"));
+            copyRows(handle, salt, "enrollee", enrollee.getId(), 1,
+                    "'shortcode', upper(left(md5(:salt || 'shortcode' || n), 12))",
+                    "'participant_user_id', " + copyId("participant_user", "n"),
+                    "'profile_id', " + copyId("profile", "n"),
+                    "'study_environment_id', " + otherStudyEnvId);
+            copyRows(handle, salt, "participant_task", task.getId(), 3,
+                    "'enrollee_id', " + copyId("enrollee", "enrollee_n"),
+                    "'portal_participant_user_id', " + copyId("portal_participant_user", "enrollee_n"),
+                    "'study_environment_id', " + otherStudyEnvId);
+            copyRows(handle, salt, "notification", notification.getId(), 2,
+                    "'enrollee_id', " + copyId("enrollee", "enrollee_n"),
+                    "'participant_user_id', " + copyId("participant_user", "enrollee_n"),
+                    "'study_environment_id', " + otherStudyEnvId);
+            copyRows(handle, salt, "kit_request", kitRequest.getId(), 1,
+                    "'enrollee_id', " + copyId("enrollee", "n"));
+            copyRows(handle, salt, "survey_response", response.getId(), 1,
+                    "'enrollee_id', " + copyId("enrollee", "n"),
+                    "'creating_participant_user_id', " + copyId("participant_user", "n"));
+            copyRows(handle, salt, "answer", answer.getId(), 1,
+                    "'enrollee_id', " + copyId("enrollee", "n"),
+                    "'survey_response_id', " + copyId("survey_response", "n"),
+                    "'creating_participant_user_id', " + copyId("participant_user", "n"));
+            copyRows(handle, salt, "consent_response", consentResponse.getId(), 1,
+                    "'enrollee_id', " + copyId("enrollee", "n"));
+            copyRows(handle, salt, "participant_note", note.getId(), 1,
+                    "'enrollee_id', " + copyId("enrollee", "n"));
+            for (String tableName : QueryPlanChecker.LARGE_TABLES) {
+                handle.execute("analyze " + tableName);
+            }
+        });
+        return enrollee;
+    }
+
+    /**
+     * inserts copiesPerEnrollee * SEEDED_ENROLLEES copies of the template row, with new ids and the given
+     * overrides.  Each override is a "'column', expression" pair, where the expression can use n, the copy's number,
+     * and enrollee_n, the number of the seeded enrollee it belongs to.  Copies get ids derived from the salt, table
+     * and n, so that rows can refer to each other with copyId.
+     */
+    private void copyRows(Handle handle, String salt, String tableName, UUID templateId, int copiesPerEnrollee,
+                          String... overrides) {
+        String overrideSql = Arrays.stream(overrides).map(override -> ", " + override).collect(Collectors.joining());
+        handle.createUpdate("""
+                        insert into %1$s
+                        select (jsonb_populate_record(null::%1$s, to_jsonb(template) || jsonb_build_object(
+                          'id', %2$s %3$s))).*
+                        from %1$s template,
+                          (select n, (n - 1) %% :enrolleeCount + 1 as enrollee_n
+                           from generate_series(1, :copyCount) n) copies
+                        where template.id = :templateId
+                        """.formatted(tableName, copyId(tableName, "n"), overrideSql))
+                .bind("salt", salt)
+                .bind("enrolleeCount", SEEDED_ENROLLEES)
+                .bind("copyCount", SEEDED_ENROLLEES * copiesPerEnrollee)
+                .bind("templateId", templateId)
+                .execute();
+    }
+
+    private static String copyId(String tableName, String numberExpression) {
+        return "md5(:salt || '%s' || (%s))::uuid".formatted(tableName, numberExpression);
+    }
+}
@@ -7,6 +7,8 @@ import bio.terra.pearl.core.factory.participant.PortalParticipantUserFactory;
 import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
 import bio.terra.pearl.core.factory.survey.SurveyFactory;
 import bio.terra.pearl.core.model.metrics.BasicMetricDatum;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.TimeBucket;
 import bio.terra.pearl.core.model.metrics.TimeRange;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
@@ -14,12 +16,16 @@ import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
 import bio.terra.pearl.core.service.survey.SurveyTaskDispatcher;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -111,8 +117,71 @@ public class MetricsDaoTest extends BaseSpringBootTest {
     assertThat(rangeMetrics, hasSize(2));
   }
 
+  @Test
+  @Transactional
+  public void testBucketedEnrollmentMetrics() {
+    StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted("testBucketedEnrollmentMetrics");
+    enrolleeFactory.buildPersisted("testBucketedEnrollmentMetrics", studyEnvironment);
+    enrolleeFactory.buildPersisted("testBucketedEnrollmentMetrics", studyEnvironment);
+    var builder = enrolleeFactory.builderWithDependencies("testBucketedEnrollmentMetrics", studyEnvironment)
+        .createdAt(Instant.now().minus(Duration.ofDays(4)));
+    enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) builder);
+    metricsDao.rebuildRollups();
+
+    // the older enrollee comes from the rollups, and today's from the live count
+    List<BucketedMetricDatum> buckets = metricsDao.bucketedCounts(studyEnvironment.getId(),
+        MetricName.STUDY_ENROLLMENT, TimeBucket.DAY, new TimeRange(null, null));
+    assertThat(buckets, hasSize(2));
+    assertThat(buckets.get(0).getCount(), equalTo(1L));
+    assertThat(buckets.get(1).getCount(), equalTo(2L));
+    assertThat(buckets.get(1).getBucket(), equalTo(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+
+    List<BucketedMetricDatum> hourBuckets = metricsDao.bucketedCounts(studyEnvironment.getId(),
+        MetricName.STUDY_ENROLLMENT, TimeBucket.HOUR, new TimeRange(Instant.now().minus(Duration.ofDays(1)), null));
+    assertThat(hourBuckets.stream().mapToLong(BucketedMetricDatum::getCount).sum(), equalTo(2L));
+  }
+
+  @Test
+  @Transactional
+  public void testRollupRefreshPicksUpChangedDays() {
+    StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted("testRollupRefreshPicksUpChangedDays");
+    var builder = enrolleeFactory.builderWithDependencies("testRollupRefreshPicksUpChangedDays", studyEnvironment)
+        .createdAt(Instant.now().minus(Duration.ofDays(4)));
+    Enrollee enrollee = enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) builder);
+    metricsDao.rebuildRollups();
+    assertThat(metricsDao.bucketedCounts(studyEnvironment.getId(), MetricName.STUDY_ENROLLEE_CONSENTED,
+        TimeBucket.WEEK, new TimeRange(null, null)), hasSize(0));
+
+    Instant beforeUpdate = Instant.now();
+    enrolleeService.updateConsented(enrollee.getId(), true);
+    metricsDao.refreshRollups(beforeUpdate);
+    List<BucketedMetricDatum> buckets = metricsDao.bucketedCounts(studyEnvironment.getId(),
+        MetricName.STUDY_ENROLLEE_CONSENTED, TimeBucket.DAY, new TimeRange(null, null));
+    assertThat(buckets, hasSize(1));
+    assertThat(buckets.get(0).getCount(), equalTo(1L));
+  }
+
+  @Test
+  @Transactional
+  public void testBucketedCountsForSeveralMetrics() {
+    StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted("testBucketedCountsForSeveralMetrics");
+    var builder = enrolleeFactory.builderWithDependencies("testBucketedCountsForSeveralMetrics", studyEnvironment)
+        .consented(true);
+    enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) builder);
+    enrolleeFactory.buildPersisted("testBucketedCountsForSeveralMetrics", studyEnvironment);
+
+    Map<MetricName, List<BucketedMetricDatum>> countsByMetric = metricsDao.bucketedCounts(studyEnvironment.getId(),
+        List.of(MetricName.STUDY_ENROLLMENT, MetricName.STUDY_ENROLLEE_CONSENTED, MetricName.STUDY_SURVEY_COMPLETION),
+        TimeBucket.DAY, new TimeRange(null, null));
+    assertThat(countsByMetric.get(MetricName.STUDY_ENROLLMENT).get(0).getCount(), equalTo(2L));
+    assertThat(countsByMetric.get(MetricName.STUDY_ENROLLEE_CONSENTED).get(0).getCount(), equalTo(1L));
+    assertThat(countsByMetric.get(MetricName.STUDY_SURVEY_COMPLETION), hasSize(0));
+  }
+
   @Autowired
   private MetricsDao metricsDao;
+  @Autowired
+  private EnrolleeService enrolleeService;
 
   @Autowired
   private EnrolleeFactory enrolleeFactory;
@@ -2,30 +2,42 @@ package bio.terra.pearl.core.dao.participant;
 
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.survey.AnswerDao;
 import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
 import bio.terra.pearl.core.factory.kit.KitRequestFactory;
 import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
 import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
 import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.factory.survey.SurveyFactory;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.kit.KitRequestStatus;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchResult;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.model.workflow.TaskStatus;
 import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.participant.ParticipantUserService;
+import bio.terra.pearl.core.service.participant.ProfileService;
+import bio.terra.pearl.core.service.participant.search.facets.AnswerFacetValue;
+import bio.terra.pearl.core.service.participant.search.facets.CombinedAnswerFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.CombinedStableIdFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.IntRangeFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.StableIdStringFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.StringFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.sql.*;
+import bio.terra.pearl.core.service.survey.SurveyResponseService;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -50,6 +62,14 @@ public class EnrolleeSearchDaoTests extends BaseSpringBootTest {
   private KitRequestFactory kitRequestFactory;
   @Autowired
   private ParticipantUserService participantUserService;
+  @Autowired
+  private ProfileService profileService;
+  @Autowired
+  private SurveyFactory surveyFactory;
+  @Autowired
+  private SurveyResponseService surveyResponseService;
+  @Autowired
+  private AnswerDao answerDao;
 
   @Test
   @Transactional
@@ -158,6 +178,49 @@ public class EnrolleeSearchDaoTests extends BaseSpringBootTest {
     assertThat(result, hasSize(2));
   }
 
+  @Test
+  @Transactional
+  public void testKeywordSearchRanksWholeWords() {
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted("testKeywordSearchRanks");
+    Profile profile = Profile.builder().givenName("Annabelle").familyName("Jones").build();
+    enrolleeFactory.buildPersisted("testKeywordSearchRanks", studyEnv, profile);
+    Profile profile2 = Profile.builder().givenName("Ann").familyName("Smith").build();
+    Enrollee annEnrollee = enrolleeFactory.buildPersisted("testKeywordSearchRanks", studyEnv, profile2);
+
+    // keywords are case-insensitive, and the exact name match comes first
+    SqlSearchableFacet facet = new SqlSearchableFacet(new StringFacetValue(
+        "keyword", List.of("ANN")), new KeywordFacetSqlGenerator());
+    var result = enrolleeSearchDao.search(studyEnv.getId(), List.of(facet));
+    assertThat(result, hasSize(2));
+    assertThat(result.get(0).getEnrollee().getShortcode(), equalTo(annEnrollee.getShortcode()));
+
+    // every keyword has to match
+    facet = new SqlSearchableFacet(new StringFacetValue(
+        "keyword", List.of("ann", "smith")), new KeywordFacetSqlGenerator());
+    result = enrolleeSearchDao.search(studyEnv.getId(), List.of(facet));
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).getEnrollee().getShortcode(), equalTo(annEnrollee.getShortcode()));
+  }
+
+  @Test
+  @Transactional
+  public void testKeywordSearchReflectsProfileUpdates() {
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted("testKeywordSearchProfileUpdate");
+    Profile profile = Profile.builder().givenName("Robin").familyName("Oldname").build();
+    Enrollee enrollee = enrolleeFactory.buildPersisted("testKeywordSearchProfileUpdate", studyEnv, profile);
+
+    Profile savedProfile = profileService.find(enrollee.getProfileId()).get();
+    savedProfile.setFamilyName("Newname");
+    profileService.update(savedProfile);
+
+    SqlSearchableFacet facet = new SqlSearchableFacet(new StringFacetValue(
+        "keyword", List.of("oldname")), new KeywordFacetSqlGenerator());
+    assertThat(enrolleeSearchDao.search(studyEnv.getId(), List.of(facet)), hasSize(0));
+    facet = new SqlSearchableFacet(new StringFacetValue(
+        "keyword", List.of("newname")), new KeywordFacetSqlGenerator());
+    assertThat(enrolleeSearchDao.search(studyEnv.getId(), List.of(facet)), hasSize(1));
+  }
+
   @Test
   @Transactional
   public void testProfileAgeSearch() {
@@ -228,4 +291,102 @@ public class EnrolleeSearchDaoTests extends BaseSpringBootTest {
     assertThat(bothSurveyResult, hasSize(1));
     assertThat(bothSurveyResult.get(0).getEnrollee().getShortcode(), equalTo(doneEnrolleeBundle.enrollee().getShortcode()));
   }
+
+  @Test
+  @Transactional
+  public void testAnswerSearch() {
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted("testAnswerSearch");
+    Survey survey = surveyFactory.buildPersisted("testAnswerSearch");
+    Enrollee enrollee1 = enrolleeFactory.buildPersisted("testAnswerSearch", studyEnv);
+    saveAnswers(enrollee1, survey,
+        answer("color", AnswerType.STRING).stringValue("blue"),
+        answer("height", AnswerType.NUMBER).numberValue(150.0),
+        answer("smoker", AnswerType.BOOLEAN).booleanValue(false),
+        answer("diagnoses", AnswerType.OBJECT).objectValue("[\"asthma\", \"diabetes\"]"));
+    Enrollee enrollee2 = enrolleeFactory.buildPersisted("testAnswerSearch", studyEnv);
+    saveAnswers(enrollee2, survey,
+        answer("color", AnswerType.STRING).stringValue("green"),
+        answer("height", AnswerType.NUMBER).numberValue(180.0),
+        answer("smoker", AnswerType.BOOLEAN).booleanValue(true),
+        answer("diagnoses", AnswerType.OBJECT).objectValue("[\"asthma\"]"));
+    // no answers
+    enrolleeFactory.buildPersisted("testAnswerSearch", studyEnv);
+
+    String stableId = survey.getStableId();
+    var result = searchAnswers(studyEnv, new AnswerFacetValue(stableId, "color", AnswerType.STRING,
+        List.of("blue", "red"), null, null));
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).getEnrollee().getShortcode(), equalTo(enrollee1.getShortcode()));
+
+    result = searchAnswers(studyEnv, new AnswerFacetValue(stableId, "height", AnswerType.NUMBER,
+        List.of(), 160.0, null));
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).getEnrollee().getShortcode(), equalTo(enrollee2.getShortcode()));
+
+    result = searchAnswers(studyEnv, new AnswerFacetValue(stableId, "smoker", AnswerType.BOOLEAN,
+        List.of("false"), null, null));
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).getEnrollee().getShortcode(), equalTo(enrollee1.getShortcode()));
+
+    result = searchAnswers(studyEnv, new AnswerFacetValue(stableId, "diagnoses", AnswerType.OBJECT,
+        List.of("asthma"), null, null));
+    assertThat(result, hasSize(2));
+
+    // filters on different questions must all match
+    result = searchAnswers(studyEnv,
+        new AnswerFacetValue(stableId, "diagnoses", AnswerType.OBJECT, List.of("diabetes", "cancer"), null, null),
+        new AnswerFacetValue(stableId, "height", AnswerType.NUMBER, List.of(), 100.0, 160.0));
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).getEnrollee().getShortcode(), equalTo(enrollee1.getShortcode()));
+
+    // with no values, any answer to the question matches
+    result = searchAnswers(studyEnv, new AnswerFacetValue(stableId, "color", AnswerType.STRING,
+        List.of(), null, null));
+    assertThat(result, hasSize(2));
+  }
+
+  @Test
+  @Transactional
+  public void testAnswerSearchLongFreeText() {
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted("testAnswerSearchLongFreeText");
+    Survey survey = surveyFactory.buildPersisted("testAnswerSearchLongFreeText");
+    // longer than a btree entry can hold, and random so that it doesn't compress below that
+    String longAnswer = RandomStringUtils.randomAlphanumeric(10000);
+    Enrollee enrollee = enrolleeFactory.buildPersisted("testAnswerSearchLongFreeText", studyEnv);
+    saveAnswers(enrollee, survey, answer("history", AnswerType.STRING).stringValue(longAnswer));
+
+    var result = searchAnswers(studyEnv, new AnswerFacetValue(survey.getStableId(), "history", AnswerType.STRING,
+        List.of(longAnswer), null, null));
+    assertThat(result, hasSize(1));
+    result = searchAnswers(studyEnv, new AnswerFacetValue(survey.getStableId(), "history", AnswerType.STRING,
+        List.of(longAnswer.substring(1)), null, null));
+    assertThat(result, hasSize(0));
+  }
+
+  private List<EnrolleeSearchResult> searchAnswers(StudyEnvironment studyEnv, AnswerFacetValue... values) {
+    SqlSearchableFacet facet = new SqlSearchableFacet(new CombinedAnswerFacetValue("value", List.of(values)),
+        new AnswerFacetSqlGenerator());
+    return enrolleeSearchDao.search(studyEnv.getId(), List.of(facet));
+  }
+
+  private Answer.AnswerBuilder answer(String questionStableId, AnswerType answerType) {
+    return Answer.builder().questionStableId(questionStableId).answerType(answerType);
+  }
+
+  private void saveAnswers(Enrollee enrollee, Survey survey, Answer.AnswerBuilder... answers) {
+    SurveyResponse response = surveyResponseService.create(SurveyResponse.builder()
+        .enrolleeId(enrollee.getId())
+        .creatingParticipantUserId(enrollee.getParticipantUserId())
+        .surveyId(survey.getId())
+        .build());
+    for (Answer.AnswerBuilder answer : answers) {
+      answerDao.create(answer
+          .enrolleeId(enrollee.getId())
+          .surveyResponseId(response.getId())
+          .creatingParticipantUserId(enrollee.getParticipantUserId())
+          .surveyStableId(survey.getStableId())
+          .surveyVersion(survey.getVersion())
+          .build());
+    }
+  }
 }
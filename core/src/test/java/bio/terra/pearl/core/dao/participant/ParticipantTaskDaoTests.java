@@ -1,7 +1,9 @@
 package bio.terra.pearl.core.dao.participant;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.stats.QueryCountAssertions;
 import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
+import bio.terra.pearl.core.factory.DaoTestUtils;
 import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
 import bio.terra.pearl.core.factory.notification.NotificationConfigFactory;
 import bio.terra.pearl.core.factory.notification.NotificationFactory;
@@ -19,6 +21,7 @@ import bio.terra.pearl.core.model.workflow.TaskStatus;
 import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -107,6 +110,33 @@ public class ParticipantTaskDaoTests extends BaseSpringBootTest {
         assertThat(tasksRecentNotification.get(0).getEnrolleeId(), equalTo(enrolleeBundle2.enrollee().getId())); // only the second enrollee's task should appear
     }
 
+    @Test
+    @Transactional
+    public void testCreateAll() {
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testCreateAll");
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testCreateAll");
+        var enrolleeBundle = enrolleeFactory.buildWithPortalUser("testCreateAll", portalEnv, studyEnv);
+        List<ParticipantTask> tasks = List.of("survey1", "survey2", "survey3").stream().map(stableId ->
+                ParticipantTask.builder()
+                        .status(TaskStatus.NEW)
+                        .taskType(TaskType.SURVEY)
+                        .targetStableId(stableId)
+                        .targetName(stableId)
+                        .enrolleeId(enrolleeBundle.enrollee().getId())
+                        .studyEnvironmentId(studyEnv.getId())
+                        .portalParticipantUserId(enrolleeBundle.portalParticipantUser().getId())
+                        .build()
+        ).toList();
+
+        // the tasks should be written with a single statement, and come back with ids in the order given
+        List<ParticipantTask> created = new ArrayList<>();
+        QueryCountAssertions.assertMaxStatements(1, () -> created.addAll(participantTaskDao.createAll(tasks)));
+        assertThat(created.stream().map(ParticipantTask::getTargetStableId).toList(),
+                contains("survey1", "survey2", "survey3"));
+        created.forEach(DaoTestUtils::assertGeneratedProperties);
+        assertThat(participantTaskDao.findByEnrolleeId(enrolleeBundle.enrollee().getId()), hasSize(3));
+    }
+
     @Autowired
     private ParticipantTaskDao participantTaskDao;
     @Autowired
@@ -0,0 +1,86 @@
+package bio.terra.pearl.core.dao.stats;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.participant.EnrolleeDao;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class QueryStatsTests extends BaseSpringBootTest {
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private EnrolleeService enrolleeService;
+    @Autowired
+    private EnrolleeDao enrolleeDao;
+
+    @Test
+    @Transactional
+    public void testCountsStatements(TestInfo info) {
+        Enrollee enrollee = enrolleeFactory.buildPersisted(getTestName(info));
+        QueryStats outer = QueryStats.start("outer");
+        enrolleeService.find(enrollee.getId());
+        QueryStats inner = QueryStats.start("inner");
+        // the dao call, since the service's also refreshes the enrollee's kit summary
+        enrolleeDao.updateConsented(enrollee.getId(), true);
+        inner.stop();
+        outer.stop();
+
+        assertThat(inner.getStatementCount(), equalTo(1));
+        assertThat(inner.getRowsWritten(), equalTo(1L));
+        // nested statements count toward the enclosing stats too
+        assertThat(outer.getStatementCount(), equalTo(2));
+        assertThat(outer.getRowsWritten(), equalTo(1L));
+        assertThat(QueryStats.current().isPresent(), equalTo(false));
+    }
+
+    @Test
+    @Transactional
+    public void testRepeatedStatements(TestInfo info) {
+        Enrollee enrollee = enrolleeFactory.buildPersisted(getTestName(info));
+        QueryStats stats = QueryStats.start("repeated");
+        for (int i = 0; i < 5; i++) {
+            enrolleeService.find(enrollee.getId());
+        }
+        enrolleeService.findByStudyEnvironment(enrollee.getStudyEnvironmentId());
+        stats.stop();
+
+        List<QueryStats.RepeatedStatement> repeated = stats.getRepeatedStatements(5);
+        assertThat(repeated, hasSize(1));
+        assertThat(repeated.get(0).count(), equalTo(5));
+        assertThat(stats.getRepeatedStatements(6), empty());
+    }
+
+    @Test
+    @Transactional
+    public void testStopOutOfOrder() {
+        QueryStats outer = QueryStats.start("outer");
+        QueryStats inner = QueryStats.start("inner");
+        Assertions.assertThrows(IllegalStateException.class, outer::stop);
+        inner.stop();
+        outer.stop();
+    }
+
+    @Test
+    @Transactional
+    public void testAssertMaxStatements(TestInfo info) {
+        Enrollee enrollee = enrolleeFactory.buildPersisted(getTestName(info));
+        QueryCountAssertions.assertMaxStatements(1, () -> enrolleeService.find(enrollee.getId()));
+        Assertions.assertThrows(AssertionFailedError.class, () ->
+                QueryCountAssertions.assertNoRepeatedStatements(2, () -> {
+                    for (int i = 0; i < 3; i++) {
+                        enrolleeService.find(enrollee.getId());
+                    }
+                }));
+    }
+}
@@ -0,0 +1,115 @@
+package bio.terra.pearl.core.service;
+
+import bio.terra.pearl.core.service.BulkOperationExecutor.BulkOperationState;
+import bio.terra.pearl.core.service.BulkOperationExecutor.BulkOperationStatus;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class BulkOperationExecutorTests {
+    @Test
+    public void testStatusFollowsProgress() throws Exception {
+        BulkOperationExecutor executor = buildExecutor(1);
+        UUID scopeId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        BulkOperationStatus queued = executor.submit("test operation", scopeId, progressListener -> {
+            progressListener.accept(new BulkOperationProgress("test operation", 1, 2));
+            awaitQuietly(release);
+            progressListener.accept(new BulkOperationProgress("test operation", 2, 2));
+            return "done";
+        });
+
+        assertThat(awaitProgress(executor, queued.id(), scopeId, 1).state(), equalTo(BulkOperationState.RUNNING));
+        release.countDown();
+        BulkOperationStatus finished = awaitFinished(executor, queued.id(), scopeId);
+        assertThat(finished.state(), equalTo(BulkOperationState.COMPLETE));
+        assertThat(finished.progress(), equalTo(new BulkOperationProgress("test operation", 2, 2)));
+        assertThat(finished.result(), equalTo("done"));
+        // a status is only found by asking about the same scope
+        assertThat(executor.findStatus(queued.id(), UUID.randomUUID()).isPresent(), equalTo(false));
+        executor.destroy();
+    }
+
+    @Test
+    public void testFailureIsReported() throws Exception {
+        BulkOperationExecutor executor = buildExecutor(1);
+        UUID scopeId = UUID.randomUUID();
+        BulkOperationStatus queued = executor.submit("test operation", scopeId, progressListener -> {
+            throw new IllegalStateException("test failure");
+        });
+
+        BulkOperationStatus finished = awaitFinished(executor, queued.id(), scopeId);
+        assertThat(finished.state(), equalTo(BulkOperationState.FAILED));
+        assertThat(finished.error(), equalTo("test failure"));
+        executor.destroy();
+    }
+
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        BulkOperationExecutor executor = buildExecutor(1);
+        UUID scopeId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // one operation occupies the thread, and one fills the queue
+        executor.submit("test operation", scopeId, progressListener -> {
+            started.countDown();
+            awaitQuietly(release);
+            return null;
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.submit("test operation", scopeId, progressListener -> null);
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> executor.submit("test operation", scopeId, progressListener -> null));
+        release.countDown();
+        executor.destroy();
+    }
+
+    private BulkOperationExecutor buildExecutor(int queueCapacity) {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty(BulkOperationExecutor.WORKER_THREADS_VAR, "1")
+                .withProperty(BulkOperationExecutor.QUEUE_CAPACITY_VAR, String.valueOf(queueCapacity));
+        return new BulkOperationExecutor(env, new StaticListableBeanFactory().getBeanProvider(TaskDecorator.class));
+    }
+
+    private static BulkOperationStatus awaitProgress(BulkOperationExecutor executor, UUID operationId, UUID scopeId,
+                                                     int processed) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            BulkOperationStatus status = executor.findStatus(operationId, scopeId).orElseThrow();
+            if (status.progress().processed() >= processed) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("operation never reached " + processed + " processed");
+    }
+
+    private static BulkOperationStatus awaitFinished(BulkOperationExecutor executor, UUID operationId, UUID scopeId)
+            throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            BulkOperationStatus status = executor.findStatus(operationId, scopeId).orElseThrow();
+            if (status.finishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("operation never finished");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
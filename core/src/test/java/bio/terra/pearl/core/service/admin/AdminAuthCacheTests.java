@@ -0,0 +1,123 @@
+package bio.terra.pearl.core.service.admin;
+
+import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.service.admin.AdminAuthCache.CachedAdminAuth;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AdminAuthCacheTests {
+    @Test
+    public void testCachesByToken() {
+        AdminAuthCache cache = new AdminAuthCache(new MockEnvironment());
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("cacheByToken@test.com").build();
+        UUID portalId = UUID.randomUUID();
+        cache.put("token1", user, Set.of(portalId), Map.of(portalId, new HashSet<>(Set.of("perm1"))), null,
+                cache.beginLoad());
+
+        Optional<CachedAdminAuth> cached = cache.get("token1");
+        assertThat(cached.isPresent(), equalTo(true));
+        assertThat(cached.get().user().getId(), equalTo(user.getId()));
+        assertThat(cached.get().isInPortal(portalId), equalTo(true));
+        assertThat(cached.get().isInPortal(UUID.randomUUID()), equalTo(false));
+        assertThat(cached.get().getPermissions(portalId), equalTo(Set.of("perm1")));
+        assertThat(cache.findPortalIds(user.getId()), equalTo(Optional.of(Set.of(portalId))));
+        assertThat(cache.get("token2").isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void testExpiresWithToken() {
+        AdminAuthCache cache = new AdminAuthCache(new MockEnvironment());
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("expires@test.com").build();
+        cache.put("expiredToken", user, Set.of(), Map.of(), Instant.now().minusSeconds(1), cache.beginLoad());
+        assertThat(cache.get("expiredToken").isPresent(), equalTo(false));
+        assertThat(cache.size(), equalTo(0));
+    }
+
+    @Test
+    public void testInvalidateUser() {
+        AdminAuthCache cache = new AdminAuthCache(new MockEnvironment());
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("invalidate@test.com").build();
+        AdminUser otherUser = AdminUser.builder().id(UUID.randomUUID()).username("invalidate2@test.com").build();
+        cache.put("tokenA", user, Set.of(), Map.of(), null, cache.beginLoad());
+        cache.put("tokenB", user, Set.of(), Map.of(), null, cache.beginLoad());
+        cache.put("tokenC", otherUser, Set.of(), Map.of(), null, cache.beginLoad());
+
+        cache.invalidateUser(user.getId());
+        assertThat(cache.get("tokenA").isPresent(), equalTo(false));
+        assertThat(cache.get("tokenB").isPresent(), equalTo(false));
+        assertThat(cache.get("tokenC").isPresent(), equalTo(true));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        AdminAuthCache cache = new AdminAuthCache(new MockEnvironment());
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("invalidateAll@test.com").build();
+        AdminUser otherUser = AdminUser.builder().id(UUID.randomUUID()).username("invalidateAll2@test.com").build();
+        cache.put("tokenA", user, Set.of(), Map.of(), null, cache.beginLoad());
+        cache.put("tokenB", otherUser, Set.of(), Map.of(), null, cache.beginLoad());
+
+        cache.invalidateAll();
+        assertThat(cache.get("tokenA").isPresent(), equalTo(false));
+        assertThat(cache.get("tokenB").isPresent(), equalTo(false));
+        assertThat(cache.findPortalIds(user.getId()).isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void testLoadOvertakenByInvalidationIsNotCached() {
+        AdminAuthCache cache = new AdminAuthCache(new MockEnvironment());
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("overtaken@test.com").build();
+        AdminUser otherUser = AdminUser.builder().id(UUID.randomUUID()).username("overtaken2@test.com").build();
+        long loadGeneration = cache.beginLoad();
+        // e.g. the user's roles changed while their old ones were being loaded
+        cache.invalidateUser(user.getId());
+        CachedAdminAuth loaded = cache.put("tokenA", user, Set.of(), Map.of(), null, loadGeneration);
+        assertThat(loaded.user().getId(), equalTo(user.getId()));
+        assertThat(cache.get("tokenA").isPresent(), equalTo(false));
+        // other users' loads aren't affected
+        cache.put("tokenB", otherUser, Set.of(), Map.of(), null, loadGeneration);
+        assertThat(cache.get("tokenB").isPresent(), equalTo(true));
+
+        loadGeneration = cache.beginLoad();
+        cache.invalidateAll();
+        cache.put("tokenB", otherUser, Set.of(), Map.of(), null, loadGeneration);
+        assertThat(cache.get("tokenB").isPresent(), equalTo(false));
+        // a load started after the invalidation is cached as usual
+        cache.put("tokenA", user, Set.of(), Map.of(), null, cache.beginLoad());
+        assertThat(cache.get("tokenA").isPresent(), equalTo(true));
+    }
+
+    @Test
+    public void testReturnsCopies() {
+        AdminAuthCache cache = new AdminAuthCache(new MockEnvironment());
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("copies@test.com").build();
+        UUID portalId = UUID.randomUUID();
+        cache.put("token1", user, Set.of(), Map.of(portalId, new HashSet<>(Set.of("perm1"))), null, cache.beginLoad());
+        // neither the original object nor a returned one should change what's cached
+        user.setSuperuser(true);
+        cache.get("token1").get().user().setUsername("changed@test.com");
+        cache.get("token1").get().toUserWithPermissions().portalPermissions().get(portalId).add("perm2");
+
+        CachedAdminAuth cached = cache.get("token1").get();
+        assertThat(cached.user().isSuperuser(), equalTo(false));
+        assertThat(cached.user().getUsername(), equalTo("copies@test.com"));
+        assertThat(cached.getPermissions(portalId), equalTo(Set.of("perm1")));
+    }
+
+    @Test
+    public void testDisabledWithZeroTtl() {
+        MockEnvironment env = new MockEnvironment().withProperty(AdminAuthCache.TTL_SECONDS_VAR, "0");
+        AdminAuthCache cache = new AdminAuthCache(env);
+        AdminUser user = AdminUser.builder().id(UUID.randomUUID()).username("disabled@test.com").build();
+        cache.put("token1", user, Set.of(), Map.of(), null, cache.beginLoad());
+        assertThat(cache.get("token1").isPresent(), equalTo(false));
+    }
+}
@@ -0,0 +1,167 @@
+package bio.terra.pearl.core.service.dataimport;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.survey.AnswerDao;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.admin.AdminUserFactory;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.factory.survey.SurveyFactory;
+import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.dataimport.DataImportStatus;
+import bio.terra.pearl.core.model.dataimport.ImportFileFormat;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.service.BulkOperationProgress;
+import bio.terra.pearl.core.service.dataimport.EnrolleeImportService.ImportResult;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import bio.terra.pearl.core.service.participant.ProfileService;
+import bio.terra.pearl.core.service.survey.SurveyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class EnrolleeImportServiceTests extends BaseSpringBootTest {
+    @Autowired
+    private EnrolleeImportService enrolleeImportService;
+    @Autowired
+    private EnrolleeService enrolleeService;
+    @Autowired
+    private ProfileService profileService;
+    @Autowired
+    private AnswerDao answerDao;
+    @Autowired
+    private SurveyService surveyService;
+    @Autowired
+    private SurveyFactory surveyFactory;
+    @Autowired
+    private PortalEnvironmentFactory portalEnvironmentFactory;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private AdminUserFactory adminUserFactory;
+
+    private final String SOCIAL_HEALTH_EXCERPT = """
+            {
+              "pages": [
+                  {
+                    "elements": [
+                      {
+                        "name": "hd_hd_socialHealth_neighborhoodSharesValues",
+                        "type": "radiogroup",
+                        "title": "People in my neighborhood share the same values as me.",
+                        "choices": [
+                          {"text": "Agree", "value": "agree"},
+                          {"text": "Disagree", "value": "disagree"}
+                        ]
+                      }
+                    ]
+                  }
+                 ]
+               }
+            """;
+
+    // the last column isn't from this environment, so should be ignored
+    private final String IMPORT_FILE = """
+            enrollee.shortcode\tenrollee.consented\tprofile.givenName\tprofile.contactEmail\tprofile.birthDate\tprofile.mailingAddress.city\tsocialHealth.complete\tsocialHealth.neighborhoodSharesValues\tother.column
+            IMPORT1\ttrue\t"Jo\tAnn"\timport1@test.com\t1990-04-12\tBoston\ttrue\tAgree\tx
+            IMPORT2\ttrue\tNoEmail\t\t\t\t\t\t
+            IMPORT3\tmaybe\tBadBoolean\timport3@test.com\t\t\t\t\t
+            """;
+
+    @Test
+    @Transactional
+    public void testImportAndReimport(TestInfo testInfo) throws Exception {
+        String testName = getTestName(testInfo);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        AdminUser admin = adminUserFactory.buildPersisted(testName);
+        Survey survey = surveyService.create(Survey.builder()
+                .content(SOCIAL_HEALTH_EXCERPT)
+                .name("Social Health")
+                .stableId("socialHealth")
+                .version(1)
+                .build());
+        surveyFactory.attachToEnv(survey, studyEnv.getId(), true);
+
+        List<BulkOperationProgress> progress = new ArrayList<>();
+        byte[] file = IMPORT_FILE.getBytes(StandardCharsets.UTF_8);
+        ImportResult result = enrolleeImportService.importFile(portalEnv.getId(), studyEnv.getId(), admin.getId(),
+                "import.tsv", ImportFileFormat.TSV, new ByteArrayInputStream(file), file.length, progress::add);
+
+        assertThat(result.dataImport().getStatus(), equalTo(DataImportStatus.COMPLETE));
+        assertThat(result.dataImport().getRowsProcessed(), equalTo(3));
+        assertThat(result.dataImport().getRowsImported(), equalTo(1));
+        assertThat(result.dataImport().getRowsFailed(), equalTo(2));
+        assertThat(result.errors().stream().map(EnrolleeImportService.RowError::lineNumber).toList(), contains(3, 4));
+        assertThat(result.ignoredColumns(), contains("other.column"));
+        assertThat(progress, hasSize(1));
+        assertThat(progress.get(0).isComplete(), equalTo(true));
+
+        Enrollee enrollee = enrolleeService.findOneByShortcode("IMPORT1").orElseThrow();
+        assertThat(enrollee.getStudyEnvironmentId(), equalTo(studyEnv.getId()));
+        assertThat(enrollee.isConsented(), equalTo(true));
+        Profile profile = profileService.loadWithMailingAddress(enrollee.getProfileId()).orElseThrow();
+        assertThat(profile.getGivenName(), equalTo("Jo\tAnn"));
+        assertThat(profile.getBirthDate(), equalTo(LocalDate.of(1990, 4, 12)));
+        assertThat(profile.getMailingAddress().getCity(), equalTo("Boston"));
+        List<Answer> answers = answerDao.findByEnrolleeId(enrollee.getId());
+        assertThat(answers, hasSize(1));
+        // option text is mapped back to the option's stable id
+        assertThat(answers.get(0).getStringValue(), equalTo("agree"));
+        assertThat(answers.get(0).getCreatingAdminUserId(), equalTo(admin.getId()));
+
+        ImportResult reimport = enrolleeImportService.importFile(portalEnv.getId(), studyEnv.getId(), admin.getId(),
+                "import.tsv", ImportFileFormat.TSV, new ByteArrayInputStream(file), file.length, null);
+        assertThat(reimport.dataImport().getRowsSkipped(), equalTo(1));
+        assertThat(reimport.dataImport().getRowsImported(), equalTo(0));
+    }
+
+    @Test
+    @Transactional
+    public void testFailedRowDoesNotClaimShortcode(TestInfo testInfo) throws Exception {
+        String testName = getTestName(testInfo);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        AdminUser admin = adminUserFactory.buildPersisted(testName);
+        // the first row fails for its missing email, so the corrected row after it should still be imported
+        byte[] file = """
+                enrollee.shortcode\tprofile.givenName\tprofile.contactEmail
+                RETRY1\tNoEmail\t
+                RETRY1\tFixed\tretry1@test.com
+                """.getBytes(StandardCharsets.UTF_8);
+        ImportResult result = enrolleeImportService.importFile(portalEnv.getId(), studyEnv.getId(), admin.getId(),
+                "import.tsv", ImportFileFormat.TSV, new ByteArrayInputStream(file), file.length, null);
+
+        assertThat(result.dataImport().getRowsImported(), equalTo(1));
+        assertThat(result.errors().stream().map(EnrolleeImportService.RowError::lineNumber).toList(), contains(2));
+        Enrollee enrollee = enrolleeService.findOneByShortcode("RETRY1").orElseThrow();
+        assertThat(profileService.find(enrollee.getProfileId()).orElseThrow().getGivenName(), equalTo("Fixed"));
+    }
+
+    @Test
+    public void testReadsQuotedCsv() throws Exception {
+        DelimitedRowReader reader = new DelimitedRowReader(new StringReader(
+                "a,\"b, \"\"quoted\"\"\",\"multi\nline\"\r\n\r\nlast,,\n"), ',');
+        assertThat(reader.readRow(), contains("a", "b, \"quoted\"", "multi\nline"));
+        assertThat(reader.getLineNumber(), equalTo(1));
+        assertThat(reader.readRow(), contains("last", "", ""));
+        // after the quoted line break and the blank line
+        assertThat(reader.getLineNumber(), equalTo(4));
+        assertThat(reader.readRow(), nullValue());
+    }
+}
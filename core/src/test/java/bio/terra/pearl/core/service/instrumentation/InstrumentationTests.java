@@ -0,0 +1,68 @@
+package bio.terra.pearl.core.service.instrumentation;
+
+import bio.terra.pearl.core.service.workflow.BaseEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.PayloadApplicationEvent;
+import reactor.core.publisher.Mono;
+
+public class InstrumentationTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Instrumentation instrumentation = new Instrumentation(meterRegistry);
+
+    @Test
+    public void testCallRecordsOutcome() {
+        String result = instrumentation.call("test.timer", () -> "done", "operation", "ok");
+        assertThat(result, equalTo("done"));
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                instrumentation.run("test.timer", () -> {
+                    throw new IllegalStateException("boom");
+                }, "operation", "bad"));
+
+        assertThat(timerCount("test.timer", "operation", "ok", Instrumentation.OUTCOME_TAG, Instrumentation.SUCCESS),
+                equalTo(1L));
+        assertThat(timerCount("test.timer", "operation", "bad", Instrumentation.OUTCOME_TAG, Instrumentation.FAILURE),
+                equalTo(1L));
+    }
+
+    @Test
+    public void testMonoTimedOnSubscribe() {
+        Mono<String> call = instrumentation.time("test.mono", Mono.just("done"), "operation", "ok");
+        // nothing is recorded until the call is made
+        assertThat(meterRegistry.find("test.mono").timer(), nullValue());
+        call.block();
+        call.block();
+        assertThat(timerCount("test.mono", "operation", "ok", Instrumentation.OUTCOME_TAG, Instrumentation.SUCCESS),
+                equalTo(2L));
+    }
+
+    @Test
+    public void testEventListenersTimed() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("instrumentation", instrumentation));
+        TimedApplicationEventMulticaster multicaster =
+                new TimedApplicationEventMulticaster(beanFactory.getBeanProvider(Instrumentation.class));
+        multicaster.addApplicationListener(event -> { });
+
+        multicaster.multicastEvent(new PayloadApplicationEvent<>(this, new TestEvent()));
+        // events that aren't ours aren't timed
+        multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "some string"));
+
+        Timer timer = meterRegistry.find(Instrumentation.EVENT_LISTENER_TIMER).timer();
+        assertThat(timer.getId().getTag("event"), equalTo("TestEvent"));
+        assertThat(timer.count(), equalTo(1L));
+        assertThat(meterRegistry.find(Instrumentation.EVENT_LISTENER_TIMER).timers().size(), equalTo(1));
+    }
+
+    private long timerCount(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).timer().count();
+    }
+
+    private static class TestEvent implements BaseEvent { }
+}
@@ -0,0 +1,132 @@
+package bio.terra.pearl.core.service.kit;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.kit.EnrolleeKitSummaryDao;
+import bio.terra.pearl.core.dao.stats.QueryCountAssertions;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.kit.KitRequestFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.model.kit.EnrolleeKitSummary;
+import bio.terra.pearl.core.model.kit.KitRequestStatus;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService.EnrolleeKitSummaryPage;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class EnrolleeKitSummaryServiceTest extends BaseSpringBootTest {
+    @Autowired
+    private EnrolleeKitSummaryService enrolleeKitSummaryService;
+    @Autowired
+    private EnrolleeKitSummaryDao enrolleeKitSummaryDao;
+    @Autowired
+    private EnrolleeService enrolleeService;
+    @Autowired
+    private ParticipantTaskService participantTaskService;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private ParticipantTaskFactory participantTaskFactory;
+    @Autowired
+    private KitRequestFactory kitRequestFactory;
+    @Autowired
+    private PortalEnvironmentFactory portalEnvironmentFactory;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+
+    @Test
+    @Transactional
+    public void testSummariesFollowWrites(TestInfo testInfo) throws Exception {
+        String testName = getTestName(testInfo);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        var withKitBundle = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+        var withoutKitBundle = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+
+        ParticipantTask requiredTask = participantTaskFactory.buildPersisted(withKitBundle, TaskStatus.NEW, TaskType.SURVEY);
+        requiredTask.setBlocksHub(true);
+        requiredTask.setStatus(TaskStatus.COMPLETE);
+        participantTaskService.update(requiredTask);
+        participantTaskFactory.buildPersisted(withKitBundle, TaskStatus.COMPLETE, TaskType.SURVEY);
+        participantTaskFactory.buildPersisted(withKitBundle, TaskStatus.IN_PROGRESS, TaskType.SURVEY);
+        enrolleeService.updateConsented(withKitBundle.enrollee().getId(), true);
+        // the factory saves kits directly, so refresh as the kit request service would
+        kitRequestFactory.buildPersisted(testName, withKitBundle.enrollee().getId());
+        enrolleeKitSummaryService.refresh(withKitBundle.enrollee().getId());
+
+        EnrolleeKitSummaryPage page = enrolleeKitSummaryService.findPage(studyEnv.getId(), null, null, null,
+                "shortcode", false, 0, 10);
+        assertThat(page.totalCount(), equalTo(2));
+        EnrolleeKitSummary withKit = page.summaries().stream()
+                .filter(summary -> summary.getEnrolleeId().equals(withKitBundle.enrollee().getId()))
+                .findFirst().orElseThrow();
+        assertThat(withKit.isConsented(), equalTo(true));
+        assertThat(withKit.getRequiredSurveysCompleted(), equalTo(1));
+        assertThat(withKit.getOptionalSurveysCompleted(), equalTo(1));
+        assertThat(withKit.getKitRequestCount(), equalTo(1));
+        assertThat(withKit.getLatestKitStatus(), equalTo(KitRequestStatus.CREATED));
+
+        EnrolleeKitSummaryPage notRequested = enrolleeKitSummaryService.findPage(studyEnv.getId(), null, null, false,
+                "createdAt", true, 0, 10);
+        assertThat(notRequested.summaries().stream().map(EnrolleeKitSummary::getEnrolleeId).toList(),
+                contains(withoutKitBundle.enrollee().getId()));
+        EnrolleeKitSummaryPage consented = enrolleeKitSummaryService.findPage(studyEnv.getId(), true, null, null,
+                "createdAt", true, 0, 10);
+        assertThat(consented.totalCount(), equalTo(1));
+        assertThat(enrolleeKitSummaryDao.count(studyEnv.getId(),
+                new EnrolleeKitSummaryDao.Filter(null, true, 1, null)), equalTo(1));
+    }
+
+    @Test
+    @Transactional
+    public void testTaskUpdatesOnlyRefreshOnCompletionChange(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        var enrolleeBundle = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+        ParticipantTask task = participantTaskFactory.buildPersisted(enrolleeBundle, TaskStatus.NEW, TaskType.SURVEY);
+
+        // just the lookup of the prior task and the update itself -- no summary refresh
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        QueryCountAssertions.assertMaxStatements(2, () -> participantTaskService.update(task));
+
+        task.setStatus(TaskStatus.COMPLETE);
+        participantTaskService.update(task);
+        EnrolleeKitSummaryPage page = enrolleeKitSummaryService.findPage(studyEnv.getId(), null, null, null,
+                "shortcode", false, 0, 10);
+        assertThat(page.summaries().get(0).getOptionalSurveysCompleted(), equalTo(1));
+    }
+
+    @Test
+    @Transactional
+    public void testFindPagePages(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        for (int i = 0; i < 3; i++) {
+            enrolleeFactory.buildPersisted(testName, studyEnv);
+        }
+
+        EnrolleeKitSummaryPage firstPage = enrolleeKitSummaryService.findPage(studyEnv.getId(), null, null, null,
+                "shortcode", false, 0, 2);
+        EnrolleeKitSummaryPage secondPage = enrolleeKitSummaryService.findPage(studyEnv.getId(), null, null, null,
+                "shortcode", false, 1, 2);
+        assertThat(firstPage.summaries(), hasSize(2));
+        assertThat(secondPage.summaries(), hasSize(1));
+        assertThat(firstPage.totalCount(), equalTo(3));
+        assertThat(secondPage.summaries().get(0).getEnrolleeShortcode(),
+                greaterThan(firstPage.summaries().get(1).getEnrolleeShortcode()));
+        assertThat(enrolleeKitSummaryDao.count(studyEnv.getId(), EnrolleeKitSummaryDao.Filter.NONE), equalTo(3));
+    }
+}
@@ -10,6 +10,7 @@ import bio.terra.pearl.core.factory.kit.KitTypeFactory;
 import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
 import bio.terra.pearl.core.model.kit.KitRequest;
 import bio.terra.pearl.core.model.kit.KitRequestStatus;
+import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.service.kit.pepper.*;
 import bio.terra.pearl.core.service.participant.ProfileService;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -22,6 +23,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.time.ZoneId;
@@ -94,6 +97,39 @@ public class KitRequestServiceTest extends BaseSpringBootTest {
         );
     }
 
+    @Transactional
+    @Test
+    public void testRequestKitsReportsEachEnrollee(TestInfo testInfo) {
+        var adminUser = adminUserFactory.buildPersisted(getTestName(testInfo));
+        var kitType = kitTypeFactory.buildPersisted(getTestName(testInfo));
+        var goodEnrollee = enrolleeFactory.buildWithPortalUser(getTestName(testInfo)).enrollee();
+        var badAddressEnrollee = enrolleeFactory.buildWithPortalUser(getTestName(testInfo)).enrollee();
+        var noProfileEnrollee = enrolleeFactory.buildPersisted(getTestName(testInfo));
+        noProfileEnrollee.setProfileId(null);
+
+        when(mockPepperDSMClient.sendKitRequestAsync(any(), any(), any(), any())).thenAnswer(invocation -> {
+            var enrollee = (Enrollee) invocation.getArguments()[1];
+            var kitRequest = (KitRequest) invocation.getArguments()[2];
+            if (enrollee.getId().equals(badAddressEnrollee.getId())) {
+                return Mono.error(new PepperApiException("UNABLE_TO_VERIFY_ADDRESS", HttpStatus.BAD_REQUEST));
+            }
+            return Mono.just(PepperKitStatus.builder()
+                    .juniperKitId(kitRequest.getId().toString())
+                    .currentStatus(PepperKitStatus.Status.CREATED.currentStatus)
+                    .build());
+        });
+
+        var results = kitRequestService.requestKits(adminUser, "testStudy",
+                List.of(goodEnrollee, badAddressEnrollee, noProfileEnrollee), kitType.getName());
+
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0).kitRequest(), notNullValue());
+        assertThat(kitRequestDao.find(results.get(0).kitRequest().getId()).isPresent(), equalTo(true));
+        assertThat(results.get(1).error().getMessage(), equalTo("UNABLE_TO_VERIFY_ADDRESS"));
+        assertThat(results.get(2).error(), instanceOf(IllegalArgumentException.class));
+        assertThat(kitRequestDao.findByEnrollee(badAddressEnrollee.getId()), hasSize(0));
+    }
+
     @Transactional
     @Test
     public void testUpdateKitStatus(TestInfo testInfo) throws Exception {
@@ -194,10 +230,10 @@ public class KitRequestServiceTest extends BaseSpringBootTest {
                 .errorMessage("Something went wrong")
                 .errorDate(DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(ZoneId.systemDefault()).format(Instant.now()))
                 .build();
-        when(mockPepperDSMClient.fetchKitStatusByStudy(study.getShortcode()))
-                .thenReturn(List.of(kitStatus1a, kitStatus1b));
-        when(mockPepperDSMClient.fetchKitStatusByStudy(study2.getShortcode()))
-                .thenReturn(List.of(kitStatus2));
+        when(mockPepperDSMClient.fetchKitStatusByStudyAsync(study.getShortcode()))
+                .thenReturn(Flux.just(kitStatus1a, kitStatus1b));
+        when(mockPepperDSMClient.fetchKitStatusByStudyAsync(study2.getShortcode()))
+                .thenReturn(Flux.just(kitStatus2));
 
         /* Finally, sync the kit statuses  */
         kitRequestService.syncAllKitStatusesFromPepper();
@@ -18,7 +18,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +28,11 @@ import java.util.concurrent.TimeUnit;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LivePepperDSMClientTest extends BaseSpringBootTest {
@@ -211,6 +218,58 @@ public class LivePepperDSMClientTest extends BaseSpringBootTest {
         verifyRequestForPath("/kitstatus/study/juniper-%s".formatted(studyShortcode));
     }
 
+    @Transactional
+    @Test
+    public void testJwtReusedAcrossRequests() throws Exception {
+        PepperKitStatusResponse pepperResponse = PepperKitStatusResponse.builder()
+                .kits(new PepperKitStatus[]{})
+                .isError(false)
+                .build();
+        mockPepperResponse(HttpStatus.OK, objectMapper.writeValueAsString(pepperResponse));
+        mockPepperResponse(HttpStatus.OK, objectMapper.writeValueAsString(pepperResponse));
+        // tokens signed in the same second are identical, so comparing headers alone can't tell reuse from re-signing
+        LivePepperDSMClient spiedClient = spy(client);
+
+        spiedClient.fetchKitStatusByStudy("study1");
+        clearInvocations(spiedClient);
+        spiedClient.fetchKitStatusByStudy("study2");
+
+        verify(spiedClient, never()).generateDsmJwt(any(Instant.class));
+        var firstRequest = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        var secondRequest = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(secondRequest.getHeader("Authorization"), equalTo(firstRequest.getHeader("Authorization")));
+    }
+
+    @Transactional
+    @Test
+    public void testConnectionErrorIsPepperApiException() throws Exception {
+        // nothing is listening any more, so the connection is refused
+        mockWebServer.shutdown();
+
+        PepperApiException e = assertThrows(PepperApiException.class, () -> client.fetchKitStatusByStudy("study1"));
+        assertThat(e.getHttpStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Transactional
+    @Test
+    public void testConcurrentStudyRequests() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            PepperKitStatus kitStatus = PepperKitStatus.builder().juniperKitId("kit" + i).build();
+            mockPepperResponse(HttpStatus.OK, objectMapper.writeValueAsString(PepperKitStatusResponse.builder()
+                    .kits(new PepperKitStatus[]{kitStatus})
+                    .isError(false)
+                    .build()));
+        }
+
+        List<PepperKitStatus> statuses = Flux.just("study1", "study2", "study3")
+                .flatMap(studyShortcode -> client.fetchKitStatusByStudyAsync(studyShortcode))
+                .collectList()
+                .block();
+
+        assertThat(statuses, hasSize(3));
+        assertThat(mockWebServer.getRequestCount(), equalTo(3));
+    }
+
     private static void mockPepperResponse(HttpStatus status, String pepperResponse) {
         mockWebServer.enqueue(new MockResponse()
                 .addHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON)
@@ -0,0 +1,78 @@
+package bio.terra.pearl.core.service.kit.pepper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PepperCircuitBreakerTest {
+    @Test
+    public void testOpensAfterConsecutiveServerFailures() {
+        PepperCircuitBreaker circuitBreaker = new PepperCircuitBreaker(3, Duration.ofMinutes(1));
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failingCall = Mono.fromCallable(() -> {
+            calls.incrementAndGet();
+            throw new PepperApiException("server error", HttpStatus.INTERNAL_SERVER_ERROR);
+        });
+        for (int i = 0; i < 3; i++) {
+            assertThrows(PepperApiException.class, () -> circuitBreaker.protect(failingCall).block());
+        }
+        assertThat(circuitBreaker.isOpen(), equalTo(true));
+
+        // once open, calls fail without reaching DSM
+        PepperApiException e = assertThrows(PepperApiException.class,
+                () -> circuitBreaker.protect(failingCall).block());
+        assertThat(e.getHttpStatus(), equalTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(calls.get(), equalTo(3));
+    }
+
+    @Test
+    public void testClientErrorsDoNotOpen() {
+        PepperCircuitBreaker circuitBreaker = new PepperCircuitBreaker(2, Duration.ofMinutes(1));
+        Mono<String> badRequestCall = Mono.error(new PepperApiException("bad address", HttpStatus.BAD_REQUEST));
+        for (int i = 0; i < 5; i++) {
+            assertThrows(PepperApiException.class, () -> circuitBreaker.protect(badRequestCall).block());
+        }
+        assertThat(circuitBreaker.isOpen(), equalTo(false));
+    }
+
+    @Test
+    public void testTrialCallClosesCircuit() {
+        PepperCircuitBreaker circuitBreaker = new PepperCircuitBreaker(1, Duration.ZERO);
+        Mono<String> failingCall = Mono.error(new PepperApiException("timeout", HttpStatus.GATEWAY_TIMEOUT));
+        assertThrows(PepperApiException.class, () -> circuitBreaker.protect(failingCall).block());
+        assertThat(circuitBreaker.isOpen(), equalTo(true));
+
+        // the open duration has passed, so the next call is let through as a trial
+        assertThat(circuitBreaker.protect(Mono.just("ok")).block(), equalTo("ok"));
+        assertThat(circuitBreaker.isOpen(), equalTo(false));
+    }
+
+    @Test
+    public void testLocalRejectionsDoNotCount() {
+        PepperCircuitBreaker circuitBreaker = new PepperCircuitBreaker(1, Duration.ZERO);
+        Mono<String> rejectedCall = Mono.error(new PepperRequestRejectedException("pool full", null));
+        // a full local pool says nothing about DSM, so it doesn't open the circuit...
+        for (int i = 0; i < 5; i++) {
+            assertThrows(PepperApiException.class, () -> circuitBreaker.protect(rejectedCall).block());
+        }
+        assertThat(circuitBreaker.isOpen(), equalTo(false));
+
+        // ...or close it when the trial call is rejected
+        Mono<String> failingCall = Mono.error(new PepperApiException("unreachable", HttpStatus.SERVICE_UNAVAILABLE));
+        assertThrows(PepperApiException.class, () -> circuitBreaker.protect(failingCall).block());
+        assertThat(circuitBreaker.isOpen(), equalTo(true));
+        assertThrows(PepperApiException.class, () -> circuitBreaker.protect(rejectedCall).block());
+        assertThat(circuitBreaker.isOpen(), equalTo(true));
+
+        // the rejected trial is released, so the next call can still be the trial
+        assertThat(circuitBreaker.protect(Mono.just("ok")).block(), equalTo("ok"));
+        assertThat(circuitBreaker.isOpen(), equalTo(false));
+    }
+}
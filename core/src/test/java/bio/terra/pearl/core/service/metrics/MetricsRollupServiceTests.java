@@ -0,0 +1,78 @@
+package bio.terra.pearl.core.service.metrics;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.metrics.MetricName;
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.TimeBucket;
+import bio.terra.pearl.core.model.metrics.TimeRange;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.TransactionHandler;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+public class MetricsRollupServiceTests extends BaseSpringBootTest {
+    @Test
+    @Transactional
+    public void testRefreshAfterRestartOnlyRecomputesChangedDays() {
+        StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted("testRefreshAfterRestart");
+        Instant fourDaysAgo = Instant.now().minus(Duration.ofDays(4));
+        var builder = enrolleeFactory.builderWithDependencies("testRefreshAfterRestart", studyEnvironment)
+                .createdAt(fourDaysAgo)
+                .lastUpdatedAt(fourDaysAgo);
+        Enrollee enrollee = enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) builder);
+        metricsRollupService.rebuild();
+        List<UUID> rollupIds = findRollupIds(studyEnvironment.getId());
+        assertThat(rollupIds, hasSize(1));
+
+        // a new instance, e.g. after a deploy, picks up from the rollups already in the database rather than
+        // rebuilding them, so the unchanged day's rollup is left alone
+        MetricsRollupService restartedService = new MetricsRollupService(metricsDao, transactionHandler);
+        restartedService.refresh();
+        assertThat(findRollupIds(studyEnvironment.getId()), equalTo(rollupIds));
+
+        // but changes are still picked up
+        enrolleeService.updateConsented(enrollee.getId(), true);
+        restartedService.refresh();
+        List<BucketedMetricDatum> buckets = metricsDao.bucketedCounts(studyEnvironment.getId(),
+                MetricName.STUDY_ENROLLEE_CONSENTED, TimeBucket.DAY, new TimeRange(null, null));
+        assertThat(buckets, hasSize(1));
+        assertThat(buckets.get(0).getCount(), equalTo(1L));
+    }
+
+    private List<UUID> findRollupIds(UUID studyEnvironmentId) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("select id from metric_daily_rollup where study_environment_id = :studyEnvironmentId")
+                        .bind("studyEnvironmentId", studyEnvironmentId)
+                        .mapTo(UUID.class)
+                        .list());
+    }
+
+    @Autowired
+    private MetricsRollupService metricsRollupService;
+    @Autowired
+    private MetricsDao metricsDao;
+    @Autowired
+    private TransactionHandler transactionHandler;
+    @Autowired
+    private EnrolleeService enrolleeService;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private Jdbi jdbi;
+}
@@ -0,0 +1,98 @@
+package bio.terra.pearl.core.service.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+public class BulkNotificationExecutorTests {
+    @Test
+    public void testRunsAfterCommit() throws Exception {
+        BulkNotificationExecutor executor = buildExecutor(1, 10);
+        CountDownLatch ran = new CountDownLatch(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            executor.runAfterCommit(ran::countDown);
+            // nothing is submitted until the commit
+            assertThat(ran.await(100, TimeUnit.MILLISECONDS), equalTo(false));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(ran.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.destroy();
+    }
+
+    @Test
+    public void testFullQueueWaitsForRoom() throws Exception {
+        BulkNotificationExecutor executor = buildExecutor(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // one batch occupies the thread, and one fills the queue
+        executor.runAfterCommit(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.runAfterCommit(() -> { });
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread submitter = new Thread(() -> {
+            executor.runAfterCommit(ran::countDown);
+            submitted.countDown();
+        });
+        submitter.start();
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS), equalTo(false));
+
+        release.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(ran.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.destroy();
+    }
+
+    @Test
+    public void testRunsInlineAfterShutdown() throws Exception {
+        BulkNotificationExecutor executor = buildExecutor(1, 10);
+        executor.destroy();
+        // the threads have exited, so nothing would send a batch left in the queue
+        List<String> threads = new ArrayList<>();
+        executor.runAfterCommit(() -> threads.add(Thread.currentThread().getName()));
+        assertThat(threads, equalTo(List.of(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testFailureDoesNotStopLaterBatches() throws Exception {
+        BulkNotificationExecutor executor = buildExecutor(1, 10);
+        CountDownLatch ran = new CountDownLatch(1);
+        executor.runAfterCommit(() -> {
+            throw new IllegalStateException("test failure");
+        });
+        executor.runAfterCommit(ran::countDown);
+        assertThat(ran.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.destroy();
+    }
+
+    private BulkNotificationExecutor buildExecutor(int workerThreads, int queueCapacity) {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty(BulkNotificationExecutor.WORKER_THREADS_VAR, String.valueOf(workerThreads))
+                .withProperty(BulkNotificationExecutor.QUEUE_CAPACITY_VAR, String.valueOf(queueCapacity));
+        return new BulkNotificationExecutor(env, new StaticListableBeanFactory().getBeanProvider(TaskDecorator.class));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package bio.terra.pearl.core.service.notification.email;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
 import bio.terra.pearl.core.model.notification.EmailTemplate;
+import bio.terra.pearl.core.service.instrumentation.Instrumentation;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import bio.terra.pearl.core.service.notification.substitutors.AdminEmailSubstitutor;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
@@ -18,13 +19,15 @@ import org.springframework.transaction.annotation.Transactional;
 public class SendgridClientTests extends BaseSpringBootTest {
   @Autowired
   private ApplicationRoutingPaths applicationRoutingPaths;
+  @Autowired
+  private Instrumentation instrumentation;
 
   @Test
   @Transactional
   public void testEmailBuilding() {
     Environment env = new MockEnvironment().withProperty(SendgridClient.EMAIL_REDIRECT_VAR, "")
         .withProperty("env.hostnames.adminUi", "someserver.com");
-    SendgridClient sendgridClient = new SendgridClient(env);
+    SendgridClient sendgridClient = new SendgridClient(env, instrumentation);
     EmailTemplate emailTemplate = EmailTemplate.builder()
         .body("hello ${adminUsername}")
         .subject("Welcome to Juniper ${loginLink}").build();
@@ -41,7 +44,7 @@ public class SendgridClientTests extends BaseSpringBootTest {
 
     // now test that the to address is replaced if configured
     Environment devEnv = new MockEnvironment().withProperty(SendgridClient.EMAIL_REDIRECT_VAR, "developer@broad.org");
-    SendgridClient devSendgridClient = new SendgridClient(devEnv);
+    SendgridClient devSendgridClient = new SendgridClient(devEnv, instrumentation);
     Mail devEmail = devSendgridClient.buildEmail(contextInfo, "foo@bar.com", "us@broad.org", substitutor);
     assertThat(devEmail.personalization.get(0).getTos().get(0).getEmail(), equalTo("developer@broad.org"));
   }
@@ -1,15 +1,28 @@
 package bio.terra.pearl.core.service.participant;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.stats.QueryCountAssertions;
 import bio.terra.pearl.core.factory.DaoTestUtils;
 import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.kit.KitRequestFactory;
 import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
 import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.factory.survey.SurveyFactory;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.survey.AnswerService;
+import bio.terra.pearl.core.service.survey.SurveyResponseService;
+import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import org.junit.jupiter.api.Assertions;
@@ -60,4 +73,59 @@ public class EnrolleeServiceTests extends BaseSpringBootTest {
         });
         assertThat(enrolleeService.find(enrolleeBundle.enrollee().getId()).isPresent(), equalTo(true));
     }
+
+    @Test
+    @Transactional
+    public void testLoadForAdminViewStatementCount() throws Exception {
+        String testName = "testLoadForAdminViewStatementCount";
+        EnrolleeFactory.EnrolleeBundle bundle = enrolleeFactory.buildWithPortalUser(testName);
+        Enrollee enrollee = bundle.enrollee();
+        // several of each kind of child record, so a per-record query would show as extra statements
+        for (int i = 0; i < 3; i++) {
+            Survey survey = surveyFactory.buildPersisted(testName);
+            SurveyResponse response = surveyResponseService.create(SurveyResponse.builder()
+                    .enrolleeId(enrollee.getId())
+                    .creatingParticipantUserId(enrollee.getParticipantUserId())
+                    .surveyId(survey.getId())
+                    .build());
+            for (String questionStableId : List.of("color", "shape")) {
+                answerService.create(Answer.builder()
+                        .enrolleeId(enrollee.getId())
+                        .surveyResponseId(response.getId())
+                        .creatingParticipantUserId(enrollee.getParticipantUserId())
+                        .surveyStableId(survey.getStableId())
+                        .surveyVersion(survey.getVersion())
+                        .questionStableId(questionStableId)
+                        .answerType(AnswerType.STRING)
+                        .stringValue("blue")
+                        .build());
+            }
+            participantTaskFactory.buildPersisted(bundle, TaskStatus.NEW, TaskType.SURVEY);
+            kitRequestFactory.buildPersisted(testName, enrollee.getId());
+        }
+
+        // one statement per kind of child record, regardless of how many of each the enrollee has
+        QueryCountAssertions.assertMaxStatements(10, () ->
+                enrolleeService.loadForAdminView(enrolleeService.find(enrollee.getId()).get()));
+        QueryCountAssertions.assertNoRepeatedStatements(1, () ->
+                enrolleeService.loadForAdminView(enrolleeService.find(enrollee.getId()).get()));
+
+        Enrollee loaded = enrolleeService.loadForAdminView(enrolleeService.find(enrollee.getId()).get());
+        assertThat(loaded.getSurveyResponses(), hasSize(3));
+        assertThat(loaded.getSurveyResponses().get(0).getAnswers(), hasSize(2));
+        assertThat(loaded.getParticipantTasks(), hasSize(3));
+        assertThat(loaded.getKitRequests(), hasSize(3));
+        assertThat(loaded.getKitRequests(), everyItem(hasProperty("kitType", notNullValue())));
+    }
+
+    @Autowired
+    private SurveyFactory surveyFactory;
+    @Autowired
+    private SurveyResponseService surveyResponseService;
+    @Autowired
+    private AnswerService answerService;
+    @Autowired
+    private ParticipantTaskFactory participantTaskFactory;
+    @Autowired
+    private KitRequestFactory kitRequestFactory;
 }
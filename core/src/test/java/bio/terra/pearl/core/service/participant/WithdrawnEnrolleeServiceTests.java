@@ -5,6 +5,9 @@ import bio.terra.pearl.core.factory.DaoTestUtils;
 import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.participant.WithdrawnEnrollee;
+import bio.terra.pearl.core.service.BulkOperationProgress;
+import java.util.ArrayList;
+import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import org.junit.jupiter.api.Test;
@@ -31,4 +34,25 @@ public class WithdrawnEnrolleeServiceTests extends BaseSpringBootTest {
     assertThat(withdrawnEnrolleeService.find(withdrawnEnrollee.getId()).isPresent(), equalTo(true));
     assertThat(withdrawnEnrolleeService.isWithdrawn(enrollee.getShortcode()), equalTo(true));
   }
+
+  @Test
+  @Transactional
+  public void testBulkWithdraw() {
+    Enrollee enrollee = enrolleeFactory.buildPersisted("testBulkWithdraw");
+    Enrollee enrollee2 = enrolleeFactory.buildPersisted("testBulkWithdraw2");
+    List<BulkOperationProgress> progressUpdates = new ArrayList<>();
+    int withdrawnCount = withdrawnEnrolleeService.bulkWithdraw(List.of(enrollee.getId(), enrollee2.getId()),
+        progressUpdates::add);
+
+    assertThat(withdrawnCount, equalTo(2));
+    assertThat(enrolleeService.find(enrollee.getId()).isPresent(), equalTo(false));
+    assertThat(enrolleeService.find(enrollee2.getId()).isPresent(), equalTo(false));
+    assertThat(withdrawnEnrolleeService.isWithdrawn(enrollee.getShortcode()), equalTo(true));
+    assertThat(withdrawnEnrolleeService.isWithdrawn(enrollee2.getShortcode()), equalTo(true));
+    assertThat(progressUpdates.size(), equalTo(1));
+    assertThat(progressUpdates.get(0).isComplete(), equalTo(true));
+
+    // rerunning with the same ids is a no-op, since the enrollees are already gone
+    assertThat(withdrawnEnrolleeService.bulkWithdraw(List.of(enrollee.getId(), enrollee2.getId()), null), equalTo(0));
+  }
 }
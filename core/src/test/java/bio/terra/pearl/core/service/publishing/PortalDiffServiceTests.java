@@ -1,22 +1,56 @@
 package bio.terra.pearl.core.service.publishing;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.config.DbWorkload;
+import bio.terra.pearl.core.dao.publishing.PortalEnvironmentChangeRecordDao;
+import bio.terra.pearl.core.dao.stats.QueryCountAssertions;
+import bio.terra.pearl.core.dao.stats.QueryStats;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.StudyFactory;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.factory.portal.PortalFactory;
+import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.notification.EmailTemplate;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
 import bio.terra.pearl.core.model.notification.NotificationEventType;
 import bio.terra.pearl.core.model.notification.NotificationType;
+import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.portal.PortalEnvironmentConfig;
 import bio.terra.pearl.core.model.publishing.ConfigChange;
+import bio.terra.pearl.core.model.publishing.PortalEnvironmentChange;
+import bio.terra.pearl.core.model.publishing.StudyEnvironmentChange;
 import bio.terra.pearl.core.model.site.SiteContent;
+import bio.terra.pearl.core.model.study.Study;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironmentConfig;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.notification.NotificationConfigService;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentConfigService;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentService;
+import bio.terra.pearl.core.service.site.SiteContentService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentConfigService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentService;
+import bio.terra.pearl.core.service.study.StudyService;
+import bio.terra.pearl.core.service.survey.SurveyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.annotation.Transactional;
 
 public class PortalDiffServiceTests extends BaseSpringBootTest {
     @Autowired
@@ -175,4 +209,196 @@ public class PortalDiffServiceTests extends BaseSpringBootTest {
         assertThat(changeRecord.siteContentChange().isChanged(), equalTo(true));
         assertThat(changeRecord.preRegSurveyChanges().isChanged(), equalTo(true));
     }
+
+    @Test
+    @Transactional
+    public void testDiffOnlyChangedStudies(TestInfo info) throws Exception {
+        String testName = getTestName(info);
+        Portal portal = buildPortalWithEnvs(testName);
+        Study changedStudy = buildStudy(testName, portal, true);
+        Study unchangedStudy = buildStudy(testName, portal, false);
+
+        // the matched study shouldn't run any statements of its own, so the whole diff costs no more than the
+        // portal-level loads plus diffing the changed study
+        int portalStatements = countStatements(() -> {
+            PortalEnvironment irbEnv = portalDiffService.loadPortalEnvForProcessing(portal.getShortcode(), EnvironmentName.irb);
+            PortalEnvironment liveEnv = portalDiffService.loadPortalEnvForProcessing(portal.getShortcode(), EnvironmentName.live);
+            studyService.findByPortalId(portal.getId());
+            portalDiffService.findFingerprints(irbEnv);
+            return portalDiffService.findFingerprints(liveEnv);
+        });
+        int changedStudyStatements = countStatements(() ->
+                portalDiffService.diffStudyEnvs(changedStudy.getShortcode(), EnvironmentName.irb, EnvironmentName.live));
+        List<PortalEnvironmentChange> changeRecords = new ArrayList<>();
+        QueryCountAssertions.assertMaxStatements(portalStatements + changedStudyStatements, () ->
+                changeRecords.add(diffUnchecked(portalDiffService, portal)));
+
+        PortalEnvironmentChange changeRecord = changeRecords.get(0);
+        assertThat(changeRecord.studyEnvChanges(), hasSize(2));
+        for (StudyEnvironmentChange studyEnvChange : changeRecord.studyEnvChanges()) {
+            if (studyEnvChange.studyShortcode().equals(changedStudy.getShortcode())) {
+                assertThat(studyEnvChange.configChanges(), hasSize(1));
+                assertThat(studyEnvChange.configChanges().get(0).propertyName(), equalTo("password"));
+            } else {
+                assertThat(studyEnvChange.studyShortcode(), equalTo(unchangedStudy.getShortcode()));
+                assertThat(studyEnvChange.configChanges(), hasSize(0));
+                assertThat(studyEnvChange.preEnrollSurveyChanges().isChanged(), equalTo(false));
+                assertThat(studyEnvChange.surveyChanges().addedItems(), hasSize(0));
+            }
+        }
+    }
+
+    /** not transactional, since inside a transaction studies are diffed on the calling thread */
+    @Test
+    public void testDiffChangedStudiesOnDiffThreads(TestInfo info) throws Exception {
+        String testName = getTestName(info);
+        Portal portal = buildPortalWithEnvs(testName);
+        Study changedStudy1 = buildStudy(testName, portal, true);
+        Study changedStudy2 = buildStudy(testName, portal, true);
+        Study unchangedStudy = buildStudy(testName, portal, false);
+        List<String> diffContexts = Collections.synchronizedList(new ArrayList<>());
+        PortalDiffService threadedDiffService = new PortalDiffService(portalEnvironmentService,
+                portalEnvironmentConfigService, siteContentService, surveyService, notificationConfigService,
+                objectMapper, portalEnvironmentChangeRecordDao, studyEnvironmentService, studyService,
+                new MockEnvironment().withProperty(PortalDiffService.DIFF_THREADS_VAR, "2"),
+                contextCarryingDecorator()) {
+            @Override
+            public StudyEnvironmentChange diffStudyEnvs(String studyShortcode, EnvironmentName source,
+                                                        EnvironmentName dest) throws Exception {
+                diffContexts.add("%s %s %s".formatted(Thread.currentThread().getName().startsWith("portal-diff-"),
+                        DbWorkload.current(), TEST_CONTEXT.get()));
+                return super.diffStudyEnvs(studyShortcode, source, dest);
+            }
+        };
+        TEST_CONTEXT.set(testName);
+        try {
+            PortalEnvironmentChange changeRecord = DbWorkload.BATCH.call(() -> threadedDiffService.diffPortalEnvs(
+                    portal.getShortcode(), EnvironmentName.irb, EnvironmentName.live));
+
+            // only the changed studies were diffed, each on a diff thread with the caller's workload and context
+            assertThat(diffContexts, contains("true BATCH " + testName, "true BATCH " + testName));
+            assertThat(changeRecord.studyEnvChanges().stream().map(StudyEnvironmentChange::studyShortcode).toList(),
+                    containsInAnyOrder(changedStudy1.getShortcode(), changedStudy2.getShortcode(), unchangedStudy.getShortcode()));
+            for (StudyEnvironmentChange studyEnvChange : changeRecord.studyEnvChanges()) {
+                boolean changed = !studyEnvChange.studyShortcode().equals(unchangedStudy.getShortcode());
+                assertThat(studyEnvChange.configChanges(), hasSize(changed ? 1 : 0));
+            }
+        } finally {
+            TEST_CONTEXT.remove();
+            threadedDiffService.destroy();
+        }
+    }
+
+    @Test
+    public void testDiffThreadFailureIsUnwrapped(TestInfo info) throws Exception {
+        String testName = getTestName(info);
+        Portal portal = buildPortalWithEnvs(testName);
+        buildStudy(testName, portal, true);
+        PortalDiffService failingDiffService = new PortalDiffService(portalEnvironmentService,
+                portalEnvironmentConfigService, siteContentService, surveyService, notificationConfigService,
+                objectMapper, portalEnvironmentChangeRecordDao, studyEnvironmentService, studyService,
+                new MockEnvironment().withProperty(PortalDiffService.DIFF_THREADS_VAR, "2"),
+                new StaticListableBeanFactory().getBeanProvider(TaskDecorator.class)) {
+            @Override
+            public StudyEnvironmentChange diffStudyEnvs(String studyShortcode, EnvironmentName source,
+                                                        EnvironmentName dest) {
+                throw new IllegalStateException("diff failed for " + studyShortcode);
+            }
+        };
+        try {
+            // callers see the diff's own exception, not the ExecutionException wrapping it
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> failingDiffService
+                    .diffPortalEnvs(portal.getShortcode(), EnvironmentName.irb, EnvironmentName.live));
+            assertThat(e.getMessage(), startsWith("diff failed for "));
+        } finally {
+            failingDiffService.destroy();
+        }
+    }
+
+    private Portal buildPortalWithEnvs(String testName) {
+        Portal portal = portalFactory.buildPersisted(testName);
+        portalEnvironmentFactory.buildPersisted(testName, EnvironmentName.irb, portal.getId());
+        portalEnvironmentFactory.buildPersisted(testName, EnvironmentName.live, portal.getId());
+        return portal;
+    }
+
+    /** builds a study with irb and live environments, with a config change between them if changed is true */
+    private Study buildStudy(String testName, Portal portal, boolean changed) {
+        Study study = studyFactory.buildPersisted(portal.getId(), testName);
+        StudyEnvironment irbEnv = studyEnvironmentFactory.buildPersisted(EnvironmentName.irb, study.getId(), testName);
+        studyEnvironmentFactory.buildPersisted(EnvironmentName.live, study.getId(), testName);
+        if (changed) {
+            StudyEnvironmentConfig irbConfig = studyEnvironmentConfigService
+                    .find(irbEnv.getStudyEnvironmentConfigId()).get();
+            irbConfig.setPassword("foobar");
+            studyEnvironmentConfigService.update(irbConfig);
+        }
+        return study;
+    }
+
+    private static PortalEnvironmentChange diffUnchecked(PortalDiffService diffService, Portal portal) {
+        try {
+            return diffService.diffPortalEnvs(portal.getShortcode(), EnvironmentName.irb, EnvironmentName.live);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int countStatements(Callable<?> work) throws Exception {
+        QueryStats stats = QueryStats.start("test");
+        try {
+            work.call();
+        } finally {
+            stats.stop();
+        }
+        return stats.getStatementCount();
+    }
+
+    /** stands in for e.g. a tracing decorator, carrying TEST_CONTEXT from the submitting thread */
+    private static ObjectProvider<TaskDecorator> contextCarryingDecorator() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("testDecorator", (TaskDecorator) runnable -> {
+            String context = TEST_CONTEXT.get();
+            return () -> {
+                TEST_CONTEXT.set(context);
+                try {
+                    runnable.run();
+                } finally {
+                    TEST_CONTEXT.remove();
+                }
+            };
+        });
+        return beanFactory.getBeanProvider(TaskDecorator.class);
+    }
+
+    private static final ThreadLocal<String> TEST_CONTEXT = new ThreadLocal<>();
+
+    @Autowired
+    private PortalFactory portalFactory;
+    @Autowired
+    private PortalEnvironmentFactory portalEnvironmentFactory;
+    @Autowired
+    private StudyFactory studyFactory;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private StudyEnvironmentConfigService studyEnvironmentConfigService;
+    @Autowired
+    private PortalEnvironmentService portalEnvironmentService;
+    @Autowired
+    private PortalEnvironmentConfigService portalEnvironmentConfigService;
+    @Autowired
+    private SiteContentService siteContentService;
+    @Autowired
+    private SurveyService surveyService;
+    @Autowired
+    private NotificationConfigService notificationConfigService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PortalEnvironmentChangeRecordDao portalEnvironmentChangeRecordDao;
+    @Autowired
+    private StudyEnvironmentService studyEnvironmentService;
+    @Autowired
+    private StudyService studyService;
 }
@@ -0,0 +1,114 @@
+package bio.terra.pearl.core.service.survey;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.factory.survey.SurveyFactory;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
+import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.BulkOperationProgress;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
+import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
+import bio.terra.pearl.core.service.workflow.EnrolleeCreationEvent;
+import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
+import java.util.ArrayList;
+import java.util.List;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+public class SurveyAssignmentServiceTests extends BaseSpringBootTest {
+    @Test
+    @Transactional
+    public void testAssignToExistingEnrollees(TestInfo info) {
+        String testName = getTestName(info);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        var bundle1 = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+        var bundle2 = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+        Survey survey = surveyFactory.buildPersisted(testName);
+        StudyEnvironmentSurvey studyEnvSurvey = surveyFactory.attachToEnv(survey, studyEnv.getId(), true);
+
+        List<BulkOperationProgress> progressUpdates = new ArrayList<>();
+        SurveyAssignmentService.AssignmentResult result = surveyAssignmentService.assignToExistingEnrollees(
+                studyEnvSurvey, portalEnv.getId(), null, progressUpdates::add);
+
+        assertThat(result.enrolleesChecked(), equalTo(2));
+        assertThat(result.tasksCreated(), equalTo(2));
+        assertThat(progressUpdates, hasSize(1));
+        for (var bundle : List.of(bundle1, bundle2)) {
+            List<ParticipantTask> tasks = participantTaskService.findByEnrolleeId(bundle.enrollee().getId());
+            assertThat(tasks, hasSize(1));
+            assertThat(tasks.get(0).getTargetStableId(), equalTo(survey.getStableId()));
+            assertThat(tasks.get(0).getTaskType(), equalTo(TaskType.SURVEY));
+            assertThat(tasks.get(0).getPortalParticipantUserId(), equalTo(bundle.portalParticipantUser().getId()));
+        }
+
+        // a second run finds everyone already has the survey
+        result = surveyAssignmentService.assignToExistingEnrollees(studyEnvSurvey, portalEnv.getId(), null, null);
+        assertThat(result.tasksCreated(), equalTo(0));
+        assertThat(participantTaskService.findByEnrolleeId(bundle1.enrollee().getId()), hasSize(1));
+    }
+
+    @Test
+    @Transactional
+    public void testAssignRequiresActiveSurvey(TestInfo info) {
+        String testName = getTestName(info);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        Survey survey = surveyFactory.buildPersisted(testName);
+        StudyEnvironmentSurvey studyEnvSurvey = surveyFactory.attachToEnv(survey, studyEnv.getId(), false);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                surveyAssignmentService.assignToExistingEnrollees(studyEnvSurvey, portalEnv.getId(), null, null));
+    }
+
+    @Test
+    @Transactional
+    public void testEventAfterAssignmentDoesNotDuplicate(TestInfo info) {
+        String testName = getTestName(info);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        var bundle = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+        Survey survey = surveyFactory.buildPersisted(testName);
+        StudyEnvironmentSurvey studyEnvSurvey = surveyFactory.attachToEnv(survey, studyEnv.getId(), true);
+        // loaded before the assignment, as an event being processed concurrently would have been
+        Enrollee staleEnrollee = enrolleeService.find(bundle.enrollee().getId()).orElseThrow();
+
+        surveyAssignmentService.assignToExistingEnrollees(studyEnvSurvey, portalEnv.getId(), null, null);
+        surveyTaskDispatcher.createSurveyTasks(EnrolleeCreationEvent.builder()
+                .enrollee(staleEnrollee)
+                .portalParticipantUser(bundle.portalParticipantUser())
+                .enrolleeRuleData(new EnrolleeRuleData(staleEnrollee, null))
+                .build());
+
+        assertThat(participantTaskService.findByEnrolleeId(staleEnrollee.getId()), hasSize(1));
+    }
+
+    @Autowired
+    private SurveyAssignmentService surveyAssignmentService;
+    @Autowired
+    private SurveyTaskDispatcher surveyTaskDispatcher;
+    @Autowired
+    private EnrolleeService enrolleeService;
+    @Autowired
+    private ParticipantTaskService participantTaskService;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private SurveyFactory surveyFactory;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private PortalEnvironmentFactory portalEnvironmentFactory;
+}
@@ -0,0 +1,146 @@
+package bio.terra.pearl.core.service.workflow;
+
+import bio.terra.pearl.core.service.TransactionHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+public class EnrolleeEventExecutorTests {
+    @Test
+    public void testRunsInlineWhenNotAsync() {
+        EnrolleeEventExecutor executor = buildExecutor(false, 2, 10);
+        List<String> threads = new ArrayList<>();
+        executor.runAfterCommit(UUID.randomUUID(), () -> threads.add(Thread.currentThread().getName()));
+        assertThat(threads, equalTo(List.of(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testRunsAfterCommit() throws Exception {
+        EnrolleeEventExecutor executor = buildExecutor(true, 2, 10);
+        CountDownLatch ran = new CountDownLatch(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            executor.runAfterCommit(UUID.randomUUID(), ran::countDown);
+            // nothing is submitted until the commit
+            assertThat(ran.await(100, TimeUnit.MILLISECONDS), equalTo(false));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(ran.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.destroy();
+    }
+
+    @Test
+    public void testPreservesOrderPerEnrollee() throws Exception {
+        EnrolleeEventExecutor executor = buildExecutor(true, 4, 100);
+        UUID enrolleeId = UUID.randomUUID();
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            int eventNum = i;
+            executor.runAfterCommit(enrolleeId, () -> {
+                processed.add(eventNum);
+                done.countDown();
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(processed, equalTo(IntStream.range(0, 50).boxed().toList()));
+        executor.destroy();
+    }
+
+    @Test
+    public void testFullQueueWaitsForRoom() throws Exception {
+        EnrolleeEventExecutor executor = buildExecutor(true, 1, 1);
+        UUID enrolleeId = UUID.randomUUID();
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // one task occupies the lane's thread, and one fills its queue
+        executor.runAfterCommit(enrolleeId, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            processed.add(0);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+        executor.runAfterCommit(enrolleeId, () -> processed.add(1));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread submitter = new Thread(() -> {
+            executor.runAfterCommit(enrolleeId, () -> {
+                processed.add(2);
+                ran.countDown();
+            });
+            submitted.countDown();
+        });
+        submitter.start();
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS), equalTo(false));
+
+        // once there's room, the waiting work runs in the lane, after the work queued ahead of it
+        release.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(ran.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(processed, equalTo(List.of(0, 1, 2)));
+        executor.destroy();
+    }
+
+    @Test
+    public void testRunsInlineAfterShutdown() throws Exception {
+        EnrolleeEventExecutor executor = buildExecutor(true, 1, 10);
+        executor.destroy();
+        // the lane's thread has exited, so nothing would run work left in its queue
+        List<String> threads = new ArrayList<>();
+        executor.runAfterCommit(UUID.randomUUID(), () -> threads.add(Thread.currentThread().getName()));
+        assertThat(threads, equalTo(List.of(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testFailureDoesNotStopLane() throws Exception {
+        EnrolleeEventExecutor executor = buildExecutor(true, 1, 10);
+        UUID enrolleeId = UUID.randomUUID();
+        CountDownLatch ran = new CountDownLatch(1);
+        List<String> threads = new ArrayList<>();
+        executor.runAfterCommit(enrolleeId, () -> {
+            throw new IllegalStateException("test failure");
+        });
+        executor.runAfterCommit(enrolleeId, () -> {
+            threads.add(Thread.currentThread().getName());
+            ran.countDown();
+        });
+        assertThat(ran.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(threads.get(0), not(equalTo(Thread.currentThread().getName())));
+        executor.destroy();
+    }
+
+    private EnrolleeEventExecutor buildExecutor(boolean async, int workerThreads, int queueCapacity) {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty(EnrolleeEventExecutor.ASYNC_AFTER_COMMIT_VAR, String.valueOf(async))
+                .withProperty(EnrolleeEventExecutor.WORKER_THREADS_VAR, String.valueOf(workerThreads))
+                .withProperty(EnrolleeEventExecutor.QUEUE_CAPACITY_VAR, String.valueOf(queueCapacity));
+        // outside of spring, the TransactionHandler just runs the work without a new transaction
+        return new EnrolleeEventExecutor(env, new TransactionHandler(),
+                new StaticListableBeanFactory().getBeanProvider(TaskDecorator.class));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package bio.terra.pearl.core.dao.stats;
+
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+
+/**
+ * Test helpers for pinning how many sql statements a piece of work runs, so an N+1 query introduced later fails
+ * a test rather than showing up as a slow page.  e.g.
+ *   QueryCountAssertions.assertMaxStatements(12, () -> enrolleeService.loadForAdminView(enrollee));
+ */
+public class QueryCountAssertions {
+    /** runs the work, failing if it ran more than maxStatements statements */
+    public static void assertMaxStatements(int maxStatements, Runnable work) {
+        QueryStats stats = QueryStats.start("test");
+        try {
+            work.run();
+        } finally {
+            stats.stop();
+        }
+        if (stats.getStatementCount() > maxStatements) {
+            Assertions.fail("Expected at most %d sql statements but %d were run:\n%s".formatted(
+                    maxStatements, stats.getStatementCount(), describe(stats)));
+        }
+    }
+
+    /** runs the work, failing if any one statement was run more than maxRepeats times */
+    public static void assertNoRepeatedStatements(int maxRepeats, Runnable work) {
+        QueryStats stats = QueryStats.start("test");
+        try {
+            work.run();
+        } finally {
+            stats.stop();
+        }
+        if (!stats.getRepeatedStatements(maxRepeats + 1).isEmpty()) {
+            Assertions.fail("Expected no statement to run more than %d times:\n%s".formatted(maxRepeats, describe(stats)));
+        }
+    }
+
+    private static String describe(QueryStats stats) {
+        return stats.getCountsBySql().entrySet().stream()
+                .map(entry -> "%4d x %s".formatted(entry.getValue(), entry.getKey()))
+                .collect(Collectors.joining("\n"));
+    }
+}
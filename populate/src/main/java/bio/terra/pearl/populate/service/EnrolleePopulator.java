@@ -1,8 +1,13 @@
 package bio.terra.pearl.populate.service;
 
 import bio.terra.pearl.core.dao.admin.AdminUserDao;
+import bio.terra.pearl.core.dao.consent.ConsentResponseDao;
 import bio.terra.pearl.core.dao.kit.KitTypeDao;
+import bio.terra.pearl.core.dao.participant.EnrolleeDao;
+import bio.terra.pearl.core.dao.survey.AnswerDao;
 import bio.terra.pearl.core.dao.survey.PreEnrollmentResponseDao;
+import bio.terra.pearl.core.dao.survey.SurveyResponseDao;
+import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.consent.ConsentForm;
 import bio.terra.pearl.core.model.consent.ConsentResponse;
@@ -17,9 +22,12 @@ import bio.terra.pearl.core.model.survey.PreEnrollmentResponse;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.model.workflow.*;
+import bio.terra.pearl.core.service.BulkOperationProgress;
 import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.TransactionHandler;
 import bio.terra.pearl.core.service.consent.ConsentFormService;
 import bio.terra.pearl.core.service.consent.ConsentResponseService;
+import bio.terra.pearl.core.service.kit.EnrolleeKitSummaryService;
 import bio.terra.pearl.core.service.kit.KitRequestService;
 import bio.terra.pearl.core.service.kit.pepper.PepperKitStatus;
 import bio.terra.pearl.core.service.notification.NotificationConfigService;
@@ -38,6 +46,7 @@ import bio.terra.pearl.populate.dto.notifications.NotificationPopDto;
 import bio.terra.pearl.populate.dto.participant.EnrolleePopDto;
 import bio.terra.pearl.populate.dto.participant.ParticipantNotePopDto;
 import bio.terra.pearl.populate.dto.participant.ParticipantTaskPopDto;
+import bio.terra.pearl.populate.dto.participant.PortalParticipantUserPopDto;
 import bio.terra.pearl.populate.dto.survey.AnswerPopDto;
 import bio.terra.pearl.populate.dto.survey.PreEnrollmentResponsePopDto;
 import bio.terra.pearl.populate.dto.survey.SurveyResponsePopDto;
@@ -49,7 +58,11 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
 import static java.time.temporal.ChronoUnit.DAYS;
@@ -57,6 +70,9 @@ import static java.time.temporal.ChronoUnit.HOURS;
 
 @Service
 public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, StudyPopulateContext> {
+    private static final Logger logger = LoggerFactory.getLogger(EnrolleePopulator.class);
+    /** how many synthetic enrollees are built and inserted per transaction */
+    public static final int SYNTHETIC_BATCH_SIZE = 1000;
     private EnrolleeService enrolleeService;
     private StudyEnvironmentService studyEnvironmentService;
     private ParticipantUserService participantUserService;
@@ -78,7 +94,15 @@ public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, S
     private KitTypeDao kitTypeDao;
     private AdminUserDao adminUserDao;
     private ParticipantNotePopulator participantNotePopulator;
-
+    private PortalParticipantUserPopulator portalParticipantUserPopulator;
+    private TransactionHandler transactionHandler;
+    private EnrolleeDao enrolleeDao;
+    private SurveyResponseDao surveyResponseDao;
+    private AnswerDao answerDao;
+    private ConsentResponseDao consentResponseDao;
+    private ParticipantTaskDao participantTaskDao;
+    private EnrolleeKitSummaryService enrolleeKitSummaryService;
+    private EnrolleeSearchIndexService enrolleeSearchIndexService;
 
     public EnrolleePopulator(EnrolleeService enrolleeService,
                              StudyEnvironmentService studyEnvironmentService,
@@ -94,7 +118,13 @@ public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, S
                              WithdrawnEnrolleeService withdrawnEnrolleeService,
                              TimeShiftPopulateDao timeShiftPopulateDao,
                              KitRequestService kitRequestService, KitTypeDao kitTypeDao, AdminUserDao adminUserDao,
-                             ParticipantNotePopulator participantNotePopulator) {
+                             ParticipantNotePopulator participantNotePopulator,
+                             PortalParticipantUserPopulator portalParticipantUserPopulator,
+                             TransactionHandler transactionHandler, EnrolleeDao enrolleeDao,
+                             SurveyResponseDao surveyResponseDao, AnswerDao answerDao,
+                             ConsentResponseDao consentResponseDao, ParticipantTaskDao participantTaskDao,
+                             EnrolleeKitSummaryService enrolleeKitSummaryService,
+                             EnrolleeSearchIndexService enrolleeSearchIndexService) {
         this.portalParticipantUserService = portalParticipantUserService;
         this.preEnrollmentResponseDao = preEnrollmentResponseDao;
         this.surveyService = surveyService;
@@ -116,6 +146,15 @@ public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, S
         this.kitRequestService = kitRequestService;
         this.kitTypeDao = kitTypeDao;
         this.adminUserDao = adminUserDao;
+        this.portalParticipantUserPopulator = portalParticipantUserPopulator;
+        this.transactionHandler = transactionHandler;
+        this.enrolleeDao = enrolleeDao;
+        this.surveyResponseDao = surveyResponseDao;
+        this.answerDao = answerDao;
+        this.consentResponseDao = consentResponseDao;
+        this.participantTaskDao = participantTaskDao;
+        this.enrolleeKitSummaryService = enrolleeKitSummaryService;
+        this.enrolleeSearchIndexService = enrolleeSearchIndexService;
     }
 
     private void populateResponse(Enrollee enrollee, SurveyResponsePopDto responsePopDto,
@@ -384,6 +423,8 @@ public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, S
         if (popDto.isTimeShifted()) {
             timeShiftPopulateDao.changeEnrolleeCreationTime(enrollee.getId(), popDto.shiftedInstant());
         }
+        // kits, the shortcode and the creation time are written above without going through the summary refresh
+        enrolleeKitSummaryService.refresh(enrollee.getId());
         if (popDto.isWithdrawn()) {
             withdrawnEnrolleeService.withdrawEnrollee(enrollee);
         }
@@ -416,6 +457,222 @@ public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, S
         });
     }
 
+    /**
+     * Bulk mode for generating large synthetic datasets, e.g. for load testing.  Generates numEnrollees participants
+     * and enrollees from the portal's participant and enrollee seed files, with the pre-enrollment response, tasks,
+     * survey responses, answers and consent responses from the seed.  Unlike bulkPopulateEnrollees, the seed is only
+     * resolved once, ids are assigned client-side, and everything is written with one insert batch per table, per
+     * SYNTHETIC_BATCH_SIZE enrollees.  Each batch commits in its own transaction.  No events are published, so
+     * nothing downstream (task dispatch, notifications) is triggered, and kit requests, notes and notifications in the
+     * seed are not generated.
+     * progressListener is optional, and is called after each batch.  Returns the number of enrollees created.
+     */
+    public int bulkPopulateSynthetic(String portalShortcode, EnvironmentName envName, String studyShortcode,
+                                     int numEnrollees, Consumer<BulkOperationProgress> progressListener) throws IOException {
+        StudyPopulateContext context = new StudyPopulateContext("portals/" + portalShortcode + "/studies/" + studyShortcode + "/enrollees/seed.json", portalShortcode, studyShortcode, envName, new HashMap<>());
+        EnrolleePopDto enrolleeSeed = readValue(filePopulateService.readFile(context.getRootFileName(), context));
+        PortalParticipantUserPopDto participantSeed = portalParticipantUserPopulator
+                .readSyntheticTemplate(portalShortcode, envName, studyShortcode);
+        StudyEnvironment studyEnv = studyEnvironmentService.findByStudy(studyShortcode, envName).get();
+        SyntheticTemplate template = resolveSyntheticTemplate(enrolleeSeed);
+
+        int processed = 0;
+        while (processed < numEnrollees) {
+            int batchSize = Math.min(SYNTHETIC_BATCH_SIZE, numEnrollees - processed);
+            processed += transactionHandler.runInTransaction(() ->
+                    populateSyntheticBatch(batchSize, template, participantSeed, studyEnv));
+            BulkOperationProgress progress = new BulkOperationProgress("synthetic populate", processed, numEnrollees);
+            logger.info("Synthetic populate: {} of {} enrollees created ({}%)",
+                    processed, numEnrollees, progress.percentComplete());
+            if (progressListener != null) {
+                progressListener.accept(progress);
+            }
+        }
+        return processed;
+    }
+
+    /** does all the lookups and json conversion the seed needs, so they aren't repeated per-enrollee */
+    protected SyntheticTemplate resolveSyntheticTemplate(EnrolleePopDto seed) throws JsonProcessingException {
+        PreEnrollmentResponse preEnrollTemplate = null;
+        if (seed.getPreEnrollmentResponseDto() != null) {
+            PreEnrollmentResponsePopDto preEnrollDto = seed.getPreEnrollmentResponseDto();
+            Survey survey = surveyService.findByStableId(preEnrollDto.getSurveyStableId(),
+                    preEnrollDto.getSurveyVersion()).get();
+            preEnrollTemplate = PreEnrollmentResponse.builder()
+                    .surveyId(survey.getId())
+                    .qualified(preEnrollDto.isQualified())
+                    .fullData(objectMapper.writeValueAsString(preEnrollDto.getAnswers()))
+                    .build();
+        }
+        List<SyntheticSurveyResponse> surveyResponses = new ArrayList<>();
+        for (SurveyResponsePopDto responseDto : seed.getSurveyResponseDtos()) {
+            Survey survey = surveyService.findByStableId(responseDto.getSurveyStableId(),
+                    responseDto.getSurveyVersion()).get();
+            List<Answer> answers = new ArrayList<>();
+            for (AnswerPopDto answerPopDto : responseDto.getAnswerPopDtos()) {
+                answers.add(convertAnswerPopDto(answerPopDto));
+            }
+            surveyResponses.add(new SyntheticSurveyResponse(survey, responseDto, answers));
+        }
+        List<SyntheticConsentResponse> consentResponses = new ArrayList<>();
+        for (ConsentResponsePopDto consentDto : seed.getConsentResponseDtos()) {
+            ConsentForm consentForm = consentFormService.findByStableId(consentDto.getConsentStableId(),
+                    consentDto.getConsentVersion()).get();
+            consentResponses.add(new SyntheticConsentResponse(consentForm, consentDto,
+                    objectMapper.writeValueAsString(consentDto.getAnswers())));
+        }
+        for (ParticipantTaskPopDto taskDto : seed.getParticipantTaskDtos()) {
+            if (taskDto.getTargetName() == null) {
+                taskDto.setTargetName(getTargetName(taskDto.getTaskType(), taskDto.getTargetStableId(),
+                        taskDto.getTargetAssignedVersion()));
+            }
+        }
+        return new SyntheticTemplate(preEnrollTemplate, surveyResponses, consentResponses,
+                new ArrayList<>(seed.getParticipantTaskDtos()));
+    }
+
+    /** builds and inserts batchSize enrollees, returning the number created */
+    protected int populateSyntheticBatch(int batchSize, SyntheticTemplate template,
+                                          PortalParticipantUserPopDto participantSeed, StudyEnvironment studyEnv) {
+        List<PortalParticipantUser> ppUsers = new ArrayList<>();
+        List<PreEnrollmentResponse> preEnrollResponses = new ArrayList<>();
+        List<Enrollee> enrollees = new ArrayList<>();
+        List<SurveyResponse> surveyResponses = new ArrayList<>();
+        List<Answer> answers = new ArrayList<>();
+        List<ConsentResponse> consentResponses = new ArrayList<>();
+        List<ParticipantTask> tasks = new ArrayList<>();
+
+        for (int i = 0; i < batchSize; i++) {
+            PortalParticipantUser ppUser = portalParticipantUserPopulator.buildSyntheticParticipant(participantSeed);
+            ppUsers.add(ppUser);
+            UUID participantUserId = ppUser.getParticipantUserId();
+            //add some jitter to when they joined, to make graphs/views more interesting
+            Instant joinedAt = Instant.now().minus(PopulateUtils.randomInteger(0, 480), HOURS);
+            Enrollee enrollee = Enrollee.builder()
+                    .id(UUID.randomUUID())
+                    .participantUserId(participantUserId)
+                    .profileId(ppUser.getProfileId())
+                    .studyEnvironmentId(studyEnv.getId())
+                    .shortcode(PopulateUtils.randomShortcode(""))
+                    .consented(PopulateUtils.randomBoolean(95)) //95% chance an enrollee will be consented
+                    .createdAt(joinedAt)
+                    .lastUpdatedAt(joinedAt)
+                    .build();
+            if (template.preEnrollResponse() != null) {
+                PreEnrollmentResponse preEnrollResponse = PreEnrollmentResponse.builder()
+                        .id(UUID.randomUUID())
+                        .surveyId(template.preEnrollResponse().getSurveyId())
+                        .qualified(template.preEnrollResponse().isQualified())
+                        .fullData(template.preEnrollResponse().getFullData())
+                        .creatingParticipantUserId(participantUserId)
+                        .portalParticipantUserId(ppUser.getId())
+                        .studyEnvironmentId(studyEnv.getId())
+                        .createdAt(joinedAt)
+                        .lastUpdatedAt(joinedAt)
+                        .build();
+                preEnrollResponses.add(preEnrollResponse);
+                enrollee.setPreEnrollmentResponseId(preEnrollResponse.getId());
+            }
+            enrollees.add(enrollee);
+
+            // so tasks can be linked to the responses that complete them
+            Map<String, UUID> responseIdsByStableId = new HashMap<>();
+            for (SyntheticSurveyResponse responseTemplate : template.surveyResponses()) {
+                SurveyResponse response = SurveyResponse.builder()
+                        .id(UUID.randomUUID())
+                        .surveyId(responseTemplate.survey().getId())
+                        .enrolleeId(enrollee.getId())
+                        .creatingParticipantUserId(participantUserId)
+                        .complete(responseTemplate.responseDto().isComplete())
+                        .resumeData(makeSyntheticResumeData(responseTemplate.responseDto().getCurrentPageNo(), participantUserId))
+                        .createdAt(joinedAt)
+                        .lastUpdatedAt(joinedAt)
+                        .build();
+                surveyResponses.add(response);
+                responseIdsByStableId.put(responseTemplate.survey().getStableId(), response.getId());
+                for (Answer answerTemplate : responseTemplate.answers()) {
+                    Answer answer = Answer.builder()
+                            .id(UUID.randomUUID())
+                            .surveyResponseId(response.getId())
+                            .enrolleeId(enrollee.getId())
+                            .creatingParticipantUserId(participantUserId)
+                            .questionStableId(answerTemplate.getQuestionStableId())
+                            .surveyStableId(responseTemplate.survey().getStableId())
+                            .surveyVersion(responseTemplate.survey().getVersion())
+                            .createdAt(joinedAt)
+                            .lastUpdatedAt(joinedAt)
+                            .build();
+                    answer.copyValuesFrom(answerTemplate);
+                    answers.add(answer);
+                }
+            }
+            Map<String, UUID> consentIdsByStableId = new HashMap<>();
+            for (SyntheticConsentResponse consentTemplate : template.consentResponses()) {
+                ConsentResponse consentResponse = ConsentResponse.builder()
+                        .id(UUID.randomUUID())
+                        .consentFormId(consentTemplate.consentForm().getId())
+                        .enrolleeId(enrollee.getId())
+                        .creatingParticipantUserId(participantUserId)
+                        .consented(consentTemplate.consentDto().isConsented())
+                        .completed(consentTemplate.consentDto().isCompleted())
+                        .fullData(consentTemplate.fullData())
+                        .resumeData(makeSyntheticResumeData(consentTemplate.consentDto().getCurrentPageNo(), participantUserId))
+                        .createdAt(joinedAt)
+                        .lastUpdatedAt(joinedAt)
+                        .build();
+                consentResponses.add(consentResponse);
+                consentIdsByStableId.put(consentTemplate.consentForm().getStableId(), consentResponse.getId());
+            }
+            for (ParticipantTask taskTemplate : template.tasks()) {
+                ParticipantTask task = new ParticipantTask();
+                BeanUtils.copyProperties(taskTemplate, task);
+                task.cleanForCopying();
+                task.setId(UUID.randomUUID());
+                task.setCreatedAt(joinedAt);
+                task.setLastUpdatedAt(joinedAt);
+                task.setEnrolleeId(enrollee.getId());
+                task.setStudyEnvironmentId(studyEnv.getId());
+                task.setPortalParticipantUserId(ppUser.getId());
+                if (task.getStatus() != null && task.getStatus().isTerminalStatus()) {
+                    task.setCompletedAt(joinedAt);
+                }
+                if (TaskType.SURVEY.equals(task.getTaskType())) {
+                    task.setSurveyResponseId(responseIdsByStableId.get(task.getTargetStableId()));
+                } else if (TaskType.CONSENT.equals(task.getTaskType())) {
+                    task.setConsentResponseId(consentIdsByStableId.get(task.getTargetStableId()));
+                }
+                tasks.add(task);
+            }
+        }
+        // written in foreign-key dependency order
+        portalParticipantUserPopulator.bulkCreateParticipants(ppUsers);
+        preEnrollmentResponseDao.bulkCreateWithIdSpecified(preEnrollResponses);
+        enrolleeDao.bulkCreateWithIdSpecified(enrollees);
+        surveyResponseDao.bulkCreateWithIdSpecified(surveyResponses);
+        answerDao.bulkCreateWithIdSpecified(answers);
+        consentResponseDao.bulkCreateWithIdSpecified(consentResponses);
+        participantTaskDao.bulkCreateWithIdSpecified(tasks);
+        List<UUID> enrolleeIds = enrollees.stream().map(Enrollee::getId).toList();
+        enrolleeKitSummaryService.refresh(enrolleeIds);
+        enrolleeSearchIndexService.refresh(enrolleeIds);
+        return enrollees.size();
+    }
+
+    private String makeSyntheticResumeData(Integer currentPageNo, UUID participantUserId) {
+        try {
+            return makeResumeData(currentPageNo, participantUserId);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    protected record SyntheticSurveyResponse(Survey survey, SurveyResponsePopDto responseDto, List<Answer> answers) {}
+    protected record SyntheticConsentResponse(ConsentForm consentForm, ConsentResponsePopDto consentDto, String fullData) {}
+    protected record SyntheticTemplate(PreEnrollmentResponse preEnrollResponse,
+                                       List<SyntheticSurveyResponse> surveyResponses,
+                                       List<SyntheticConsentResponse> consentResponses,
+                                       List<? extends ParticipantTask> tasks) {}
+
     private void populateKitRequests(EnrolleePopDto popDto) {
         popDto.getKitRequestDtos().forEach(kitDto -> {
             try {
@@ -1,6 +1,11 @@
 package bio.terra.pearl.populate.service;
 
+import bio.terra.pearl.core.dao.participant.MailingAddressDao;
+import bio.terra.pearl.core.dao.participant.ParticipantUserDao;
+import bio.terra.pearl.core.dao.participant.PortalParticipantUserDao;
+import bio.terra.pearl.core.dao.participant.ProfileDao;
 import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.participant.PortalParticipantUser;
 import bio.terra.pearl.core.model.participant.Profile;
@@ -20,6 +25,7 @@ import java.util.stream.IntStream;
 
 import bio.terra.pearl.populate.service.contexts.StudyPopulateContext;
 import bio.terra.pearl.populate.util.PopulateUtils;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -27,13 +33,24 @@ public class PortalParticipantUserPopulator extends BasePopulator<PortalParticip
     private ParticipantUserService participantUserService;
     private PortalParticipantUserService portalParticipantUserService;
     private PortalEnvironmentService portalEnvironmentService;
+    private ParticipantUserDao participantUserDao;
+    private PortalParticipantUserDao portalParticipantUserDao;
+    private ProfileDao profileDao;
+    private MailingAddressDao mailingAddressDao;
 
     public PortalParticipantUserPopulator(ParticipantUserService participantUserService,
                                           PortalParticipantUserService portalParticipantUserService,
-                                          PortalEnvironmentService portalEnvironmentService) {
+                                          PortalEnvironmentService portalEnvironmentService,
+                                          ParticipantUserDao participantUserDao,
+                                          PortalParticipantUserDao portalParticipantUserDao,
+                                          ProfileDao profileDao, MailingAddressDao mailingAddressDao) {
         this.participantUserService = participantUserService;
         this.portalParticipantUserService = portalParticipantUserService;
         this.portalEnvironmentService = portalEnvironmentService;
+        this.participantUserDao = participantUserDao;
+        this.portalParticipantUserDao = portalParticipantUserDao;
+        this.profileDao = profileDao;
+        this.mailingAddressDao = mailingAddressDao;
     }
 
     @Override
@@ -120,4 +137,69 @@ public class PortalParticipantUserPopulator extends BasePopulator<PortalParticip
         return populatedUsernames;
     }
 
+    /** reads the portal's participant seed file, with the portal environment id resolved, for use with buildSyntheticParticipant */
+    public PortalParticipantUserPopDto readSyntheticTemplate(String portalShortcode, EnvironmentName envName,
+                                                             String studyShortcode) throws IOException {
+        StudyPopulateContext context = new StudyPopulateContext("portals/" + portalShortcode + "/participants/seed.json", portalShortcode, studyShortcode, envName, new HashMap<>());
+        PortalParticipantUserPopDto template = readValue(filePopulateService.readFile(context.getRootFileName(), context));
+        PortalEnvironment portalEnvironment = portalEnvironmentService.findOne(portalShortcode, envName).get();
+        template.setPortalEnvironmentId(portalEnvironment.getId());
+        template.getParticipantUser().setEnvironmentName(envName);
+        return template;
+    }
+
+    /**
+     * builds, but does not save, a randomized participant from the template.  Ids are assigned here so that the user,
+     * profile and mailing address (and anything else the caller builds) can be linked up before they're written
+     * with bulkCreateParticipants.
+     */
+    public PortalParticipantUser buildSyntheticParticipant(PortalParticipantUserPopDto template) {
+        String username = PopulateUtils.generateEmail();
+        ParticipantUser user = ParticipantUser.builder()
+                .id(UUID.randomUUID())
+                .username(username)
+                .lastLogin(Instant.now().minusSeconds(Math.round(Math.random() * 60 * 60 * 24 * 30)))
+                .build();
+        user.setEnvironmentName(template.getParticipantUser().getEnvironmentName());
+
+        Profile profile = new Profile();
+        BeanUtils.copyProperties(template.getProfile(), profile);
+        profile.cleanForCopying();
+        profile.setId(UUID.randomUUID());
+        profile.setContactEmail(username);
+        profile.setGivenName(PopulateUtils.randomString(7));
+        profile.setFamilyName(PopulateUtils.randomString(7));
+        profile.setBirthDate(PopulateUtils.generateRandomDate());
+        //do not attempt to send any emails to these users. it could easily eat up sendgrid quota
+        profile.setDoNotEmail(true);
+        profile.setDoNotEmailSolicit(true);
+        MailingAddress templateAddress = template.getProfile().getMailingAddress();
+        if (templateAddress != null) {
+            MailingAddress mailingAddress = new MailingAddress();
+            BeanUtils.copyProperties(templateAddress, mailingAddress);
+            mailingAddress.cleanForCopying();
+            mailingAddress.setId(UUID.randomUUID());
+            profile.setMailingAddress(mailingAddress);
+            profile.setMailingAddressId(mailingAddress.getId());
+        }
+
+        return PortalParticipantUser.builder()
+                .id(UUID.randomUUID())
+                .participantUser(user)
+                .participantUserId(user.getId())
+                .profile(profile)
+                .profileId(profile.getId())
+                .portalEnvironmentId(template.getPortalEnvironmentId())
+                .build();
+    }
+
+    /** writes participants from buildSyntheticParticipant with one batch per table.  Callers manage the transaction */
+    public void bulkCreateParticipants(List<PortalParticipantUser> ppUsers) {
+        mailingAddressDao.bulkCreateWithIdSpecified(ppUsers.stream()
+                .map(ppUser -> ppUser.getProfile().getMailingAddress())
+                .filter(Objects::nonNull).toList());
+        profileDao.bulkCreateWithIdSpecified(ppUsers.stream().map(PortalParticipantUser::getProfile).toList());
+        participantUserDao.bulkCreateWithIdSpecified(ppUsers.stream().map(PortalParticipantUser::getParticipantUser).toList());
+        portalParticipantUserDao.bulkCreateWithIdSpecified(ppUsers);
+    }
 }
@@ -0,0 +1,76 @@
+package bio.terra.pearl.populate;
+
+import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.consent.ConsentResponse;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.PortalParticipantUser;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.service.BulkOperationProgress;
+import bio.terra.pearl.core.service.consent.ConsentResponseService;
+import bio.terra.pearl.core.service.participant.PortalParticipantUserService;
+import bio.terra.pearl.populate.service.EnrolleePopulator;
+import bio.terra.pearl.populate.service.contexts.FilePopulateContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** confirm synthetic enrollees are generated from the demo seed files, with everything linked up */
+public class PopulateSyntheticTest extends BasePopulatePortalsTest {
+    @Autowired
+    private EnrolleePopulator enrolleePopulator;
+    @Autowired
+    private PortalParticipantUserService portalParticipantUserService;
+    @Autowired
+    private ConsentResponseService consentResponseService;
+
+    @Test
+    @Transactional
+    public void testBulkPopulateSynthetic() throws Exception {
+        setUpEnvironments();
+        portalPopulator.populate(new FilePopulateContext("portals/demo/portal.json"), true);
+        StudyEnvironment studyEnv = studyEnvironmentService.findByStudy("heartdemo", EnvironmentName.sandbox).get();
+        PortalEnvironment portalEnv = portalEnvironmentService.findOne("demo", EnvironmentName.sandbox).get();
+        Set<UUID> seededEnrolleeIds = enrolleeService.findByStudyEnvironment(studyEnv.getId()).stream()
+                .map(Enrollee::getId).collect(Collectors.toSet());
+
+        List<BulkOperationProgress> progress = new ArrayList<>();
+        int created = enrolleePopulator.bulkPopulateSynthetic("demo", EnvironmentName.sandbox, "heartdemo", 3,
+                progress::add);
+
+        assertThat(created, equalTo(3));
+        assertThat(progress, contains(new BulkOperationProgress("synthetic populate", 3, 3)));
+        List<Enrollee> syntheticEnrollees = enrolleeService.findByStudyEnvironment(studyEnv.getId()).stream()
+                .filter(enrollee -> !seededEnrolleeIds.contains(enrollee.getId())).toList();
+        assertThat(syntheticEnrollees, hasSize(3));
+        assertThat(syntheticEnrollees.stream().map(Enrollee::getShortcode).distinct().toList(), hasSize(3));
+        for (Enrollee enrollee : syntheticEnrollees) {
+            PortalParticipantUser ppUser = portalParticipantUserService
+                    .findOne(enrollee.getParticipantUserId(), portalEnv.getId()).get();
+            assertThat(enrollee.getProfileId(), equalTo(ppUser.getProfileId()));
+            assertThat(enrollee.getPreEnrollmentResponseId(), notNullValue());
+
+            // the seed has three survey responses with eight answers between them, and one consent response
+            List<SurveyResponse> responses = surveyResponseService.findByEnrolleeId(enrollee.getId());
+            assertThat(responses, hasSize(3));
+            List<Answer> answers = responses.stream()
+                    .flatMap(response -> answerService.findByResponse(response.getId()).stream()).toList();
+            assertThat(answers, hasSize(8));
+            assertThat(answers, everyItem(hasProperty("enrolleeId", equalTo(enrollee.getId()))));
+            List<ConsentResponse> consentResponses = consentResponseService.findByEnrolleeId(enrollee.getId());
+            assertThat(consentResponses, hasSize(1));
+            assertThat(consentResponses.get(0).getCreatingParticipantUserId(), equalTo(enrollee.getParticipantUserId()));
+        }
+    }
+}
@@ -239,6 +239,37 @@ export type KitRequest = {
   pepperStatus?: PepperKitStatus
 }
 
+/** precomputed consent, survey and kit information for one enrollee, for choosing who to send kits to */
+export type EnrolleeKitSummary = {
+  id: string,
+  enrolleeId: string,
+  enrolleeShortcode: string,
+  enrolleeCreatedAt: number,
+  consented: boolean,
+  requiredSurveysCompleted: number,
+  optionalSurveysCompleted: number,
+  kitRequestCount: number,
+  latestKitStatus?: string,
+  latestKitCreatedAt?: number
+}
+
+export type EnrolleeKitSummaryPage = {
+  summaries: EnrolleeKitSummary[],
+  totalCount: number,
+  requiredSurveyCount: number
+}
+
+/** filters are optional -- leaving one out means don't filter on that property */
+export type EnrolleeKitSummaryQuery = {
+  consented?: boolean,
+  requiredSurveysComplete?: boolean,
+  kitRequested?: boolean,
+  sortProperty: string,
+  sortDir: 'asc' | 'desc',
+  pageIndex: number,
+  pageSize: number
+}
+
 export type Config = {
   b2cTenantName: string,
   b2cClientId: string,
@@ -324,6 +355,15 @@ export type BasicMetricDatum = {
   subcategory?: string
 }
 
+export type BucketedMetricDatum = {
+  bucket: number,
+  name: string,
+  subcategory?: string,
+  count: number
+}
+
+export type MetricTimeBucket = 'hour' | 'day' | 'week'
+
 export type DatasetDetails = {
   id: string,
   createdAt: number,
@@ -746,12 +786,19 @@ export default {
     return await this.processJsonResponse(response)
   },
 
-  async fetchEnrolleesWithKits(
+  async fetchEnrolleeKitSummaries(
     portalShortcode: string,
     studyShortcode: string,
-    envName: string
-  ): Promise<Enrollee[]> {
-    const url = `${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/enrolleesWithKits`
+    envName: string,
+    query: EnrolleeKitSummaryQuery
+  ): Promise<EnrolleeKitSummaryPage> {
+    const params = new URLSearchParams()
+    Object.entries(query).forEach(([key, value]) => {
+      if (value !== undefined) {
+        params.set(key, value.toString())
+      }
+    })
+    const url = `${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/kits/enrolleeSummaries?${params}`
     const response = await fetch(url, this.getGetInit())
     return await this.processJsonResponse(response)
   },
@@ -874,6 +921,23 @@ export default {
     return await this.processJsonResponse(response)
   },
 
+  async fetchBucketedMetric(portalShortcode: string, studyShortcode: string, envName: string, metricName: string,
+    bucket: MetricTimeBucket): Promise<BucketedMetricDatum[]> {
+    const params = new URLSearchParams({ bucket })
+    const url = `${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/metrics/${metricName}/buckets?${params}`
+    const response = await fetch(url,  this.getGetInit())
+    return await this.processJsonResponse(response)
+  },
+
+  /** bucketed counts for several metrics in one request, keyed by metric name */
+  async fetchMetricsDashboard(portalShortcode: string, studyShortcode: string, envName: string, metricNames: string[],
+    bucket: MetricTimeBucket): Promise<Record<string, BucketedMetricDatum[]>> {
+    const params = new URLSearchParams({ metricNames: metricNames.join(','), bucket })
+    const url = `${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/metrics/dashboard?${params}`
+    const response = await fetch(url, this.getGetInit())
+    return await this.processJsonResponse(response)
+  },
+
   exportEnrollees(portalShortcode: string, studyShortcode: string,
     envName: string, exportOptions: ExportOptions):
     Promise<Response> {
@@ -1,25 +1,22 @@
 import React, { useState } from 'react'
-import _keyBy from 'lodash/keyBy'
-import _mapValues from 'lodash/mapValues'
 import { Link } from 'react-router-dom'
 import {
   ColumnDef,
   ColumnFiltersState,
   getCoreRowModel,
-  getFilteredRowModel,
-  getSortedRowModel, SortingState,
+  PaginationState,
+  SortingState,
   useReactTable,
   VisibilityState
 } from '@tanstack/react-table'
 
-import Api, { Enrollee } from 'api/api'
+import Api, { EnrolleeKitSummary, EnrolleeKitSummaryPage } from 'api/api'
 import { StudyEnvContextT } from 'study/StudyEnvironmentRouter'
 import {
   basicTableLayout,
   checkboxColumnCell,
   ColumnVisibilityControl,
-  IndeterminateCheckbox, renderEmptyMessage,
-  RowVisibilityCount
+  IndeterminateCheckbox, renderEmptyMessage
 } from 'util/tableUtils'
 import LoadingSpinner from 'util/LoadingSpinner'
 import { instantToDateString } from 'util/timeUtils'
@@ -28,23 +25,28 @@ import { useLoadingEffect } from 'api/api-utils'
 import { enrolleeKitRequestPath } from '../participants/enrolleeView/EnrolleeView'
 import { Button } from 'components/forms/Button'
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome'
-import { faPaperPlane } from '@fortawesome/free-solid-svg-icons'
+import { faCaretLeft, faCaretRight, faPaperPlane } from '@fortawesome/free-solid-svg-icons'
 
-type EnrolleeRow = Enrollee & {
-  taskCompletionStatus: Record<string, boolean>
+const emptyPage: EnrolleeKitSummaryPage = { summaries: [], totalCount: 0, requiredSurveyCount: 0 }
+
+/** the filter value for the column, if it's a boolean (i.e. a filter option is selected) */
+const booleanFilter = (columnFilters: ColumnFiltersState, id: string): boolean | undefined => {
+  const value = columnFilters.find(filter => filter.id === id)?.value
+  return typeof value === 'boolean' ? value : undefined
 }
 
 /**
- * Interface for filtering/selecting enrollees who should receive sample kits.
+ * Interface for filtering/selecting enrollees who should receive sample kits.  The enrollees are paged, filtered
+ * and sorted on the server, from the precomputed kit summaries, so this stays fast for large studies.  Rows are
+ * keyed by shortcode, so selections are kept when moving between pages.
  */
 export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvContext: StudyEnvContextT }) {
   const { portal, study, currentEnv, currentEnvPath } = studyEnvContext
-  const [enrollees, setEnrollees] = useState<EnrolleeRow[]>([])
+  const [page, setPage] = useState<EnrolleeKitSummaryPage>(emptyPage)
   const [sorting, setSorting] = React.useState<SortingState>([
-    { id: 'createdAt', desc: true },
-    { id: 'optionalSurveys', desc: true }
-
+    { id: 'createdAt', desc: true }
   ])
+  const [pagination, setPagination] = useState<PaginationState>({ pageIndex: 0, pageSize: 25 })
   const [rowSelection, setRowSelection] = useState<Record<string, boolean>>({})
   const [columnVisibility, setColumnVisibility] = useState<VisibilityState>({})
   const [columnFilters, setColumnFilters] = useState<ColumnFiltersState>([
@@ -56,43 +58,31 @@ export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvCont
 
 
   const { isLoading, reload } = useLoadingEffect(async () => {
-    const enrollees = await Api.fetchEnrolleesWithKits(
-      portal.shortcode, study.shortcode, currentEnv.environmentName)
-    const enrolleeRows = enrollees.map(enrollee => {
-      const taskCompletionStatus = _mapValues(
-        _keyBy(enrollee.participantTasks, task => task.targetStableId),
-        task => task.status === 'COMPLETE'
-      )
-
-      return { ...enrollee, taskCompletionStatus }
-    })
-    setEnrollees(enrolleeRows)
-  }, [studyEnvContext.study.shortcode, studyEnvContext.currentEnv.environmentName])
+    const sort = sorting[0] ?? { id: 'createdAt', desc: true }
+    const summaryPage = await Api.fetchEnrolleeKitSummaries(
+      portal.shortcode, study.shortcode, currentEnv.environmentName, {
+        consented: booleanFilter(columnFilters, 'consented'),
+        requiredSurveysComplete: booleanFilter(columnFilters, 'requiredSurveysComplete'),
+        kitRequested: booleanFilter(columnFilters, 'kitRequested'),
+        sortProperty: sort.id,
+        sortDir: sort.desc ? 'desc' : 'asc',
+        pageIndex: pagination.pageIndex,
+        pageSize: pagination.pageSize
+      })
+    setPage(summaryPage)
+  }, [studyEnvContext.study.shortcode, studyEnvContext.currentEnv.environmentName,
+    columnFilters, sorting, pagination])
 
   const onSubmit = async () => {
     setShowRequestKitModal(false)
+    setRowSelection({})
     reload()
   }
-  const enrolleesSelected = Object.keys(rowSelection)
-    .filter(key => rowSelection[key])
-    .map(key => enrollees[parseInt(key)].shortcode)
+  const enrolleesSelected = Object.keys(rowSelection).filter(key => rowSelection[key])
   const numSelected = enrolleesSelected.length
   const enableActionButtons = numSelected > 0
 
-  const requiredSurveys = currentEnv.configuredSurveys.filter(survey => survey.required)
-  const hasCompletedAllRequiredSurveys = (enrollee: Enrollee) => {
-    return enrollee.participantTasks.filter(
-      task => task.blocksHub && task.status === 'COMPLETE' && task.taskType === 'SURVEY'
-    ).length === requiredSurveys.length
-  }
-  const optionalSurveysCompleted = (enrollee: Enrollee) => {
-    return enrollee.participantTasks.filter(
-      task => !task.blocksHub && task.status === 'COMPLETE' && task.taskType === 'SURVEY'
-    ).length
-  }
-
-
-  const columns: ColumnDef<EnrolleeRow, string | boolean | number>[] = [{
+  const columns: ColumnDef<EnrolleeKitSummary, string | boolean | number>[] = [{
     id: 'select',
     header: ({ table }) => <IndeterminateCheckbox
       checked={table.getIsAllRowsSelected()} indeterminate={table.getIsSomeRowsSelected()}
@@ -106,18 +96,23 @@ export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvCont
     )
   }, {
     header: 'Enrollee shortcode',
-    accessorKey: 'shortcode',
+    id: 'shortcode',
+    accessorKey: 'enrolleeShortcode',
+    enableColumnFilter: false,
     meta: {
       columnType: 'string'
     },
     cell: data => <Link to={enrolleeKitRequestPath(currentEnvPath, data.getValue().toString())}>{data.getValue()}</Link>
   }, {
     header: 'Join date',
-    accessorKey: 'createdAt',
+    id: 'createdAt',
+    accessorKey: 'enrolleeCreatedAt',
+    enableColumnFilter: false,
     cell: data => instantToDateString(Number(data.getValue()))
   }, {
     header: 'Consented',
     accessorKey: 'consented',
+    enableSorting: false,
     meta: {
       columnType: 'boolean',
       filterOptions: [
@@ -130,7 +125,8 @@ export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvCont
   }, {
     header: 'Required surveys complete',
     id: 'requiredSurveysComplete',
-    accessorFn: enrollee => hasCompletedAllRequiredSurveys(enrollee),
+    accessorFn: summary => summary.requiredSurveysCompleted >= page.requiredSurveyCount,
+    enableSorting: false,
     meta: {
       columnType: 'boolean',
       filterOptions: [
@@ -142,13 +138,14 @@ export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvCont
     cell: checkboxColumnCell
   }, {
     header: '# Optional surveys complete',
-    id: 'optionalSurveys',
+    id: 'optionalSurveysCompleted',
     enableColumnFilter: false,
-    accessorFn: enrollee => optionalSurveysCompleted(enrollee)
+    accessorKey: 'optionalSurveysCompleted'
   }, {
     header: 'Kit requested',
     id: 'kitRequested',
-    accessorFn: enrollee => enrollee.kitRequests.length !== 0,
+    accessorFn: summary => summary.kitRequestCount !== 0,
+    enableSorting: false,
     meta: {
       columnType: 'boolean',
       filterOptions: [
@@ -161,23 +158,34 @@ export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvCont
   }]
 
   const table = useReactTable({
-    data: enrollees,
+    data: page.summaries,
     columns,
-    state: { columnVisibility, rowSelection, columnFilters, sorting },
+    state: { columnVisibility, rowSelection, columnFilters, sorting, pagination },
+    getRowId: summary => summary.enrolleeShortcode,
     enableRowSelection: true,
-    onSortingChange: setSorting,
+    enableMultiSort: false,
+    manualFiltering: true,
+    manualSorting: true,
+    manualPagination: true,
+    pageCount: Math.ceil(page.totalCount / pagination.pageSize),
+    onSortingChange: updater => {
+      setSorting(updater)
+      setPagination({ ...pagination, pageIndex: 0 })
+    },
     onRowSelectionChange: setRowSelection,
     onColumnVisibilityChange: setColumnVisibility,
-    onColumnFiltersChange: setColumnFilters,
-    getCoreRowModel: getCoreRowModel(),
-    getSortedRowModel: getSortedRowModel(),
-    getFilteredRowModel: getFilteredRowModel()
+    onColumnFiltersChange: updater => {
+      setColumnFilters(updater)
+      setPagination({ ...pagination, pageIndex: 0 })
+    },
+    onPaginationChange: setPagination,
+    getCoreRowModel: getCoreRowModel()
   })
 
   return <LoadingSpinner isLoading={isLoading}>
     <div className="d-flex align-items-center justify-content-between">
       <div className="d-flex align-items-center">
-        <RowVisibilityCount table={table}/>
+        <span>{numSelected} selected of {page.totalCount} matching participants</span>
       </div>
       <div className="d-flex">
         <Button onClick={() => { setShowRequestKitModal(true) }}
@@ -194,6 +202,17 @@ export default function KitEnrolleeSelection({ studyEnvContext }: { studyEnvCont
       </div>
     </div>
     { basicTableLayout(table, { filterable: true }) }
-    { renderEmptyMessage(enrollees, 'No participants') }
+    { renderEmptyMessage(page.summaries, 'No participants') }
+    <div className="d-flex justify-content-end align-items-center">
+      <button aria-label="Previous page" className="btn btn-light border m-1"
+        onClick={() => table.previousPage()} disabled={!table.getCanPreviousPage()}>
+        <FontAwesomeIcon icon={faCaretLeft} className="fa-sm"/>
+      </button>
+      <span>Page {pagination.pageIndex + 1} of {Math.max(table.getPageCount(), 1)}</span>
+      <button aria-label="Next page" className="btn btn-light border m-1"
+        onClick={() => table.nextPage()} disabled={!table.getCanNextPage()}>
+        <FontAwesomeIcon icon={faCaretRight} className="fa-sm"/>
+      </button>
+    </div>
   </LoadingSpinner>
 }
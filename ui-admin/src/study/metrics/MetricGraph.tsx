@@ -1,57 +1,42 @@
-import React, { useState } from 'react'
-import { StudyEnvContextT } from '../StudyEnvironmentRouter'
-import Api, { BasicMetricDatum } from 'api/api'
-import LoadingSpinner from 'util/LoadingSpinner'
+import React, { useMemo } from 'react'
+import { BucketedMetricDatum } from 'api/api'
 import { cloneDeep } from 'lodash'
 import { MetricInfo } from './StudyEnvMetricsView'
 import Plot from 'react-plotly.js'
 import { instantToDefaultString } from 'util/timeUtils'
-import { useLoadingEffect } from 'api/api-utils'
 
 const EXPORT_DELIMITER = '\t'
 
 /**
- * Shows a plot for a specified metric.  Handles fetching the raw metrics from the server, transforming them to
- * plotly traces, and then rendering a graph
+ * Shows a plot for a specified metric.  Handles transforming the daily metric counts (fetched by the parent view)
+ * to plotly traces, and then rendering a graph
  */
-export default function MetricGraph({ studyEnvContext, metricInfo }: {studyEnvContext: StudyEnvContextT,
-  metricInfo: MetricInfo}) {
-  const [metricData, setMetricData] = useState<BasicMetricDatum[] | null>(null)
-  const [plotlyTraces, setPlotlyTraces] = useState<PlotlyTimeTrace[] | null>(null)
-
-  const { isLoading } = useLoadingEffect(async () => {
-    const result = await Api.fetchMetric(studyEnvContext.portal.shortcode, studyEnvContext.study.shortcode,
-      studyEnvContext.currentEnv.environmentName, metricInfo.name)
-    setPlotlyTraces(makePlotlyTraces(result))
-    setMetricData(result)
-  }, [metricInfo.name, studyEnvContext.study.shortcode, studyEnvContext.currentEnv.environmentName])
+export default function MetricGraph({ metricInfo, metricData }: {metricInfo: MetricInfo,
+  metricData: BucketedMetricDatum[]}) {
+  const plotlyTraces = useMemo(() => makePlotlyTraces(metricData), [metricData])
 
   const copyRawData = () => {
-    if (!metricData) {
-      return
-    }
-    let dataString = `${['name', 'subcategory', 'time'].join(EXPORT_DELIMITER)  }\n`
+    let dataString = `${['name', 'subcategory', 'day', 'count'].join(EXPORT_DELIMITER)  }\n`
     dataString += metricData.map(metricDatum =>
-      [metricInfo.name, metricDatum.subcategory, instantToDefaultString(metricDatum.time)].join(EXPORT_DELIMITER)
+      [metricInfo.name, metricDatum.subcategory, instantToDefaultString(metricDatum.bucket), metricDatum.count]
+        .join(EXPORT_DELIMITER)
     ).join('\n')
     navigator.clipboard.writeText(dataString)
   }
-  const hasDataToPlot = !!plotlyTraces?.length && plotlyTraces[0].x.length
+  const hasDataToPlot = !!plotlyTraces.length && plotlyTraces[0].x.length
   return <div className="p-2">
-    <LoadingSpinner isLoading={isLoading}>
-      <div className="d-flex align-items-baseline">
-        <h2 className="h5">{metricInfo.title} <span className="text-muted">(cumulative)</span> </h2>
-        <button className="btn btn-secondary ms-3" onClick={copyRawData}>Copy raw data</button>
-      </div>
-      { hasDataToPlot && <Plot
-        // eslint-disable-next-line
-        data={plotlyTraces as any ?? []}
-        layout={{ height: 300, yaxis: { rangemode: 'tozero', autorange: true } }}
-      />}
-      { !hasDataToPlot && <div>
-        <span className="text-muted fst-italic">No data</span>
-      </div>}
-    </LoadingSpinner>
+    <div className="d-flex align-items-baseline">
+      <h2 className="h5">{metricInfo.title} <span className="text-muted">(cumulative)</span> </h2>
+      <button className="btn btn-secondary ms-3" onClick={copyRawData}>Copy raw data</button>
+    </div>
+    { hasDataToPlot && <Plot
+      // eslint-disable-next-line
+      data={plotlyTraces as any}
+      layout={{ height: 300, yaxis: { rangemode: 'tozero', autorange: true } }}
+    />}
+    { !hasDataToPlot && <div>
+      <span className="text-muted fst-italic">No data</span>
+    </div>}
   </div>
 }
 
@@ -60,7 +45,6 @@ type PlotlyTimeTrace = {
   y: number[],
   type: string,
   name: string,
-  xbins: { size: number},
   yOffset: number
 }
 
@@ -68,17 +52,16 @@ const emptyTrace: PlotlyTimeTrace = {
   x: [],
   y: [],
   type: 'line',
-  xbins: { size: 86400000 }, // bin is one day -- eventually this should be changeable via dropdown
   name: 'trace',
   yOffset: 0
 }
 
 export const JITTER_AMOUNT = 0.05
 /**
- * transform the list of datapoints into plotly traces, one trace per subcategory.  Other than using a for-loop,
- * this is not performance optimized since we're assuming the size of the metrics[] in the near term will be <10000
+ * transform the list of bucket counts into plotly traces, one trace per subcategory.  The server returns one datum
+ * per (bucket, subcategory), sorted by bucket, so this is linear in the number of buckets
  * */
-export const makePlotlyTraces = (metrics: BasicMetricDatum[]): PlotlyTimeTrace[] => {
+export const makePlotlyTraces = (metrics: BucketedMetricDatum[]): PlotlyTimeTrace[] => {
   const tracesByName: Record<string, PlotlyTimeTrace> = {}
   for (let i = 0; i < metrics.length; i++) {
     const metric = metrics[i]
@@ -93,9 +76,10 @@ export const makePlotlyTraces = (metrics: BasicMetricDatum[]): PlotlyTimeTrace[]
       }
       tracesByName[subcategory] = trace
     }
-    trace.x.push(new Date(metric.time * 1000))
-    // since this is a cumulative graph, the y value is just the number of points so far, plus a jitter for visibility
-    trace.y.push(trace.x.length + trace.yOffset)
+    // since this is a cumulative graph, the y value is the running total, plus a jitter for visibility
+    const previousTotal = trace.y.length ? trace.y[trace.y.length - 1] : trace.yOffset
+    trace.x.push(new Date(metric.bucket * 1000))
+    trace.y.push(previousTotal + metric.count)
   }
   return Object.values(tracesByName)
 }
@@ -1,7 +1,10 @@
-import React from 'react'
+import React, { useState } from 'react'
 import { StudyEnvContextT } from '../StudyEnvironmentRouter'
 import MetricGraph from './MetricGraph'
 import { renderPageHeader } from 'util/pageUtils'
+import Api, { BucketedMetricDatum } from 'api/api'
+import LoadingSpinner from 'util/LoadingSpinner'
+import { useLoadingEffect } from 'api/api-utils'
 
 export type MetricInfo = {
   name: string,
@@ -15,25 +18,31 @@ const metricMetadata: MetricInfo[] = [
   { name: 'STUDY_SURVEY_COMPLETION', title: 'Total survey completions' }
 ]
 
-/** shows summary stats for the study.  very simple for now--this will eventually have charts and graphs */
+/**
+ * shows summary stats for the study.  All the metrics are fetched in a single request, so the page costs one
+ * authorization and one query rather than one per graph
+ */
 export default function StudyEnvMetricsView({ studyEnvContext }: {studyEnvContext: StudyEnvContextT}) {
-  const metricsByName = metricMetadata.reduce<Record<string, MetricInfo>>((prev,
-    current) => {
-    prev[current.name] = current
-    return prev
-  }, {})
+  const [metricData, setMetricData] = useState<Record<string, BucketedMetricDatum[]>>({})
+
+  const { isLoading } = useLoadingEffect(async () => {
+    const result = await Api.fetchMetricsDashboard(studyEnvContext.portal.shortcode, studyEnvContext.study.shortcode,
+      studyEnvContext.currentEnv.environmentName, metricMetadata.map(metricInfo => metricInfo.name), 'day')
+    setMetricData(result)
+  }, [studyEnvContext.study.shortcode, studyEnvContext.currentEnv.environmentName])
+
   return <div className="container-fluid px-4 py-2">
     { renderPageHeader('Participant Analytics') }
     <div className="row">
       <h4>{studyEnvContext.study.name} Summary
         <span className="fst-italic text-muted ms-3">({studyEnvContext.currentEnv.environmentName})</span>
       </h4>
-      <div className="mt-2">
-        <MetricGraph studyEnvContext={studyEnvContext} metricInfo={metricsByName['STUDY_ENROLLMENT']}/>
-        <MetricGraph studyEnvContext={studyEnvContext} metricInfo={metricsByName['STUDY_ENROLLEE_CONSENTED']}/>
-        <MetricGraph studyEnvContext={studyEnvContext} metricInfo={metricsByName['STUDY_REQUIRED_SURVEY_COMPLETION']}/>
-        <MetricGraph studyEnvContext={studyEnvContext} metricInfo={metricsByName['STUDY_SURVEY_COMPLETION']}/>
-      </div>
+      <LoadingSpinner isLoading={isLoading}>
+        <div className="mt-2">
+          { metricMetadata.map(metricInfo => <MetricGraph key={metricInfo.name} metricInfo={metricInfo}
+            metricData={metricData[metricInfo.name] ?? []}/>) }
+        </div>
+      </LoadingSpinner>
     </div>
   </div>
 }